@@ -0,0 +1,69 @@
+/**
+ * @file AnalyticsBenchmark.java
+ * @brief Compares sequential and fork-join computation of the roster statistics.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class AnalyticsBenchmark
+ * @brief Times StudentRepository.statistics() on the calling thread and on the common pool.
+ *
+ * The parallel run should approach the sequential time divided by the number of
+ * cores; set the pool size with
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism=N in jvmArgsAppend to
+ * measure how it scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AnalyticsBenchmark {
+
+    @Param({"100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private StudentRepository repository;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        repository = RosterFixtures.repository(RosterFixtures.students(rosterSize));
+    }
+
+    /**
+     * @brief Computes the statistics on the benchmark thread.
+     *
+     * @return The statistics, consumed by JMH.
+     */
+    @Benchmark
+    public Object sequential() {
+        return repository.statistics(false);
+    }
+
+    /**
+     * @brief Computes the statistics on the common fork-join pool.
+     *
+     * @return The statistics, consumed by JMH.
+     */
+    @Benchmark
+    public Object parallel() {
+        return repository.statistics(true);
+    }
+}
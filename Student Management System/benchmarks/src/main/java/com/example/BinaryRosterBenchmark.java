@@ -0,0 +1,128 @@
+/**
+ * @file BinaryRosterBenchmark.java
+ * @brief Measures encoding, decoding and file round trips of the binary roster format.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class BinaryRosterBenchmark
+ * @brief Times the binary roster format in memory and through a file.
+ *
+ * PLAIN writes every name out, DICTIONARY refers to repeated names within a
+ * block and COMPRESSED also compresses the blocks. encode and decode run in
+ * memory, so they show the speed of the codec alone; dumpFile and loadFile
+ * include the file system, and the file size printed at the end of each trial
+ * divided by their times gives the throughput to compare with the disk's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BinaryRosterBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int rosterSize;
+
+    @Param({"PLAIN", "DICTIONARY", "COMPRESSED"})
+    public String format;
+
+    private Path directory;
+    private Path file;
+    private Iterable<Student> roster;
+    private ByteBuffer encoded;
+
+    @Setup(Level.Trial)
+    public void createRoster() throws IOException {
+        roster = Arrays.asList(RosterFixtures.students(rosterSize));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rosterSize * 8);
+        exporter().exportTo(Channels.newChannel(out), roster);
+        byte[] bytes = out.toByteArray();
+        encoded = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        directory = Files.createTempDirectory("roster-benchmark");
+        file = directory.resolve("students" + StudentBinaryExporter.EXTENSION);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRoster() throws IOException {
+        System.out.printf(Locale.ROOT, "%n%s roster of %d students: %d bytes, %.2f bytes per student%n",
+                format, rosterSize, encoded.limit(), (double) encoded.limit() / rosterSize);
+        Files.deleteIfExists(file);
+        Files.delete(directory);
+    }
+
+    /**
+     * @brief Encodes the roster to a discarding channel.
+     *
+     * @return The number of students written, consumed by JMH.
+     */
+    @Benchmark
+    public long encode() throws IOException {
+        return exporter().exportTo(Channels.newChannel(OutputStream.nullOutputStream()), roster);
+    }
+
+    /**
+     * @brief Decodes the roster from a direct buffer without building a repository.
+     *
+     * @return The number of students decoded, consumed by JMH.
+     */
+    @Benchmark
+    public long decode(Blackhole blackhole) throws IOException {
+        return new StudentBinaryImporter(new StudentRepository()).decode(encoded, blackhole::consume);
+    }
+
+    /**
+     * @brief Writes the roster to a file.
+     *
+     * @return The number of students written, consumed by JMH.
+     */
+    @Benchmark
+    public long dumpFile() throws IOException {
+        return exporter().exportTo(file, roster);
+    }
+
+    /**
+     * @brief Loads the file written by dumpFile into an empty columnar repository.
+     *
+     * @return The number of imported students, consumed by JMH.
+     */
+    @Benchmark
+    public long loadFile() throws IOException {
+        if (!Files.exists(file)) {
+            exporter().exportTo(file, roster);
+        }
+        return new StudentBinaryImporter(StudentRepository.columnar()).importFrom(file).getImportedCount();
+    }
+
+    private StudentBinaryExporter exporter() {
+        return new StudentBinaryExporter(!format.equals("PLAIN"), format.equals("COMPRESSED"));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * @file CacheBenchmark.java
+ * @brief Measures Zipfian ID lookups through the student cache over the mapped store.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * @class CacheBenchmark
+ * @brief Times find() over a MappedStudentStore with no cache, an LRU cache and a W-TinyLFU cache.
+ *
+ * Lookups follow a Zipf distribution with exponent 0.99 over the whole roster,
+ * the usual model of a few active students getting most of the traffic. The
+ * cache hit rate of each trial is printed when it ends; at the same cache size,
+ * W-TinyLFU should hit more often than LRU.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CacheBenchmark {
+
+    private static final int ID_SEQUENCE_LENGTH = 1 << 20;
+
+    @Param({"1000000"})
+    public int rosterSize;
+
+    @Param({"NONE", "LRU", "TINY_LFU"})
+    public String policy;
+
+    @Param({"1000", "10000", "100000"})
+    public int cacheSize;
+
+    private Path directory;
+    private MappedStudentStore mapped;
+    private StudentStore store;
+    private StudentRepository repository;
+    private int[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void createRoster() throws IOException {
+        directory = Files.createTempDirectory("cache-benchmark");
+        mapped = MappedStudentStore.open(directory, FsyncPolicy.NEVER);
+        for (Student student : RosterFixtures.students(rosterSize)) {
+            mapped.add(student);
+        }
+        store = policy.equals("NONE") ? mapped
+                : new CachingStudentStore(mapped, cacheSize, CachePolicy.valueOf(policy));
+        repository = new StudentRepository(store);
+        ids = RosterFixtures.zipfianIds(ID_SEQUENCE_LENGTH, rosterSize, 0.99);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRoster() throws IOException {
+        System.out.printf(Locale.ROOT, "%n%s cache of %d: hit rate %.3f%n", policy, cacheSize,
+                store.cacheHitRate());
+        mapped.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /**
+     * @brief Looks up the next ID of the Zipfian sequence.
+     *
+     * @return The student found, consumed by JMH.
+     */
+    @Benchmark
+    public Object lookup() {
+        return repository.find(ids[cursor++ & (ID_SEQUENCE_LENGTH - 1)]).orElse(null);
+    }
+}
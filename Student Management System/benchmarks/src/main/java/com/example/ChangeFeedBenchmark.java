@@ -0,0 +1,111 @@
+/**
+ * @file ChangeFeedBenchmark.java
+ * @brief Measures what publishing to the change feed adds to a write.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class ChangeFeedBenchmark
+ * @brief Times remove/re-add pairs on a concurrent repository with and without a feed.
+ *
+ * With "none", changes() is never called and writes publish nothing. With
+ * "idle", the feed exists but nobody reads it; with "slow", a subscriber thread
+ * sleeps a millisecond after every batch, so it falls behind and is overrun.
+ * Writers never wait for subscribers, so "slow" should cost the same as "idle".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ChangeFeedBenchmark {
+
+    private static final int ROSTER_SIZE = 100_000;
+
+    @Param({"none", "idle", "slow"})
+    public String feed;
+
+    private StudentRepository repository;
+    private Student[] students;
+    private Thread subscriber;
+
+    /**
+     * @class ThreadCursor
+     * @brief Per-thread position in the roster.
+     */
+    @State(Scope.Thread)
+    public static class ThreadCursor {
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void pickStart() {
+            cursor = System.identityHashCode(this);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        students = RosterFixtures.students(ROSTER_SIZE);
+        repository = StudentRepository.concurrent();
+        repository.addAll(Arrays.asList(students));
+        if (!feed.equals("none")) {
+            ChangeFeed changes = repository.changes();
+            if (feed.equals("slow")) {
+                subscriber = Thread.ofPlatform().daemon().start(() -> {
+                    ChangeFeed.Subscription subscription = changes.subscribe(changes.nextSequence());
+                    while (!Thread.currentThread().isInterrupted()) {
+                        try {
+                            subscription.poll(64, 1, TimeUnit.SECONDS);
+                            Thread.sleep(1);
+                        } catch (IllegalStateException e) {
+                            subscription = changes.subscribe(changes.nextSequence());
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopSubscriber() {
+        if (subscriber != null) {
+            subscriber.interrupt();
+        }
+    }
+
+    /**
+     * @brief Removes a student and adds it back, publishing two events when there is a feed.
+     *
+     * @param thread The calling thread's position in the roster.
+     * @return The add result, consumed by JMH.
+     */
+    @Benchmark
+    public Object removeAndAdd(ThreadCursor thread) {
+        Student student = students[Math.floorMod(thread.cursor++, ROSTER_SIZE)];
+        repository.remove(student.getStudentId());
+        return repository.add(student);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * @file CommandBenchmark.java
+ * @brief Measures command mode throughput on a scripted session.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class CommandBenchmark
+ * @brief Times StudentCommandRunner against a Scanner loop that prints and flushes every result.
+ *
+ * The script adds COMMAND_COUNT / 2 students and mixes in lookups and removals,
+ * so every invocation starts from an empty repository and the score is the
+ * number of commands per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+
+    private static final int COMMAND_COUNT = 100_000;
+
+    private byte[] script;
+
+    @Setup(Level.Trial)
+    public void createScript() {
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder commands = new StringBuilder(COMMAND_COUNT * 16);
+        int nextId = 1;
+        for (int i = 0; i < COMMAND_COUNT; i++) {
+            int kind = i % 4;
+            if (kind < 2) {
+                commands.append("ADD ").append(nextId++).append(" Student Name ").append(18 + random.nextInt(30));
+            } else if (kind == 2) {
+                commands.append("GET ").append(1 + random.nextInt(nextId));
+            } else {
+                commands.append("DEL ").append(1 + random.nextInt(nextId));
+            }
+            commands.append('\n');
+        }
+        script = commands.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @brief Runs the script through the command runner.
+     *
+     * @return The number of commands run, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(COMMAND_COUNT)
+    public long commandRunner() throws IOException {
+        return new StudentCommandRunner(new StudentRepository())
+                .run(new ByteArrayInputStream(script), OutputStream.nullOutputStream());
+    }
+
+    /**
+     * @brief Runs the script with a Scanner and a flushing PrintStream, one line at a time.
+     *
+     * @return The number of commands run, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(COMMAND_COUNT)
+    public long scannerPerLine() {
+        StudentRepository repository = new StudentRepository();
+        PrintStream out = new PrintStream(OutputStream.nullOutputStream(), true);
+        Scanner scanner = new Scanner(new ByteArrayInputStream(script), StandardCharsets.US_ASCII);
+        long count = 0;
+        while (scanner.hasNextLine()) {
+            String[] tokens = scanner.nextLine().split(" ");
+            int studentId = Integer.parseInt(tokens[1]);
+            StudentResult result = switch (tokens[0]) {
+                case "ADD" -> repository.add(new Student(studentId, tokens[2] + " " + tokens[3],
+                        Integer.parseInt(tokens[4])));
+                case "DEL" -> repository.remove(studentId);
+                default -> repository.find(studentId).map(StudentResult::success)
+                        .orElse(StudentResult.failure(StudentError.NOT_FOUND));
+            };
+            out.println(result.isSuccess() ? "OK " + result.getStudent() : "ERR " + result.getError().message(studentId));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * @file ContentionBenchmark.java
+ * @brief Measures repository throughput with many threads sharing one roster.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class ContentionBenchmark
+ * @brief Times a mix of lookups and remove/re-add pairs on a shared repository.
+ *
+ * The concurrent store is compared with the single-threaded StudentIndex behind
+ * one global lock, the simplest way to make the old store thread-safe. Run the
+ * benchmark with -t 1, -t 2, -t 4 and so on up to the core count; the total
+ * throughput of the concurrent store should grow with the thread count, while
+ * the locked baseline stays flat or drops.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class ContentionBenchmark {
+
+    private static final int ID_SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"100000", "1000000"})
+    public int rosterSize;
+
+    @Param({"concurrent", "global-lock"})
+    public String store;
+
+    @Param({"100", "90", "50"})
+    public int readPercent;
+
+    private StudentRepository repository;
+    private Student[] students;
+
+    /**
+     * @class ThreadCursor
+     * @brief Per-thread random walk over the roster.
+     */
+    @State(Scope.Thread)
+    public static class ThreadCursor {
+        private int[] indexes;
+        private boolean[] reads;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void createSequence(ContentionBenchmark benchmark) {
+            SplittableRandom random = new SplittableRandom(System.identityHashCode(this));
+            indexes = new int[ID_SEQUENCE_LENGTH];
+            reads = new boolean[ID_SEQUENCE_LENGTH];
+            for (int i = 0; i < ID_SEQUENCE_LENGTH; i++) {
+                indexes[i] = random.nextInt(benchmark.rosterSize);
+                reads[i] = random.nextInt(100) < benchmark.readPercent;
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        students = RosterFixtures.students(rosterSize);
+        StudentStore studentStore = switch (store) {
+            case "concurrent" -> new ConcurrentStudentStore();
+            case "global-lock" -> new GlobalLockStore(new StudentIndex(rosterSize));
+            default -> throw new IllegalArgumentException("Unknown store: " + store);
+        };
+        repository = new StudentRepository(studentStore);
+        repository.addAll(Arrays.asList(students));
+    }
+
+    /**
+     * @brief Looks up a student, or removes one and adds it back.
+     *
+     * @param thread The calling thread's position in its operation sequence.
+     * @return The operation result, consumed by JMH.
+     */
+    @Benchmark
+    public Object mixedOperation(ThreadCursor thread) {
+        int i = thread.cursor++ & (ID_SEQUENCE_LENGTH - 1);
+        Student student = students[thread.indexes[i]];
+        if (thread.reads[i]) {
+            return repository.find(student.getStudentId()).orElse(null);
+        }
+        StudentResult result = repository.remove(student.getStudentId());
+        repository.add(student);
+        return result;
+    }
+
+    /**
+     * @class GlobalLockStore
+     * @brief Makes any store thread-safe by serializing every call on one lock.
+     */
+    static final class GlobalLockStore implements StudentStore {
+        private final StudentStore delegate;
+
+        GlobalLockStore(StudentStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public synchronized Student get(int studentId) {
+            return delegate.get(studentId);
+        }
+
+        @Override
+        public synchronized boolean add(Student student) {
+            return delegate.add(student);
+        }
+
+        @Override
+        public synchronized Student remove(int studentId) {
+            return delegate.remove(studentId);
+        }
+
+        @Override
+        public synchronized int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public synchronized void ensureCapacity(int expectedSize) {
+            delegate.ensureCapacity(expectedSize);
+        }
+
+        @Override
+        public synchronized Iterator<Student> iterator() {
+            return Arrays.asList(delegate.stream().toArray(Student[]::new)).iterator();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * @file CsvImportBenchmark.java
+ * @brief Measures bulk CSV import and export throughput.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class CsvImportBenchmark
+ * @brief Times importing and exporting a whole roster as CSV held in memory.
+ *
+ * Keeping the file in memory isolates parsing, validation and batching from disk
+ * speed; the score is the time for the whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CsvImportBenchmark {
+
+    @Param({"100000", "1000000", "2000000"})
+    public int rowCount;
+
+    private byte[] csv;
+    private StudentRepository roster;
+
+    @Setup(Level.Trial)
+    public void createCsv() throws IOException {
+        roster = RosterFixtures.repository(RosterFixtures.students(rowCount));
+        ByteArrayOutputStream out = new ByteArrayOutputStream(rowCount * 16);
+        new StudentCsvExporter().exportTo(out, roster.students());
+        csv = out.toByteArray();
+    }
+
+    /**
+     * @brief Imports the whole CSV into an empty repository.
+     *
+     * @return The number of imported rows, consumed by JMH.
+     */
+    @Benchmark
+    public long importCsv() throws IOException {
+        StudentRepository repository = new StudentRepository();
+        return new StudentCsvImporter(repository).importFrom(new ByteArrayInputStream(csv)).getImportedCount();
+    }
+
+    /**
+     * @brief Exports the whole roster to a discarding stream.
+     *
+     * @return The number of exported rows, consumed by JMH.
+     */
+    @Benchmark
+    public long exportCsv() throws IOException {
+        return new StudentCsvExporter().exportTo(OutputStream.nullOutputStream(), roster.students());
+    }
+}
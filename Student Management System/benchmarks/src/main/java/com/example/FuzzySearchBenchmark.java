@@ -0,0 +1,117 @@
+/**
+ * @file FuzzySearchBenchmark.java
+ * @brief Measures typo-tolerant name search on large rosters.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class FuzzySearchBenchmark
+ * @brief Times StudentRepository.findBySimilarName() with one or two typos in the query.
+ *
+ * RosterFixtures repeats ten names, which would make the trigram index trivially
+ * small, so this roster draws first and last names from syllables, for about
+ * 250,000 distinct full names. Queries are a first name, a last name or a full
+ * name of the roster with one or two random edits. The 5M roster needs a
+ * large heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FuzzySearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+        "ma", "ri", "al", "sa", "ha", "mo", "mu", "ed", "na", "la", "ka", "ir", "om", "an", "el", "yu", "fa", "ti",
+        "ra", "be"
+    };
+    private static final int QUERY_COUNT = 1024;
+    private static final int LIMIT = 20;
+
+    @Param({"1000000", "5000000"})
+    public int rosterSize;
+
+    private StudentRepository repository;
+    private String[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] firstNames = names(random, 500);
+        String[] lastNames = names(random, 500);
+        repository = new StudentRepository(new StudentIndex(rosterSize));
+        for (int id = 1; id <= rosterSize; id++) {
+            repository.add(new Student(id, firstNames[random.nextInt(firstNames.length)] + " "
+                    + lastNames[random.nextInt(lastNames.length)], 17 + id % 10));
+        }
+
+        queries = new String[QUERY_COUNT];
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            String first = firstNames[random.nextInt(firstNames.length)];
+            String last = lastNames[random.nextInt(lastNames.length)];
+            String name = switch (random.nextInt(3)) {
+                case 0 -> first;
+                case 1 -> last;
+                default -> first + " " + last;
+            };
+            queries[q] = typos(random, name, 1 + random.nextInt(2));
+        }
+    }
+
+    /**
+     * @brief Finds the students closest to the next misspelled name.
+     *
+     * @return The students found, consumed by JMH.
+     */
+    @Benchmark
+    public List<Student> findBySimilarName() {
+        return repository.findBySimilarName(queries[next++ & (QUERY_COUNT - 1)], LIMIT);
+    }
+
+    private static String[] names(SplittableRandom random, int count) {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int s = 2 + random.nextInt(2); s > 0; s--) {
+                name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            names[i] = name.toString();
+        }
+        return names;
+    }
+
+    private static String typos(SplittableRandom random, String name, int edits) {
+        StringBuilder typed = new StringBuilder(name);
+        for (int e = 0; e < edits; e++) {
+            int at = 1 + random.nextInt(typed.length() - 1);
+            char letter = (char) ('a' + random.nextInt(26));
+            switch (random.nextInt(3)) {
+                case 0 -> typed.deleteCharAt(at);
+                case 1 -> typed.insert(at, letter);
+                default -> typed.setCharAt(at, letter);
+            }
+        }
+        return typed.toString();
+    }
+}
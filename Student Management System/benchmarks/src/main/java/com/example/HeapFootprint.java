@@ -0,0 +1,98 @@
+/**
+ * @file HeapFootprint.java
+ * @brief Measures the heap each in-memory roster layout needs per student.
+ *
+ * Heap size is not something JMH measures, so this is a plain program: it fills
+ * one layout at a time, collects garbage, and reports the growth in used heap.
+ */
+
+package com.example;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * @class HeapFootprint
+ * @brief Prints bytes per student for each roster layout.
+ *
+ * Every student gets its own name String, as students read from a CSV file or a
+ * terminal would, so the object layouts pay for their names in full. Run it with a
+ * heap large enough for the largest layout, for example:
+ *
+ *     java -Xmx4g -cp target/benchmarks.jar com.example.HeapFootprint 10000000
+ */
+public final class HeapFootprint {
+
+    private static final String[] NAMES = {
+            "Ali", "Sara", "Omar", "Maria", "John", "Fatima", "Mohammed", "Emma", "Lucas", "Aisha"
+    };
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private HeapFootprint() {
+    }
+
+    /**
+     * @brief Entry point.
+     *
+     * @param args The roster size, 1,000,000 by default.
+     */
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        report("ArrayList<Student>", size, n -> {
+            List<Student> students = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                students.add(student(i));
+            }
+            return students;
+        });
+        report("StudentIndex", size, n -> fill(new StudentIndex(n), n));
+        report("ColumnarStudentStore", size, n -> fill(new ColumnarStudentStore(), n));
+        report("StudentRepository (objects)", size,
+                n -> fill(new StudentRepository(new StudentIndex(n)), n));
+        report("StudentRepository (columnar)", size,
+                n -> fill(StudentRepository.columnar(), n));
+    }
+
+    private static Student student(int i) {
+        return new Student(i + 1, NAMES[i % NAMES.length] + " " + (char) ('A' + i % 26) + (char) ('a' + i / 26 % 26),
+                17 + i % 10);
+    }
+
+    private static StudentStore fill(StudentStore store, int size) {
+        for (int i = 0; i < size; i++) {
+            store.add(student(i));
+        }
+        return store;
+    }
+
+    private static StudentRepository fill(StudentRepository repository, int size) {
+        for (int i = 0; i < size; i++) {
+            repository.add(student(i));
+        }
+        return repository;
+    }
+
+    private static void report(String layout, int size, IntFunction<Object> build) {
+        long before = usedHeap();
+        Object roster = build.apply(size);
+        long after = usedHeap();
+        System.out.printf("%-30s %,14d bytes  %6.1f bytes/student%n",
+                layout, after - before, (after - before) / (double) size);
+        Reference.reachabilityFence(roster);
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,265 @@
+/**
+ * @file HttpLoadTest.java
+ * @brief Load test of the HTTP/JSON API with many concurrent clients.
+ *
+ * Server latency under many open connections is not something JMH measures, so
+ * this is a plain program: it runs closed-loop clients against a server and
+ * reports throughput and latency percentiles.
+ */
+
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class HttpLoadTest
+ * @brief Drives GET, POST and DELETE requests from virtual-thread clients and prints p50/p99 and RPS.
+ *
+ * Each client keeps one connection open, sends a request, waits for the response
+ * and sends the next, for the warm-up and then the measured duration. Reads fetch
+ * a random student of the initial roster by ID; writes alternate between adding a
+ * new student and removing the one the client added last, so the roster keeps its
+ * size. Without --url, the program starts an in-process server on a free localhost
+ * port over a concurrent repository. Run it with, for example:
+ *
+ *     java -cp target/benchmarks.jar com.example.HttpLoadTest --clients 1000 --seconds 20
+ */
+public final class HttpLoadTest {
+
+    private static final String USAGE = "Usage: HttpLoadTest [--clients <n>] [--seconds <n>] [--warmup <n>]"
+            + " [--read-percent <n>] [--roster-size <n>] [--url <base url>]";
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private HttpLoadTest() {
+    }
+
+    /**
+     * @brief Entry point.
+     *
+     * @param args Command-line options; see USAGE.
+     * @throws Exception If the server cannot be started or a client is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int clients = 1000;
+        int seconds = 10;
+        int warmupSeconds = 5;
+        int readPercent = 90;
+        int rosterSize = 100_000;
+        String url = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(args[i + 1]);
+                case "--read-percent" -> readPercent = Integer.parseInt(args[i + 1]);
+                case "--roster-size" -> rosterSize = Integer.parseInt(args[i + 1]);
+                case "--url" -> url = args[i + 1];
+                default -> {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        StudentHttpServer server = null;
+        if (url == null) {
+            StudentRepository repository = StudentRepository.concurrent();
+            repository.addAll(Arrays.asList(RosterFixtures.students(rosterSize)));
+            server = StudentHttpServer.start(repository, new InetSocketAddress("localhost", 0));
+            url = "http://localhost:" + server.port();
+        }
+
+        try {
+            run(URI.create(url), clients, warmupSeconds, seconds, readPercent, rosterSize);
+        } finally {
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private static void run(URI base, int clientCount, int warmupSeconds, int seconds, int readPercent,
+            int rosterSize) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmupSeconds * 1_000_000_000L;
+        long measureUntil = measureFrom + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        AtomicLong nextWriteId = new AtomicLong(rosterSize + 1L);
+        long[][] latencies = new long[clientCount][];
+        int[] counts = new int[clientCount];
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clientCount; c++) {
+                int clientIndex = c;
+                clients.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(clientIndex);
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    long addedId = -1;
+                    Connection connection = null;
+                    long now;
+                    while ((now = System.nanoTime()) < measureUntil) {
+                        int status;
+                        int expected;
+                        try {
+                            if (connection == null) {
+                                connection = new Connection(base);
+                            }
+                            if (random.nextInt(100) < readPercent) {
+                                expected = 200;
+                                status = connection.send("GET", "/students/" + (1 + random.nextInt(rosterSize)), null);
+                            } else if (addedId < 0) {
+                                addedId = nextWriteId.getAndIncrement();
+                                expected = 201;
+                                status = connection.send("POST", "/students",
+                                        "{\"id\":" + addedId + ",\"name\":\"Load Test\",\"age\":20}");
+                            } else {
+                                expected = 200;
+                                status = connection.send("DELETE", "/students/" + addedId, null);
+                                addedId = -1;
+                            }
+                        } catch (IOException e) {
+                            expected = 200;
+                            status = -1;
+                            closeQuietly(connection);
+                            connection = null;
+                        }
+                        long end = System.nanoTime();
+                        if (now >= measureFrom && end <= measureUntil) {
+                            if (status != expected) {
+                                errors.incrementAndGet();
+                            }
+                            if (count == samples.length) {
+                                samples = Arrays.copyOf(samples, count * 2);
+                            }
+                            samples[count++] = end - now;
+                        }
+                    }
+                    closeQuietly(connection);
+                    latencies[clientIndex] = samples;
+                    counts[clientIndex] = count;
+                });
+            }
+        }
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clientCount; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+
+        System.out.printf("clients=%d read%%=%d requests=%d errors=%d%n", clientCount, readPercent, total, errors.get());
+        System.out.printf("throughput  %,.0f requests/s%n", total / (double) seconds);
+        System.out.printf("latency     p50 %.2f ms   p99 %.2f ms   p99.9 %.2f ms   max %.2f ms%n",
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999),
+                total == 0 ? 0 : all[total - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, (long) (sorted.length * fraction))] / 1e6;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // The connection is being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * @class Connection
+     * @brief Minimal HTTP/1.1 keep-alive client connection.
+     *
+     * A full HTTP client costs more CPU per request than the server under test, so
+     * on a small machine it would measure itself. This one writes a request and
+     * reads back the status and a Content-Length body, and nothing more.
+     */
+    private static final class Connection implements Closeable {
+
+        private final Socket socket;      /**< The connection to the server. */
+        private final String host;        /**< Host header value. */
+        private final InputStream in;     /**< Buffered response stream. */
+        private final OutputStream out;   /**< Buffered request stream. */
+
+        Connection(URI base) throws IOException {
+            socket = new Socket(base.getHost(), base.getPort());
+            socket.setTcpNoDelay(true);
+            host = base.getHost() + ":" + base.getPort();
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        /**
+         * @brief Sends a request and reads the whole response.
+         *
+         * @return The response status code.
+         */
+        int send(String method, String path, String body) throws IOException {
+            byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+            String head = method + " " + path + " HTTP/1.1\r\nHost: " + host
+                    + "\r\nContent-Type: application/json\r\nContent-Length: " + content.length + "\r\n\r\n";
+            out.write(head.getBytes(StandardCharsets.US_ASCII));
+            out.write(content);
+            out.flush();
+
+            String statusLine = readLine();
+            int status = Integer.parseInt(statusLine.substring(9, 12));
+            int contentLength = 0;
+            for (String line = readLine(); !line.isEmpty(); line = readLine()) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            in.readNBytes(contentLength);
+            return status;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new EOFException("Connection closed by the server");
+                }
+                if (c != '\r') {
+                    line.append((char) c);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * @file IdRangeBenchmark.java
+ * @brief Measures ID range queries against a filtered scan of the roster.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class IdRangeBenchmark
+ * @brief Times StudentRepository.findByIdRange() and streamByIdRange() against stream().filter().sorted().
+ *
+ * The roster is added in random order, so insertion order says nothing about
+ * the IDs and the scan has to sort what it finds. Each query starts at a random
+ * ID and covers rangeSize IDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class IdRangeBenchmark {
+
+    private static final int ROSTER_SIZE = 1_000_000;
+    private static final int FIRST_PAGE = 20;
+
+    @Param({"100", "10000"})
+    public int rangeSize;
+
+    private StudentRepository repository;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        random = new SplittableRandom(42);
+        Student[] students = RosterFixtures.students(ROSTER_SIZE);
+        for (int i = students.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Student swap = students[i];
+            students[i] = students[j];
+            students[j] = swap;
+        }
+        repository = new StudentRepository(new StudentIndex(ROSTER_SIZE));
+        for (Student student : students) {
+            repository.add(student);
+        }
+    }
+
+    /**
+     * @brief Lists a range of IDs through the ordered ID index.
+     *
+     * @return The students found, consumed by JMH.
+     */
+    @Benchmark
+    public List<Student> findByIdRange() {
+        int fromId = 1 + random.nextInt(ROSTER_SIZE - rangeSize);
+        return repository.findByIdRange(fromId, fromId + rangeSize - 1);
+    }
+
+    /**
+     * @brief Reads the first page of a range from the lazy stream.
+     *
+     * @return The students read, consumed by JMH.
+     */
+    @Benchmark
+    public List<Student> streamFirstPage() {
+        int fromId = 1 + random.nextInt(ROSTER_SIZE - rangeSize);
+        return repository.streamByIdRange(fromId, fromId + rangeSize - 1).limit(FIRST_PAGE).toList();
+    }
+
+    /**
+     * @brief Lists a range of IDs by filtering and sorting the whole roster, as before the index.
+     *
+     * @return The students found, consumed by JMH.
+     */
+    @Benchmark
+    public List<Student> scanAndSort() {
+        int fromId = 1 + random.nextInt(ROSTER_SIZE - rangeSize);
+        int toId = fromId + rangeSize - 1;
+        return repository.stream()
+                .filter(student -> student.getStudentId() >= fromId && student.getStudentId() <= toId)
+                .sorted(Comparator.comparingInt(Student::getStudentId))
+                .toList();
+    }
+}
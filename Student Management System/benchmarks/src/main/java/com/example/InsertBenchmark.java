@@ -0,0 +1,62 @@
+/**
+ * @file InsertBenchmark.java
+ * @brief Measures insert throughput of the StudentRepository.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class InsertBenchmark
+ * @brief Times filling an empty repository with a roster of the given size.
+ *
+ * Each invocation adds every student of the roster, so the score divided by the
+ * roster size is the cost of a single add, including validation, duplicate
+ * detection and index growth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class InsertBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private Student[] students;
+
+    @Setup(Level.Trial)
+    public void createStudents() {
+        students = RosterFixtures.students(rosterSize);
+    }
+
+    /**
+     * @brief Adds the whole roster to an empty repository.
+     *
+     * @return The final roster size, consumed by JMH.
+     */
+    @Benchmark
+    public int insertRoster() {
+        StudentRepository repository = new StudentRepository();
+        for (Student student : students) {
+            repository.add(student);
+        }
+        return repository.size();
+    }
+}
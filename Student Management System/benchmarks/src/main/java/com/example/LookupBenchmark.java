@@ -0,0 +1,96 @@
+/**
+ * @file LookupBenchmark.java
+ * @brief Measures ID lookup latency of the StudentRepository.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class LookupBenchmark
+ * @brief Times find() for IDs that exist (hit) and IDs that do not (miss).
+ *
+ * Lookups cycle through a precomputed random ID sequence, so the access pattern
+ * defeats the CPU cache on large rosters the same way real traffic does. The
+ * linear scan over an ArrayList is kept as the baseline the index replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LookupBenchmark {
+
+    private static final int ID_SEQUENCE_LENGTH = 1 << 16;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private StudentRepository repository;
+    private ArrayList<Student> studentList;
+    private int[] hitIds;
+    private int[] missIds;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        Student[] students = RosterFixtures.students(rosterSize);
+        repository = RosterFixtures.repository(students);
+        studentList = new ArrayList<>(Arrays.asList(students));
+        hitIds = RosterFixtures.randomIds(ID_SEQUENCE_LENGTH, 1, rosterSize);
+        missIds = RosterFixtures.randomIds(ID_SEQUENCE_LENGTH, rosterSize + 1, rosterSize);
+    }
+
+    /**
+     * @brief Looks up an ID that is present in the roster.
+     *
+     * @return The student found, consumed by JMH.
+     */
+    @Benchmark
+    public Object lookupHit() {
+        return repository.find(hitIds[cursor++ & (ID_SEQUENCE_LENGTH - 1)]).orElse(null);
+    }
+
+    /**
+     * @brief Looks up an ID that is absent from the roster.
+     *
+     * @return The empty result, consumed by JMH.
+     */
+    @Benchmark
+    public Object lookupMiss() {
+        return repository.find(missIds[cursor++ & (ID_SEQUENCE_LENGTH - 1)]).orElse(null);
+    }
+
+    /**
+     * @brief Looks up a present ID with the linear scan the repository used to do.
+     *
+     * @return The student found, consumed by JMH.
+     */
+    @Benchmark
+    public Object linearScanBaseline() {
+        int studentId = hitIds[cursor++ & (ID_SEQUENCE_LENGTH - 1)];
+        for (Student student : studentList) {
+            if (student.getStudentId() == studentId) {
+                return student;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * @file PageBenchmark.java
+ * @brief Measures fetching one page of the roster by page token.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class PageBenchmark
+ * @brief Times StudentRepository.page() at the start and in the middle of the roster.
+ *
+ * A page token names a position in the insertion order, so a page from the middle
+ * of the roster should cost about as much as the first page at every roster size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PageBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    @Param({"20", "1000"})
+    public int pageSize;
+
+    private StudentRepository repository;
+    private String middleToken;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        repository = RosterFixtures.repository(RosterFixtures.students(rosterSize));
+        middleToken = repository.page(null, rosterSize / 2).getNextPageToken();
+    }
+
+    /**
+     * @brief Fetches the first page.
+     *
+     * @return The page, consumed by JMH.
+     */
+    @Benchmark
+    public Object firstPage() {
+        return repository.page(null, pageSize);
+    }
+
+    /**
+     * @brief Fetches the page that starts halfway through the roster.
+     *
+     * @return The page, consumed by JMH.
+     */
+    @Benchmark
+    public Object middlePage() {
+        return repository.page(middleToken, pageSize);
+    }
+}
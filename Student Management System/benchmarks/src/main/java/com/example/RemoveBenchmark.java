@@ -0,0 +1,76 @@
+/**
+ * @file RemoveBenchmark.java
+ * @brief Measures removal cost at the head, middle and tail of the roster.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class RemoveBenchmark
+ * @brief Times removing a student and adding it back, keeping the roster size constant.
+ *
+ * The re-added student moves to the tail of the insertion order. Walking a cursor
+ * forward through the original order therefore always hits the current head (or
+ * the current middle), while the tail case removes the newest student every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RemoveBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    @Param({"HEAD", "MIDDLE", "TAIL"})
+    public String position;
+
+    private StudentRepository repository;
+    private Student[] students;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void createRoster() {
+        students = RosterFixtures.students(rosterSize);
+        repository = RosterFixtures.repository(students);
+        cursor = switch (position) {
+            case "HEAD" -> 0;
+            case "MIDDLE" -> rosterSize / 2;
+            case "TAIL" -> rosterSize - 1;
+            default -> throw new IllegalArgumentException("Unknown position: " + position);
+        };
+    }
+
+    /**
+     * @brief Removes the student at the configured position and adds it back.
+     *
+     * @return The removal result, consumed by JMH.
+     */
+    @Benchmark
+    public Object removeAndReAdd() {
+        Student student = students[cursor];
+        if (!"TAIL".equals(position)) {
+            cursor = cursor + 1 == rosterSize ? 0 : cursor + 1;
+        }
+        StudentResult result = repository.remove(student.getStudentId());
+        repository.add(student);
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+/**
+ * @file RenderBenchmark.java
+ * @brief Measures rendering the full roster as a console table.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class RenderBenchmark
+ * @brief Times printing every student through the StudentPrinter used by the menu.
+ *
+ * Output goes to a discarding stream, so the score is the formatting cost alone,
+ * without any terminal or disk in the way.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RenderBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int rosterSize;
+
+    private StudentRepository repository;
+    private StudentPrinter printer;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        repository = RosterFixtures.repository(RosterFixtures.students(rosterSize));
+        printer = new StudentPrinter(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * @brief Prints the full roster table.
+     */
+    @Benchmark
+    public void renderRoster() {
+        printer.printStudentTable(repository.students());
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * @file RosterFixtures.java
+ * @brief Shared roster data for the JMH benchmarks.
+ *
+ * The benchmarks build their rosters from the same deterministic student data so
+ * that results stay comparable between runs and releases.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * @class RosterFixtures
+ * @brief Creates deterministic students, rosters and key sequences.
+ */
+final class RosterFixtures {
+
+    /**
+     * @brief Roster sizes every repository benchmark is run with.
+     *
+     * JMH parameters must be compile-time constants, so the benchmarks repeat this
+     * list in their @Param annotations; it is kept here for reference.
+     */
+    static final String[] ROSTER_SIZES = {"1000", "10000", "100000", "1000000", "10000000"};
+
+    private static final String[] NAMES = {
+            "Ali", "Sara", "Omar", "Maria", "John", "Fatima", "Mohammed", "Emma", "Lucas", "Aisha"
+    };
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private RosterFixtures() {
+    }
+
+    /**
+     * @brief Creates students with IDs 1 to size.
+     *
+     * @param size The number of students to create.
+     * @return The students, in ascending ID order.
+     */
+    static Student[] students(int size) {
+        Student[] students = new Student[size];
+        for (int i = 0; i < size; i++) {
+            students[i] = new Student(i + 1, NAMES[i % NAMES.length], 17 + i % 10);
+        }
+        return students;
+    }
+
+    /**
+     * @brief Creates a repository filled with the given students.
+     *
+     * @param students The students to add, in insertion order.
+     * @return The filled repository.
+     */
+    static StudentRepository repository(Student[] students) {
+        StudentRepository repository = new StudentRepository(new StudentIndex(students.length));
+        for (Student student : students) {
+            repository.add(student);
+        }
+        return repository;
+    }
+
+    /**
+     * @brief Creates a random sequence of IDs for lookups.
+     *
+     * @param count The number of IDs to generate; a power of two.
+     * @param lowId The smallest ID to generate.
+     * @param range The number of distinct IDs to draw from.
+     * @return The IDs.
+     */
+    static int[] randomIds(int count, int lowId, int range) {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = lowId + random.nextInt(range);
+        }
+        return ids;
+    }
+
+    /**
+     * @brief Creates a Zipf-distributed sequence of IDs for lookups.
+     *
+     * The k-th most popular ID is drawn with a probability proportional to
+     * 1 / k^exponent, so a few IDs get most of the lookups. The popularity ranks are
+     * shuffled over the IDs, so that popular students are not neighbours in the store.
+     *
+     * @param count The number of IDs to generate; a power of two.
+     * @param range The IDs are drawn from 1 to range.
+     * @param exponent The skew; 0.99 is the usual choice for a skewed key-value workload.
+     * @return The IDs.
+     */
+    static int[] zipfianIds(int count, int range, double exponent) {
+        double[] cumulative = new double[range];
+        double sum = 0;
+        for (int rank = 0; rank < range; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        int[] idOfRank = new int[range];
+        for (int rank = 0; rank < range; rank++) {
+            int other = random.nextInt(rank + 1);
+            idOfRank[rank] = idOfRank[other];
+            idOfRank[other] = rank + 1;
+        }
+
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            ids[i] = idOfRank[Math.min(rank >= 0 ? rank : -rank - 1, range - 1)];
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * @file ShardLoadTest.java
+ * @brief Measures how throughput scales with the number of shard processes.
+ *
+ * Whether adding shard JVMs adds throughput depends on the cores and network of
+ * the machines they run on, which no unit test can assume, so this is a plain
+ * program like HttpLoadTest: it runs the same load against 1, 2, ... shards and
+ * prints the throughput of each.
+ */
+
+package com.example;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @class ShardLoadTest
+ * @brief Drives gets and updates through ShardedStudentStore routers over shard JVMs and prints ops/s.
+ *
+ * For each shard count from 1 to --max-shards, the program starts that many
+ * `StudentManagementSystem --shard-server 0` processes on this machine, preloads
+ * the roster through a router and runs closed-loop client threads for the warm-up
+ * and then the measured duration. Every client has its own router with its own
+ * connections, as separate application servers would; reads fetch a random
+ * student by ID and writes replace one with a new age. Run it with, for example:
+ *
+ *     java -cp target/benchmarks.jar com.example.ShardLoadTest --max-shards 4 --clients 32
+ *
+ * To measure shards on other machines, start them there and point
+ * StudentManagementSystem --shards at them instead.
+ */
+public final class ShardLoadTest {
+
+    private static final String USAGE = "Usage: ShardLoadTest [--max-shards <n>] [--clients <n>] [--seconds <n>]"
+            + " [--warmup <n>] [--read-percent <n>] [--roster-size <n>]";
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private ShardLoadTest() {
+    }
+
+    /**
+     * @brief Entry point.
+     *
+     * @param args Command-line options; see USAGE.
+     * @throws Exception If a shard cannot be started or a client is interrupted.
+     */
+    public static void main(String[] args) throws Exception {
+        int maxShards = 4;
+        int clients = 32;
+        int seconds = 10;
+        int warmupSeconds = 5;
+        int readPercent = 90;
+        int rosterSize = 100_000;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--max-shards" -> maxShards = Integer.parseInt(args[i + 1]);
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(args[i + 1]);
+                case "--read-percent" -> readPercent = Integer.parseInt(args[i + 1]);
+                case "--roster-size" -> rosterSize = Integer.parseInt(args[i + 1]);
+                default -> {
+                    System.err.println(USAGE);
+                    System.exit(2);
+                }
+            }
+        }
+
+        System.out.printf("clients=%d read%%=%d roster=%d cores=%d%n",
+                clients, readPercent, rosterSize, Runtime.getRuntime().availableProcessors());
+        for (int shards = 1; shards <= maxShards; shards++) {
+            List<Process> processes = new ArrayList<>();
+            try {
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for (int s = 0; s < shards; s++) {
+                    addresses.add(startShard(processes));
+                }
+                try (ShardedStudentStore loader = connect(addresses)) {
+                    loader.ensureCapacity(rosterSize);
+                    for (Student student : RosterFixtures.students(rosterSize)) {
+                        loader.add(student);
+                    }
+                }
+                double throughput = run(addresses, clients, warmupSeconds, seconds, readPercent, rosterSize);
+                System.out.printf("shards=%d  throughput %,.0f ops/s%n", shards, throughput);
+            } finally {
+                for (Process process : processes) {
+                    process.destroy();
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Starts a shard JVM on a free port and returns its address.
+     */
+    private static InetSocketAddress startShard(List<Process> processes) throws IOException {
+        Process process = new ProcessBuilder(
+                System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                "-cp", System.getProperty("java.class.path"),
+                "com.example.StudentManagementSystem", "--shard-server", "0")
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        processes.add(process);
+        // The shard prints "Serving a shard of 0 students on port <port>" once it listens
+        String line = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))
+                .readLine();
+        if (line == null) {
+            throw new IOException("The shard process exited before listening");
+        }
+        return new InetSocketAddress("localhost", Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1)));
+    }
+
+    /**
+     * @brief Opens a router with its own connection to each shard.
+     */
+    private static ShardedStudentStore connect(List<InetSocketAddress> addresses) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<RemoteStudentStore> remotes = new ArrayList<>();
+        for (InetSocketAddress address : addresses) {
+            names.add(address.getHostString() + ":" + address.getPort());
+            remotes.add(RemoteStudentStore.connect(address));
+        }
+        return new ShardedStudentStore(names, remotes);
+    }
+
+    private static double run(List<InetSocketAddress> addresses, int clientCount, int warmupSeconds, int seconds,
+            int readPercent, int rosterSize) throws InterruptedException {
+        long measureFrom = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long measureUntil = measureFrom + seconds * 1_000_000_000L;
+        AtomicLong operations = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(clientCount)) {
+            for (int c = 0; c < clientCount; c++) {
+                int clientIndex = c;
+                clients.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(clientIndex);
+                    long count = 0;
+                    try (ShardedStudentStore store = connect(addresses)) {
+                        long now;
+                        while ((now = System.nanoTime()) < measureUntil) {
+                            int studentId = 1 + random.nextInt(rosterSize);
+                            if (random.nextInt(100) < readPercent) {
+                                store.get(studentId);
+                            } else {
+                                store.replace(studentId, new Student(studentId, "Load Test", 17 + random.nextInt(10)));
+                            }
+                            if (now >= measureFrom && System.nanoTime() <= measureUntil) {
+                                count++;
+                            }
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        errors.incrementAndGet();
+                    }
+                    operations.addAndGet(count);
+                    return null;
+                });
+            }
+        }
+
+        if (errors.get() > 0) {
+            System.out.printf("  %d clients failed%n", errors.get());
+        }
+        return operations.get() / (double) seconds;
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * @file SnapshotBenchmark.java
+ * @brief Measures reading through snapshots and what open snapshots add to a write.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class SnapshotBenchmark
+ * @brief Times snapshot scans against store scans, and writes with and without an open snapshot.
+ *
+ * With "none", writes never see a snapshot. With "open", a snapshot is open
+ * all the time and replaced by a new one every SNAPSHOT_WRITES writes, as a
+ * series of reports would, so the writes keep before-images and each close
+ * prunes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    private static final int ROSTER_SIZE = 100_000;
+    private static final int SNAPSHOT_WRITES = 4096;
+
+    @Param({"none", "open"})
+    public String snapshots;
+
+    private StudentRepository repository;
+    private Student[] students;
+    private StudentSnapshot snapshot;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void createRoster() {
+        students = RosterFixtures.students(ROSTER_SIZE);
+        repository = StudentRepository.concurrent();
+        repository.addAll(Arrays.asList(students));
+        if (snapshots.equals("open")) {
+            snapshot = repository.snapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeSnapshot() {
+        if (snapshot != null) {
+            snapshot.close();
+        }
+    }
+
+    /**
+     * @brief Removes a student and adds it back, keeping two before-images when a snapshot is open.
+     *
+     * @return The add result, consumed by JMH.
+     */
+    @Benchmark
+    public Object removeAndAdd() {
+        Student student = students[cursor++ % ROSTER_SIZE];
+        if (snapshot != null && cursor % SNAPSHOT_WRITES == 0) {
+            StudentSnapshot next = repository.snapshot();
+            snapshot.close();
+            snapshot = next;
+        }
+        repository.remove(student.getStudentId());
+        return repository.add(student);
+    }
+
+    /**
+     * @brief Opens a snapshot and reads the whole roster through it, by ascending ID.
+     *
+     * @return The number of students read, consumed by JMH.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long snapshotScan() {
+        try (StudentSnapshot scan = repository.snapshot()) {
+            return scan.stream().count();
+        }
+    }
+
+    /**
+     * @brief Reads the whole roster from the store, with no guarantee against concurrent writes.
+     *
+     * @return The number of students read, consumed by JMH.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long storeScan() {
+        return repository.stream().count();
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * @file ValidationBenchmark.java
+ * @brief Measures validating and parsing student fields on clean and dirty input.
+ */
+
+package com.example;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @class ValidationBenchmark
+ * @brief Times the StudentValidator checks against the regex and parseInt() they replace.
+ *
+ * Each invocation checks FIELD_COUNT fields, so the score is the time per field.
+ * With dirty=true, every other field is malformed, which is where an exception per
+ * rejected number used to dominate. Run with -prof gc to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final int FIELD_COUNT = 1024;
+
+    @Param({"false", "true"})
+    public boolean dirty;
+
+    private String[] names;
+    private String[] numbers;
+    private byte[][] nameBytes;
+    private byte[][] numberBytes;
+
+    @Setup(Level.Trial)
+    public void createFields() {
+        SplittableRandom random = new SplittableRandom(42);
+        names = new String[FIELD_COUNT];
+        numbers = new String[FIELD_COUNT];
+        nameBytes = new byte[FIELD_COUNT][];
+        numberBytes = new byte[FIELD_COUNT][];
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            boolean malformed = dirty && i % 2 == 1;
+            names[i] = malformed ? "Student_" + i : "Student Name";
+            numbers[i] = malformed ? random.nextInt(100_000) + "x" : Integer.toString(random.nextInt(100_000));
+            nameBytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+            numberBytes[i] = numbers[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @brief Validates names with the character-class loop.
+     *
+     * @return The number of valid names, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public int validateName() {
+        int valid = 0;
+        for (String name : names) {
+            if (StudentValidator.validateName(name) == null) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @brief Validates names held as bytes, as the CSV importer does.
+     *
+     * @return The number of valid names, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public int validateNameBytes() {
+        int valid = 0;
+        for (byte[] name : nameBytes) {
+            if (StudentValidator.validateName(name, 0, name.length) == null) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @brief Validates names with String.matches(), the previous implementation.
+     *
+     * @return The number of valid names, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public int validateNameRegex() {
+        int valid = 0;
+        for (String name : names) {
+            if (name.matches("[a-zA-Z ]+")) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * @brief Parses numbers with the non-throwing parser.
+     *
+     * @return The sum of the valid numbers, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public long parseInt() {
+        long sum = 0;
+        for (String number : numbers) {
+            long value = StudentValidator.parseInt(number);
+            if (value != StudentValidator.NOT_A_NUMBER) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @brief Parses numbers held as bytes, as the CSV importer does.
+     *
+     * @return The sum of the valid numbers, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public long parseIntBytes() {
+        long sum = 0;
+        for (byte[] number : numberBytes) {
+            long value = StudentValidator.parseInt(number, 0, number.length);
+            if (value != StudentValidator.NOT_A_NUMBER) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @brief Parses numbers with Integer.parseInt() in a try/catch, the previous implementation.
+     *
+     * @return The sum of the valid numbers, consumed by JMH.
+     */
+    @Benchmark
+    @OperationsPerInvocation(FIELD_COUNT)
+    public long parseIntThrowing() {
+        long sum = 0;
+        for (String number : numbers) {
+            try {
+                sum += Integer.parseInt(number);
+            } catch (NumberFormatException e) {
+                // Rejected
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,547 @@
+/**
+ * @file WorkloadGenerator.java
+ * @brief Capacity test of StudentRepository with synthetic or recorded load.
+ *
+ * Sizing hardware needs the throughput and latency of a repository under load
+ * that looks like production: a large roster, a realistic mix of operations,
+ * a few students getting most of the lookups, and requests arriving at a rate
+ * rather than as fast as the repository answers. Like HttpLoadTest this is a
+ * plain program rather than a JMH benchmark, since it runs for a fixed time at
+ * a target rate and reports latency percentiles.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @class WorkloadGenerator
+ * @brief Builds a synthetic roster, drives an operation mix or a recorded script against it and prints the results.
+ *
+ * The roster mimics a university's: IDs are the intake year times 1,000,000
+ * plus a running number with a few gaps, ages follow the intake year with
+ * some spread and a share of mature students, and names combine common first
+ * and last names, the common ones more often. The mixes are:
+ *
+ *     read-heavy        90% GET, 4% UPD, 3% ID range, 2% name prefix, 1% ADD
+ *     enrollment-spike  60% ADD of a new intake, 30% GET, 8% UPD, 2% name prefix
+ *     bulk-purge        50% DEL of the oldest intake first, 30% GET, 15% ID range, 5% UPD
+ *
+ * GET, UPD and ID ranges pick students of the initial roster uniformly or with
+ * a Zipfian skew (exponent 0.99). In a closed loop, each thread sends the next
+ * operation when the last one returns, paced to --rate if one is given. In an
+ * open loop, operations are due at fixed intervals that add up to --rate, and
+ * latency is measured from when an operation was due, so a stalled repository
+ * shows up as queueing delay instead of as a lower request rate.
+ *
+ * With --replay, the program runs a script recorded by StudentManagementSystem
+ * --record, on one thread and in order, at the recorded pace times --speed, or
+ * as fast as possible with --speed 0. It starts from an empty roster unless
+ * --roster-size is given.
+ *
+ * The allocation rate is what the worker threads allocated while measuring,
+ * per second and per operation. Run it with, for example:
+ *
+ *     java -cp target/benchmarks.jar com.example.WorkloadGenerator --mix read-heavy --keys zipfian \
+ *         --loop open --rate 200000 --threads 4
+ *     java -cp target/benchmarks.jar com.example.WorkloadGenerator --replay session.txt --speed 10
+ */
+public final class WorkloadGenerator {
+
+    private static final String USAGE = "Usage: WorkloadGenerator [--roster-size <n>]"
+            + " [--mix read-heavy|enrollment-spike|bulk-purge] [--keys uniform|zipfian] [--loop closed|open]"
+            + " [--rate <ops/s>] [--threads <n>] [--seconds <n>] [--warmup <n>] [--seed <n>]"
+            + " | --replay <file> [--speed <factor>] [--roster-size <n>]";
+
+    private static final String[] FIRST_NAMES = {
+        "Mohammed", "Sara", "Ali", "Maria", "John", "Fatima", "Omar", "Emma", "Lucas", "Aisha", "Noah", "Olivia",
+        "Ahmed", "Sofia", "David", "Layla", "James", "Hana", "Daniel", "Mia", "Yusuf", "Chloe", "Adam", "Zainab",
+        "Leo", "Amira", "Samuel", "Grace", "Hassan", "Nora", "Ethan", "Ines", "Ibrahim", "Lina", "Oscar", "Yara"
+    };
+    private static final String[] LAST_NAMES = {
+        "Khan", "Smith", "Garcia", "Ahmed", "Nguyen", "Hassan", "Brown", "Lopez", "Ali", "Wilson", "Rossi", "Haddad",
+        "Martin", "Kim", "Silva", "Mansour", "Taylor", "Chen", "Ibrahim", "Muller", "Santos", "Saleh", "Walker",
+        "Novak", "Farouk", "Evans", "Costa", "Aziz", "Moreau", "Park", "Yilmaz", "Okafor"
+    };
+    private static final int LAST_INTAKE = 2025;         /**< Intake year of the newest students of the roster. */
+    private static final int IDS_PER_INTAKE = 1_000_000; /**< ID span of one intake year. */
+    private static final int RANGE_WIDTH = 100;          /**< IDs covered by one ID range query, a class list. */
+    private static final int ZIPF_KEYS = 1 << 20;        /**< Length of the precomputed Zipfian key sequence. */
+
+    /**
+     * @enum Operation
+     * @brief The operations of the mixes and scripts, each reported separately.
+     */
+    private enum Operation {
+        GET, ADD, UPD, DEL, RANGE, PREFIX
+    }
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private WorkloadGenerator() {
+    }
+
+    /**
+     * @brief Entry point.
+     *
+     * @param args Command-line options; see USAGE.
+     * @throws Exception If the script cannot be read or a worker fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int rosterSize = -1;
+        String mix = "read-heavy";
+        boolean zipfian = false;
+        boolean openLoop = false;
+        double rate = 0;
+        int threads = 4;
+        int seconds = 10;
+        int warmupSeconds = 5;
+        long seed = 42;
+        Path replay = null;
+        double speed = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--roster-size" -> rosterSize = Integer.parseInt(value);
+                case "--mix" -> mix = value;
+                case "--keys" -> {
+                    if (!value.equals("uniform") && !value.equals("zipfian")) {
+                        exitWithUsage();
+                    }
+                    zipfian = value.equals("zipfian");
+                }
+                case "--loop" -> {
+                    if (!value.equals("closed") && !value.equals("open")) {
+                        exitWithUsage();
+                    }
+                    openLoop = value.equals("open");
+                }
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--seconds" -> seconds = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--replay" -> replay = Path.of(value);
+                case "--speed" -> speed = Double.parseDouble(value);
+                default -> exitWithUsage();
+            }
+        }
+        if (args.length % 2 != 0 || mixPercents(mix) == null || (openLoop && rate <= 0)) {
+            exitWithUsage();
+        }
+
+        Student[] roster = roster(rosterSize >= 0 ? rosterSize : replay == null ? 1_000_000 : 0, seed);
+        StudentRepository repository = StudentRepository.concurrent();
+        repository.addAll(Arrays.asList(roster));
+        System.out.printf("roster=%d students%n", repository.size());
+
+        if (replay != null) {
+            replay(repository, replay, speed);
+        } else {
+            Workload workload = new Workload(repository, roster, mixPercents(mix), zipfian, seed);
+            System.out.printf("mix=%s keys=%s loop=%s rate=%s threads=%d%n", mix, zipfian ? "zipfian" : "uniform",
+                    openLoop ? "open" : "closed", rate > 0 ? String.format("%,.0f ops/s", rate) : "unlimited",
+                    threads);
+            generate(workload, threads, openLoop, rate, warmupSeconds, seconds);
+        }
+    }
+
+    /**
+     * @brief Returns the percentage of each Operation in a mix, or null if the mix is unknown.
+     */
+    private static int[] mixPercents(String mix) {
+        return switch (mix) {
+            //                      GET ADD UPD DEL RANGE PREFIX
+            case "read-heavy" -> new int[] {90, 1, 4, 0, 3, 2};
+            case "enrollment-spike" -> new int[] {30, 60, 8, 0, 0, 2};
+            case "bulk-purge" -> new int[] {30, 0, 5, 50, 15, 0};
+            default -> null;
+        };
+    }
+
+    /**
+     * @brief Creates a synthetic roster, from the oldest intake to the newest.
+     *
+     * @param size The number of students.
+     * @param seed The seed of the names, ages and ID gaps.
+     * @return The students, in ascending ID order.
+     */
+    static Student[] roster(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        // Intakes of 900,000 at most, leaving room in each intake's IDs for the gaps
+        int intakes = Math.max(7, (size + 899_999) / 900_000);
+        int perIntake = Math.max(1, (size + intakes - 1) / intakes);
+        Student[] students = new Student[size];
+        int sequence = 0;
+        int intake = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && i % perIntake == 0) {
+                intake++;
+                sequence = 0;
+            }
+            // About 3% of the numbers go to applicants who never enrolled
+            sequence += random.nextInt(33) == 0 ? 2 : 1;
+            int year = LAST_INTAKE - intakes + 1 + intake;
+            int yearsEnrolled = LAST_INTAKE - year;
+            students[i] = new Student(year * IDS_PER_INTAKE + sequence, name(random),
+                    age(random, yearsEnrolled));
+        }
+        return students;
+    }
+
+    /**
+     * @brief Picks a full name, the first names of the lists more often than the last.
+     */
+    private static String name(SplittableRandom random) {
+        return FIRST_NAMES[skewed(random, FIRST_NAMES.length)] + " " + LAST_NAMES[skewed(random, LAST_NAMES.length)];
+    }
+
+    /**
+     * @brief Picks an index below a bound with a probability that falls with the index.
+     */
+    private static int skewed(SplittableRandom random, int bound) {
+        double u = random.nextDouble();
+        return (int) (bound * u * u);
+    }
+
+    /**
+     * @brief Picks the age of a student enrolled some years ago: 18 at intake, give or take, or a mature student.
+     */
+    private static int age(SplittableRandom random, int yearsEnrolled) {
+        if (random.nextInt(20) == 0) {
+            return 25 + random.nextInt(21) + yearsEnrolled;
+        }
+        int spread = (int) Math.round(Math.abs(random.nextGaussian()) * 1.5);
+        return 18 + yearsEnrolled + spread;
+    }
+
+    /**
+     * @class Workload
+     * @brief The state shared by the worker threads of a generated workload.
+     */
+    private static final class Workload {
+
+        private final StudentRepository repository; /**< Repository under test. */
+        private final Student[] roster;             /**< Initial roster, in ascending ID order. */
+        private final Operation[] choices = new Operation[100]; /**< Operation for each percent of the mix. */
+        private final int[] zipfRanks;              /**< Roster positions by Zipfian popularity, or null for uniform. */
+        private final AtomicInteger nextNewId;      /**< ID of the next student of the new intake. */
+        private final AtomicInteger purged = new AtomicInteger(); /**< Roster positions purged so far. */
+        private final long seed;                    /**< Seed of the worker threads' random numbers. */
+
+        Workload(StudentRepository repository, Student[] roster, int[] percents, boolean zipfian, long seed) {
+            this.repository = repository;
+            this.roster = roster;
+            this.seed = seed;
+            Operation[] operations = Operation.values();
+            int percent = 0;
+            for (int o = 0; o < percents.length; o++) {
+                for (int p = 0; p < percents[o]; p++) {
+                    choices[percent++] = operations[o];
+                }
+            }
+            this.zipfRanks = zipfian && roster.length > 0 ? RosterFixtures.zipfianIds(ZIPF_KEYS, roster.length, 0.99)
+                    : null;
+            this.nextNewId = new AtomicInteger((LAST_INTAKE + 1) * IDS_PER_INTAKE + 1);
+        }
+
+        /**
+         * @brief Creates the random number generator of a worker thread.
+         */
+        SplittableRandom random(int thread) {
+            return new SplittableRandom(seed * 31 + thread);
+        }
+
+        /**
+         * @brief Picks the next operation of a thread.
+         */
+        Operation next(SplittableRandom random) {
+            Operation operation = choices[random.nextInt(choices.length)];
+            return roster.length == 0 && operation != Operation.ADD ? Operation.ADD : operation;
+        }
+
+        /**
+         * @brief Runs one operation.
+         *
+         * @return Whether it succeeded; a GET or DEL of a student that is gone fails.
+         */
+        boolean run(Operation operation, SplittableRandom random, int[] cursor) {
+            return switch (operation) {
+                case GET -> repository.find(key(random, cursor)).isPresent();
+                case ADD -> repository.add(new Student(nextNewId.getAndIncrement(), name(random),
+                        age(random, 0))).isSuccess();
+                case UPD -> repository.update(key(random, cursor),
+                        StudentPatch.empty().withStudentAge(age(random, 2))).isSuccess();
+                case DEL -> {
+                    int position = purged.getAndIncrement();
+                    yield repository.remove(position < roster.length ? roster[position].getStudentId()
+                            : key(random, cursor)).isSuccess();
+                }
+                case RANGE -> {
+                    int fromId = key(random, cursor);
+                    yield !repository.findByIdRange(fromId, fromId + RANGE_WIDTH - 1).isEmpty();
+                }
+                case PREFIX -> !repository.findByNamePrefix(FIRST_NAMES[skewed(random, FIRST_NAMES.length)] + " "
+                        + LAST_NAMES[skewed(random, LAST_NAMES.length)].charAt(0)).isEmpty();
+            };
+        }
+
+        /**
+         * @brief Picks the ID of a student of the initial roster.
+         *
+         * @param cursor The thread's position in the Zipfian sequence.
+         */
+        private int key(SplittableRandom random, int[] cursor) {
+            if (zipfRanks == null) {
+                return roster[random.nextInt(roster.length)].getStudentId();
+            }
+            return roster[zipfRanks[cursor[0]++ & (ZIPF_KEYS - 1)] - 1].getStudentId();
+        }
+    }
+
+    /**
+     * @brief Runs a generated workload on worker threads and prints the results.
+     */
+    private static void generate(Workload workload, int threadCount, boolean openLoop, double rate,
+            int warmupSeconds, int seconds) throws Exception {
+        long start = System.nanoTime();
+        long measureFrom = start + warmupSeconds * 1_000_000_000L;
+        long measureUntil = measureFrom + seconds * 1_000_000_000L;
+        // Each thread sends every threadCount-th operation of the schedule
+        double interval = rate > 0 ? threadCount * 1e9 / rate : 0;
+
+        List<Future<Results>> futures = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount);
+        try {
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                futures.add(workers.submit(() -> {
+                    SplittableRandom random = workload.random(thread);
+                    int[] cursor = {random.nextInt(ZIPF_KEYS)};
+                    Results results = new Results();
+                    double due = start + thread * interval / threadCount;
+                    long allocatedFrom = -1;
+                    long now;
+                    while ((now = System.nanoTime()) < measureUntil) {
+                        if (interval > 0) {
+                            due += interval;
+                            waitUntil((long) due);
+                            now = System.nanoTime();
+                        }
+                        if (allocatedFrom < 0 && now >= measureFrom) {
+                            allocatedFrom = allocatedBytes();
+                        }
+                        Operation operation = workload.next(random);
+                        boolean success = workload.run(operation, random, cursor);
+                        long end = System.nanoTime();
+                        if (now >= measureFrom && end <= measureUntil) {
+                            // In an open loop, the operation waited in line from when it was due
+                            long begin = openLoop ? Math.min(now, (long) due) : now;
+                            results.record(operation, end - begin, success);
+                        }
+                    }
+                    results.allocatedBytes = allocatedFrom < 0 ? 0 : allocatedBytes() - allocatedFrom;
+                    return results;
+                }));
+            }
+            Results total = new Results();
+            for (Future<Results> future : futures) {
+                total.add(future.get());
+            }
+            total.print(seconds);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @brief Replays a recorded command script on the calling thread and prints the results.
+     *
+     * @param speed The replay speed relative to the recording, or 0 for as fast as possible.
+     */
+    private static void replay(StudentRepository repository, Path script, double speed) throws IOException {
+        List<String> lines = Files.readAllLines(script, StandardCharsets.ISO_8859_1);
+        Results results = new Results();
+        long skipped = 0;
+        long recordedMicros = 0;
+        long allocatedFrom = allocatedBytes();
+        long start = System.nanoTime();
+        for (String line : lines) {
+            line = line.strip();
+            if (line.startsWith("#@")) {
+                recordedMicros = Long.parseLong(line.substring(2));
+                continue;
+            }
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            long due = speed > 0 ? start + (long) (recordedMicros * 1_000 / speed) : System.nanoTime();
+            waitUntil(due);
+            long begin = System.nanoTime();
+            String[] words = line.split(" ");
+            Operation operation;
+            boolean success;
+            try {
+                switch (words[0].toUpperCase(Locale.ROOT)) {
+                    case "ADD" -> {
+                        operation = Operation.ADD;
+                        String name = String.join(" ", Arrays.copyOfRange(words, 2, words.length - 1));
+                        success = repository.add(new Student(Integer.parseInt(words[1]), name,
+                                Integer.parseInt(words[words.length - 1]))).isSuccess();
+                    }
+                    case "UPD" -> {
+                        operation = Operation.UPD;
+                        success = repository.update(Integer.parseInt(words[1]), patch(line)).isSuccess();
+                    }
+                    case "DEL" -> {
+                        operation = Operation.DEL;
+                        success = repository.remove(Integer.parseInt(words[1])).isSuccess();
+                    }
+                    case "GET" -> {
+                        operation = Operation.GET;
+                        success = repository.find(Integer.parseInt(words[1])).isPresent();
+                    }
+                    default -> {
+                        skipped++;
+                        continue;
+                    }
+                }
+            } catch (RuntimeException e) {
+                skipped++;
+                continue;
+            }
+            long end = System.nanoTime();
+            results.record(operation, end - Math.min(begin, due), success);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        results.allocatedBytes = allocatedBytes() - allocatedFrom;
+        System.out.printf("replay=%s speed=%s skipped=%d lines%n", script, speed > 0 ? speed + "x" : "unlimited",
+                skipped);
+        results.print(seconds);
+    }
+
+    /**
+     * @brief Parses the fields of a recorded UPD line; the name, if any, comes last.
+     */
+    private static StudentPatch patch(String line) {
+        StudentPatch patch = StudentPatch.empty();
+        int name = line.toLowerCase(Locale.ROOT).indexOf(" name=");
+        String fields = name < 0 ? line : line.substring(0, name);
+        if (name >= 0) {
+            patch = patch.withStudentName(line.substring(name + " name=".length()));
+        }
+        for (String field : fields.split(" ")) {
+            String lower = field.toLowerCase(Locale.ROOT);
+            if (lower.startsWith("id=")) {
+                patch = patch.withStudentId(Integer.parseInt(field.substring(3)));
+            } else if (lower.startsWith("age=")) {
+                patch = patch.withStudentAge(Integer.parseInt(field.substring(4)));
+            }
+        }
+        return patch;
+    }
+
+    /**
+     * @brief Waits until a System.nanoTime() value, sleeping for long waits and spinning for short ones.
+     */
+    private static void waitUntil(long due) {
+        long remaining;
+        while ((remaining = due - System.nanoTime()) > 0) {
+            if (remaining > 100_000) {
+                LockSupport.parkNanos(remaining - 50_000);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /**
+     * @brief Returns the bytes the calling thread has allocated so far, or 0 if the JVM does not say.
+     */
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads) {
+            return Math.max(0, threads.getCurrentThreadAllocatedBytes());
+        }
+        return 0;
+    }
+
+    private static void exitWithUsage() {
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+
+    /**
+     * @class Results
+     * @brief Latency histograms, counts and failures per operation, and allocated bytes, of one thread.
+     */
+    private static final class Results {
+
+        private static final int OPERATION_COUNT = Operation.values().length;
+
+        private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATION_COUNT]; /**< By operation. */
+        private final long[] failures = new long[OPERATION_COUNT]; /**< Failed operations, by operation. */
+        long allocatedBytes;                                       /**< Bytes allocated while measuring. */
+
+        Results() {
+            for (int o = 0; o < latencies.length; o++) {
+                latencies[o] = new LatencyHistogram();
+            }
+        }
+
+        void record(Operation operation, long nanos, boolean success) {
+            latencies[operation.ordinal()].record(nanos);
+            if (!success) {
+                failures[operation.ordinal()]++;
+            }
+        }
+
+        void add(Results other) {
+            for (int o = 0; o < latencies.length; o++) {
+                latencies[o].add(other.latencies[o]);
+                failures[o] += other.failures[o];
+            }
+            allocatedBytes += other.allocatedBytes;
+        }
+
+        void print(double seconds) {
+            LatencyHistogram all = new LatencyHistogram();
+            for (LatencyHistogram latency : latencies) {
+                all.add(latency);
+            }
+            long count = all.snapshot().count();
+            System.out.printf("throughput  %,.0f ops/s%n", count / seconds);
+            System.out.printf("allocation  %,.1f MB/s   %,.0f bytes/op%n", allocatedBytes / seconds / 1e6,
+                    count == 0 ? 0.0 : allocatedBytes / (double) count);
+            System.out.printf("%-8s %12s %9s %10s %10s %10s %10s %10s%n", "op", "count", "failed",
+                    "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram.Snapshot latency = latencies[operation.ordinal()].snapshot();
+                if (latency.count() > 0) {
+                    printRow(operation.name(), latency, failures[operation.ordinal()]);
+                }
+            }
+            printRow("ALL", all.snapshot(), Arrays.stream(failures).sum());
+        }
+
+        private static void printRow(String name, LatencyHistogram.Snapshot latency, long failed) {
+            System.out.printf("%-8s %,12d %,9d %10.1f %10.1f %10.1f %10.1f %10.1f%n", name, latency.count(), failed,
+                    latency.valueAtPercentile(50) / 1e3, latency.valueAtPercentile(90) / 1e3,
+                    latency.valueAtPercentile(99) / 1e3, latency.valueAtPercentile(99.9) / 1e3, latency.max() / 1e3);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * @file AgeIndex.java
+ * @brief Secondary index that groups students by age.
+ *
+ * This index answers age range queries by visiting only the students in the
+ * range, instead of scanning the whole roster.
+ */
+
+package com.example;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * @class AgeIndex
+ * @brief Bucketed age-to-student-ID index, maintained on every add and remove.
+ *
+ * Student ages are small and dense, so each age up to DENSE_AGES has its own
+ * bucket in a plain array; the rare larger ages fall back to a sorted map. A
+ * bucket is an IdSet, so students of one age are added and removed in constant
+ * time and listed in insertion order.
+ *
+ * The index can be shared by concurrent writers. Each dense bucket is guarded by
+ * its own monitor and the sparse map by another, so writers of different ages do
+ * not contend. Queries copy the IDs out one bucket at a time, so a wide range
+ * holds up the writers of one age at a time, and only while its IDs are copied.
+ */
+class AgeIndex {
+
+    static final int DENSE_AGES = 128; /**< Ages below this value get an array bucket. */
+
+    private final IdSet[] denseBuckets = new IdSet[DENSE_AGES]; /**< Buckets by age; each guarded by itself. */
+    private final TreeMap<Integer, IdSet> sparseBuckets = new TreeMap<>(); /**< Buckets of larger ages; guarded by the map. */
+
+    /**
+     * @brief Constructor to initialize an empty index.
+     */
+    AgeIndex() {
+        for (int age = 0; age < DENSE_AGES; age++) {
+            denseBuckets[age] = new IdSet();
+        }
+    }
+
+    /**
+     * @brief Indexes a student under its current age.
+     *
+     * @param student The student that was added to the roster.
+     */
+    void add(Student student) {
+        int age = student.getStudentAge();
+        if (age >= 0 && age < DENSE_AGES) {
+            IdSet bucket = denseBuckets[age];
+            synchronized (bucket) {
+                bucket.add(student.getStudentId());
+            }
+        } else {
+            synchronized (sparseBuckets) {
+                sparseBuckets.computeIfAbsent(age, key -> new IdSet()).add(student.getStudentId());
+            }
+        }
+    }
+
+    /**
+     * @brief Removes a student from the index.
+     *
+     * @param student The student that was removed from the roster, with the age it was indexed under.
+     */
+    void remove(Student student) {
+        int age = student.getStudentAge();
+        if (age >= 0 && age < DENSE_AGES) {
+            IdSet bucket = denseBuckets[age];
+            synchronized (bucket) {
+                bucket.remove(student.getStudentId());
+            }
+        } else {
+            synchronized (sparseBuckets) {
+                IdSet bucket = sparseBuckets.get(age);
+                if (bucket != null && bucket.remove(student.getStudentId()) && bucket.isEmpty()) {
+                    sparseBuckets.remove(age);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Copies the IDs of the students whose age lies in a closed range.
+     *
+     * @param minAge The smallest age to include.
+     * @param maxAge The largest age to include.
+     * @return The IDs, by ascending age and in insertion order within one age.
+     */
+    IdList inRange(int minAge, int maxAge) {
+        IdList ids = new IdList();
+        if (minAge > maxAge) {
+            return ids;
+        }
+        for (int age = Math.max(minAge, 0); age <= Math.min(maxAge, DENSE_AGES - 1); age++) {
+            IdSet bucket = denseBuckets[age];
+            synchronized (bucket) {
+                bucket.forEach(ids::add);
+            }
+        }
+        synchronized (sparseBuckets) {
+            for (IdSet bucket : sparseRange(minAge, maxAge).values()) {
+                bucket.forEach(ids::add);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * @brief Counts the students whose age lies in a closed range.
+     *
+     * @param minAge The smallest age to include.
+     * @param maxAge The largest age to include.
+     * @return The number of students in the range.
+     */
+    int countInRange(int minAge, int maxAge) {
+        if (minAge > maxAge) {
+            return 0;
+        }
+        int count = 0;
+        for (int age = Math.max(minAge, 0); age <= Math.min(maxAge, DENSE_AGES - 1); age++) {
+            IdSet bucket = denseBuckets[age];
+            synchronized (bucket) {
+                count += bucket.size();
+            }
+        }
+        synchronized (sparseBuckets) {
+            for (IdSet bucket : sparseRange(minAge, maxAge).values()) {
+                count += bucket.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Returns the sparse buckets within a non-empty closed age range; called under the map's lock.
+     */
+    private Map<Integer, IdSet> sparseRange(int minAge, int maxAge) {
+        return sparseBuckets.subMap(minAge, true, maxAge, true);
+    }
+}
@@ -0,0 +1,27 @@
+/**
+ * @file CachePolicy.java
+ * @brief Eviction settings of the student cache.
+ */
+
+package com.example;
+
+/**
+ * @class CachePolicy
+ * @brief How CachingStudentStore decides which students to keep.
+ */
+public enum CachePolicy {
+    /**
+     * The least recently used student is evicted. Cheap and adequate when recent
+     * lookups predict the next ones, but a single scan over the roster flushes the
+     * whole cache.
+     */
+    LRU,
+
+    /**
+     * W-TinyLFU: new students enter a small LRU window, and leave it for the main
+     * cache only if they have been looked up more often than the student they would
+     * evict. Frequencies are estimated by a compact sketch, so students that are
+     * looked up once never push out the popular ones.
+     */
+    TINY_LFU
+}
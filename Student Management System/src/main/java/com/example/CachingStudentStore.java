@@ -0,0 +1,403 @@
+/**
+ * @file CachingStudentStore.java
+ * @brief Bounded read-through cache of ID lookups in front of a slower store.
+ *
+ * A store backed by disk, such as MappedStudentStore, decodes a record on every
+ * lookup and may have to fault its page in first. Lookups are heavily skewed
+ * towards a small set of active students, so keeping those students as objects
+ * answers most lookups without touching the backing store.
+ */
+
+package com.example;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @class CachingStudentStore
+ * @brief Store decorator that caches the students returned by get().
+ *
+ * get() answers from the cache and, on a miss, reads the backing store and
+ * caches the student it returns. Unknown IDs are not cached. add(), remove() and
+ * replace() go to the backing store and drop the cached students of their IDs,
+ * so the cache never returns a student that has left the store or been replaced.
+ * Iteration, paging and bulk operations bypass the cache.
+ *
+ * The cache holds at most maximumSize students, in up to three LRU queues:
+ *
+ *     window      new students; all of the cache under the LRU policy
+ *     probation   students that left the window, looked up once in the main cache
+ *     protected   students looked up again while on probation
+ *
+ * Under TINY_LFU, the window takes WINDOW_PERCENT of the cache and protected
+ * PROTECTED_PERCENT of the rest. A student pushed out of the window competes with
+ * the least recently used student on probation, and the one a FrequencySketch
+ * estimates to be looked up less often is evicted. Promotion to protected is what
+ * keeps a burst of one-off lookups from evicting the students that are looked up
+ * all the time.
+ *
+ * The hit, miss and eviction counters are kept since the store was created. Like
+ * the stores it fronts, this store is not thread-safe.
+ */
+class CachingStudentStore implements StudentStore {
+
+    private static final int WINDOW_PERCENT = 1;     /**< Share of the cache given to the TINY_LFU window. */
+    private static final int PROTECTED_PERCENT = 80; /**< Share of the main cache given to protected. */
+
+    private static final byte WINDOW = 0;
+    private static final byte PROBATION = 1;
+    private static final byte PROTECTED = 2;
+
+    /**
+     * @class Node
+     * @brief A cached student and its links in one of the LRU queues.
+     */
+    private static final class Node {
+        final int studentId;   /**< Key of the node. */
+        final Student student; /**< The cached student. */
+        byte queue;            /**< WINDOW, PROBATION or PROTECTED. */
+        Node previous;         /**< Next less recently used node, or the queue head. */
+        Node next;             /**< Next more recently used node, or the queue head. */
+
+        Node(int studentId, Student student) {
+            this.studentId = studentId;
+            this.student = student;
+        }
+    }
+
+    private final StudentStore store;            /**< The backing store. */
+    private final CachePolicy policy;            /**< How students are chosen for eviction. */
+    private final int maximumSize;               /**< Most students the cache holds. */
+    private final Node[] slots;                  /**< Open-addressing table of the cached nodes by ID. */
+    private final int shift;                     /**< Right shift that maps a hash onto the slot table. */
+    private int cachedCount;                     /**< Number of cached students. */
+    private final Node[] heads;                  /**< Sentinel of each queue, by queue number. */
+    private final int[] sizes;                   /**< Number of nodes in each queue. */
+    private final int[] capacities;              /**< Most nodes each queue holds. */
+    private final FrequencySketch sketch;        /**< Lookup frequencies, or null under LRU. */
+
+    private long hits;       /**< Lookups answered from the cache. */
+    private long misses;     /**< Lookups that read the backing store. */
+    private long evictions;  /**< Students evicted to make room. */
+
+    /**
+     * @brief Constructor to initialize an empty cache in front of a store.
+     *
+     * @param store The backing store.
+     * @param maximumSize The most students the cache holds; at least 1.
+     * @param policy How students are chosen for eviction.
+     * @throws IllegalArgumentException If maximumSize is not positive.
+     */
+    CachingStudentStore(StudentStore store, int maximumSize, CachePolicy policy) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumSize);
+        }
+        this.store = store;
+        this.policy = policy;
+        this.maximumSize = maximumSize;
+        // admit() holds one node over maximumSize until it evicts; at most half of the
+        // slots are ever in use, so probe chains stay short and an empty slot always ends them
+        int capacity = Integer.highestOneBit((int) Math.min(2 * ((long) maximumSize + 1), 1 << 30) - 1) << 1;
+        this.slots = new Node[capacity];
+        this.shift = 32 - Integer.numberOfTrailingZeros(slots.length);
+        this.heads = new Node[] {new Node(0, null), new Node(0, null), new Node(0, null)};
+        for (Node head : heads) {
+            head.previous = head;
+            head.next = head;
+        }
+        this.sizes = new int[3];
+        this.capacities = new int[3];
+        if (policy == CachePolicy.LRU || maximumSize < 3) {
+            capacities[WINDOW] = maximumSize;
+            this.sketch = null;
+        } else {
+            capacities[WINDOW] = Math.max(1, maximumSize * WINDOW_PERCENT / 100);
+            int main = maximumSize - capacities[WINDOW];
+            capacities[PROTECTED] = main * PROTECTED_PERCENT / 100;
+            capacities[PROBATION] = main - capacities[PROTECTED];
+            this.sketch = new FrequencySketch(maximumSize);
+        }
+    }
+
+    /**
+     * @brief Looks up a student by ID, in the cache first.
+     *
+     * @param studentId The ID to look up.
+     * @return The student with the ID, or null if there is none.
+     */
+    @Override
+    public Student get(int studentId) {
+        if (sketch != null) {
+            sketch.increment(studentId);
+        }
+        int slot = findSlot(studentId);
+        if (slot >= 0) {
+            Node node = slots[slot];
+            hits++;
+            touch(node);
+            return node.student;
+        }
+
+        misses++;
+        Student student = store.get(studentId);
+        if (student != null) {
+            admit(new Node(studentId, student));
+        }
+        return student;
+    }
+
+    @Override
+    public boolean contains(int studentId) {
+        return findSlot(studentId) >= 0 || store.contains(studentId);
+    }
+
+    @Override
+    public boolean add(Student student) {
+        invalidate(student.getStudentId());
+        return store.add(student);
+    }
+
+    @Override
+    public Student remove(int studentId) {
+        invalidate(studentId);
+        return store.remove(studentId);
+    }
+
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        invalidate(studentId);
+        invalidate(replacement.getStudentId());
+        return store.replace(studentId, replacement);
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        store.ensureCapacity(expectedSize);
+    }
+
+    @Override
+    public <T> T writeBatch(Supplier<T> writes) {
+        return store.writeBatch(writes);
+    }
+
+    @Override
+    public int page(long afterSequence, Student[] students, long[] sequences) {
+        return store.page(afterSequence, students, sequences);
+    }
+
+    @Override
+    public double loadFactor() {
+        return store.loadFactor();
+    }
+
+    @Override
+    public int maxNameLength() {
+        return store.maxNameLength();
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return store.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        store.forEach(action);
+    }
+
+    @Override
+    public Spliterator<Student> spliterator() {
+        return store.spliterator();
+    }
+
+    /**
+     * @brief Returns the share of lookups answered from the cache.
+     *
+     * @return The hit rate from 0 to 1, or NaN before the first lookup.
+     */
+    @Override
+    public double cacheHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    /**
+     * @brief Returns the number of lookups answered from the cache.
+     *
+     * @return The hit count.
+     */
+    long hitCount() {
+        return hits;
+    }
+
+    /**
+     * @brief Returns the number of lookups that read the backing store.
+     *
+     * @return The miss count.
+     */
+    long missCount() {
+        return misses;
+    }
+
+    /**
+     * @brief Returns the number of students evicted to make room for others.
+     *
+     * @return The eviction count.
+     */
+    long evictionCount() {
+        return evictions;
+    }
+
+    /**
+     * @brief Returns the number of cached students.
+     *
+     * @return The number of students in the cache, at most the maximum size.
+     */
+    int cachedCount() {
+        return cachedCount;
+    }
+
+    /**
+     * @brief Returns the eviction policy.
+     *
+     * @return The policy the cache was created with.
+     */
+    CachePolicy policy() {
+        return policy;
+    }
+
+    /**
+     * @brief Moves a node that was hit to the most recently used end of its queue,
+     *        promoting it from probation to protected.
+     */
+    private void touch(Node node) {
+        unlink(node);
+        if (node.queue == PROBATION) {
+            link(node, PROTECTED);
+            // Make room in protected by demoting its least recently used student
+            if (sizes[PROTECTED] > capacities[PROTECTED]) {
+                Node demoted = heads[PROTECTED].next;
+                unlink(demoted);
+                link(demoted, PROBATION);
+            }
+        } else {
+            link(node, node.queue);
+        }
+    }
+
+    /**
+     * @brief Adds a node that was missed to the window, evicting if the cache is full.
+     */
+    private void admit(Node node) {
+        slots[emptySlotFor(node.studentId)] = node;
+        cachedCount++;
+        link(node, WINDOW);
+        if (sizes[WINDOW] <= capacities[WINDOW]) {
+            return;
+        }
+
+        Node candidate = heads[WINDOW].next;
+        if (sketch == null) {
+            evict(candidate);
+            return;
+        }
+        unlink(candidate);
+        link(candidate, PROBATION);
+        if (cachedCount > maximumSize) {
+            // The window's oldest student and the oldest on probation compete for one place
+            Node victim = heads[PROBATION].next;
+            evict(sketch.frequency(candidate.studentId) > sketch.frequency(victim.studentId) ? victim : candidate);
+        }
+    }
+
+    /**
+     * @brief Drops the cached student of an ID, if there is one.
+     */
+    private void invalidate(int studentId) {
+        int slot = findSlot(studentId);
+        if (slot >= 0) {
+            unlink(slots[slot]);
+            deleteSlot(slot);
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        deleteSlot(findSlot(node.studentId));
+        evictions++;
+    }
+
+    /**
+     * @brief Appends a node at the most recently used end of a queue.
+     */
+    private void link(Node node, byte queue) {
+        Node head = heads[queue];
+        node.queue = queue;
+        node.previous = head.previous;
+        node.next = head;
+        head.previous.next = node;
+        head.previous = node;
+        sizes[queue]++;
+    }
+
+    private void unlink(Node node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        sizes[node.queue]--;
+    }
+
+    private int findSlot(int studentId) {
+        int mask = slots.length - 1;
+        Node node;
+        for (int slot = slotFor(studentId); (node = slots[slot]) != null; slot = (slot + 1) & mask) {
+            if (node.studentId == studentId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private int emptySlotFor(int studentId) {
+        int mask = slots.length - 1;
+        int slot = slotFor(studentId);
+        while (slots[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private int slotFor(int studentId) {
+        return (studentId * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * @brief Empties a slot while keeping every probe chain unbroken, as in StudentIndex.
+     */
+    private void deleteSlot(int hole) {
+        int mask = slots.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            Node node = slots[slot];
+            if (node == null) {
+                break;
+            }
+            int home = slotFor(node.studentId);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                slots[hole] = node;
+                hole = slot;
+            }
+        }
+        slots[hole] = null;
+        cachedCount--;
+    }
+}
@@ -0,0 +1,262 @@
+/**
+ * @file ChangeFeed.java
+ * @brief Sequence-numbered stream of the adds, updates and removes of a repository.
+ *
+ * Systems that keep a copy of the roster, such as billing or housing, subscribe
+ * to the feed and apply its events instead of polling and re-reading the whole
+ * roster. The feed is kept in memory; its sequence numbers start at 0 whenever a
+ * repository is created.
+ */
+
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @class ChangeFeed
+ * @brief Bounded ring buffer of StudentEvents that subscribers read in batches.
+ *
+ * A writer claims the next sequence number with one atomic increment and stores
+ * its event in the slot the number maps to; subscribers learn that the event is
+ * there from the sequence number stored with it. Writers never wait for
+ * subscribers, so a slow subscriber adds nothing to the latency of a write.
+ * Instead, each subscriber paces its own delivery: it asks for the next batch
+ * when it has handled the last one, and gets at most the events it asked for.
+ * The ring keeps the last capacity() events, so a subscriber may fall that far
+ * behind; a subscriber that falls further loses events it has not read, and is
+ * told so by poll() rather than being handed a gap.
+ *
+ * A repository publishes each event while it holds the write lock of the
+ * student, so the events of one student are in the order their writes took
+ * effect, and an event is published only after the store has accepted the
+ * write. All methods may be called from any thread.
+ */
+public final class ChangeFeed {
+
+    static final int DEFAULT_CAPACITY = 1 << 16; /**< Events a repository's feed keeps; a power of two. */
+
+    private final AtomicReferenceArray<StudentEvent> slots; /**< Event of sequence s at s & mask. */
+    private final int mask;                                 /**< Capacity minus one. */
+    private final AtomicLong nextSequence = new AtomicLong(); /**< Sequence number of the next event. */
+    private final Object signal = new Object();             /**< Monitor that waiting subscribers wait on. */
+    private volatile int waiting;                           /**< Subscribers waiting on the signal; changed under it. */
+
+    /**
+     * @brief Constructor to initialize an empty feed.
+     *
+     * @param capacity The number of events kept; a power of two.
+     * @throws IllegalArgumentException If the capacity is not a positive power of two.
+     */
+    ChangeFeed(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @brief Appends an event and wakes the subscribers waiting for it.
+     *
+     * @param type The kind of write.
+     * @param before The student before the write, or null for ADDED.
+     * @param after The student after the write, or null for REMOVED.
+     */
+    void publish(StudentEvent.Type type, Student before, Student after) {
+        long sequence = nextSequence.getAndIncrement();
+        store(new StudentEvent(sequence, type, before, after));
+        // The volatile write of the slot and read of the count pair with the
+        // subscriber's write of the count and read of the slot, so either the
+        // subscriber sees the event or the writer sees the subscriber waiting
+        if (waiting > 0) {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @brief Stores an event in its slot unless a later lap of the ring already has.
+     *
+     * A writer may stall between claiming its sequence number and storing its
+     * event while others wrap the ring onto the same slot. Its event was
+     * overwritten before it was stored, and storing it then would hide the newer
+     * event from subscribers, so it is dropped.
+     *
+     * @param event The event, with its claimed sequence number.
+     */
+    void store(StudentEvent event) {
+        int slot = (int) event.getSequence() & mask;
+        StudentEvent current;
+        do {
+            current = slots.get(slot);
+            if (current != null && current.getSequence() > event.getSequence()) {
+                return;
+            }
+        } while (!slots.compareAndSet(slot, current, event));
+    }
+
+    /**
+     * @brief Returns the sequence number the next event will get.
+     *
+     * Subscribing from it delivers only the events published afterwards.
+     *
+     * @return The number of events published so far.
+     */
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * @brief Returns the sequence number of the oldest event the feed still keeps.
+     *
+     * Events from it on may be read, until writers overwrite them.
+     *
+     * @return The oldest kept sequence number.
+     */
+    public long oldestSequence() {
+        return Math.max(0, nextSequence.get() - slots.length());
+    }
+
+    /**
+     * @brief Returns the number of events the feed keeps.
+     *
+     * @return The capacity of the ring buffer.
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @brief Starts reading the feed at a sequence number.
+     *
+     * To keep a copy of the roster, subscribe from nextSequence() before reading
+     * the roster, then apply the events; an event for a write the copy already
+     * holds can be applied again without harm. To resume after a restart of the
+     * subscriber, subscribe from the sequence number after the last event it
+     * applied.
+     *
+     * @param fromSequence The sequence number of the first event to deliver.
+     * @return The subscription.
+     * @throws IllegalArgumentException If the sequence number is negative or not yet assigned.
+     */
+    public Subscription subscribe(long fromSequence) {
+        if (fromSequence < 0 || fromSequence > nextSequence.get()) {
+            throw new IllegalArgumentException("No such sequence number: " + fromSequence);
+        }
+        return new Subscription(fromSequence);
+    }
+
+    /**
+     * @brief Returns the published event with a sequence number.
+     *
+     * @return The event, or null if it has not been published yet.
+     * @throws IllegalStateException If the event has been overwritten.
+     */
+    private StudentEvent read(long sequence) {
+        StudentEvent event = slots.get((int) sequence & mask);
+        if (event == null || event.getSequence() < sequence) {
+            return null;
+        }
+        if (event.getSequence() > sequence) {
+            throw new IllegalStateException("Events from sequence number " + sequence
+                    + " were overwritten before they were read; the oldest kept is " + oldestSequence());
+        }
+        return event;
+    }
+
+    /**
+     * @brief Waits until the event with a sequence number is published.
+     *
+     * @return The event, or null if the deadline passed first.
+     */
+    private StudentEvent await(long sequence, long deadline) throws InterruptedException {
+        StudentEvent event = read(sequence);
+        if (event != null) {
+            return event;
+        }
+        synchronized (signal) {
+            waiting++;
+            try {
+                while ((event = read(sequence)) == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(signal, remaining);
+                }
+                return event;
+            } finally {
+                waiting--;
+            }
+        }
+    }
+
+    /**
+     * @class Subscription
+     * @brief One reader's position in the feed.
+     *
+     * A subscription is meant for one thread; give each subscriber its own.
+     */
+    public final class Subscription {
+
+        private long position; /**< Sequence number of the next event to deliver. */
+
+        private Subscription(long position) {
+            this.position = position;
+        }
+
+        /**
+         * @brief Returns the sequence number of the next event poll() delivers.
+         *
+         * @return The position, which a restarted subscriber may subscribe from.
+         */
+        public long position() {
+            return position;
+        }
+
+        /**
+         * @brief Delivers the next batch of events, waiting for the first if there is none yet.
+         *
+         * The batch holds the events published since the last batch, in sequence
+         * order and without gaps, up to maxEvents of them. It is returned as soon
+         * as one event is available.
+         *
+         * @param maxEvents The largest number of events to deliver; at least 1.
+         * @param timeout How long to wait for the first event.
+         * @param unit The unit of the timeout.
+         * @return The events; empty if none was published before the timeout.
+         * @throws IllegalArgumentException If maxEvents is not positive.
+         * @throws InterruptedException If the thread is interrupted while waiting.
+         * @throws IllegalStateException If the next event has been overwritten
+         *         because the subscriber fell more than capacity() events behind.
+         */
+        public List<StudentEvent> poll(int maxEvents, long timeout, TimeUnit unit) throws InterruptedException {
+            if (maxEvents <= 0) {
+                throw new IllegalArgumentException("Batch size must be positive: " + maxEvents);
+            }
+            StudentEvent event = await(position, System.nanoTime() + unit.toNanos(timeout));
+            if (event == null) {
+                return List.of();
+            }
+            List<StudentEvent> batch = new ArrayList<>(Math.min(maxEvents, 64));
+            batch.add(event);
+            position++;
+            // Take what is already published; an overwritten event ends the batch
+            // and is reported by the next poll, so the events read are not lost
+            while (batch.size() < maxEvents) {
+                event = slots.get((int) position & mask);
+                if (event == null || event.getSequence() != position) {
+                    break;
+                }
+                batch.add(event);
+                position++;
+            }
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,534 @@
+/**
+ * @file ColumnarStudentStore.java
+ * @brief Memory-compact student store that keeps the roster in primitive columns.
+ *
+ * A roster of millions of Student objects spends most of its memory on object
+ * headers and references: every student costs a Student, a String and a byte
+ * array. This store keeps the fields in parallel arrays instead and creates
+ * Student objects only when they are read.
+ */
+
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @class ColumnarStudentStore
+ * @brief Insertion-ordered student store with int columns and a UTF-8 name arena.
+ *
+ * Each student occupies one position in the columns:
+ *
+ *     ids[p]         student ID, or HOLE once the student is removed
+ *     ages[p]        student age
+ *     sequences[p]   insertion sequence number, for page()
+ *     nameStarts[p]  start of the name in the arena
+ *     nameLengths[p] length of the name in bytes
+ *
+ * The ID index is an open-addressing slot table of positions, as in StudentIndex.
+ * Removed positions are compacted away, together with their bytes in the name
+ * arena, once they make up half of the columns.
+ *
+ * Names are appended to the arena in position order. replace() overwrites the
+ * fields of a position in place; a name that does not fit over the old one is
+ * appended to the arena instead, and the old bytes stay behind until stale
+ * names make up half of the arena and the columns are compacted.
+ *
+ * Reads return a new Student built from the columns, so changing it does not
+ * change the store, and two reads of the same ID return different objects.
+ * Student IDs must be positive. Like StudentIndex, this store is not thread-safe.
+ */
+class ColumnarStudentStore implements StudentStore {
+
+    private static final int MIN_CAPACITY = 16;      /**< Smallest slot table and column size. */
+    private static final int MAX_LOAD_PERCENT = 75;  /**< Slot table load that triggers growth. */
+    private static final int EMPTY = 0;              /**< Marker for an unused slot. */
+    private static final int HOLE = 0;               /**< ID marking a removed position. */
+    private static final int MAX_ARENA_SIZE = Integer.MAX_VALUE - 8; /**< Largest byte array the VM allocates. */
+
+    private int[] slots;        /**< Slot table holding position + 1, or EMPTY. */
+    private int shift;          /**< Right shift that maps a hash onto the slot table. */
+    private int growThreshold;  /**< Live student count at which the slot table doubles. */
+
+    private int[] ids;          /**< Student ID column. */
+    private int[] ages;         /**< Student age column. */
+    private int[] sequences;    /**< Insertion sequence number column. */
+    private int[] nameStarts;   /**< Arena offset of each name. */
+    private int[] nameLengths;  /**< UTF-8 length of each name. */
+    private byte[] arena;       /**< UTF-8 bytes of all names. */
+    private int arenaEnd;       /**< Number of arena bytes in use, stale names included. */
+    private int staleBytes;     /**< Arena bytes of names that were removed or replaced. */
+    private boolean relocated;  /**< Whether a name was appended out of position order since the last compaction. */
+
+    private int end;            /**< Number of used positions, including holes. */
+    private int size;           /**< Number of stored students. */
+    private int nextSequence;   /**< Sequence number of the next added student. */
+    private int modCount;       /**< Structural modification counter for fail-fast iteration. */
+
+    /**
+     * @brief Constructs an empty store.
+     */
+    public ColumnarStudentStore() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @brief Constructs an empty store sized for the expected number of students.
+     *
+     * @param expectedSize The number of students the store should hold without resizing.
+     */
+    public ColumnarStudentStore(int expectedSize) {
+        int capacity = Math.max(expectedSize, MIN_CAPACITY);
+        allocateSlots(tableSizeFor(capacity));
+        ids = new int[capacity];
+        ages = new int[capacity];
+        sequences = new int[capacity];
+        nameStarts = new int[capacity];
+        nameLengths = new int[capacity];
+        arena = new byte[capacity * 8];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) size / slots.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int studentId) {
+        return findSlot(studentId) >= 0;
+    }
+
+    /**
+     * @brief Looks up a student by ID.
+     *
+     * @param studentId The ID to look up.
+     * @return A new Student holding the stored fields, or null if there is none.
+     */
+    @Override
+    public Student get(int studentId) {
+        int slot = findSlot(studentId);
+        return slot < 0 ? null : studentAt(slots[slot] - 1);
+    }
+
+    /**
+     * @brief Copies a student into the columns unless its ID is already taken.
+     *
+     * @param student The student to add; only its fields are kept.
+     * @return True if the student was added, false if the ID was already taken.
+     * @throws IllegalArgumentException If the student ID is not positive.
+     */
+    @Override
+    public boolean add(Student student) {
+        int studentId = student.getStudentId();
+        if (studentId <= 0) {
+            throw new IllegalArgumentException("Student ID must be positive: " + studentId);
+        }
+        if (findSlot(studentId) >= 0) {
+            return false;
+        }
+
+        byte[] name = student.getStudentName().getBytes(StandardCharsets.UTF_8);
+        if (end == ids.length) {
+            makeRoomForPosition();
+        }
+        if (nextSequence == Integer.MAX_VALUE) {
+            compact(); // Renumbers the sequences from zero
+        }
+        int nameStart = arenaEnd;
+        ensureArenaCapacity((long) nameStart + name.length);
+        System.arraycopy(name, 0, arena, nameStart, name.length);
+        arenaEnd += name.length;
+
+        ids[end] = studentId;
+        ages[end] = student.getStudentAge();
+        sequences[end] = nextSequence++;
+        nameStarts[end] = nameStart;
+        nameLengths[end] = name.length;
+        end++;
+        size++;
+        modCount++;
+
+        if (size > growThreshold) {
+            rehash(slots.length << 1);
+        } else {
+            slots[emptySlotFor(studentId)] = end;
+        }
+        return true;
+    }
+
+    /**
+     * @brief Removes the student with the given ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return A new Student holding the removed fields, or null if no student had the ID.
+     */
+    @Override
+    public Student remove(int studentId) {
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+
+        int position = slots[slot] - 1;
+        Student removed = studentAt(position);
+        ids[position] = HOLE;
+        size--;
+        modCount++;
+        deleteSlot(slot);
+        releaseName(position);
+
+        if (position == end - 1) {
+            end--;
+        } else if (end - size > (end >>> 1) && end > MIN_CAPACITY) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * @brief Overwrites the fields of a student in place.
+     *
+     * The student keeps its position and sequence number. A name that is longer
+     * than the old one is appended to the arena unless the old one ends it.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student whose fields are copied into the position.
+     * @return A new Student holding the replaced fields, or null if no student had the ID.
+     * @throws IllegalArgumentException If the new ID is not positive or belongs to another student.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+        int newId = replacement.getStudentId();
+        if (newId != studentId) {
+            if (newId <= 0) {
+                throw new IllegalArgumentException("Student ID must be positive: " + newId);
+            }
+            if (findSlot(newId) >= 0) {
+                throw new IllegalArgumentException("Student ID is already taken: " + newId);
+            }
+        }
+
+        int position = slots[slot] - 1;
+        Student replaced = studentAt(position);
+        byte[] name = replacement.getStudentName().getBytes(StandardCharsets.UTF_8);
+        int nameStart = nameStarts[position];
+        int oldLength = nameLengths[position];
+        if (nameStart + oldLength == arenaEnd) {
+            ensureArenaCapacity((long) nameStart + name.length); // The name ends the arena and can grow there
+            arenaEnd = nameStart + name.length;
+        } else if (name.length <= oldLength) {
+            staleBytes += oldLength - name.length;
+        } else {
+            ensureArenaCapacity((long) arenaEnd + name.length);
+            nameStart = arenaEnd;
+            arenaEnd += name.length;
+            staleBytes += oldLength;
+            relocated = true;
+        }
+        System.arraycopy(name, 0, arena, nameStart, name.length);
+        nameStarts[position] = nameStart;
+        nameLengths[position] = name.length;
+        ages[position] = replacement.getStudentAge();
+
+        if (newId != studentId) {
+            deleteSlot(slot);
+            ids[position] = newId;
+            slots[emptySlotFor(newId)] = position + 1;
+        }
+        if (staleBytes > (arenaEnd >>> 1) && end > MIN_CAPACITY) {
+            compact();
+        }
+        return replaced;
+    }
+
+    /**
+     * @brief Grows the columns and the slot table to hold the given number of students.
+     *
+     * @param expectedSize The total number of students the store is about to hold.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize > ids.length) {
+            resizeColumns(expectedSize);
+        }
+        if (expectedSize > growThreshold) {
+            rehash(tableSizeFor(expectedSize));
+        }
+    }
+
+    /**
+     * @brief Copies the students that follow a position in insertion order.
+     *
+     * @param afterSequence The sequence number to continue after, or -1 to start at the beginning.
+     * @param students The array receiving the students.
+     * @param studentSequences The array receiving each student's sequence number.
+     * @return The number of students copied.
+     */
+    @Override
+    public int page(long afterSequence, Student[] students, long[] studentSequences) {
+        int position;
+        if (afterSequence >= Integer.MAX_VALUE) {
+            position = end;
+        } else {
+            position = Arrays.binarySearch(sequences, 0, end, (int) Math.max(afterSequence, -1));
+            position = position >= 0 ? position + 1 : -position - 1;
+        }
+
+        int count = 0;
+        for (; position < end && count < students.length; position++) {
+            if (ids[position] != HOLE) {
+                students[count] = studentAt(position);
+                studentSequences[count] = sequences[position];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Performs an action on a view of every student in insertion order.
+     *
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                action.accept(studentAt(i));
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * @brief Returns an iterator creating a view of every student in insertion order.
+     *
+     * @return A fail-fast iterator over the store.
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int cursor = advance(0);
+
+            private int advance(int from) {
+                while (from < end && ids[from] == HOLE) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cursor < end;
+            }
+
+            @Override
+            public Student next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (cursor >= end) {
+                    throw new NoSuchElementException();
+                }
+                Student student = studentAt(cursor);
+                cursor = advance(cursor + 1);
+                return student;
+            }
+        };
+    }
+
+    /**
+     * @brief Returns a spliterator creating a view of every student in insertion order.
+     *
+     * The spliterator splits the columns in halves, so parallel streams and
+     * RosterAnalytics give each thread its own slice of the columns.
+     *
+     * @return A sized, ordered, fail-fast spliterator over the store.
+     */
+    @Override
+    public Spliterator<Student> spliterator() {
+        return new PositionSpliterator(end, size, position -> ids[position] == HOLE ? null : studentAt(position),
+                () -> modCount);
+    }
+
+    /**
+     * @brief Creates a Student from the columns at a position.
+     */
+    private Student studentAt(int position) {
+        String name = new String(arena, nameStarts[position], nameLengths[position], StandardCharsets.UTF_8);
+        return new Student(ids[position], name, ages[position]);
+    }
+
+    private int findSlot(int studentId) {
+        int mask = slots.length - 1;
+        int slot = slotFor(studentId);
+        int position;
+        while ((position = slots[slot]) != EMPTY) {
+            if (ids[position - 1] == studentId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotFor(int studentId) {
+        return (studentId * 0x9E3779B9) >>> shift;
+    }
+
+    private int emptySlotFor(int studentId) {
+        int mask = slots.length - 1;
+        int slot = slotFor(studentId);
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @brief Empties a slot while keeping every probe chain unbroken, as StudentIndex does.
+     */
+    private void deleteSlot(int hole) {
+        int mask = slots.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int position = slots[slot];
+            if (position == EMPTY) {
+                break;
+            }
+            int home = slotFor(ids[position - 1]);
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                slots[hole] = position;
+                hole = slot;
+            }
+        }
+        slots[hole] = EMPTY;
+    }
+
+    /**
+     * @brief Frees a position at the end of the columns, compacting or growing them.
+     */
+    private void makeRoomForPosition() {
+        if (end - size >= (end >>> 2)) {
+            compact();
+        }
+        if (end == ids.length) {
+            resizeColumns(ids.length + (ids.length >>> 1) + 1);
+        }
+    }
+
+    private void resizeColumns(int length) {
+        ids = Arrays.copyOf(ids, length);
+        ages = Arrays.copyOf(ages, length);
+        sequences = Arrays.copyOf(sequences, length);
+        nameStarts = Arrays.copyOf(nameStarts, length);
+        nameLengths = Arrays.copyOf(nameLengths, length);
+    }
+
+    private void ensureArenaCapacity(long needed) {
+        if (needed > arena.length) {
+            if (needed > MAX_ARENA_SIZE) {
+                throw new IllegalStateException("The name arena cannot grow beyond " + MAX_ARENA_SIZE + " bytes");
+            }
+            arena = Arrays.copyOf(arena, (int) Math.min(MAX_ARENA_SIZE, Math.max(needed, arena.length * 3L / 2)));
+        }
+    }
+
+    /**
+     * @brief Marks the name bytes of a position as stale, or frees them if they end the arena.
+     */
+    private void releaseName(int position) {
+        if (nameStarts[position] + nameLengths[position] == arenaEnd) {
+            arenaEnd = nameStarts[position];
+        } else {
+            staleBytes += nameLengths[position];
+        }
+    }
+
+    /**
+     * @brief Moves the live students and their names down over the holes and stale names.
+     *
+     * Names are moved within the arena while they are in position order; once a
+     * name was appended out of order, they are copied to a new arena instead, so
+     * that no name is overwritten before it is moved.
+     *
+     * Once the sequence numbers run out, they are renumbered from zero in the same
+     * pass; page tokens issued before that point then resume from an earlier place.
+     */
+    private void compact() {
+        boolean renumber = nextSequence == Integer.MAX_VALUE;
+        byte[] names = relocated ? new byte[arena.length] : arena;
+        int target = 0;
+        int namesEnd = 0;
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                int nameLength = nameLengths[i];
+                System.arraycopy(arena, nameStarts[i], names, namesEnd, nameLength);
+                ids[target] = ids[i];
+                ages[target] = ages[i];
+                sequences[target] = renumber ? target : sequences[i];
+                nameStarts[target] = namesEnd;
+                nameLengths[target] = nameLength;
+                namesEnd += nameLength;
+                target++;
+            }
+        }
+        arena = names;
+        arenaEnd = namesEnd;
+        staleBytes = 0;
+        relocated = false;
+        end = target;
+        if (renumber) {
+            nextSequence = target;
+        }
+        rehash(slots.length);
+    }
+
+    private void rehash(int capacity) {
+        allocateSlots(capacity);
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                slots[emptySlotFor(ids[i])] = i + 1;
+            }
+        }
+    }
+
+    private void allocateSlots(int capacity) {
+        slots = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        growThreshold = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,154 @@
+/**
+ * @file CommandRecorder.java
+ * @brief Records the keyed operations of a repository as a timed command script.
+ *
+ * Capacity tests are only as good as their load. Recording what registrars
+ * actually do in the menu, or what clients do over HTTP, gives a script that
+ * StudentManagementSystem --commands can run as is and that the WorkloadGenerator
+ * benchmark can replay at the recorded pace.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @class CommandRecorder
+ * @brief Writes each add, update, remove and find as an ADD, UPD, DEL or GET line.
+ *
+ * The lines use the syntax of StudentCommandRunner. Each command is preceded by
+ * a comment "#@<micros>" giving the time since recording started in
+ * microseconds, unless it is the same as for the previous command; the command
+ * runner skips these comments. Adds and updates that fail validation are not
+ * recorded, so every name in the script is a valid one and every line parses.
+ * Queries, listings and imports from files are not recorded, except that an
+ * import records an ADD for each student it adds.
+ *
+ * All methods may be called from any thread; concurrent calls are recorded in
+ * the order they get the recorder's lock. The first write error stops the
+ * recording and is thrown by close(), so a full disk never fails the
+ * operations being recorded.
+ */
+final class CommandRecorder implements Closeable {
+
+    private final Writer out;                          /**< Buffered destination of the script. */
+    private final long startNanos = System.nanoTime(); /**< Time the recording started. */
+    private long lastMicros = -1;                      /**< Time stamp of the previous command. */
+    private IOException failure;                       /**< First write error, after which nothing is written. */
+
+    /**
+     * @brief Constructor to initialize a recorder writing to a stream.
+     *
+     * @param out The destination; closed by close().
+     */
+    CommandRecorder(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @brief Creates a recorder writing to a file, replacing its contents.
+     *
+     * @param file The script file.
+     * @return The recorder.
+     * @throws IOException If the file cannot be created.
+     */
+    static CommandRecorder open(Path file) throws IOException {
+        return new CommandRecorder(Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * @brief Records an add.
+     *
+     * @param student The student passed to add().
+     */
+    void add(Student student) {
+        if (StudentValidator.validate(student) == null) {
+            write("ADD " + student.getStudentId() + " " + student.getStudentName() + " " + student.getStudentAge());
+        }
+    }
+
+    /**
+     * @brief Records an update.
+     *
+     * @param studentId The ID passed to update().
+     * @param patch The patch passed to update().
+     */
+    void update(int studentId, StudentPatch patch) {
+        if (patch.validate() != null) {
+            return;
+        }
+        StringBuilder command = new StringBuilder("UPD ").append(studentId);
+        if (patch.hasStudentId()) {
+            command.append(" id=").append(patch.getStudentId());
+        }
+        if (patch.hasStudentAge()) {
+            command.append(" age=").append(patch.getStudentAge());
+        }
+        if (patch.hasStudentName()) {
+            command.append(" name=").append(patch.getStudentName());
+        }
+        write(command.toString());
+    }
+
+    /**
+     * @brief Records a remove.
+     *
+     * @param studentId The ID passed to remove().
+     */
+    void remove(int studentId) {
+        write("DEL " + studentId);
+    }
+
+    /**
+     * @brief Records a find.
+     *
+     * @param studentId The ID passed to find().
+     */
+    void find(int studentId) {
+        write("GET " + studentId);
+    }
+
+    /**
+     * @brief Writes the rest of the script and closes the destination.
+     *
+     * @throws IOException If a command could not be written or the destination cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            out.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @brief Writes a command line, preceded by its time stamp if that has changed.
+     */
+    private synchronized void write(String command) {
+        if (failure != null) {
+            return;
+        }
+        long micros = (System.nanoTime() - startNanos) / 1_000;
+        try {
+            if (micros != lastMicros) {
+                out.write("#@" + micros + "\n");
+                lastMicros = micros;
+            }
+            out.write(command);
+            out.write('\n');
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+}
@@ -0,0 +1,732 @@
+/**
+ * @file ConcurrentStudentStore.java
+ * @brief Thread-safe student store for concurrent clients.
+ *
+ * This store lets many threads read and write the roster at once. Lookups take no
+ * lock at all, writers lock only the stripe that owns the student ID, and scans
+ * iterate over a consistent point-in-time snapshot of the roster.
+ */
+
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * @class ConcurrentStudentStore
+ * @brief Striped, insertion-ordered int-to-Student map with lock-free reads.
+ *
+ * Student IDs are spread over a power-of-two number of stripes. Each stripe owns
+ * a lock, an open-addressing slot table and a dense array of its entries in
+ * insertion order, similar to StudentIndex.
+ *
+ * Readers probe the slot table without locking. Writers never move an entry that
+ * a reader may be looking at: a removal leaves a tombstone in its slot, and a
+ * table that needs to grow or shed tombstones is rebuilt as a new array and then
+ * published, so a reader always probes one complete table.
+ *
+ * Every entry carries a store-wide insertion sequence number. A scan briefly locks
+ * all stripes, copies their entry arrays and merges them by sequence number, which
+ * yields the roster as it was at one instant, in insertion order. A page is merged
+ * the same way from the entries that follow its start in each stripe.
+ */
+class ConcurrentStudentStore implements StudentStore {
+
+    private static final int MIN_CAPACITY = 16;      /**< Smallest slot table size. */
+    private static final int MAX_LOAD_PERCENT = 60;  /**< Used slot share, tombstones included, that triggers a rebuild. */
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Entry[].class);
+
+    /**
+     * @brief Slot marker for a removed entry; probes continue past it.
+     */
+    private static final Entry TOMBSTONE = new Entry(0, null, 0);
+
+    /**
+     * @class Entry
+     * @brief One stored student with its key and insertion sequence number.
+     */
+    private static final class Entry {
+        final int key;          /**< Student ID the entry is indexed under. */
+        final Student student;  /**< The stored student. */
+        final long sequence;    /**< Store-wide insertion sequence number. */
+        int position;           /**< Index in the stripe's entry array; guarded by the stripe lock. */
+
+        Entry(int key, Student student, long sequence) {
+            this.key = key;
+            this.student = student;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * @class Stripe
+     * @brief The share of the roster whose IDs hash to one lock.
+     */
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();   /**< Lock held by writers of the stripe. */
+        volatile Entry[] slots = new Entry[MIN_CAPACITY]; /**< Slot table read without locking. */
+        int usedSlots;              /**< Slots holding an entry or a tombstone. */
+        Entry[] entries = new Entry[MIN_CAPACITY]; /**< Entries in insertion order; null marks a removed entry. */
+        long[] sequences = new long[MIN_CAPACITY]; /**< Sequence number of each entry position, kept for holes too. */
+        int end;                    /**< Number of used entry positions, including holes. */
+        volatile int size;          /**< Number of live entries. */
+
+        void lock() {
+            lock.lock();
+        }
+
+        void unlock() {
+            lock.unlock();
+        }
+    }
+
+    private final Stripe[] stripes;        /**< Stripes indexed by the low bits of the ID hash. */
+    private final int stripeMask;          /**< Number of stripes minus one. */
+    private final AtomicLong nextSequence = new AtomicLong(); /**< Source of insertion sequence numbers. */
+
+    /**
+     * @brief Constructs an empty store with four stripes per available processor.
+     */
+    public ConcurrentStudentStore() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @brief Constructs an empty store with at least the given number of stripes.
+     *
+     * @param concurrencyLevel The number of writers expected to run at once.
+     */
+    public ConcurrentStudentStore(int concurrencyLevel) {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, 1 << 16)) * 2 - 1);
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        stripeMask = stripeCount - 1;
+    }
+
+    /**
+     * @brief Looks up a student by ID without locking.
+     *
+     * @param studentId The ID to look up.
+     * @return The student with the ID, or null if there is none.
+     */
+    @Override
+    public Student get(int studentId) {
+        int hash = hash(studentId);
+        Entry[] slots = stripes[hash & stripeMask].slots;
+        int mask = slots.length - 1;
+        int slot = hash >>> Integer.numberOfLeadingZeros(mask);
+        Entry entry;
+        while ((entry = (Entry) SLOT.getAcquire(slots, slot)) != null) {
+            if (entry.key == studentId && entry != TOMBSTONE) {
+                return entry.student;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @brief Adds a student unless one with the same ID already exists.
+     *
+     * @param student The student to add.
+     * @return True if the student was added, false if the ID was already taken.
+     */
+    @Override
+    public boolean add(Student student) {
+        int studentId = student.getStudentId();
+        int hash = hash(studentId);
+        Stripe stripe = stripes[hash & stripeMask];
+        stripe.lock();
+        try {
+            Entry[] slots = stripe.slots;
+            int mask = slots.length - 1;
+            int slot = hash >>> Integer.numberOfLeadingZeros(mask);
+            int reusable = -1;
+            Entry existing;
+            while ((existing = slots[slot]) != null) {
+                if (existing == TOMBSTONE) {
+                    if (reusable < 0) {
+                        reusable = slot;
+                    }
+                } else if (existing.key == studentId) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            Entry entry = new Entry(studentId, student, nextSequence.getAndIncrement());
+            appendEntry(stripe, entry);
+            if (reusable >= 0) {
+                SLOT.setRelease(slots, reusable, entry);
+            } else if (++stripe.usedSlots * 100L > (long) slots.length * MAX_LOAD_PERCENT) {
+                rebuildSlots(stripe); // Publishes a table that already holds the entry
+            } else {
+                SLOT.setRelease(slots, slot, entry);
+            }
+            stripe.size = stripe.size + 1;
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * @brief Removes the student with the given ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return The removed student, or null if no student had the ID.
+     */
+    @Override
+    public Student remove(int studentId) {
+        int hash = hash(studentId);
+        Stripe stripe = stripes[hash & stripeMask];
+        stripe.lock();
+        try {
+            Entry[] slots = stripe.slots;
+            int mask = slots.length - 1;
+            int slot = hash >>> Integer.numberOfLeadingZeros(mask);
+            Entry entry;
+            while ((entry = slots[slot]) != null) {
+                if (entry.key == studentId && entry != TOMBSTONE) {
+                    SLOT.setRelease(slots, slot, TOMBSTONE);
+                    stripe.size = stripe.size - 1;
+                    removeEntry(stripe, entry);
+                    return entry.student;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return null;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * @brief Replaces a student by another, keeping its insertion sequence number.
+     *
+     * Lookups see either the old or the new student. A new ID owned by another
+     * stripe locks both stripes, in stripe order, and moves the entry into the new
+     * stripe's entry array at the place of its sequence number. The new entry is
+     * published before the old one is removed, so a lookup never misses the
+     * student, but may briefly find it under both IDs.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student taking its place.
+     * @return The replaced student, or null if no student had the ID.
+     * @throws IllegalArgumentException If the replacement's ID belongs to another student.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        int newId = replacement.getStudentId();
+        Stripe stripe = stripes[hash(studentId) & stripeMask];
+        Stripe target = stripes[hash(newId) & stripeMask];
+        Stripe first = (hash(studentId) & stripeMask) <= (hash(newId) & stripeMask) ? stripe : target;
+        Stripe second = first == stripe ? target : stripe;
+        first.lock();
+        second.lock();
+        try {
+            Entry[] slots = stripe.slots;
+            int slot = findSlot(slots, studentId);
+            if (slot < 0) {
+                return null;
+            }
+            if (newId != studentId && findSlot(target.slots, newId) >= 0) {
+                throw new IllegalArgumentException("Student ID is already taken: " + newId);
+            }
+
+            Entry entry = slots[slot];
+            Entry updated = new Entry(newId, replacement, entry.sequence);
+            if (newId == studentId) {
+                updated.position = entry.position;
+                stripe.entries[entry.position] = updated;
+                SLOT.setRelease(slots, slot, updated);
+                return entry.student;
+            }
+
+            if (target == stripe) {
+                updated.position = entry.position;
+                stripe.entries[entry.position] = updated;
+            } else {
+                insertEntry(target, updated);
+                target.size = target.size + 1;
+            }
+            publishSlot(target, updated);
+            // A rebuilt table was filled from the entry array and no longer holds the old entry
+            if (stripe.slots == slots) {
+                SLOT.setRelease(slots, slot, TOMBSTONE);
+            }
+            if (target != stripe) {
+                stripe.size = stripe.size - 1;
+                removeEntry(stripe, entry);
+            }
+            return entry.student;
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * @brief Returns the number of stored students.
+     *
+     * The stripes are counted one after another, so while writers are active the
+     * result may not match the roster at any single instant.
+     *
+     * @return The number of students.
+     */
+    @Override
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    /**
+     * @brief Returns the share of slots in use over all stripes.
+     *
+     * Tombstones count as used, as they do for growth. The stripes are read
+     * without locking, so under concurrent writes the value is approximate.
+     *
+     * @return The load factor.
+     */
+    @Override
+    public double loadFactor() {
+        long used = 0;
+        long slotCount = 0;
+        for (Stripe stripe : stripes) {
+            used += stripe.usedSlots;
+            slotCount += stripe.slots.length;
+        }
+        return (double) used / slotCount;
+    }
+
+    /**
+     * @brief Sizes every stripe for its share of the expected number of students.
+     *
+     * @param expectedSize The total number of students the store is about to hold.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        int perStripe = expectedSize / stripes.length + 1;
+        for (Stripe stripe : stripes) {
+            stripe.lock();
+            try {
+                if (stripe.entries.length < perStripe) {
+                    stripe.entries = Arrays.copyOf(stripe.entries, perStripe);
+                    stripe.sequences = Arrays.copyOf(stripe.sequences, perStripe);
+                }
+                if ((long) perStripe * 100 > (long) stripe.slots.length * MAX_LOAD_PERCENT) {
+                    rebuildSlots(stripe);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+    }
+
+    /**
+     * @brief Performs an action on every student of a snapshot, in insertion order.
+     *
+     * @param action The action to perform; it may modify the store.
+     */
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        for (Student student : snapshot()) {
+            action.accept(student);
+        }
+    }
+
+    /**
+     * @brief Returns an iterator over a snapshot of the students in insertion order.
+     *
+     * The iterator never throws ConcurrentModificationException and does not see
+     * changes made after it was created.
+     *
+     * @return An iterator over the snapshot.
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return Arrays.asList(snapshot()).iterator();
+    }
+
+    /**
+     * @brief Returns a spliterator over a snapshot of the students in insertion order.
+     *
+     * @return A sized, ordered, immutable spliterator over the snapshot.
+     */
+    @Override
+    public Spliterator<Student> spliterator() {
+        return Spliterators.spliterator(snapshot(), Spliterator.ORDERED | Spliterator.DISTINCT
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+    }
+
+    /**
+     * @brief Copies the roster as it is at one instant, in insertion order.
+     *
+     * All stripe locks are held while the entry arrays are copied, which stalls
+     * writers for the duration of an array copy; the merge runs after they resume.
+     *
+     * @return The students, oldest first.
+     */
+    Student[] snapshot() {
+        Entry[][] copies = new Entry[stripes.length][];
+        int[] ends = new int[stripes.length];
+        int total = 0;
+
+        lockAll();
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe stripe = stripes[i];
+                copies[i] = Arrays.copyOf(stripe.entries, stripe.end);
+                ends[i] = stripe.end;
+                total += stripe.size;
+            }
+        } finally {
+            unlockAll();
+        }
+        Student[] students = new Student[total];
+        merge(copies, ends, students, null);
+        return students;
+    }
+
+    /**
+     * @brief Copies the students that follow a position in insertion order.
+     *
+     * Each stripe contributes at most one page of candidates, found by binary search
+     * over its sequence numbers while all stripes are locked, so the page is
+     * consistent even while writers are active.
+     *
+     * @param afterSequence The sequence number to continue after, or -1 to start at the beginning.
+     * @param students The array receiving the students.
+     * @param sequences The array receiving each student's sequence number.
+     * @return The number of students copied.
+     */
+    @Override
+    public int page(long afterSequence, Student[] students, long[] sequences) {
+        Entry[][] candidates = new Entry[stripes.length][];
+        int[] counts = new int[stripes.length];
+
+        lockAll();
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe stripe = stripes[i];
+                int position = Arrays.binarySearch(stripe.sequences, 0, stripe.end, afterSequence);
+                position = position >= 0 ? position + 1 : -position - 1;
+
+                Entry[] stripeCandidates = new Entry[Math.min(students.length, stripe.end - position)];
+                int count = 0;
+                for (; position < stripe.end && count < stripeCandidates.length; position++) {
+                    if (stripe.entries[position] != null) {
+                        stripeCandidates[count++] = stripe.entries[position];
+                    }
+                }
+                candidates[i] = stripeCandidates;
+                counts[i] = count;
+            }
+        } finally {
+            unlockAll();
+        }
+        return merge(candidates, counts, students, sequences);
+    }
+
+    /**
+     * @brief Locks every stripe, in stripe order.
+     *
+     * A writer holds at most two stripe locks, also taken in stripe order, so the
+     * fixed order rules out deadlock.
+     */
+    private void lockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (Stripe stripe : stripes) {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * @brief Merges the per-stripe entry arrays by insertion sequence number.
+     *
+     * Each array is already in insertion order, so a k-way merge over a small heap
+     * of stripe cursors produces the global order in O(n log k).
+     *
+     * @param copies The entry arrays, possibly containing holes.
+     * @param ends The number of used positions of each array.
+     * @param students The array receiving the students in insertion order.
+     * @param sequences The array receiving each student's sequence number, or null.
+     * @return The number of students merged; at most the length of the students array.
+     */
+    private static int merge(Entry[][] copies, int[] ends, Student[] students, long[] sequences) {
+        int[] cursors = new int[copies.length];
+        int[] heap = new int[copies.length];   // Stripe numbers ordered by their next sequence number
+        int heapSize = 0;
+        for (int i = 0; i < copies.length; i++) {
+            cursors[i] = skipHoles(copies[i], 0, ends[i]);
+            if (cursors[i] < ends[i]) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, copies, cursors);
+            }
+        }
+
+        int count = 0;
+        while (heapSize > 0 && count < students.length) {
+            int stripe = heap[0];
+            Entry entry = copies[stripe][cursors[stripe]];
+            if (sequences != null) {
+                sequences[count] = entry.sequence;
+            }
+            students[count++] = entry.student;
+            cursors[stripe] = skipHoles(copies[stripe], cursors[stripe] + 1, ends[stripe]);
+            if (cursors[stripe] == ends[stripe]) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, copies, cursors);
+        }
+        return count;
+    }
+
+    private static int skipHoles(Entry[] entries, int from, int end) {
+        while (from < end && entries[from] == null) {
+            from++;
+        }
+        return from;
+    }
+
+    private static long headSequence(int stripe, Entry[][] copies, int[] cursors) {
+        return copies[stripe][cursors[stripe]].sequence;
+    }
+
+    private static void siftUp(int[] heap, int index, Entry[][] copies, int[] cursors) {
+        int stripe = heap[index];
+        long sequence = headSequence(stripe, copies, cursors);
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (headSequence(heap[parent], copies, cursors) <= sequence) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = stripe;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, Entry[][] copies, int[] cursors) {
+        if (heapSize == 0) {
+            return;
+        }
+        int stripe = heap[0];
+        long sequence = headSequence(stripe, copies, cursors);
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < heapSize) {
+            if (child + 1 < heapSize
+                    && headSequence(heap[child + 1], copies, cursors) < headSequence(heap[child], copies, cursors)) {
+                child++;
+            }
+            if (sequence <= headSequence(heap[child], copies, cursors)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = stripe;
+    }
+
+    /**
+     * @brief Appends an entry to a stripe's entry array, compacting or growing it when full.
+     */
+    private static void appendEntry(Stripe stripe, Entry entry) {
+        makeRoomForEntry(stripe);
+        entry.position = stripe.end;
+        stripe.sequences[stripe.end] = entry.sequence;
+        stripe.entries[stripe.end++] = entry;
+    }
+
+    /**
+     * @brief Inserts an entry with an older sequence number into a stripe's entry array.
+     *
+     * The entry takes the place its sequence number belongs to, reusing a hole
+     * right before that place or shifting the newer entries up by one. An entry
+     * that was moved out of the stripe earlier finds the hole it left behind.
+     */
+    private static void insertEntry(Stripe stripe, Entry entry) {
+        makeRoomForEntry(stripe);
+        int position = Arrays.binarySearch(stripe.sequences, 0, stripe.end, entry.sequence);
+        if (position < 0) {
+            position = -position - 1;
+            if (position > 0 && stripe.entries[position - 1] == null) {
+                position--;
+            } else {
+                System.arraycopy(stripe.entries, position, stripe.entries, position + 1, stripe.end - position);
+                System.arraycopy(stripe.sequences, position, stripe.sequences, position + 1, stripe.end - position);
+                stripe.end++;
+                for (int i = position + 1; i < stripe.end; i++) {
+                    if (stripe.entries[i] != null) {
+                        stripe.entries[i].position = i;
+                    }
+                }
+            }
+        }
+        entry.position = position;
+        stripe.sequences[position] = entry.sequence;
+        stripe.entries[position] = entry;
+    }
+
+    /**
+     * @brief Makes sure a stripe's entry array has a free position at its end.
+     */
+    private static void makeRoomForEntry(Stripe stripe) {
+        if (stripe.end == stripe.entries.length) {
+            if (stripe.end - stripe.size >= (stripe.end >>> 2)) {
+                compact(stripe);
+            }
+            if (stripe.end == stripe.entries.length) {
+                int newLength = stripe.end + (stripe.end >>> 1) + 1;
+                stripe.entries = Arrays.copyOf(stripe.entries, newLength);
+                stripe.sequences = Arrays.copyOf(stripe.sequences, newLength);
+            }
+        }
+    }
+
+    /**
+     * @brief Finds the slot of a live entry in a slot table.
+     *
+     * @return The slot, or -1 if no live entry has the ID.
+     */
+    private static int findSlot(Entry[] slots, int studentId) {
+        int mask = slots.length - 1;
+        int slot = hash(studentId) >>> Integer.numberOfLeadingZeros(mask);
+        Entry entry;
+        while ((entry = slots[slot]) != null) {
+            if (entry.key == studentId && entry != TOMBSTONE) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Publishes an entry in the first free slot of its probe chain.
+     *
+     * @param stripe The stripe, locked by the caller; the entry is already in its entry array.
+     * @param entry The entry.
+     */
+    private static void publishSlot(Stripe stripe, Entry entry) {
+        Entry[] slots = stripe.slots;
+        int mask = slots.length - 1;
+        int slot = hash(entry.key) >>> Integer.numberOfLeadingZeros(mask);
+        Entry existing;
+        while ((existing = slots[slot]) != null && existing != TOMBSTONE) {
+            slot = (slot + 1) & mask;
+        }
+        if (existing == TOMBSTONE) {
+            SLOT.setRelease(slots, slot, entry);
+        } else if (++stripe.usedSlots * 100L > (long) slots.length * MAX_LOAD_PERCENT) {
+            rebuildSlots(stripe); // Publishes a table that already holds the entry
+        } else {
+            SLOT.setRelease(slots, slot, entry);
+        }
+    }
+
+    /**
+     * @brief Clears an entry's position in its stripe's entry array.
+     */
+    private static void removeEntry(Stripe stripe, Entry entry) {
+        stripe.entries[entry.position] = null;
+        if (entry.position == stripe.end - 1) {
+            stripe.end--; // Removing the newest entry leaves no hole behind
+        } else if (stripe.end - stripe.size > (stripe.end >>> 1) && stripe.end > MIN_CAPACITY) {
+            compact(stripe);
+        }
+    }
+
+    /**
+     * @brief Moves live entries down over the holes, keeping their order.
+     */
+    private static void compact(Stripe stripe) {
+        Entry[] entries = stripe.entries;
+        int target = 0;
+        for (int i = 0; i < stripe.end; i++) {
+            Entry entry = entries[i];
+            if (entry != null) {
+                entry.position = target;
+                stripe.sequences[target] = entry.sequence;
+                entries[target++] = entry;
+            }
+        }
+        Arrays.fill(entries, target, stripe.end, null);
+        stripe.end = target;
+    }
+
+    /**
+     * @brief Publishes a new slot table holding the stripe's live entries.
+     *
+     * The table is sized for at least twice the live entries and drops all
+     * tombstones. Readers still probing the old table finish on it undisturbed.
+     *
+     * @param stripe The stripe, locked by the caller.
+     */
+    private static void rebuildSlots(Stripe stripe) {
+        int live = 0;
+        for (int i = 0; i < stripe.end; i++) {
+            if (stripe.entries[i] != null) {
+                live++;
+            }
+        }
+        int wanted = Math.max(stripe.entries.length, live) * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(wanted - 1) << 1);
+        if (capacity < stripe.slots.length && live * 4 > stripe.slots.length) {
+            capacity = stripe.slots.length; // Only shrink a table that is mostly empty
+        }
+
+        Entry[] slots = new Entry[capacity];
+        int mask = capacity - 1;
+        int shift = Integer.numberOfLeadingZeros(mask);
+        for (int i = 0; i < stripe.end; i++) {
+            Entry entry = stripe.entries[i];
+            if (entry != null) {
+                int slot = hash(entry.key) >>> shift;
+                while (slots[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+        stripe.usedSlots = live;
+        stripe.slots = slots; // Volatile write publishes the filled table
+    }
+
+    /**
+     * @brief Fibonacci hash of a key.
+     *
+     * The low bits select the stripe and the high bits the home slot, so the two
+     * choices stay independent of each other.
+     *
+     * @param studentId The key to hash.
+     * @return The hash.
+     */
+    private static int hash(int studentId) {
+        return studentId * 0x9E3779B9;
+    }
+}
@@ -0,0 +1,459 @@
+/**
+ * @file DurableStudentStore.java
+ * @brief Student store that survives restarts.
+ *
+ * This store keeps the roster in an in-memory store and records every change
+ * in a write-ahead log. Snapshots of the whole roster are taken periodically so that
+ * the log stays short, and on startup the latest snapshot is loaded and the log
+ * written after it is replayed.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @class DurableStudentStore
+ * @brief Write-ahead logged, snapshotted wrapper around an in-memory store.
+ *
+ * The data directory holds files named
+ *
+ *     snapshot-<lsn>.snap   roster as of log record <lsn>
+ *     wal-<lsn>.log         log segment whose first record is <lsn> or later
+ *
+ * Once the log has grown by the configured number of records, the writer rotates to
+ * a new segment, copies the roster's fields and hands the copy to a background
+ * thread. That thread writes the snapshot and then deletes the segments and
+ * snapshots it supersedes, so writers never wait for a snapshot to reach disk.
+ *
+ * The in-memory store is a StudentIndex unless another one is passed in. Like
+ * StudentIndex, this store is not thread-safe. Under the ALWAYS policy a write
+ * therefore returns only after its own fsync, which no other writer can share;
+ * writeBatch() is the way to commit many writes with one.
+ */
+class DurableStudentStore implements StudentStore, Closeable {
+
+    static final long DEFAULT_SYNC_INTERVAL_MILLIS = 10;       /**< Flush interval of the log. */
+    static final long DEFAULT_SNAPSHOT_INTERVAL = 1_000_000;   /**< Log records between snapshots. */
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;            /**< Data directory. */
+    private final FsyncPolicy policy;        /**< When log writes are forced to disk. */
+    private final long snapshotInterval;     /**< Log records between snapshots. */
+    private final StudentStore index;        /**< The live roster. */
+    private final WriteAheadLog log;         /**< Log of changes since the last snapshot. */
+    private final ExecutorService snapshotWriter; /**< Background thread writing snapshots. */
+
+    private Future<?> snapshotInProgress;    /**< The snapshot being written, if any. */
+    private long recordsSinceSnapshot;       /**< Log records appended since the last snapshot started. */
+    private long unsyncedLsn;                /**< Last LSN of the current write batch. */
+    private int batchDepth;                  /**< Nesting depth of writeBatch() calls. */
+
+    /**
+     * @brief Opens a store with the default sync and snapshot intervals.
+     *
+     * @param directory The data directory; created if it does not exist.
+     * @param policy When log writes are forced to disk.
+     * @return The recovered store.
+     * @throws IOException If the data directory cannot be read or written.
+     */
+    static DurableStudentStore open(Path directory, FsyncPolicy policy) throws IOException {
+        return open(directory, policy, new StudentIndex());
+    }
+
+    /**
+     * @brief Opens a store that keeps the roster in the given in-memory store.
+     *
+     * @param directory The data directory; created if it does not exist.
+     * @param policy When log writes are forced to disk.
+     * @param memory An empty store to recover the roster into.
+     * @return The recovered store.
+     * @throws IOException If the data directory cannot be read or written.
+     */
+    static DurableStudentStore open(Path directory, FsyncPolicy policy, StudentStore memory) throws IOException {
+        return new DurableStudentStore(directory, policy, DEFAULT_SYNC_INTERVAL_MILLIS, DEFAULT_SNAPSHOT_INTERVAL,
+                memory);
+    }
+
+    /**
+     * @brief Constructor that recovers the roster from a data directory.
+     *
+     * @param directory The data directory; created if it does not exist.
+     * @param policy When log writes are forced to disk.
+     * @param syncIntervalMillis How often the log is flushed under the INTERVAL and NEVER policies.
+     * @param snapshotInterval The number of log records after which a snapshot is taken.
+     * @throws IOException If the data directory cannot be read or written.
+     */
+    DurableStudentStore(Path directory, FsyncPolicy policy, long syncIntervalMillis, long snapshotInterval)
+            throws IOException {
+        this(directory, policy, syncIntervalMillis, snapshotInterval, new StudentIndex());
+    }
+
+    /**
+     * @brief Constructor that recovers the roster into the given in-memory store.
+     *
+     * @param directory The data directory; created if it does not exist.
+     * @param policy When log writes are forced to disk.
+     * @param syncIntervalMillis How often the log is flushed under the INTERVAL and NEVER policies.
+     * @param snapshotInterval The number of log records after which a snapshot is taken.
+     * @param memory An empty store to recover the roster into.
+     * @throws IOException If the data directory cannot be read or written.
+     */
+    DurableStudentStore(Path directory, FsyncPolicy policy, long syncIntervalMillis, long snapshotInterval,
+            StudentStore memory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.policy = policy;
+        this.snapshotInterval = snapshotInterval;
+        this.index = memory;
+
+        long lastLsn = recover();
+        this.log = new WriteAheadLog(segmentFile(lastLsn + 1), lastLsn, policy, syncIntervalMillis);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public Student get(int studentId) {
+        return index.get(studentId);
+    }
+
+    @Override
+    public boolean contains(int studentId) {
+        return index.contains(studentId);
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public double loadFactor() {
+        return index.loadFactor();
+    }
+
+    /**
+     * @brief Returns the longest name a log record holds.
+     *
+     * Valid names consist of ASCII letters and spaces, so a character takes one byte.
+     *
+     * @return The smaller of WriteAheadLog.MAX_NAME_BYTES and the index's limit.
+     */
+    @Override
+    public int maxNameLength() {
+        return Math.min(WriteAheadLog.MAX_NAME_BYTES, index.maxNameLength());
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        index.ensureCapacity(expectedSize);
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return index.iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        index.forEach(action);
+    }
+
+    @Override
+    public Spliterator<Student> spliterator() {
+        return index.spliterator();
+    }
+
+    @Override
+    public int page(long afterSequence, Student[] students, long[] sequences) {
+        return index.page(afterSequence, students, sequences);
+    }
+
+    /**
+     * @brief Adds a student and logs the addition.
+     *
+     * @param student The student to add.
+     * @return True if the student was added, false if the ID was already taken.
+     */
+    @Override
+    public boolean add(Student student) {
+        if (!index.add(student)) {
+            return false;
+        }
+        long lsn;
+        try {
+            lsn = log.appendAdd(student);
+        } catch (RuntimeException e) {
+            index.remove(student.getStudentId()); // Keep memory consistent with the log
+            throw e;
+        }
+        afterWrite(lsn);
+        return true;
+    }
+
+    /**
+     * @brief Removes a student and logs the removal.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return The removed student, or null if no student had the ID.
+     */
+    @Override
+    public Student remove(int studentId) {
+        Student removed = index.remove(studentId);
+        if (removed == null) {
+            return null;
+        }
+        long lsn;
+        try {
+            lsn = log.appendRemove(studentId);
+        } catch (RuntimeException e) {
+            index.add(removed);
+            throw e;
+        }
+        afterWrite(lsn);
+        return removed;
+    }
+
+    /**
+     * @brief Replaces a student in the in-memory store and logs the update.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student taking its place.
+     * @return The replaced student, or null if no student had the ID.
+     * @throws IllegalArgumentException If the replacement's ID belongs to another student.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        Student replaced = index.replace(studentId, replacement);
+        if (replaced == null) {
+            return null;
+        }
+        long lsn;
+        try {
+            lsn = log.appendUpdate(studentId, replacement);
+        } catch (RuntimeException e) {
+            index.replace(replacement.getStudentId(), replaced);
+            throw e;
+        }
+        afterWrite(lsn);
+        return replaced;
+    }
+
+    /**
+     * @brief Runs a group of writes that is acknowledged as a whole.
+     *
+     * Under the ALWAYS policy the writes inside the batch do not wait for the disk
+     * one by one; the batch returns once its last record is durable.
+     *
+     * @param writes The writes to run.
+     * @return The value returned by the writes.
+     */
+    @Override
+    public <T> T writeBatch(Supplier<T> writes) {
+        batchDepth++;
+        T result;
+        try {
+            result = writes.get();
+        } finally {
+            batchDepth--;
+        }
+        if (batchDepth == 0 && unsyncedLsn > 0) {
+            long lsn = unsyncedLsn;
+            unsyncedLsn = 0;
+            log.awaitDurable(lsn);
+        }
+        return result;
+    }
+
+    /**
+     * @brief Takes a snapshot now and waits until it is on disk.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    void snapshot() throws IOException {
+        startSnapshot();
+        awaitSnapshot();
+    }
+
+    /**
+     * @brief Flushes the log, waits for a running snapshot and releases all resources.
+     *
+     * @throws IOException If the log cannot be flushed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            awaitSnapshot();
+        } finally {
+            snapshotWriter.shutdown();
+            log.close();
+        }
+    }
+
+    /**
+     * @brief Acknowledges a logged write and starts a snapshot when one is due.
+     *
+     * @param lsn The LSN of the write.
+     */
+    private void afterWrite(long lsn) {
+        if (policy == FsyncPolicy.ALWAYS) {
+            // Callers are serialized, so only a batch can share an fsync
+            if (batchDepth > 0) {
+                unsyncedLsn = lsn;
+            } else {
+                log.awaitDurable(lsn);
+            }
+        }
+        if (++recordsSinceSnapshot >= snapshotInterval
+                && (snapshotInProgress == null || snapshotInProgress.isDone())) {
+            try {
+                startSnapshot();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start a snapshot", e);
+            }
+        }
+    }
+
+    /**
+     * @brief Rotates the log and hands a copy of the roster to the snapshot writer.
+     */
+    private void startSnapshot() throws IOException {
+        awaitSnapshot();
+        long lsn = log.rotate(this::segmentFile);
+        SnapshotFile.Contents contents = new SnapshotFile.Contents(lsn, index);
+        recordsSinceSnapshot = 0;
+        snapshotInProgress = snapshotWriter.submit(() -> {
+            SnapshotFile.write(snapshotFile(lsn), contents);
+            deleteFilesBefore(lsn);
+            return null;
+        });
+    }
+
+    /**
+     * @brief Waits for the running snapshot, if any, and reports its failure.
+     */
+    private void awaitSnapshot() throws IOException {
+        if (snapshotInProgress == null) {
+            return;
+        }
+        try {
+            snapshotInProgress.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing a snapshot", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Could not write a snapshot", e.getCause());
+        } finally {
+            snapshotInProgress = null;
+        }
+    }
+
+    /**
+     * @brief Loads the newest snapshot and replays the log after it.
+     *
+     * The segments a snapshot covers are deleted once it is written, so an unreadable
+     * newest snapshot cannot be worked around and fails the recovery.
+     *
+     * @return The LSN of the last recovered record.
+     */
+    private long recover() throws IOException {
+        // A leftover temporary file is a snapshot that never completed
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*.tmp")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        List<Long> snapshots = listLsns(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long snapshotLsn = 0;
+        if (!snapshots.isEmpty()) {
+            snapshotLsn = SnapshotFile.load(snapshotFile(snapshots.get(snapshots.size() - 1)), index);
+        }
+
+        long lastLsn = snapshotLsn;
+        for (long segmentLsn : listLsns(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            lastLsn = WriteAheadLog.replay(segmentFile(segmentLsn), lastLsn, new WriteAheadLog.Visitor() {
+                @Override
+                public void added(long lsn, Student student) {
+                    index.add(student);
+                }
+
+                @Override
+                public void removed(long lsn, int studentId) {
+                    index.remove(studentId);
+                }
+
+                @Override
+                public void updated(long lsn, int studentId, Student student) {
+                    index.replace(studentId, student);
+                }
+            });
+        }
+        return lastLsn;
+    }
+
+    /**
+     * @brief Deletes the segments and snapshots made obsolete by the snapshot at an LSN.
+     */
+    private void deleteFilesBefore(long snapshotLsn) throws IOException {
+        for (long lsn : listLsns(SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (lsn <= snapshotLsn) {
+                Files.deleteIfExists(segmentFile(lsn));
+            }
+        }
+        for (long lsn : listLsns(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (lsn < snapshotLsn) {
+                Files.deleteIfExists(snapshotFile(lsn));
+            }
+        }
+    }
+
+    /**
+     * @brief Lists the LSNs in the names of the data files of one kind, in ascending order.
+     */
+    private List<Long> listLsns(String prefix, String suffix) throws IOException {
+        List<Long> lsns = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    lsns.add(Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        lsns.sort(null);
+        return lsns;
+    }
+
+    private Path snapshotFile(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, lsn, SNAPSHOT_SUFFIX));
+    }
+
+    private Path segmentFile(long lsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, lsn, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * @file FrequencySketch.java
+ * @brief Approximate lookup counts of student IDs for the W-TinyLFU cache.
+ *
+ * The cache needs to know how often a student was looked up recently, including
+ * students it no longer holds. Counting every ID exactly would cost more memory
+ * than the cache itself, so the counts are kept in a count-min sketch.
+ */
+
+package com.example;
+
+/**
+ * @class FrequencySketch
+ * @brief Count-min sketch of 4-bit counters with periodic aging.
+ *
+ * Each ID increments one counter in each of four rows, picked by independent
+ * hashes, and its frequency is the smallest of the four. Collisions can only
+ * raise an estimate, never lower it. The counters saturate at 15, which is
+ * enough to tell popular IDs from the rest.
+ *
+ * The counters are packed sixteen to a long. After RESET_MULTIPLIER times the
+ * cache size increments, every counter is halved, so the sketch follows changes
+ * in popularity instead of remembering old favourites forever.
+ */
+final class FrequencySketch {
+
+    private static final int RESET_MULTIPLIER = 10; /**< Increments per cache entry between two halvings. */
+    private static final long ONE_MASK = 0x1111111111111111L; /**< Lowest bit of every counter. */
+    private static final long HALF_MASK = 0x7777777777777777L; /**< Bits of every counter after a right shift. */
+    private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+    };
+
+    private final long[] table;      /**< Counters, sixteen 4-bit counters per long. */
+    private final int sampleSize;    /**< Increments between two halvings. */
+    private int increments;          /**< Increments since the last halving. */
+
+    /**
+     * @brief Constructor to initialize an empty sketch for a cache of the given size.
+     *
+     * @param maximumSize The number of students the cache holds.
+     */
+    FrequencySketch(int maximumSize) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 26)) - 1) << 1;
+        this.table = new long[length];
+        this.sampleSize = (int) Math.min((long) RESET_MULTIPLIER * Math.max(1, maximumSize), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @brief Returns the estimated number of recent lookups of an ID.
+     *
+     * @param studentId The ID.
+     * @return The estimate, from 0 to 15.
+     */
+    int frequency(int studentId) {
+        int frequency = 15;
+        for (int row = 0; row < SEEDS.length; row++) {
+            long hash = hash(studentId, row);
+            frequency = Math.min(frequency, (int) (table[index(hash)] >>> shift(hash)) & 15);
+        }
+        return frequency;
+    }
+
+    /**
+     * @brief Counts one lookup of an ID.
+     *
+     * @param studentId The ID.
+     */
+    void increment(int studentId) {
+        for (int row = 0; row < SEEDS.length; row++) {
+            long hash = hash(studentId, row);
+            int index = index(hash);
+            int shift = shift(hash);
+            if (((table[index] >>> shift) & 15) != 15) {
+                table[index] += 1L << shift;
+            }
+        }
+        if (++increments == sampleSize) {
+            halve();
+        }
+    }
+
+    /**
+     * @brief Halves every counter, rounding down.
+     */
+    private void halve() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & HALF_MASK;
+        }
+        // Each counter rounded down lost half an increment
+        increments = (increments - (odd >>> 2)) >>> 1;
+    }
+
+    private static long hash(int studentId, int row) {
+        long hash = (studentId + SEEDS[row]) * SEEDS[row];
+        return hash ^ (hash >>> 29);
+    }
+
+    private int index(long hash) {
+        return (int) (hash >>> 32) & (table.length - 1);
+    }
+
+    private static int shift(long hash) {
+        return ((int) hash & 15) << 2;
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * @file FsyncPolicy.java
+ * @brief Durability settings of the write-ahead log.
+ */
+
+package com.example;
+
+/**
+ * @class FsyncPolicy
+ * @brief When the write-ahead log forces its writes to disk.
+ *
+ * All policies write through a background flusher, so a writer never performs an
+ * fsync itself; the policies only differ in whether writers wait for one.
+ */
+public enum FsyncPolicy {
+    /**
+     * Every write is acknowledged only once it is on disk. The stores are not
+     * thread-safe and their callers wait while holding the lock that serializes
+     * them, so each write outside writeBatch() waits for an fsync of its own; the
+     * writes of a batch are committed together by one (group commit).
+     */
+    ALWAYS,
+
+    /**
+     * Writes are acknowledged immediately and forced to disk by the flusher at a fixed
+     * interval, so at most one interval of writes can be lost on power failure.
+     */
+    INTERVAL,
+
+    /**
+     * Writes are handed to the operating system without fsync; they survive a process
+     * crash but not a power failure.
+     */
+    NEVER
+}
@@ -0,0 +1,104 @@
+/**
+ * @file HashRing.java
+ * @brief Consistent hashing of student IDs onto shards.
+ *
+ * Taking the ID modulo the number of shards would move almost every student when
+ * a shard is added. On a hash ring, a new shard takes over only the arcs that
+ * its points land on, which hold about 1/(n + 1) of the students.
+ */
+
+package com.example;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @class HashRing
+ * @brief Maps keys to the nodes owning the points that follow them on a 32-bit ring.
+ *
+ * Every node is placed on the ring at VIRTUAL_NODES points hashed from its name,
+ * and a key belongs to the node of the first point at or after the key's hash,
+ * wrapping around at the end. Many points per node even out the arcs, so the
+ * nodes' shares of the keys differ by a few percent rather than by a factor.
+ * Because the points depend only on the names, a ring built from the same names
+ * in any order maps every key the same way.
+ *
+ * Points are kept in one sorted array of (point, node) pairs, so a lookup is a
+ * binary search. The ring is immutable; add() returns a new ring.
+ */
+final class HashRing {
+
+    static final int VIRTUAL_NODES = 160; /**< Points placed on the ring per node. */
+
+    private final long[] points; /**< Sorted pairs of point (high 32 bits) and node number (low 32 bits). */
+
+    /**
+     * @brief Constructor to initialize an empty ring.
+     */
+    HashRing() {
+        this(new long[0]);
+    }
+
+    private HashRing(long[] points) {
+        this.points = points;
+    }
+
+    /**
+     * @brief Returns a ring with a node added.
+     *
+     * @param node The number the ring returns for the node's keys.
+     * @param name The name the node's points are hashed from; unique among the nodes.
+     * @return The new ring.
+     */
+    HashRing add(int node, String name) {
+        long seed = 0xCBF29CE484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            seed = (seed ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        long[] added = Arrays.copyOf(points, points.length + VIRTUAL_NODES);
+        for (int i = 0; i < VIRTUAL_NODES; i++) {
+            int point = (int) (mix(seed + i * 0x9E3779B97F4A7C15L) >>> 32);
+            // Offset the signed point so that the pairs sort in unsigned point order
+            added[points.length + i] = (long) (point ^ Integer.MIN_VALUE) << 32 | node;
+        }
+        Arrays.sort(added);
+        return new HashRing(added);
+    }
+
+    /**
+     * @brief Returns the node that owns a key.
+     *
+     * @param key The key, such as a student ID.
+     * @return The node number.
+     * @throws IllegalStateException If the ring has no nodes.
+     */
+    int nodeFor(int key) {
+        if (points.length == 0) {
+            throw new IllegalStateException("The ring has no nodes");
+        }
+        long hash = (long) ((int) (mix(key) >>> 32) ^ Integer.MIN_VALUE) << 32;
+        int index = Arrays.binarySearch(points, hash);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return (int) points[index == points.length ? 0 : index];
+    }
+
+    /**
+     * @brief Returns the number of nodes on the ring.
+     *
+     * @return The node count.
+     */
+    int size() {
+        return points.length / VIRTUAL_NODES;
+    }
+
+    /**
+     * @brief Scrambles the bits of a value, as in SplitMix64.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
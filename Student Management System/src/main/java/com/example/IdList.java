@@ -0,0 +1,69 @@
+/**
+ * @file IdList.java
+ * @brief Growable list of student IDs.
+ *
+ * The secondary indexes copy the IDs a query matches into a list under their
+ * locks and return it, so the students are looked up in the store after the
+ * locks are released.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+
+/**
+ * @class IdList
+ * @brief Array-backed list of ints, without boxing.
+ */
+final class IdList {
+
+    private int[] ids;  /**< IDs in the order they were added. */
+    private int size;   /**< Number of IDs in the list. */
+
+    /**
+     * @brief Constructor to initialize an empty list.
+     */
+    IdList() {
+        this(16);
+    }
+
+    /**
+     * @brief Constructor to initialize an empty list with room for a number of IDs.
+     *
+     * @param capacity The number of IDs the list holds before it grows.
+     */
+    IdList(int capacity) {
+        ids = new int[Math.max(16, capacity)];
+    }
+
+    /**
+     * @brief Appends an ID.
+     *
+     * @param id The ID to append.
+     */
+    void add(int id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >>> 1));
+        }
+        ids[size++] = id;
+    }
+
+    /**
+     * @brief Returns the ID at a position.
+     *
+     * @param index The position, from 0 to size() - 1.
+     * @return The ID.
+     */
+    int get(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @brief Returns the number of IDs in the list.
+     *
+     * @return The list size.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * @file IdSet.java
+ * @brief Insertion-ordered set of student IDs.
+ *
+ * The secondary indexes group students by ID rather than by reference, so that
+ * they do not keep Student objects alive in stores that create them on demand.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * @class IdSet
+ * @brief Open-addressing set of positive ints that iterates in insertion order.
+ *
+ * The layout follows StudentIndex without the Student array: IDs are appended to
+ * a dense array, and a power-of-two slot table, probed linearly, stores their
+ * positions. A removed ID leaves a 0 in the dense array, which is never a valid
+ * student ID; the holes are compacted away once they make up half of it.
+ */
+class IdSet {
+
+    private static final int MIN_CAPACITY = 8;       /**< Smallest slot table size. */
+    private static final int MAX_LOAD_PERCENT = 60;  /**< Slot table load that triggers growth. */
+    private static final int HOLE = 0;               /**< Marker for a removed ID and an unused slot. */
+
+    private int[] slots = new int[MIN_CAPACITY]; /**< Slot table holding position + 1, or HOLE. */
+    private int shift = 32 - 3;                  /**< Right shift that maps a hash onto the slot table. */
+    private int[] ids = new int[4];              /**< IDs in insertion order; HOLE marks a removed ID. */
+    private int end;                             /**< Number of used positions, including holes. */
+    private int size;                            /**< Number of IDs in the set. */
+
+    /**
+     * @brief Returns the number of IDs in the set.
+     *
+     * @return The set size.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @brief Checks whether the set holds no IDs.
+     *
+     * @return True if the set is empty, false otherwise.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @brief Checks whether an ID is in the set.
+     *
+     * @param id The ID to look for.
+     * @return True if the set holds the ID, false otherwise.
+     */
+    boolean contains(int id) {
+        return findSlot(id) >= 0;
+    }
+
+    /**
+     * @brief Adds an ID unless it is already present.
+     *
+     * @param id The ID to add; must be positive.
+     * @return True if the ID was added, false if it was already present.
+     */
+    boolean add(int id) {
+        if (findSlot(id) >= 0) {
+            return false;
+        }
+        if (end == ids.length) {
+            if (end - size >= (end >>> 2)) {
+                compact();
+            }
+            if (end == ids.length) {
+                ids = Arrays.copyOf(ids, end + (end >>> 1) + 1);
+            }
+        }
+        ids[end++] = id;
+        size++;
+        if (size * 100L > (long) slots.length * MAX_LOAD_PERCENT) {
+            rehash(slots.length << 1);
+        } else {
+            slots[emptySlotFor(id)] = end;
+        }
+        return true;
+    }
+
+    /**
+     * @brief Removes an ID.
+     *
+     * @param id The ID to remove.
+     * @return True if the ID was present, false otherwise.
+     */
+    boolean remove(int id) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        int position = slots[slot] - 1;
+        ids[position] = HOLE;
+        size--;
+        deleteSlot(slot);
+
+        if (position == end - 1) {
+            end--; // Removing the newest ID leaves no hole behind
+        } else if (end - size > (end >>> 1)) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * @brief Performs an action on every ID in insertion order.
+     *
+     * @param action The action to perform; it must not modify the set.
+     */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+
+    private int findSlot(int id) {
+        int mask = slots.length - 1;
+        int slot = (id * 0x9E3779B9) >>> shift;
+        int position;
+        while ((position = slots[slot]) != HOLE) {
+            if (ids[position - 1] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int emptySlotFor(int id) {
+        int mask = slots.length - 1;
+        int slot = (id * 0x9E3779B9) >>> shift;
+        while (slots[slot] != HOLE) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @brief Empties a slot by shifting later entries of its probe chain back, as StudentIndex does.
+     */
+    private void deleteSlot(int hole) {
+        int mask = slots.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int position = slots[slot];
+            if (position == HOLE) {
+                break;
+            }
+            int home = (ids[position - 1] * 0x9E3779B9) >>> shift;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                slots[hole] = position;
+                hole = slot;
+            }
+        }
+        slots[hole] = HOLE;
+    }
+
+    /**
+     * @brief Moves the IDs down over the holes and rebuilds the slot table.
+     */
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                ids[target++] = ids[i];
+            }
+        }
+        Arrays.fill(ids, target, end, HOLE);
+        end = target;
+        int capacity = slots.length;
+        while (capacity > MIN_CAPACITY && size * 100L * 4 < (long) capacity * MAX_LOAD_PERCENT) {
+            capacity >>>= 1; // Shrink a table that emptied out
+        }
+        rehash(capacity);
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != HOLE) {
+                slots[emptySlotFor(ids[i])] = i + 1;
+            }
+        }
+    }
+}
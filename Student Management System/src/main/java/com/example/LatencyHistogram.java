@@ -0,0 +1,185 @@
+/**
+ * @file LatencyHistogram.java
+ * @brief Lock-free latency histogram with bounded relative error.
+ *
+ * The histogram follows the layout of HdrHistogram: values are counted in
+ * buckets whose width doubles with every power of two, and each power of two is
+ * split into SUB_BUCKETS linear sub-buckets. Recording is a bucket index
+ * computation and one atomic increment, and the reported percentiles are within
+ * 1 / SUB_BUCKETS (about 3%) of the recorded values.
+ */
+
+package com.example;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * @class LatencyHistogram
+ * @brief Counts durations in nanoseconds and reports their percentiles.
+ *
+ * Values below 2 * SUB_BUCKETS are counted exactly; larger values are counted in
+ * the sub-bucket that holds them, and reported as the sub-bucket's upper bound.
+ * Values above MAX_VALUE are counted as MAX_VALUE.
+ *
+ * Threads record into one of several stripes, picked by thread ID, so that
+ * threads recording the same latency do not all increment the same counter.
+ * A snapshot adds the stripes up without stopping the recording threads, so it
+ * may leave out values recorded while it is taken.
+ */
+final class LatencyHistogram {
+
+    static final long MAX_VALUE = 1L << 40; /**< Largest value told apart, about 18 minutes in nanoseconds. */
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; /**< Sub-buckets per power of two. */
+    private static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+    private static final int MAX_STRIPES = 16;
+
+    private final AtomicLongArray counts; /**< BUCKET_COUNT counters per stripe, one stripe after another. */
+    private final int stripeMask;         /**< Stripe count minus one; the stripe count is a power of two. */
+
+    /**
+     * @brief Constructor to initialize an empty histogram striped for the available processors.
+     */
+    LatencyHistogram() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(processors * 2 - 1) << 1);
+        this.stripeMask = stripes - 1;
+        this.counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+    }
+
+    /**
+     * @brief Counts one value.
+     *
+     * @param nanos The duration to count; negative values are counted as 0.
+     */
+    void record(long nanos) {
+        int stripe = (int) Thread.currentThread().threadId() & stripeMask;
+        counts.getAndIncrement(stripe * BUCKET_COUNT + bucketIndex(Math.max(0, Math.min(nanos, MAX_VALUE))));
+    }
+
+    /**
+     * @brief Adds the counts of another histogram to this one.
+     *
+     * @param other The histogram whose values are counted again here.
+     */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < other.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.getAndAdd(i % BUCKET_COUNT, count);
+            }
+        }
+    }
+
+    /**
+     * @brief Clears all counts.
+     *
+     * Values recorded while the histogram is being cleared may or may not be kept.
+     */
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * @brief Adds up the stripes into a snapshot of the counts.
+     *
+     * @return The snapshot.
+     */
+    Snapshot snapshot() {
+        long[] total = new long[BUCKET_COUNT];
+        for (int i = 0; i < counts.length(); i++) {
+            total[i % BUCKET_COUNT] += counts.get(i);
+        }
+        return new Snapshot(total);
+    }
+
+    /**
+     * @brief Returns the bucket counting a value between 0 and MAX_VALUE.
+     */
+    static int bucketIndex(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        // The top SUB_BUCKET_BITS + 1 bits of the value select the bucket
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * @brief Returns the largest value counted in a bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+        long subBucket = (bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * @class Snapshot
+     * @brief The counts of a histogram at one point in time.
+     */
+    static final class Snapshot {
+
+        private final long[] counts; /**< Count of each bucket. */
+        private final long total;    /**< Sum of the counts. */
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long count : counts) {
+                sum += count;
+            }
+            this.total = sum;
+        }
+
+        /**
+         * @brief Returns the number of recorded values.
+         *
+         * @return The count.
+         */
+        long count() {
+            return total;
+        }
+
+        /**
+         * @brief Returns the value that a given share of the recorded values do not exceed.
+         *
+         * @param percentile The share, from 0 to 100.
+         * @return The upper bound of the bucket holding that value, or 0 if nothing was recorded.
+         */
+        long valueAtPercentile(double percentile) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * Math.min(percentile, 100) / 100));
+            long seen = 0;
+            for (int bucket = 0; bucket < counts.length; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    return highestValueIn(bucket);
+                }
+            }
+            return max();
+        }
+
+        /**
+         * @brief Returns the largest recorded value.
+         *
+         * @return The upper bound of the highest non-empty bucket, or 0 if nothing was recorded.
+         */
+        long max() {
+            for (int bucket = counts.length - 1; bucket >= 0; bucket--) {
+                if (counts[bucket] != 0) {
+                    return highestValueIn(bucket);
+                }
+            }
+            return 0;
+        }
+    }
+}
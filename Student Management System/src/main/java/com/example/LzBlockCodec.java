@@ -0,0 +1,212 @@
+/**
+ * @file LzBlockCodec.java
+ * @brief LZ77 compression of roster blocks in the LZ4 block format.
+ *
+ * Encoded rosters repeat the same few bytes over and over: small ID deltas, a
+ * handful of ages and references to the same names. A byte-oriented LZ77 codec
+ * removes most of that redundancy at a speed well above disk bandwidth.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @class LzBlockCodec
+ * @brief Compresses and decompresses single blocks of at most 64 KB.
+ *
+ * A compressed block is a series of sequences:
+ *
+ *     byte  token: literal count in the high nibble, match length - 4 in the low one
+ *     bytes more literal count, as bytes of 255 ended by a smaller one, if the nibble is 15
+ *     bytes literals
+ *     short offset of the match back from the current position, little-endian
+ *     bytes more match length, as for the literal count, if the nibble is 15
+ *
+ * The last sequence has literals only and ends the block. This is the LZ4 block
+ * format, so blocks can be inspected with LZ4 tools, but the compressor is a
+ * simple greedy one: it looks up each 4-byte group in a hash table of the latest
+ * position it was seen at and skips ahead faster the longer it finds no match, so
+ * data that does not compress costs little time.
+ */
+final class LzBlockCodec {
+
+    static final int MAX_OFFSET = 65535;   /**< Farthest back a match may start. */
+
+    private static final int MIN_MATCH = 4;       /**< Shortest match worth encoding. */
+    private static final int LAST_LITERALS = 5;   /**< Bytes at the end that are always literals. */
+    private static final int MATCH_LIMIT = 12;    /**< No match starts in the last bytes of a block. */
+    private static final int HASH_BITS = 12;      /**< log2 of the hash table size. */
+    private static final int SKIP_SHIFT = 6;      /**< Misses before the search step grows by one. */
+
+    private final int[] table = new int[1 << HASH_BITS]; /**< Latest position of each hashed 4-byte group. */
+
+    /**
+     * @brief Compresses a block of bytes.
+     *
+     * @param src The array holding the block.
+     * @param from The index of the first byte of the block.
+     * @param length The length of the block.
+     * @param dst The array to write the compressed block to.
+     * @param dstFrom The index to write the first compressed byte at.
+     * @param dstLimit The index the compressed block must end before.
+     * @return The index after the last compressed byte, or -1 if it does not fit before dstLimit.
+     */
+    int compress(byte[] src, int from, int length, byte[] dst, int dstFrom, int dstLimit) {
+        Arrays.fill(table, -1);
+        int end = from + length;
+        int anchor = from;
+        int out = dstFrom;
+
+        if (length > MATCH_LIMIT) {
+            int searchLimit = end - MATCH_LIMIT;
+            int matchLimit = end - LAST_LITERALS;
+            int position = from;
+            while (position < searchLimit) {
+                int group = intAt(src, position);
+                int hash = (group * 0x9E3779B1) >>> (32 - HASH_BITS);
+                int candidate = table[hash];
+                table[hash] = position;
+                if (candidate < 0 || position - candidate > MAX_OFFSET || intAt(src, candidate) != group) {
+                    position += 1 + ((position - anchor) >>> SKIP_SHIFT);
+                    continue;
+                }
+
+                // Extend the match backwards into the pending literals, then forwards
+                while (position > anchor && candidate > from && src[position - 1] == src[candidate - 1]) {
+                    position--;
+                    candidate--;
+                }
+                int matchEnd = position + MIN_MATCH;
+                for (int source = candidate + MIN_MATCH; matchEnd < matchLimit && src[matchEnd] == src[source]; source++) {
+                    matchEnd++;
+                }
+
+                out = writeSequence(src, anchor, position - anchor, position - candidate, matchEnd - position,
+                        dst, out, dstLimit);
+                if (out < 0) {
+                    return -1;
+                }
+                anchor = matchEnd;
+                position = matchEnd;
+            }
+        }
+        return writeSequence(src, anchor, end - anchor, 0, 0, dst, out, dstLimit);
+    }
+
+    /**
+     * @brief Decompresses a block straight from a buffer.
+     *
+     * The buffer is read with absolute gets, so its position is left alone and it
+     * may be a mapped or direct buffer.
+     *
+     * @param src The buffer holding the compressed block.
+     * @param from The index of the first compressed byte.
+     * @param to The index after the last compressed byte.
+     * @param dst The array to decompress into, from index 0.
+     * @param length The length of the decompressed block.
+     * @throws IOException If the compressed block is malformed or does not decompress to length bytes.
+     */
+    static void decompress(ByteBuffer src, int from, int to, byte[] dst, int length) throws IOException {
+        int in = from;
+        int out = 0;
+        try {
+            while (true) {
+                int token = src.get(in++) & 0xFF;
+                int literalCount = token >>> 4;
+                if (literalCount == 15) {
+                    int extra;
+                    do {
+                        extra = src.get(in++) & 0xFF;
+                        literalCount += extra;
+                    } while (extra == 255);
+                }
+                if (literalCount > length - out || literalCount > to - in) {
+                    throw new IOException("Compressed block is corrupt");
+                }
+                src.get(in, dst, out, literalCount);
+                in += literalCount;
+                out += literalCount;
+                if (in == to) {
+                    break;
+                }
+
+                int offset = (src.get(in) & 0xFF) | (src.get(in + 1) & 0xFF) << 8;
+                in += 2;
+                int matchLength = (token & 15) + MIN_MATCH;
+                if ((token & 15) == 15) {
+                    int extra;
+                    do {
+                        extra = src.get(in++) & 0xFF;
+                        matchLength += extra;
+                    } while (extra == 255);
+                }
+                if (offset == 0 || offset > out || matchLength > length - out) {
+                    throw new IOException("Compressed block is corrupt");
+                }
+                int match = out - offset;
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, match, dst, out, matchLength);
+                } else {
+                    // The match overlaps the bytes it produces, as in a run of one repeated byte
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[out + i] = dst[match + i];
+                    }
+                }
+                out += matchLength;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Compressed block is corrupt", e);
+        }
+        if (out != length) {
+            throw new IOException("Compressed block is corrupt");
+        }
+    }
+
+    /**
+     * @brief Writes one sequence; a match length of 0 writes the final literals-only sequence.
+     *
+     * @return The index after the sequence, or -1 if it does not fit before dstLimit.
+     */
+    private static int writeSequence(byte[] src, int literalFrom, int literalCount, int offset, int matchLength,
+                                     byte[] dst, int out, int dstLimit) {
+        int extraMatch = matchLength - MIN_MATCH;
+        if (out + 1 + literalCount + literalCount / 255 + 1 + 2 + Math.max(extraMatch, 0) / 255 + 1 > dstLimit) {
+            return -1;
+        }
+        int token = out++;
+        dst[token] = (byte) (Math.min(literalCount, 15) << 4);
+        out = writeLength(literalCount, dst, out);
+        System.arraycopy(src, literalFrom, dst, out, literalCount);
+        out += literalCount;
+        if (matchLength == 0) {
+            return out;
+        }
+
+        dst[token] |= (byte) Math.min(extraMatch, 15);
+        dst[out++] = (byte) offset;
+        dst[out++] = (byte) (offset >>> 8);
+        return writeLength(extraMatch, dst, out);
+    }
+
+    /**
+     * @brief Writes the bytes that extend a nibble of 15 to the full count.
+     */
+    private static int writeLength(int count, byte[] dst, int out) {
+        if (count < 15) {
+            return out;
+        }
+        for (count -= 15; count >= 255; count -= 255) {
+            dst[out++] = (byte) 255;
+        }
+        dst[out++] = (byte) count;
+        return out;
+    }
+
+    private static int intAt(byte[] src, int index) {
+        return (src[index] & 0xFF) | (src[index + 1] & 0xFF) << 8 | (src[index + 2] & 0xFF) << 16
+                | src[index + 3] << 24;
+    }
+}
@@ -0,0 +1,195 @@
+/**
+ * @file MappedFile.java
+ * @brief Growable memory-mapped file addressed by long offsets.
+ *
+ * A single MappedByteBuffer is limited to 2 GB, so the file is mapped in chunks
+ * and every access is routed to the chunk holding its offset.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @class MappedFile
+ * @brief Read-write mapping of a file that grows on demand.
+ *
+ * The file is mapped in chunks of CHUNK_SIZE bytes; only the last chunk may be
+ * shorter, and it is remapped at twice its length when the file grows, so a small
+ * file is not padded to a full chunk. Callers must lay out their data so that no
+ * single value crosses a chunk boundary, which holds for any value whose size
+ * divides its offset.
+ *
+ * Values are stored little-endian, so files move between machines unchanged.
+ * Only one thread may write the file. While nothing is written, several threads
+ * may read it at once, since the accessors are absolute and leave the buffers'
+ * positions alone. force() may be called from another thread; it is synchronized
+ * with growth, which replaces the chunk buffers.
+ */
+class MappedFile implements Closeable {
+
+    static final int CHUNK_SHIFT = 30;                 /**< log2 of the chunk size. */
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;  /**< Bytes mapped by each full chunk. */
+
+    private static final int CHUNK_MASK = (int) CHUNK_SIZE - 1;
+    private static final int MIN_LENGTH = 4096;        /**< Smallest length the file is mapped with. */
+
+    private final FileChannel channel;      /**< Channel the chunks are mapped from. */
+    private MappedByteBuffer[] chunks;      /**< Mapped chunks, in file order. */
+    private long length;                    /**< Number of mapped bytes. */
+
+    /**
+     * @brief Opens a file for reading and writing, creating it if it does not exist.
+     *
+     * @param file The file to map.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    MappedFile(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        chunks = new MappedByteBuffer[0];
+        long existing = channel.size();
+        if (existing > 0) {
+            grow(existing);
+        }
+    }
+
+    /**
+     * @brief Returns the number of mapped bytes, which is also the file size.
+     *
+     * @return The mapped length.
+     */
+    long length() {
+        return length;
+    }
+
+    /**
+     * @brief Extends the file and its mapping to at least the given length.
+     *
+     * @param minLength The number of bytes that must be addressable.
+     */
+    void ensureLength(long minLength) {
+        if (minLength > length) {
+            try {
+                grow(Math.max(minLength, Math.max(length * 2, MIN_LENGTH)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not grow " + channel, e);
+            }
+        }
+    }
+
+    // Absolute accessors; offsets are file offsets and values must not cross a chunk
+
+    int getInt(long offset) {
+        return chunk(offset).getInt((int) offset & CHUNK_MASK);
+    }
+
+    void putInt(long offset, int value) {
+        chunk(offset).putInt((int) offset & CHUNK_MASK, value);
+    }
+
+    long getLong(long offset) {
+        return chunk(offset).getLong((int) offset & CHUNK_MASK);
+    }
+
+    void putLong(long offset, long value) {
+        chunk(offset).putLong((int) offset & CHUNK_MASK, value);
+    }
+
+    byte getByte(long offset) {
+        return chunk(offset).get((int) offset & CHUNK_MASK);
+    }
+
+    void putByte(long offset, byte value) {
+        chunk(offset).put((int) offset & CHUNK_MASK, value);
+    }
+
+    void getBytes(long offset, byte[] bytes, int length) {
+        chunk(offset).get((int) offset & CHUNK_MASK, bytes, 0, length);
+    }
+
+    void putBytes(long offset, byte[] bytes, int length) {
+        chunk(offset).put((int) offset & CHUNK_MASK, bytes, 0, length);
+    }
+
+    /**
+     * @brief Zeroes a range of the file.
+     *
+     * @param offset The start of the range; a multiple of 8.
+     * @param length The length of the range; a multiple of 8.
+     */
+    void clear(long offset, long length) {
+        for (long end = offset + length; offset < end; offset += Long.BYTES) {
+            putLong(offset, 0);
+        }
+    }
+
+    /**
+     * @brief Forces a range of the file to disk.
+     *
+     * @param offset The start of the range.
+     * @param length The length of the range; the range may cross chunk boundaries.
+     */
+    synchronized void force(long offset, long length) {
+        long end = Math.min(offset + length, this.length);
+        while (offset < end) {
+            int index = (int) (offset >>> CHUNK_SHIFT);
+            int start = (int) offset & CHUNK_MASK;
+            int count = (int) Math.min(end - offset, chunks[index].capacity() - start);
+            chunks[index].force(start, count);
+            offset += count;
+        }
+    }
+
+    /**
+     * @brief Forces every modified page of the file to disk.
+     */
+    synchronized void force() {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * @brief Closes the file channel.
+     *
+     * The mapped chunks stay valid until they are garbage collected, as Java offers
+     * no way to unmap them; the file must not be used after it is closed.
+     *
+     * @throws IOException If the channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    /**
+     * @brief Maps the file up to the given length, remapping a partial last chunk.
+     */
+    private synchronized void grow(long newLength) throws IOException {
+        int count = (int) ((newLength + CHUNK_SIZE - 1) >>> CHUNK_SHIFT);
+        MappedByteBuffer[] grown = Arrays.copyOf(chunks, count);
+        for (int i = Math.max(chunks.length - 1, 0); i < count; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            long size = Math.min(CHUNK_SIZE, newLength - start);
+            if (grown[i] == null || grown[i].capacity() < size) {
+                grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+                grown[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+        chunks = grown;
+        length = newLength;
+    }
+}
@@ -0,0 +1,699 @@
+/**
+ * @file MappedStudentStore.java
+ * @brief Student store that keeps the roster in memory-mapped files.
+ *
+ * The roster and its ID index live in two files that are mapped into memory
+ * instead of being loaded onto the heap. Opening a roster maps the files and reads
+ * a short header, so it takes about the same time at any roster size, and the
+ * operating system's page cache keeps the records that are in use in memory.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * @class MappedStudentStore
+ * @brief Insertion-ordered student store of fixed-width records in a mapped file.
+ *
+ * The data directory holds two files:
+ *
+ *     students.dat   a 64-byte header followed by one 64-byte record per position
+ *     students.idx   the ID index: an open-addressing slot table of position + 1
+ *
+ * A record holds the student ID (HOLE once the student is removed), the age, the
+ * insertion sequence number and the name as up to MAX_NAME_BYTES of UTF-8. Records
+ * are appended, and removed records are compacted away once they make up half of
+ * the file. The ID is written last, so a record becomes visible only once it is
+ * complete.
+ *
+ * Writes reach the file as soon as they return, so they survive a process crash;
+ * the fsync policy decides when they are forced to disk. A header flag records
+ * whether the store was closed cleanly. If it was not, opening the store rescans
+ * the records and rebuilds the ID index, which also repairs an interrupted
+ * compaction: compaction only moves records towards the front of the file, so a
+ * record whose sequence number is not above that of the record before it is a
+ * stale copy.
+ *
+ * Reads return a new Student built from the record. Student IDs must be positive.
+ * Like StudentIndex, this store is not thread-safe.
+ */
+class MappedStudentStore implements StudentStore, Closeable {
+
+    static final int MAX_NAME_BYTES = 47; /**< Longest name a record holds, in UTF-8 bytes. */
+
+    private static final String DATA_FILE = "students.dat";
+    private static final String INDEX_FILE = "students.idx";
+
+    // Header layout
+    private static final int MAGIC = 0x31445453;             /**< "STD1" in little-endian order. */
+    private static final long MAGIC_OFFSET = 0;
+    private static final long CLEAN_OFFSET = 4;              /**< 1 if the store was closed cleanly. */
+    private static final long END_OFFSET = 8;
+    private static final long SIZE_OFFSET = 16;
+    private static final long NEXT_SEQUENCE_OFFSET = 24;
+    private static final long INDEX_CAPACITY_OFFSET = 32;
+    private static final int HEADER_SIZE = 64;
+
+    // Record layout
+    private static final int RECORD_SIZE = 64;
+    private static final int ID_OFFSET = 0;
+    private static final int AGE_OFFSET = 4;
+    private static final int SEQUENCE_OFFSET = 8;
+    private static final int NAME_LENGTH_OFFSET = 16;
+    private static final int NAME_OFFSET = 17;
+
+    private static final int MIN_CAPACITY = 1024;    /**< Smallest slot table size. */
+    private static final int MAX_LOAD_PERCENT = 50;  /**< Slot table load that triggers growth. */
+    private static final int EMPTY = 0;              /**< Marker for an unused slot. */
+    private static final int HOLE = 0;               /**< ID marking a removed record. */
+
+    private final MappedFile data;           /**< Header and records. */
+    private final MappedFile index;          /**< ID index slot table. */
+    private final FsyncPolicy policy;        /**< When writes are forced to disk. */
+    private final ScheduledExecutorService flusher; /**< Forces the files under the INTERVAL policy, or null. */
+    private final byte[] nameBuffer = new byte[MAX_NAME_BYTES]; /**< Scratch space for decoding names. */
+
+    private int capacity;        /**< Number of slots in the ID index, a power of two. */
+    private int shift;           /**< Right shift that maps a hash onto the slot table. */
+    private int growThreshold;   /**< Live student count at which the slot table doubles. */
+    private int end;             /**< Number of used positions, including holes. */
+    private int size;            /**< Number of stored students. */
+    private long nextSequence;   /**< Sequence number of the next added student. */
+    private int modCount;        /**< Structural modification counter for fail-fast iteration. */
+    private int batchDepth;      /**< Nesting depth of writeBatch() calls. */
+    private boolean unforced;    /**< Whether a write batch has writes to force. */
+
+    /**
+     * @brief Opens the store in a data directory, creating it if it does not exist.
+     *
+     * @param directory The data directory.
+     * @param policy When writes are forced to disk.
+     * @return The opened store.
+     * @throws IOException If the files cannot be opened, or do not hold a roster.
+     */
+    static MappedStudentStore open(Path directory, FsyncPolicy policy) throws IOException {
+        return new MappedStudentStore(directory, policy, DurableStudentStore.DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+
+    /**
+     * @brief Constructor that opens or creates the files in a data directory.
+     *
+     * @param directory The data directory; created if it does not exist.
+     * @param policy When writes are forced to disk.
+     * @param syncIntervalMillis How often the files are forced under the INTERVAL policy.
+     * @throws IOException If the files cannot be opened, or do not hold a roster.
+     */
+    MappedStudentStore(Path directory, FsyncPolicy policy, long syncIntervalMillis) throws IOException {
+        Files.createDirectories(directory);
+        this.policy = policy;
+        this.data = new MappedFile(directory.resolve(DATA_FILE));
+        this.index = new MappedFile(directory.resolve(INDEX_FILE));
+
+        if (data.length() == 0) {
+            data.ensureLength(HEADER_SIZE);
+            data.putInt(MAGIC_OFFSET, MAGIC);
+            rebuildIndex(MIN_CAPACITY);
+        } else if (data.length() < HEADER_SIZE || data.getInt(MAGIC_OFFSET) != MAGIC) {
+            data.close();
+            index.close();
+            throw new IOException(directory.resolve(DATA_FILE) + " is not a student data file");
+        } else {
+            end = (int) Math.min(data.getLong(END_OFFSET), (data.length() - HEADER_SIZE) / RECORD_SIZE);
+            size = (int) data.getLong(SIZE_OFFSET);
+            nextSequence = data.getLong(NEXT_SEQUENCE_OFFSET);
+            capacity = data.getInt(INDEX_CAPACITY_OFFSET);
+            if (data.getInt(CLEAN_OFFSET) == 1 && index.length() >= (long) capacity * Integer.BYTES) {
+                setCapacity(capacity);
+            } else {
+                recover();
+            }
+        }
+
+        // Mark the store as open until close() forces everything to disk
+        data.putInt(CLEAN_OFFSET, 0);
+        data.force(0, HEADER_SIZE);
+
+        if (policy == FsyncPolicy.INTERVAL) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mapped-store-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::force, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) size / capacity;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean contains(int studentId) {
+        return findSlot(studentId) >= 0;
+    }
+
+    /**
+     * @brief Returns the longest name a record holds.
+     *
+     * Valid names consist of ASCII letters and spaces, so a character takes one byte.
+     *
+     * @return MAX_NAME_BYTES.
+     */
+    @Override
+    public int maxNameLength() {
+        return MAX_NAME_BYTES;
+    }
+
+    /**
+     * @brief Looks up a student by ID.
+     *
+     * @param studentId The ID to look up.
+     * @return A new Student holding the stored fields, or null if there is none.
+     */
+    @Override
+    public Student get(int studentId) {
+        int slot = findSlot(studentId);
+        return slot < 0 ? null : studentAt(slotValue(slot) - 1);
+    }
+
+    /**
+     * @brief Appends a record for a student unless its ID is already taken.
+     *
+     * @param student The student to add; only its fields are kept.
+     * @return True if the student was added, false if the ID was already taken.
+     * @throws IllegalArgumentException If the student ID is not positive, or the
+     *         name is longer than MAX_NAME_BYTES in UTF-8.
+     */
+    @Override
+    public boolean add(Student student) {
+        int studentId = student.getStudentId();
+        if (studentId <= 0) {
+            throw new IllegalArgumentException("Student ID must be positive: " + studentId);
+        }
+        byte[] name = student.getStudentName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_BYTES + " bytes: "
+                    + student.getStudentName());
+        }
+        if (findSlot(studentId) >= 0) {
+            return false;
+        }
+        if (end == Integer.MAX_VALUE - 1) {
+            throw new IllegalStateException("The store cannot hold more than " + end + " records");
+        }
+
+        int position = end;
+        long record = recordOffset(position);
+        data.ensureLength(record + RECORD_SIZE);
+        data.putInt(record + AGE_OFFSET, student.getStudentAge());
+        data.putLong(record + SEQUENCE_OFFSET, nextSequence++);
+        data.putByte(record + NAME_LENGTH_OFFSET, (byte) name.length);
+        data.putBytes(record + NAME_OFFSET, name, name.length);
+        data.putInt(record + ID_OFFSET, studentId);
+        end++;
+        size++;
+        modCount++;
+        writeCounters();
+
+        if (size > growThreshold) {
+            rebuildIndex(capacity << 1);
+        } else {
+            setSlotValue(emptySlotFor(studentId), position + 1);
+        }
+        afterWrite(record);
+        return true;
+    }
+
+    /**
+     * @brief Removes the student with the given ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return A new Student holding the removed fields, or null if no student had the ID.
+     */
+    @Override
+    public Student remove(int studentId) {
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+
+        int position = slotValue(slot) - 1;
+        Student removed = studentAt(position);
+        long record = recordOffset(position);
+        data.putInt(record + ID_OFFSET, HOLE);
+        size--;
+        modCount++;
+        deleteSlot(slot);
+
+        if (position == end - 1) {
+            end--; // The newest record is simply overwritten by the next addition
+        } else if (end - size > (end >>> 1) && end > MIN_CAPACITY) {
+            compact();
+            record = HEADER_SIZE; // Compaction rewrote the file from the first record on
+        }
+        writeCounters();
+        afterWrite(record);
+        return removed;
+    }
+
+    /**
+     * @brief Overwrites the record of a student in place.
+     *
+     * The record keeps its position and sequence number; a new ID is written last
+     * and then moves the record's slot in the ID index. The fields are written one
+     * after another, so a crash in the middle of a replacement can leave a record
+     * with only some of them replaced.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student whose fields are written over the record.
+     * @return A new Student holding the replaced fields, or null if no student had the ID.
+     * @throws IllegalArgumentException If the new ID is not positive or belongs to another
+     *         student, or the name is longer than MAX_NAME_BYTES in UTF-8.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        int newId = replacement.getStudentId();
+        if (newId <= 0) {
+            throw new IllegalArgumentException("Student ID must be positive: " + newId);
+        }
+        byte[] name = replacement.getStudentName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_BYTES + " bytes: "
+                    + replacement.getStudentName());
+        }
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+        if (newId != studentId && findSlot(newId) >= 0) {
+            throw new IllegalArgumentException("Student ID is already taken: " + newId);
+        }
+
+        int position = slotValue(slot) - 1;
+        Student replaced = studentAt(position);
+        long record = recordOffset(position);
+        data.putInt(record + AGE_OFFSET, replacement.getStudentAge());
+        data.putByte(record + NAME_LENGTH_OFFSET, (byte) name.length);
+        data.putBytes(record + NAME_OFFSET, name, name.length);
+        if (newId != studentId) {
+            data.putInt(record + ID_OFFSET, newId);
+            deleteSlot(slot);
+            setSlotValue(emptySlotFor(newId), position + 1);
+        }
+        afterWrite(record);
+        return replaced;
+    }
+
+    /**
+     * @brief Grows the files to hold the given number of students.
+     *
+     * @param expectedSize The total number of students the store is about to hold.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        data.ensureLength(recordOffset(Math.max(expectedSize - size + end, 0)));
+        if (expectedSize > growThreshold) {
+            rebuildIndex(tableSizeFor(expectedSize));
+        }
+    }
+
+    /**
+     * @brief Runs a group of writes that is forced to disk as a whole.
+     *
+     * Under the ALWAYS policy the writes inside the batch are not forced one by one;
+     * the batch returns once all of them are on disk.
+     *
+     * @param writes The writes to run.
+     * @return The value returned by the writes.
+     */
+    @Override
+    public <T> T writeBatch(Supplier<T> writes) {
+        batchDepth++;
+        T result;
+        try {
+            result = writes.get();
+        } finally {
+            batchDepth--;
+        }
+        if (batchDepth == 0 && unforced) {
+            unforced = false;
+            force();
+        }
+        return result;
+    }
+
+    /**
+     * @brief Copies the students that follow a position in insertion order.
+     *
+     * @param afterSequence The sequence number to continue after, or -1 to start at the beginning.
+     * @param students The array receiving the students.
+     * @param sequences The array receiving each student's sequence number.
+     * @return The number of students copied.
+     */
+    @Override
+    public int page(long afterSequence, Student[] students, long[] sequences) {
+        // Sequence numbers increase with the position, holes included
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sequenceAt(middle) <= afterSequence) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int count = 0;
+        for (int position = low; position < end && count < students.length; position++) {
+            if (idAt(position) != HOLE) {
+                students[count] = studentAt(position);
+                sequences[count] = sequenceAt(position);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Performs an action on a view of every student in insertion order.
+     *
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < end; i++) {
+            if (idAt(i) != HOLE) {
+                action.accept(studentAt(i));
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * @brief Returns an iterator creating a view of every student in insertion order.
+     *
+     * @return A fail-fast iterator over the store.
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int cursor = advance(0);
+
+            private int advance(int from) {
+                while (from < end && idAt(from) == HOLE) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cursor < end;
+            }
+
+            @Override
+            public Student next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (cursor >= end) {
+                    throw new NoSuchElementException();
+                }
+                Student student = studentAt(cursor);
+                cursor = advance(cursor + 1);
+                return student;
+            }
+        };
+    }
+
+    /**
+     * @brief Returns a spliterator creating a view of every student in insertion order.
+     *
+     * The spliterator splits the records in halves, so parallel streams and
+     * RosterAnalytics give each thread its own slice of the file. The threads
+     * cannot share the name buffer, so each record's name is decoded from a
+     * buffer of its own.
+     *
+     * @return A sized, ordered, fail-fast spliterator over the store.
+     */
+    @Override
+    public Spliterator<Student> spliterator() {
+        return new PositionSpliterator(end, size,
+                position -> idAt(position) == HOLE ? null : studentAt(position, new byte[MAX_NAME_BYTES]),
+                () -> modCount);
+    }
+
+    /**
+     * @brief Forces both files to disk, marks the store as cleanly closed and closes it.
+     *
+     * @throws IOException If the files cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        try {
+            if (data.length() >= HEADER_SIZE) {
+                index.force();
+                data.force();
+                data.putInt(CLEAN_OFFSET, 1);
+                data.force(0, HEADER_SIZE);
+            }
+        } finally {
+            try {
+                data.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+
+    /**
+     * @brief Forces every write so far to disk.
+     */
+    private void force() {
+        data.force();
+        index.force();
+    }
+
+    /**
+     * @brief Forces a write to disk under the ALWAYS policy, or marks the batch for it.
+     *
+     * @param record The offset of the record the write changed.
+     */
+    private void afterWrite(long record) {
+        if (policy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        if (batchDepth > 0) {
+            unforced = true;
+        } else {
+            data.force(record, recordOffset(end) - record);
+            data.force(0, HEADER_SIZE);
+            // The index can be rebuilt from the records, so it is left to close()
+        }
+    }
+
+    private void writeCounters() {
+        data.putLong(END_OFFSET, end);
+        data.putLong(SIZE_OFFSET, size);
+        data.putLong(NEXT_SEQUENCE_OFFSET, nextSequence);
+    }
+
+    /**
+     * @brief Rescans the records after an unclean shutdown and rebuilds the ID index.
+     */
+    private void recover() {
+        int live = 0;
+        long lastSequence = -1;
+        for (int i = 0; i < end; i++) {
+            if (idAt(i) == HOLE) {
+                continue;
+            }
+            long sequence = sequenceAt(i);
+            if (sequence <= lastSequence) {
+                data.putInt(recordOffset(i) + ID_OFFSET, HOLE); // Left behind by an interrupted compaction
+                continue;
+            }
+            lastSequence = sequence;
+            live++;
+        }
+        size = live;
+        nextSequence = Math.max(nextSequence, lastSequence + 1);
+        writeCounters();
+        rebuildIndex(tableSizeFor(size));
+    }
+
+    /**
+     * @brief Moves the live records down over the holes and rebuilds the ID index.
+     *
+     * A moved record keeps its sequence number, so until its ID is written the
+     * copy is a hole and the original stays live, and once it is written the
+     * original is the stale copy that recover() drops.
+     */
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (idAt(i) != HOLE) {
+                if (i != target) {
+                    long from = recordOffset(i);
+                    long to = recordOffset(target);
+                    // The target is a hole or a stale copy: hide it, copy the record and write the ID last
+                    data.putInt(to + ID_OFFSET, HOLE);
+                    for (int offset = SEQUENCE_OFFSET; offset < RECORD_SIZE; offset += Long.BYTES) {
+                        data.putLong(to + offset, data.getLong(from + offset));
+                    }
+                    data.putInt(to + AGE_OFFSET, data.getInt(from + AGE_OFFSET));
+                    data.putInt(to + ID_OFFSET, data.getInt(from + ID_OFFSET));
+                }
+                target++;
+            }
+        }
+        end = target;
+        rebuildIndex(capacity);
+    }
+
+    private Student studentAt(int position) {
+        return studentAt(position, nameBuffer);
+    }
+
+    private Student studentAt(int position, byte[] buffer) {
+        long record = recordOffset(position);
+        int nameLength = data.getByte(record + NAME_LENGTH_OFFSET);
+        data.getBytes(record + NAME_OFFSET, buffer, nameLength);
+        String name = new String(buffer, 0, nameLength, StandardCharsets.UTF_8);
+        return new Student(data.getInt(record + ID_OFFSET), name, data.getInt(record + AGE_OFFSET));
+    }
+
+    private int idAt(int position) {
+        return data.getInt(recordOffset(position) + ID_OFFSET);
+    }
+
+    private long sequenceAt(int position) {
+        return data.getLong(recordOffset(position) + SEQUENCE_OFFSET);
+    }
+
+    private static long recordOffset(int position) {
+        return HEADER_SIZE + (long) position * RECORD_SIZE;
+    }
+
+    private int slotValue(int slot) {
+        return index.getInt((long) slot * Integer.BYTES);
+    }
+
+    private void setSlotValue(int slot, int value) {
+        index.putInt((long) slot * Integer.BYTES, value);
+    }
+
+    private int findSlot(int studentId) {
+        int mask = capacity - 1;
+        int slot = slotFor(studentId);
+        int position;
+        while ((position = slotValue(slot)) != EMPTY) {
+            if (idAt(position - 1) == studentId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slotFor(int studentId) {
+        return (studentId * 0x9E3779B9) >>> shift;
+    }
+
+    private int emptySlotFor(int studentId) {
+        int mask = capacity - 1;
+        int slot = slotFor(studentId);
+        while (slotValue(slot) != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @brief Empties a slot while keeping every probe chain unbroken, as StudentIndex does.
+     */
+    private void deleteSlot(int hole) {
+        int mask = capacity - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int position = slotValue(slot);
+            if (position == EMPTY) {
+                break;
+            }
+            int home = slotFor(idAt(position - 1));
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                setSlotValue(hole, position);
+                hole = slot;
+            }
+        }
+        setSlotValue(hole, EMPTY);
+    }
+
+    /**
+     * @brief Clears the slot table at the given capacity and reinserts every record.
+     */
+    private void rebuildIndex(int newCapacity) {
+        index.ensureLength((long) newCapacity * Integer.BYTES);
+        index.clear(0, (long) newCapacity * Integer.BYTES);
+        setCapacity(newCapacity);
+        data.putInt(INDEX_CAPACITY_OFFSET, newCapacity);
+        for (int i = 0; i < end; i++) {
+            int studentId = idAt(i);
+            if (studentId != HOLE) {
+                setSlotValue(emptySlotFor(studentId), i + 1);
+            }
+        }
+    }
+
+    private void setCapacity(int newCapacity) {
+        capacity = newCapacity;
+        shift = 32 - Integer.numberOfTrailingZeros(newCapacity);
+        growThreshold = (int) ((long) newCapacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 100 / MAX_LOAD_PERCENT + 1;
+        int tableSize = MIN_CAPACITY;
+        while (tableSize < needed && tableSize < (1 << 30)) {
+            tableSize <<= 1;
+        }
+        return tableSize;
+    }
+}
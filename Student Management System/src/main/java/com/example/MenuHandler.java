@@ -1,35 +1,52 @@
 /**
  * @file MenuHandler.java
  * @brief Handles the menu and user interactions for the Student Management Application.
- * 
- * This class provides a menu-driven interface to manage students using the 
- * StudentRepository class. Users can add, remove, search, and display students.
+ *
+ * This class provides a menu-driven interface to manage students using the
+ * StudentRepository class. Users can add, remove, update, search, and display students,
+ * query them by age range or name prefix, import or export the roster as CSV, and
+ * show the repository's operation statistics.
  */
 
 package com.example;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
 import java.util.Scanner;
 
 /**
  * @class MenuHandler
  * @brief Handles user interactions and manages the application menu.
+ *
+ * All console input and output lives here; the repository is only called through
+ * its programmatic API.
  */
 class MenuHandler {
 
+    /**
+     * @brief Printer used to render students on the console.
+     */
+    private static final StudentPrinter PRINTER = new StudentPrinter(System.out);
+
+    static final int PAGE_SIZE = 20;          /**< Students shown per page of the roster listing. */
+    static final int BULK_PAGE_SIZE = 8192;   /**< Students fetched per page when listing without stops. */
+    static final int SIMILAR_NAME_LIMIT = 20; /**< Students shown by a typo-tolerant name search. */
+
     /**
      * @brief Starts the menu-driven application.
-     * 
-     * This method displays the menu options and handles user inputs to perform 
+     *
+     * This method displays the menu options and handles user inputs to perform
      * various student management operations such as adding, removing, and searching for students.
-     * 
-     * @param studentList The list of students to manage.
+     * Options 1 to 5 keep the numbers of the original menu, with Exit at 5, and new options are
+     * numbered after them, so scripted input written for an earlier menu keeps working. For the
+     * same reason the roster is only shown page by page when a console is attached; piped input
+     * gets the whole roster and is never read for a pager answer.
+     *
+     * @param repository The repository of students to manage.
      * @param inputScanner A Scanner object for reading user inputs.
      */
-    public static void start(ArrayList<Student> studentList, Scanner inputScanner) {
-        // Create a repository to manage students
-        StudentRepository repository = new StudentRepository(studentList);
-
+    public static void start(StudentRepository repository, Scanner inputScanner) {
         while (true) {
             // Display the menu options
             System.out.println("\n--- Student Management Application ---");
@@ -38,6 +55,14 @@ class MenuHandler {
             System.out.println("3. Display All Students");
             System.out.println("4. Search Student by ID");
             System.out.println("5. Exit");
+            System.out.println("6. Import Students from CSV or Roster File");
+            System.out.println("7. Export Students to CSV or Roster File");
+            System.out.println("8. Search Students by Age Range");
+            System.out.println("9. Search Students by Name Prefix");
+            System.out.println("10. Show Statistics");
+            System.out.println("11. Update Student By ID");
+            System.out.println("12. Search Students by Name (Typos Allowed)");
+            System.out.println("13. Display Students by ID Range");
             System.out.print("Enter your choice: ");
 
             try {
@@ -47,14 +72,28 @@ class MenuHandler {
 
                 // Handle the user's choice
                 switch (userChoice) {
-                    case 1 -> repository.addNewStudent(inputScanner); // Add a new student
-                    case 2 -> repository.removeStudentById(inputScanner); // Remove a student
-                    case 3 -> repository.displayAllStudents(); // Display all students
-                    case 4 -> repository.searchStudentById(inputScanner); // Search for a student
+                    case 1 -> addNewStudent(repository, inputScanner); // Add a new student
+                    case 2 -> removeStudentById(repository, inputScanner); // Remove a student
+                    case 3 -> { // Display all students, page by page on a console
+                        if (System.console() != null) {
+                            displayAllStudents(repository, inputScanner);
+                        } else {
+                            displayAllStudents(repository);
+                        }
+                    }
+                    case 4 -> searchStudentById(repository, inputScanner); // Search for a student
                     case 5 -> {
                         System.out.println("Exiting the application. Goodbye!");
                         return; // Exit the application
                     }
+                    case 6 -> importStudents(repository, inputScanner); // Bulk import from a file
+                    case 7 -> exportStudents(repository, inputScanner); // Bulk export to a file
+                    case 8 -> searchStudentsByAgeRange(repository, inputScanner); // Query the age index
+                    case 9 -> searchStudentsByNamePrefix(repository, inputScanner); // Query the name index
+                    case 10 -> showStatistics(repository); // Counters and latencies of the repository
+                    case 11 -> updateStudentById(repository, inputScanner); // Correct a student in place
+                    case 12 -> searchStudentsBySimilarName(repository, inputScanner); // Query the trigram index
+                    case 13 -> displayStudentsByIdRange(repository, inputScanner); // Query the ordered ID index
                     default -> System.out.println("Invalid choice. Please try again."); // Handle invalid input
                 }
             } catch (Exception e) {
@@ -63,4 +102,437 @@ class MenuHandler {
             }
         }
     }
+
+    /**
+     * @brief Adds a new student to the repository.
+     *
+     * Prompts the user to input the student's ID, name, and age, and adds the student
+     * to the repository if the input is valid and no student with the same ID exists.
+     *
+     * @param repository The repository to add the student to.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void addNewStudent(StudentRepository repository, Scanner inputScanner) {
+        int studentId = readStudentId(inputScanner, "\nEnter Student ID: ");
+
+        // Input Student Name
+        String studentName;
+        while (true) {
+            System.out.print("\nEnter Student Name: ");
+            studentName = inputScanner.nextLine().trim();
+
+            StudentError error = StudentValidator.validateName(studentName);
+            if (error == null) {
+                break;
+            }
+            System.out.println("\n" + error.message(studentId) + " Please try again.");
+        }
+
+        int studentAge = readStudentAge(inputScanner);
+
+        StudentResult result = repository.add(new Student(studentId, studentName, studentAge));
+        if (!result.isSuccess()) {
+            System.out.println("\nError: " + result.getError().message(studentId));
+            return;
+        }
+        System.out.println("\nStudent added successfully!");
+    }
+
+    /**
+     * @brief Removes a student from the repository based on their ID.
+     *
+     * Prompts the user to input the ID of the student to be removed and removes
+     * the student if they exist in the repository.
+     *
+     * @param repository The repository to remove the student from.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void removeStudentById(StudentRepository repository, Scanner inputScanner) {
+        int studentId = readStudentId(inputScanner, "\nEnter Student ID to remove: ");
+
+        StudentResult result = repository.remove(studentId);
+        if (!result.isSuccess()) {
+            // If the student is not found, display an error message
+            System.out.println("\nError: " + result.getError().message(studentId));
+            return;
+        }
+        System.out.println("\nStudent with ID " + studentId + " removed successfully!");
+    }
+
+    /**
+     * @brief Corrects the ID, name or age of a student.
+     *
+     * Prompts for the ID of the student and shows the student, then prompts for
+     * each field in turn; an empty answer keeps the current value. The changed
+     * fields are applied as one update, so the student keeps its place in the roster.
+     *
+     * @param repository The repository holding the student.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void updateStudentById(StudentRepository repository, Scanner inputScanner) {
+        int studentId = readStudentId(inputScanner, "\nEnter Student ID to update: ");
+        Student current = repository.peek(studentId);
+        if (current == null) {
+            System.out.println("\nError: " + StudentError.NOT_FOUND.message(studentId));
+            return;
+        }
+        PRINTER.printStudentDetails(current);
+
+        StudentPatch patch = StudentPatch.empty();
+        int newId = readOptionalStudentId(inputScanner,
+                "\nEnter new Student ID (press Enter to keep " + studentId + "): ");
+        if (newId != studentId && newId != 0) {
+            patch = patch.withStudentId(newId);
+        }
+        while (true) {
+            System.out.print("\nEnter new Student Name (press Enter to keep " + current.getStudentName() + "): ");
+            String studentName = inputScanner.nextLine().trim();
+            if (studentName.isEmpty()) {
+                break;
+            }
+            StudentError error = StudentValidator.validateName(studentName);
+            if (error == null) {
+                patch = patch.withStudentName(studentName);
+                break;
+            }
+            System.out.println("\n" + error.message(studentId) + " Please try again.");
+        }
+        while (true) {
+            System.out.print("\nEnter new Student Age (press Enter to keep " + current.getStudentAge() + "): ");
+            String input = inputScanner.nextLine().trim();
+            if (input.isEmpty()) {
+                break;
+            }
+            long parsed = StudentValidator.parseInt(input);
+            if (parsed == StudentValidator.NOT_A_NUMBER) {
+                System.out.println("\nInvalid input. Please enter a valid numeric Student Age.");
+                continue;
+            }
+            StudentError error = StudentValidator.validateAge((int) parsed);
+            if (error == null) {
+                patch = patch.withStudentAge((int) parsed);
+                break;
+            }
+            System.out.println("\n" + error.message((int) parsed) + " Please try again.");
+        }
+
+        if (patch.isEmpty()) {
+            System.out.println("\nNothing to update.");
+            return;
+        }
+        StudentResult result = repository.update(studentId, patch);
+        if (!result.isSuccess()) {
+            int reportedId = result.getError() == StudentError.DUPLICATE_ID ? newId : studentId;
+            System.out.println("\nError: " + result.getError().message(reportedId));
+            return;
+        }
+        System.out.println("\nStudent with ID " + result.getStudent().getStudentId() + " updated successfully!");
+    }
+
+    /**
+     * @brief Displays all students in the repository.
+     *
+     * Prints the list of students along with their details. If no students exist,
+     * a message indicating the absence of students is displayed.
+     *
+     * @param repository The repository whose students are displayed.
+     */
+    static void displayAllStudents(StudentRepository repository) {
+        PRINTER.printStudentTable(repository.students());
+    }
+
+    /**
+     * @brief Displays the students in the repository one page at a time.
+     *
+     * After each page of PAGE_SIZE students the user can continue with the next
+     * page, print all remaining students at once, or stop.
+     *
+     * @param repository The repository whose students are displayed.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void displayAllStudents(StudentRepository repository, Scanner inputScanner) {
+        StudentPage page = repository.page(null, PAGE_SIZE);
+        if (page.getStudents().isEmpty()) {
+            PRINTER.printStudentTable(page.getStudents());
+            return;
+        }
+
+        PRINTER.printTableHeader();
+        int pageSize = PAGE_SIZE;
+        while (true) {
+            PRINTER.printStudentRows(page.getStudents());
+            if (!page.hasNextPage()) {
+                return;
+            }
+            if (pageSize == PAGE_SIZE) {
+                System.out.print("\nPress Enter for the next page, type 'all' for the rest or 'q' to stop: ");
+                String answer = inputScanner.nextLine().trim();
+                if (answer.equalsIgnoreCase("q")) {
+                    return;
+                }
+                if (answer.equalsIgnoreCase("all")) {
+                    pageSize = BULK_PAGE_SIZE;
+                }
+            }
+            page = repository.page(page.getNextPageToken(), pageSize);
+        }
+    }
+
+    /**
+     * @brief Searches for a student by their ID.
+     *
+     * Prompts the user to input the ID of the student to be searched. If the student
+     * exists, their details are displayed; otherwise, an appropriate message is shown.
+     *
+     * @param repository The repository to search.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void searchStudentById(StudentRepository repository, Scanner inputScanner) {
+        int studentId = readStudentId(inputScanner, "\nPlease enter the Student ID you want to search for: ");
+
+        repository.find(studentId).ifPresentOrElse(
+                PRINTER::printStudentDetails,
+                () -> System.out.println("\nNo student found with the provided ID."));
+    }
+
+    /**
+     * @brief Lists the students whose age lies in a range.
+     *
+     * Prompts for the smallest and largest age and prints the matching students
+     * from the age index.
+     *
+     * @param repository The repository to search.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void searchStudentsByAgeRange(StudentRepository repository, Scanner inputScanner) {
+        int minAge = readStudentAge(inputScanner, "\nEnter the minimum age: ");
+        int maxAge = readStudentAge(inputScanner, "\nEnter the maximum age: ");
+
+        PRINTER.printStudentTable(repository.findByAgeRange(minAge, maxAge));
+    }
+
+    /**
+     * @brief Lists the students whose name starts with a prefix, ignoring case.
+     *
+     * @param repository The repository to search.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void searchStudentsByNamePrefix(StudentRepository repository, Scanner inputScanner) {
+        System.out.print("\nEnter the beginning of the name: ");
+        String prefix = inputScanner.nextLine().trim();
+
+        PRINTER.printStudentTable(repository.findByNamePrefix(prefix));
+    }
+
+    /**
+     * @brief Lists the students whose ID lies in a range, by ascending ID.
+     *
+     * @param repository The repository to search.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void displayStudentsByIdRange(StudentRepository repository, Scanner inputScanner) {
+        int fromId = readStudentId(inputScanner, "\nEnter the smallest ID: ");
+        int toId = readStudentId(inputScanner, "\nEnter the largest ID: ");
+
+        PRINTER.printStudentTable(repository.findByIdRange(fromId, toId));
+    }
+
+    /**
+     * @brief Lists the students whose name is closest to one that may be misspelled.
+     *
+     * @param repository The repository to search.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void searchStudentsBySimilarName(StudentRepository repository, Scanner inputScanner) {
+        System.out.print("\nEnter the name, as well as you remember it: ");
+        String name = inputScanner.nextLine().trim();
+
+        PRINTER.printStudentTable(repository.findBySimilarName(name, SIMILAR_NAME_LIMIT));
+    }
+
+    /**
+     * @brief Imports students from a CSV file or a binary roster file.
+     *
+     * Prompts for the file path, loads the file and prints how many rows were
+     * imported and rejected, followed by the first row errors. A path ending in
+     * StudentBinaryExporter.EXTENSION is read as a binary roster.
+     *
+     * @param repository The repository to import the students into.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void importStudents(StudentRepository repository, Scanner inputScanner) {
+        System.out.print("\nEnter CSV or " + StudentBinaryExporter.EXTENSION + " file path to import: ");
+        Path file = Path.of(inputScanner.nextLine().trim());
+
+        try {
+            StudentImportReport report = isRosterFile(file)
+                    ? new StudentBinaryImporter(repository).importFrom(file)
+                    : new StudentCsvImporter(repository).importFrom(file);
+            System.out.println("\nImported " + report.getImportedCount() + " students, rejected "
+                    + report.getRejectedCount() + " rows.");
+            for (StudentImportReport.RowError rowError : report.getRowErrors()) {
+                System.out.println(rowError);
+            }
+            if (report.getRejectedCount() > report.getRowErrors().size()) {
+                System.out.println("(" + (report.getRejectedCount() - report.getRowErrors().size())
+                        + " more rejected rows not shown)");
+            }
+        } catch (IOException e) {
+            System.out.println("\nError: Could not read " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @brief Exports all students to a CSV file or, by its extension, a binary roster file.
+     *
+     * @param repository The repository whose students are exported.
+     * @param inputScanner The Scanner object for reading user input.
+     */
+    static void exportStudents(StudentRepository repository, Scanner inputScanner) {
+        System.out.print("\nEnter CSV or " + StudentBinaryExporter.EXTENSION + " file path to export to: ");
+        Path file = Path.of(inputScanner.nextLine().trim());
+
+        try {
+            long count = isRosterFile(file)
+                    ? new StudentBinaryExporter().exportTo(file, repository.students())
+                    : new StudentCsvExporter().exportTo(file, repository.students());
+            System.out.println("\nExported " + count + " students to " + file + ".");
+        } catch (IOException e) {
+            System.out.println("\nError: Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * @brief Checks whether a file is named as a binary roster rather than a CSV file.
+     */
+    private static boolean isRosterFile(Path file) {
+        return file.getFileName() != null
+                && file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(StudentBinaryExporter.EXTENSION);
+    }
+
+    /**
+     * @brief Prints the roster size, the index load factor and the count, failures
+     *        and latency percentiles of each kind of repository operation.
+     *
+     * @param repository The repository whose statistics are shown.
+     */
+    static void showStatistics(StudentRepository repository) {
+        StudentMetrics metrics = repository.metrics();
+        System.out.printf("%nStudents: %d   Index load factor: %.3f%n", metrics.getRosterSize(),
+                metrics.getIndexLoadFactor());
+        if (!Double.isNaN(metrics.getCacheHitRate())) {
+            System.out.printf("Cache hit rate: %.1f%%%n", metrics.getCacheHitRate() * 100);
+        }
+        System.out.printf("%n%-10s %10s %10s %10s %10s %10s %10s%n",
+                "Operation", "Count", "Failures", "p50 (us)", "p99 (us)", "p99.9 (us)", "Max (us)");
+        for (StudentMetrics.Operation operation : StudentMetrics.Operation.values()) {
+            OperationStats stats = metrics.stats(operation);
+            System.out.printf("%-10s %10d %10d %10.1f %10.1f %10.1f %10.1f%n", operation.name().toLowerCase(Locale.ROOT),
+                    stats.getCount(), stats.getFailures(), stats.getP50Micros(), stats.getP99Micros(),
+                    stats.getP999Micros(), stats.getMaxMicros());
+        }
+    }
+
+    /**
+     * @brief Prompts until the user enters a valid student ID.
+     *
+     * @param inputScanner The Scanner object for reading user input.
+     * @param prompt The prompt to print before each attempt.
+     * @return The entered student ID.
+     */
+    static int readStudentId(Scanner inputScanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = inputScanner.nextLine().trim();
+
+            if (input.isEmpty()) {
+                System.out.println("\nStudent ID cannot be empty. Please try again.");
+                continue;
+            }
+
+            long parsed = StudentValidator.parseInt(input);
+            if (parsed == StudentValidator.NOT_A_NUMBER) {
+                System.out.println("\nInvalid input. Please enter a valid numeric Student ID.");
+                continue;
+            }
+            int studentId = (int) parsed;
+            StudentError error = StudentValidator.validateId(studentId);
+            if (error != null) {
+                System.out.println("\n" + error.message(studentId) + " Please try again.");
+                continue;
+            }
+            return studentId;
+        }
+    }
+
+    /**
+     * @brief Prompts until the user enters a valid student ID or nothing.
+     *
+     * @param inputScanner The Scanner object for reading user input.
+     * @param prompt The prompt to print before each attempt.
+     * @return The entered student ID, or 0 if the user entered nothing.
+     */
+    static int readOptionalStudentId(Scanner inputScanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = inputScanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return 0;
+            }
+
+            long parsed = StudentValidator.parseInt(input);
+            if (parsed == StudentValidator.NOT_A_NUMBER) {
+                System.out.println("\nInvalid input. Please enter a valid numeric Student ID.");
+                continue;
+            }
+            StudentError error = StudentValidator.validateId((int) parsed);
+            if (error != null) {
+                System.out.println("\n" + error.message((int) parsed) + " Please try again.");
+                continue;
+            }
+            return (int) parsed;
+        }
+    }
+
+    /**
+     * @brief Prompts until the user enters a valid student age.
+     *
+     * @param inputScanner The Scanner object for reading user input.
+     * @return The entered student age.
+     */
+    static int readStudentAge(Scanner inputScanner) {
+        return readStudentAge(inputScanner, "\nEnter Student Age: ");
+    }
+
+    /**
+     * @brief Prompts until the user enters a valid student age.
+     *
+     * @param inputScanner The Scanner object for reading user input.
+     * @param prompt The prompt to print before each attempt.
+     * @return The entered student age.
+     */
+    static int readStudentAge(Scanner inputScanner, String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = inputScanner.nextLine().trim();
+
+            if (input.isEmpty()) {
+                System.out.println("\nStudent Age cannot be empty. Please try again.");
+                continue;
+            }
+
+            long parsed = StudentValidator.parseInt(input);
+            if (parsed == StudentValidator.NOT_A_NUMBER) {
+                System.out.println("\nInvalid input. Please enter a valid numeric Student Age.");
+                continue;
+            }
+            int studentAge = (int) parsed;
+            StudentError error = StudentValidator.validateAge(studentAge);
+            if (error != null) {
+                System.out.println("\n" + error.message(studentAge) + " Please try again.");
+                continue;
+            }
+            return studentAge;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+/**
+ * @file NameIndex.java
+ * @brief Secondary index that sorts students by name.
+ *
+ * This index answers case-insensitive name prefix queries by visiting only the
+ * matching names, instead of scanning the whole roster, and typo-tolerant name
+ * queries by looking up only the names that share enough trigrams with them.
+ */
+
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * @class NameIndex
+ * @brief Sorted name-to-student-ID index, maintained on every add and remove.
+ *
+ * Student IDs are grouped under their lower-cased name in a sorted map, so all
+ * names that start with a prefix form one contiguous range of the map. Names
+ * repeat a lot in a roster, so adding a student usually only appends to an
+ * existing group. A name held by a single student maps to that student's ID
+ * directly, and becomes an IdSet once a second student shares it.
+ *
+ * Each distinct name is also kept in a TrigramIndex, so only the first student
+ * with a name and the removal of the last one pay for its trigrams.
+ *
+ * The index can be shared by concurrent writers. The map is a concurrent skip
+ * list, and the group of a name is changed and read under one of LOCK_STRIPES
+ * locks chosen by the hash of the name, so writers of different names rarely
+ * contend. The trigram index is guarded by its own monitor, which writers only
+ * take for the first and last student of a name. Queries copy the IDs out one
+ * name at a time, so a short prefix never holds up the writers for the whole scan.
+ */
+class NameIndex {
+
+    private static final int LOCK_STRIPES = 64; /**< Number of per-name locks, a power of two. */
+
+    private final ConcurrentSkipListMap<String, Object> groups = new ConcurrentSkipListMap<>(); /**< Integer ID or IdSet by folded name. */
+    private final TrigramIndex trigrams = new TrigramIndex(); /**< Trigrams of the distinct folded names; guarded by itself. */
+    private final Object[] locks = new Object[LOCK_STRIPES];  /**< Locks guarding the groups, by name hash. */
+
+    /**
+     * @brief Constructor to initialize an empty index.
+     */
+    NameIndex() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * @brief Indexes a student under its current name.
+     *
+     * @param student The student that was added to the roster.
+     */
+    void add(Student student) {
+        String name = fold(student.getStudentName());
+        synchronized (lock(name)) {
+            Object group = groups.get(name);
+            if (group == null) {
+                groups.put(name, student.getStudentId());
+                synchronized (trigrams) {
+                    trigrams.add(name);
+                }
+            } else if (group instanceof IdSet ids) {
+                ids.add(student.getStudentId());
+            } else {
+                IdSet ids = new IdSet();
+                ids.add((Integer) group);
+                ids.add(student.getStudentId());
+                groups.put(name, ids);
+            }
+        }
+    }
+
+    /**
+     * @brief Removes a student from the index.
+     *
+     * @param student The student that was removed from the roster, with the name it was indexed under.
+     */
+    void remove(Student student) {
+        int studentId = student.getStudentId();
+        String name = fold(student.getStudentName());
+        synchronized (lock(name)) {
+            Object group = groups.get(name);
+            if (group instanceof IdSet ids) {
+                ids.remove(studentId);
+                if (ids.size() == 1) {
+                    int[] last = new int[1];
+                    ids.forEach(id -> last[0] = id);
+                    groups.put(name, last[0]);
+                }
+            } else if (group != null && (Integer) group == studentId) {
+                groups.remove(name);
+                synchronized (trigrams) {
+                    trigrams.remove(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Copies the IDs of the students whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix The name prefix; an empty prefix matches every student.
+     * @return The IDs, sorted by name and in insertion order within one name.
+     */
+    IdList withPrefix(String prefix) {
+        String from = fold(prefix);
+        IdList ids = new IdList();
+        for (String name : groups.subMap(from, true, from + Character.MAX_VALUE, false).keySet()) {
+            copyGroup(name, Integer.MAX_VALUE, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * @brief Lists the IDs of the students whose name is closest to a possibly misspelled one.
+     *
+     * Names are compared ignoring case by Levenshtein distance, and a one-word
+     * query is also compared with each word of a name. Up to maxDistance(query)
+     * edits are allowed, so the longer the query, the more typos it may hold.
+     *
+     * @param query The name to look for.
+     * @param limit The largest number of IDs to copy.
+     * @return The IDs, by ascending distance, then by name and in insertion order within one name.
+     */
+    IdList similar(String query, int limit) {
+        IdList ids = new IdList();
+        if (limit <= 0) {
+            return ids;
+        }
+        String folded = fold(query.trim());
+        List<Match> matches = new ArrayList<>();
+        synchronized (trigrams) {
+            trigrams.forEachSimilar(folded, maxDistance(folded), (name, distance) -> matches.add(new Match(distance, name)));
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::name));
+
+        for (Match match : matches) {
+            if (ids.size() >= limit) {
+                break;
+            }
+            copyGroup(match.name(), limit, ids);
+        }
+        return ids;
+    }
+
+    /**
+     * @brief Returns the number of typos a query of some length may hold.
+     *
+     * @param query The folded query.
+     * @return 0 up to 2 characters, 1 up to 5, 2 up to 9 and 3 beyond.
+     */
+    static int maxDistance(String query) {
+        int length = query.length();
+        return length <= 2 ? 0 : length <= 5 ? 1 : length <= 9 ? 2 : 3;
+    }
+
+    /**
+     * @brief Appends the IDs grouped under a name, if it still has any, until the list holds limit IDs.
+     */
+    private void copyGroup(String name, int limit, IdList ids) {
+        synchronized (lock(name)) {
+            Object group = groups.get(name);
+            if (group instanceof IdSet members) {
+                members.forEach(id -> {
+                    if (ids.size() < limit) {
+                        ids.add(id);
+                    }
+                });
+            } else if (group != null && ids.size() < limit) {
+                ids.add((Integer) group);
+            }
+        }
+    }
+
+    private Object lock(String name) {
+        return locks[name.hashCode() & (LOCK_STRIPES - 1)];
+    }
+
+    private static String fold(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @brief A name near the query and its edit distance from it.
+     */
+    private record Match(int distance, String name) {
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * @file OperationStats.java
+ * @brief Counts and latency percentiles of one kind of repository operation.
+ */
+
+package com.example;
+
+import java.util.Locale;
+import javax.management.ConstructorParameters;
+
+/**
+ * @class OperationStats
+ * @brief Immutable summary of one operation's counters and latency histogram.
+ *
+ * The counts are exact; the latencies, in microseconds, are taken from a random
+ * sample of one in StudentMetrics.SAMPLE_INTERVAL operations, so they stay zero
+ * until a few hundred operations have run. Through JMX, the summary appears as a
+ * composite value with one item per getter.
+ */
+public final class OperationStats {
+
+    private final long count;       /**< Number of operations. */
+    private final long failures;    /**< Operations that returned an error or found nothing. */
+    private final double p50Micros;  /**< Median latency. */
+    private final double p99Micros;  /**< 99th percentile latency. */
+    private final double p999Micros; /**< 99.9th percentile latency. */
+    private final double maxMicros;  /**< Largest latency. */
+
+    /**
+     * @brief Constructor to initialize the summary.
+     *
+     * @param count The number of operations.
+     * @param failures The number of operations that returned an error or found nothing.
+     * @param p50Micros The median latency in microseconds.
+     * @param p99Micros The 99th percentile latency in microseconds.
+     * @param p999Micros The 99.9th percentile latency in microseconds.
+     * @param maxMicros The largest latency in microseconds.
+     */
+    @ConstructorParameters({"count", "failures", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public OperationStats(long count, long failures, double p50Micros, double p99Micros, double p999Micros,
+            double maxMicros) {
+        this.count = count;
+        this.failures = failures;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    /**
+     * @brief Returns the number of operations.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @brief Returns the number of operations that returned an error or found nothing.
+     *
+     * @return The failure count.
+     */
+    public long getFailures() {
+        return failures;
+    }
+
+    /**
+     * @brief Returns the median latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public double getP50Micros() {
+        return p50Micros;
+    }
+
+    /**
+     * @brief Returns the 99th percentile latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public double getP99Micros() {
+        return p99Micros;
+    }
+
+    /**
+     * @brief Returns the 99.9th percentile latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public double getP999Micros() {
+        return p999Micros;
+    }
+
+    /**
+     * @brief Returns the largest latency.
+     *
+     * @return The latency in microseconds.
+     */
+    public double getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * @brief Returns the summary as one line of text.
+     *
+     * @return The counts and latencies, for example "count=10 failures=0 p50=1.2us ...".
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count=%d failures=%d p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus",
+                count, failures, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * @file PositionSpliterator.java
+ * @brief Splittable spliterator over the positions of an array-backed store.
+ *
+ * The array-backed stores keep their students at positions 0 to end - 1, with
+ * holes where students were removed. Splitting the position range in halves
+ * lets a parallel stream or fork-join task hand each core a slice of the
+ * backing arrays, instead of feeding every thread from one shared iterator.
+ */
+
+package com.example;
+
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/**
+ * @class PositionSpliterator
+ * @brief Spliterator over a range of store positions that skips holes.
+ *
+ * The store supplies a function returning the student at a position, or null
+ * for a hole, and its modification counter. Like the stores' iterators, the
+ * spliterator is fail-fast: it throws ConcurrentModificationException if the
+ * store changes structurally while it is traversed. The students at positions
+ * of different splits may be read by different threads at once, so the function
+ * must not share scratch state between calls.
+ *
+ * The spliterator reports its exact size until it is split, and at all times if
+ * the store has no holes. Otherwise it only knows how many
+ * positions it covers, and estimates its size from the share of live positions
+ * in the whole store.
+ */
+final class PositionSpliterator implements Spliterator<Student> {
+
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    private final IntFunction<Student> studentAt; /**< Student at a position, or null for a hole. */
+    private final IntSupplier modCount;           /**< Current modification counter of the store. */
+    private final int expectedModCount;           /**< Modification counter when traversal began. */
+    private final int size;                       /**< Number of students in the whole store. */
+    private final int end;                        /**< Number of used positions in the whole store. */
+    private int position;                         /**< Next position to visit. */
+    private final int fence;                      /**< Position after the last one to visit. */
+    private boolean split;                        /**< Whether this spliterator came from or made a split. */
+    private int remaining;                        /**< Students left to visit, while not split. */
+
+    /**
+     * @brief Constructor to initialize a spliterator over positions 0 to end - 1.
+     *
+     * @param end The number of used positions, including holes.
+     * @param size The number of students at those positions.
+     * @param studentAt The function returning the student at a position, or null for a hole.
+     * @param modCount The supplier of the store's modification counter.
+     */
+    PositionSpliterator(int end, int size, IntFunction<Student> studentAt, IntSupplier modCount) {
+        this(studentAt, modCount, modCount.getAsInt(), size, end, 0, end);
+    }
+
+    private PositionSpliterator(IntFunction<Student> studentAt, IntSupplier modCount, int expectedModCount,
+            int size, int end, int position, int fence) {
+        this.studentAt = studentAt;
+        this.modCount = modCount;
+        this.expectedModCount = expectedModCount;
+        this.size = size;
+        this.end = end;
+        this.position = position;
+        this.fence = fence;
+        this.remaining = size;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Student> action) {
+        while (position < fence) {
+            Student student = studentAt.apply(position++);
+            if (modCount.getAsInt() != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (student != null) {
+                remaining--;
+                action.accept(student);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Student> action) {
+        for (int i = position; i < fence; i++) {
+            Student student = studentAt.apply(i);
+            if (student != null) {
+                action.accept(student);
+            }
+        }
+        position = fence;
+        remaining = 0;
+        if (modCount.getAsInt() != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * @brief Hands the first half of the remaining positions to a new spliterator.
+     *
+     * @return The spliterator over the first half, or null if fewer than two positions remain.
+     */
+    @Override
+    public Spliterator<Student> trySplit() {
+        int middle = (position + fence) >>> 1;
+        if (middle <= position) {
+            return null;
+        }
+        PositionSpliterator prefix = new PositionSpliterator(studentAt, modCount, expectedModCount, size, end,
+                position, middle);
+        prefix.split = true;
+        split = true;
+        position = middle;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        if (size == end) {
+            return fence - position;
+        }
+        if (!split) {
+            return remaining;
+        }
+        return (long) (fence - position) * size / end;
+    }
+
+    @Override
+    public int characteristics() {
+        if (size == end) {
+            return CHARACTERISTICS | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+        return !split ? CHARACTERISTICS | Spliterator.SIZED : CHARACTERISTICS;
+    }
+}
@@ -0,0 +1,284 @@
+/**
+ * @file RemoteStudentStore.java
+ * @brief Client side of the shard protocol served by ShardServer.
+ *
+ * A shard in another process looks like any other store to the
+ * ShardedStudentStore routing over it; every operation is a request and answer
+ * on a TCP connection to the shard.
+ */
+
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * @class RemoteStudentStore
+ * @brief StudentStore whose students are kept by a ShardServer.
+ *
+ * All operations share one connection and are synchronized on the store, so the
+ * store is thread-safe and a shard serves one request of this client at a time;
+ * a ShardedStudentStore over several shards still runs requests to different
+ * shards in parallel. Iteration fetches the whole roster of the shard in one
+ * LIST request, encoded in the binary roster format, and iterates that copy.
+ * Network failures are thrown as UncheckedIOException, and failures of the
+ * remote store as IllegalStateException with the remote message. The name
+ * length limit is fetched once on connecting, so writes do not pay a round trip
+ * for it.
+ */
+final class RemoteStudentStore implements StudentStore, Closeable {
+
+    private final InetSocketAddress address; /**< Address of the shard. */
+    private final Socket socket;             /**< Connection to the shard. */
+    private final DataInputStream in;        /**< Answers from the shard. */
+    private final DataOutputStream out;      /**< Requests to the shard. */
+    private final int maxNameLength;         /**< Name limit of the shard, capped at what the protocol encodes. */
+
+    /**
+     * @brief Constructor that connects to a shard.
+     */
+    private RemoteStudentStore(InetSocketAddress address) throws IOException {
+        this.address = address;
+        this.socket = new Socket(address.getAddress(), address.getPort());
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        try {
+            out.writeByte(ShardServer.MAX_NAME_LENGTH);
+            readStatus();
+            this.maxNameLength = Math.min(ShardServer.MAX_NAME_BYTES, in.readInt());
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @brief Connects to a shard server.
+     *
+     * @param address The address the shard listens on.
+     * @return The connected store.
+     * @throws IOException If the shard cannot be reached.
+     */
+    static RemoteStudentStore connect(InetSocketAddress address) throws IOException {
+        return new RemoteStudentStore(address);
+    }
+
+    /**
+     * @brief Returns the address of the shard.
+     *
+     * @return The address the store is connected to.
+     */
+    InetSocketAddress address() {
+        return address;
+    }
+
+    @Override
+    public synchronized Student get(int studentId) {
+        try {
+            out.writeByte(ShardServer.GET);
+            out.writeInt(studentId);
+            return readStudent();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean add(Student student) {
+        checkName(student);
+        try {
+            out.writeByte(ShardServer.ADD);
+            ShardServer.writeStudentFields(out, student);
+            return readStatus() == ShardServer.FOUND;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized Student remove(int studentId) {
+        try {
+            out.writeByte(ShardServer.REMOVE);
+            out.writeInt(studentId);
+            return readStudent();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized Student replace(int studentId, Student replacement) {
+        checkName(replacement);
+        try {
+            out.writeByte(ShardServer.REPLACE);
+            out.writeInt(studentId);
+            ShardServer.writeStudentFields(out, replacement);
+            byte status = readStatus();
+            if (status == ShardServer.TAKEN) {
+                throw new IllegalArgumentException("Student ID is already taken: " + replacement.getStudentId());
+            }
+            return status == ShardServer.FOUND ? ShardServer.readStudent(in) : null;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(int studentId) {
+        try {
+            out.writeByte(ShardServer.CONTAINS);
+            out.writeInt(studentId);
+            return readStatus() == ShardServer.FOUND;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        try {
+            out.writeByte(ShardServer.SIZE);
+            readStatus();
+            return in.readInt();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public synchronized void ensureCapacity(int expectedSize) {
+        try {
+            out.writeByte(ShardServer.ENSURE_CAPACITY);
+            out.writeInt(expectedSize);
+            readStatus();
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * @brief Fills a page with as many PAGE requests as it takes.
+     *
+     * A request asks for at most ShardServer.MAX_PAGE_SIZE students, so a larger
+     * page continues after the last student of each answer until it is full or
+     * the shard answers with fewer students than asked, at its end.
+     */
+    @Override
+    public synchronized int page(long afterSequence, Student[] students, long[] sequences) {
+        try {
+            int count = 0;
+            while (count < students.length) {
+                int asked = Math.min(students.length - count, ShardServer.MAX_PAGE_SIZE);
+                out.writeByte(ShardServer.PAGE);
+                out.writeLong(count == 0 ? afterSequence : sequences[count - 1]);
+                out.writeInt(asked);
+                readStatus();
+                int found = in.readInt();
+                for (int i = count; i < count + found; i++) {
+                    sequences[i] = in.readLong();
+                    students[i] = ShardServer.readStudent(in);
+                }
+                count += found;
+                if (found < asked) {
+                    break;
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    /**
+     * @brief Returns the name limit fetched on connecting.
+     *
+     * @return The smaller of the shard's limit and ShardServer.MAX_NAME_BYTES.
+     */
+    @Override
+    public int maxNameLength() {
+        return maxNameLength;
+    }
+
+    /**
+     * @brief Fetches a copy of the shard's students in insertion order.
+     *
+     * @return The students of the shard.
+     */
+    synchronized List<Student> fetchAll() {
+        try {
+            out.writeByte(ShardServer.LIST);
+            readStatus();
+            byte[] roster = new byte[in.readInt()];
+            in.readFully(roster);
+            List<Student> students = new ArrayList<>();
+            new StudentBinaryImporter(null).decode(ByteBuffer.wrap(roster), students::add);
+            return students;
+        } catch (IOException e) {
+            throw failed(e);
+        }
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return fetchAll().iterator();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * @brief Closes the connection to the shard.
+     *
+     * @throws IOException If the socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    /**
+     * @brief Sends the request and reads the status byte of its answer.
+     */
+    private byte readStatus() throws IOException {
+        out.flush();
+        byte status = in.readByte();
+        if (status == ShardServer.FAILED) {
+            throw new IllegalStateException("Shard " + address + " failed: " + in.readUTF());
+        }
+        return status;
+    }
+
+    /**
+     * @brief Rejects a name the protocol cannot encode, before any byte of the request is sent.
+     */
+    private static void checkName(Student student) {
+        if (ShardServer.encodedLength(student.getStudentName()) > ShardServer.MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name is longer than " + ShardServer.MAX_NAME_BYTES + " bytes");
+        }
+    }
+
+    /**
+     * @brief Reads FOUND and a student, or NONE.
+     */
+    private Student readStudent() throws IOException {
+        return readStatus() == ShardServer.FOUND ? ShardServer.readStudent(in) : null;
+    }
+
+    private UncheckedIOException failed(IOException e) {
+        return new UncheckedIOException("Shard " + address + " is unreachable", e);
+    }
+}
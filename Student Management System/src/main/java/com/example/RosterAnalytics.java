@@ -0,0 +1,389 @@
+/**
+ * @file RosterAnalytics.java
+ * @brief Computes RosterStatistics with a fork-join reduction over a store's spliterator.
+ *
+ * Management reports need aggregates of the whole roster. Rather than building
+ * them from displayAllStudents output, the analytics read every student once,
+ * splitting the store's backing arrays between the threads of a fork-join pool
+ * and merging the per-thread partial results.
+ */
+
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * @class RosterAnalytics
+ * @brief One-pass parallel reduction of a roster into its age, name and ID aggregates.
+ *
+ * The spliterator is split in halves until each piece holds about a
+ * LEAVES_PER_THREAD-th of a thread's share of the roster; smaller pieces would
+ * spend more time on task overhead than on students. Each piece is folded into
+ * its own Partial, which counts ages and initials in plain arrays and collects
+ * the student IDs, and the partials are merged pairwise as the tasks join.
+ *
+ * The ID gaps are the one aggregate that needs the IDs in order, which the pass
+ * does not visit them in. Once the smallest and largest ID are known, the
+ * collected IDs are marked in a bitmap of the ID range and the bitmap is scanned
+ * for runs of clear bits. A bitmap of a range much wider than the roster would
+ * cost more than it saves, so IDs spread over more than BITMAP_BITS_PER_STUDENT
+ * times the roster size are sorted instead; sorting ten million IDs takes about
+ * thirty times as long as marking them.
+ */
+final class RosterAnalytics {
+
+    static final int MAX_REPORTED_GAPS = 10; /**< Number of widest ID gaps the statistics list. */
+
+    private static final int MIN_LEAF_SIZE = 1 << 13; /**< Smallest number of students per task. */
+    private static final int LEAVES_PER_THREAD = 4;   /**< Tasks per pool thread, to even out slow tasks. */
+    private static final int ASCII = 128;             /**< Initials below this code point are counted in an array. */
+    private static final int BITMAP_BITS_PER_STUDENT = 64; /**< Widest ID range per student found with a bitmap. */
+    private static final VarHandle WORD = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private RosterAnalytics() {
+    }
+
+    /**
+     * @brief Computes the statistics of the students a spliterator covers.
+     *
+     * The spliterator must not be traversed by anyone else, and the store must
+     * not change while the statistics are computed.
+     *
+     * @param students The spliterator over the roster.
+     * @param pool The pool to split the work between, or null to compute on the calling thread.
+     * @return The statistics.
+     */
+    static RosterStatistics compute(Spliterator<Student> students, ForkJoinPool pool) {
+        if (pool == null) {
+            return Partial.of(students).toStatistics(null);
+        }
+        long leafSize = Math.max(MIN_LEAF_SIZE,
+                students.estimateSize() / ((long) pool.getParallelism() * LEAVES_PER_THREAD));
+        return pool.invoke(new ReduceTask(students, leafSize)).toStatistics(pool);
+    }
+
+    /**
+     * @class ReduceTask
+     * @brief Fork-join task folding a piece of the roster into a Partial.
+     *
+     * ForkJoinTask is Serializable, but a task folding a live roster is never serialized.
+     */
+    @SuppressWarnings("serial")
+    private static final class ReduceTask extends RecursiveTask<Partial> {
+
+        private final Spliterator<Student> students; /**< The piece of the roster to fold. */
+        private final long leafSize;                 /**< Size below which the piece is not split. */
+
+        ReduceTask(Spliterator<Student> students, long leafSize) {
+            this.students = students;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected Partial compute() {
+            Spliterator<Student> prefix;
+            if (students.estimateSize() <= leafSize || (prefix = students.trySplit()) == null) {
+                return Partial.of(students);
+            }
+            // Fork the first half and fold the second on this thread
+            ReduceTask first = new ReduceTask(prefix, leafSize);
+            first.fork();
+            Partial second = new ReduceTask(students, leafSize).compute();
+            return first.join().merge(second);
+        }
+    }
+
+    /**
+     * @class Partial
+     * @brief Aggregates of one piece of the roster, mergeable with those of other pieces.
+     */
+    private static final class Partial implements Consumer<Student> {
+
+        private long count;                                   /**< Number of students. */
+        private long ageSum;                                  /**< Sum of the ages. */
+        private final long[] denseAges = new long[AgeIndex.DENSE_AGES]; /**< Students by age below DENSE_AGES. */
+        private final TreeMap<Integer, Long> otherAges = new TreeMap<>(); /**< Students of other ages. */
+        private final long[] asciiInitials = new long[ASCII]; /**< Names by ASCII initial. */
+        private final TreeMap<String, Long> otherInitials = new TreeMap<>(); /**< Names by other initials. */
+        private int minId = Integer.MAX_VALUE;                /**< Smallest ID seen. */
+        private int maxId = Integer.MIN_VALUE;                /**< Largest ID seen. */
+        private int[] ids;                                    /**< IDs collected by accept(). */
+        private int idCount;                                  /**< Number of IDs in ids. */
+        private final List<int[]> idChunks = new ArrayList<>(); /**< Full ID arrays of this and merged partials. */
+
+        private Partial(long expectedSize) {
+            this.ids = new int[(int) Math.min(Math.max(expectedSize, 16), Integer.MAX_VALUE - 8)];
+        }
+
+        /**
+         * @brief Folds the remaining students of a spliterator into a new partial.
+         */
+        static Partial of(Spliterator<Student> students) {
+            Partial partial = new Partial(students.estimateSize());
+            students.forEachRemaining(partial);
+            partial.idChunks.add(partial.idCount == partial.ids.length
+                    ? partial.ids : Arrays.copyOf(partial.ids, partial.idCount));
+            partial.ids = null;
+            return partial;
+        }
+
+        @Override
+        public void accept(Student student) {
+            int age = student.getStudentAge();
+            ageSum += age;
+            if (age >= 0 && age < AgeIndex.DENSE_AGES) {
+                denseAges[age]++;
+            } else {
+                otherAges.merge(age, 1L, Long::sum);
+            }
+
+            String name = student.getStudentName();
+            int start = 0;
+            while (start < name.length() && name.charAt(start) == ' ') {
+                start++;
+            }
+            if (start < name.length()) {
+                int initial = Character.toUpperCase(name.codePointAt(start));
+                if (initial < ASCII) {
+                    asciiInitials[initial]++;
+                } else {
+                    otherInitials.merge(Character.toString(initial), 1L, Long::sum);
+                }
+            }
+
+            int studentId = student.getStudentId();
+            minId = Math.min(minId, studentId);
+            maxId = Math.max(maxId, studentId);
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, idCount + (idCount >>> 1) + 1);
+            }
+            ids[idCount++] = studentId;
+            count++;
+        }
+
+        /**
+         * @brief Adds the aggregates of another partial to this one.
+         */
+        Partial merge(Partial other) {
+            count += other.count;
+            ageSum += other.ageSum;
+            for (int i = 0; i < denseAges.length; i++) {
+                denseAges[i] += other.denseAges[i];
+            }
+            other.otherAges.forEach((age, students) -> otherAges.merge(age, students, Long::sum));
+            for (int i = 0; i < asciiInitials.length; i++) {
+                asciiInitials[i] += other.asciiInitials[i];
+            }
+            other.otherInitials.forEach((initial, names) -> otherInitials.merge(initial, names, Long::sum));
+            minId = Math.min(minId, other.minId);
+            maxId = Math.max(maxId, other.maxId);
+            idChunks.addAll(other.idChunks);
+            return this;
+        }
+
+        /**
+         * @brief Turns the aggregates of the whole roster into statistics.
+         *
+         * @param pool The pool to finish the ID gaps on, or null to finish them on the calling thread.
+         */
+        RosterStatistics toStatistics(ForkJoinPool pool) {
+            TreeMap<Integer, Long> ageHistogram = new TreeMap<>(otherAges);
+            for (int age = 0; age < denseAges.length; age++) {
+                if (denseAges[age] != 0) {
+                    ageHistogram.put(age, denseAges[age]);
+                }
+            }
+            TreeMap<String, Long> initialCounts = new TreeMap<>(otherInitials);
+            for (int initial = 0; initial < asciiInitials.length; initial++) {
+                if (asciiInitials[initial] != 0) {
+                    initialCounts.put(String.valueOf((char) initial), asciiInitials[initial]);
+                }
+            }
+
+            GapFinder gaps = new GapFinder();
+            if (count > 0 && (long) maxId - minId + 1 <= count * BITMAP_BITS_PER_STUDENT) {
+                gaps.scan(bitmap(pool), minId, maxId);
+            } else {
+                gaps.scan(sortedIds(pool));
+            }
+
+            return new RosterStatistics((int) count, Collections.unmodifiableSortedMap(ageHistogram),
+                    count == 0 ? Double.NaN : (double) ageSum / count, median(ageHistogram),
+                    Collections.unmodifiableSortedMap(initialCounts),
+                    count == 0 ? 0 : minId, count == 0 ? 0 : maxId, gaps.gapCount, gaps.widest());
+        }
+
+        /**
+         * @brief Marks the collected IDs in a bitmap of the range from minId to maxId.
+         *
+         * In a pool, each ID chunk is marked by its own task with atomic ORs; the
+         * chunks hold IDs of neighbouring positions, so the tasks rarely touch the
+         * same word.
+         */
+        private long[] bitmap(ForkJoinPool pool) {
+            long[] bits = new long[(int) (((long) maxId - minId) >>> 6) + 1];
+            if (pool == null) {
+                for (int[] chunk : idChunks) {
+                    for (int id : chunk) {
+                        bits[(id - minId) >>> 6] |= 1L << (id - minId);
+                    }
+                }
+                return bits;
+            }
+            List<ForkJoinTask<?>> marks = new ArrayList<>(idChunks.size());
+            for (int[] chunk : idChunks) {
+                marks.add(ForkJoinTask.adapt(() -> {
+                    for (int id : chunk) {
+                        WORD.getAndBitwiseOr(bits, (id - minId) >>> 6, 1L << (id - minId));
+                    }
+                }));
+            }
+            pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(marks)));
+            return bits;
+        }
+
+        /**
+         * @brief Copies the collected IDs into one sorted array.
+         */
+        private int[] sortedIds(ForkJoinPool pool) {
+            int[] ids = new int[(int) count];
+            int copied = 0;
+            for (int[] chunk : idChunks) {
+                System.arraycopy(chunk, 0, ids, copied, chunk.length);
+                copied += chunk.length;
+            }
+            if (pool == null) {
+                Arrays.sort(ids);
+            } else {
+                // parallelSort always runs on the common pool
+                Arrays.parallelSort(ids);
+            }
+            return ids;
+        }
+
+        /**
+         * @brief Returns the median of the ages counted in a histogram, or NaN if it is empty.
+         */
+        private double median(TreeMap<Integer, Long> ageHistogram) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            // The median is the mean of the ages at ranks lower and upper, counting from 0
+            long lower = (count - 1) / 2;
+            long upper = count / 2;
+            long seen = 0;
+            int lowerAge = 0;
+            for (Map.Entry<Integer, Long> entry : ageHistogram.entrySet()) {
+                if (seen <= lower && lower < seen + entry.getValue()) {
+                    lowerAge = entry.getKey();
+                }
+                seen += entry.getValue();
+                if (upper < seen) {
+                    return (lowerAge + (double) entry.getKey()) / 2;
+                }
+            }
+            throw new IllegalStateException("Age histogram does not add up to " + count);
+        }
+    }
+
+    /**
+     * @class GapFinder
+     * @brief Counts the runs of unused IDs and keeps the widest MAX_REPORTED_GAPS of them.
+     */
+    private static final class GapFinder {
+
+        private static final Comparator<RosterStatistics.IdGap> BY_WIDTH = Comparator
+                .comparingLong(RosterStatistics.IdGap::getLength)
+                .thenComparing(RosterStatistics.IdGap::getFirstId, Comparator.reverseOrder());
+
+        private long gapCount; /**< Number of gaps found. */
+
+        /**
+         * @brief The widest gaps found so far; the head is the narrowest of them.
+         */
+        private final PriorityQueue<RosterStatistics.IdGap> widest = new PriorityQueue<>(BY_WIDTH);
+
+        /**
+         * @brief Finds the gaps between the set bits of a bitmap whose bit 0 stands for minId.
+         */
+        void scan(long[] bits, int minId, int maxId) {
+            long last = (long) maxId - minId;
+            long bit = 0;
+            while (bit < last) {
+                long gapStart = nextBit(bits, bit, 0);
+                if (gapStart > last) {
+                    break;
+                }
+                long gapEnd = nextBit(bits, gapStart, -1L);
+                add((int) (minId + gapStart), (int) (minId + gapEnd - 1));
+                bit = gapEnd;
+            }
+        }
+
+        /**
+         * @brief Finds the gaps between the IDs of a sorted array.
+         */
+        void scan(int[] sortedIds) {
+            for (int i = 1; i < sortedIds.length; i++) {
+                if (sortedIds[i] - sortedIds[i - 1] > 1) {
+                    add(sortedIds[i - 1] + 1, sortedIds[i] - 1);
+                }
+            }
+        }
+
+        /**
+         * @brief Returns the widest gaps, widest first.
+         */
+        List<RosterStatistics.IdGap> widest() {
+            List<RosterStatistics.IdGap> gaps = new ArrayList<>(widest);
+            gaps.sort(BY_WIDTH.reversed());
+            return List.copyOf(gaps);
+        }
+
+        private void add(int firstId, int lastId) {
+            gapCount++;
+            RosterStatistics.IdGap narrowest = widest.peek();
+            if (widest.size() == MAX_REPORTED_GAPS
+                    && lastId - firstId <= narrowest.getLastId() - narrowest.getFirstId()) {
+                return; // Gaps arrive by ascending ID, so a gap as wide as the narrowest loses the tie
+            }
+            widest.add(new RosterStatistics.IdGap(firstId, lastId));
+            if (widest.size() > MAX_REPORTED_GAPS) {
+                widest.poll();
+            }
+        }
+
+        /**
+         * @brief Returns the first bit from a position on that is set, if invert is -1,
+         *        or clear, if invert is 0; past the end of the bitmap if there is none.
+         */
+        private static long nextBit(long[] bits, long from, long invert) {
+            int word = (int) (from >>> 6);
+            long remaining = ~(bits[word] ^ invert) & (-1L << from);
+            while (remaining == 0) {
+                if (++word == bits.length) {
+                    return (long) bits.length << 6;
+                }
+                remaining = ~(bits[word] ^ invert);
+            }
+            return ((long) word << 6) + Long.numberOfTrailingZeros(remaining);
+        }
+    }
+}
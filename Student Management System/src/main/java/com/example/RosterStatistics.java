@@ -0,0 +1,208 @@
+/**
+ * @file RosterStatistics.java
+ * @brief Aggregate statistics of the roster returned by StudentRepository.statistics().
+ *
+ * The statistics answer the questions management asks about the roster as a
+ * whole: how ages are distributed, how many names start with each letter and
+ * which ranges of student IDs are unused.
+ */
+
+package com.example;
+
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * @class RosterStatistics
+ * @brief Immutable age, name and ID aggregates of the roster at one point in time.
+ */
+public final class RosterStatistics {
+
+    private final int studentCount;                      /**< Number of students. */
+    private final SortedMap<Integer, Long> ageHistogram; /**< Number of students of each age. */
+    private final double meanAge;                        /**< Average age, or NaN for an empty roster. */
+    private final double medianAge;                      /**< Median age, or NaN for an empty roster. */
+    private final SortedMap<String, Long> initialCounts; /**< Number of names starting with each letter. */
+    private final int minId;                             /**< Smallest student ID, or 0. */
+    private final int maxId;                             /**< Largest student ID, or 0. */
+    private final long idGapCount;                       /**< Number of runs of unused IDs. */
+    private final List<IdGap> largestIdGaps;             /**< The widest runs of unused IDs. */
+
+    /**
+     * @class IdGap
+     * @brief A run of consecutive unused student IDs between the smallest and largest ID.
+     */
+    public static final class IdGap {
+
+        private final int firstId; /**< First unused ID of the run. */
+        private final int lastId;  /**< Last unused ID of the run. */
+
+        /**
+         * @brief Constructor to initialize a gap.
+         *
+         * @param firstId The first unused ID.
+         * @param lastId The last unused ID; not less than firstId.
+         */
+        IdGap(int firstId, int lastId) {
+            this.firstId = firstId;
+            this.lastId = lastId;
+        }
+
+        /**
+         * @brief Getter for the first unused ID of the gap.
+         *
+         * @return The first ID.
+         */
+        public int getFirstId() {
+            return firstId;
+        }
+
+        /**
+         * @brief Getter for the last unused ID of the gap.
+         *
+         * @return The last ID.
+         */
+        public int getLastId() {
+            return lastId;
+        }
+
+        /**
+         * @brief Returns the number of unused IDs in the gap.
+         *
+         * @return The gap length, at least 1.
+         */
+        public long getLength() {
+            return (long) lastId - firstId + 1;
+        }
+
+        /**
+         * @brief Returns the gap as text.
+         *
+         * @return The first and last ID, for example "105-230".
+         */
+        @Override
+        public String toString() {
+            return firstId + "-" + lastId;
+        }
+    }
+
+    /**
+     * @brief Constructor to initialize the statistics.
+     *
+     * @param studentCount The number of students.
+     * @param ageHistogram The number of students of each age; an unmodifiable map.
+     * @param meanAge The average age, or NaN for an empty roster.
+     * @param medianAge The median age, or NaN for an empty roster.
+     * @param initialCounts The number of names starting with each letter; an unmodifiable map.
+     * @param minId The smallest student ID, or 0 for an empty roster.
+     * @param maxId The largest student ID, or 0 for an empty roster.
+     * @param idGapCount The number of runs of unused IDs between minId and maxId.
+     * @param largestIdGaps The widest runs of unused IDs, widest first; an unmodifiable list.
+     */
+    RosterStatistics(int studentCount, SortedMap<Integer, Long> ageHistogram, double meanAge, double medianAge,
+            SortedMap<String, Long> initialCounts, int minId, int maxId, long idGapCount, List<IdGap> largestIdGaps) {
+        this.studentCount = studentCount;
+        this.ageHistogram = ageHistogram;
+        this.meanAge = meanAge;
+        this.medianAge = medianAge;
+        this.initialCounts = initialCounts;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.idGapCount = idGapCount;
+        this.largestIdGaps = largestIdGaps;
+    }
+
+    /**
+     * @brief Getter for the number of students.
+     *
+     * @return The roster size.
+     */
+    public int getStudentCount() {
+        return studentCount;
+    }
+
+    /**
+     * @brief Getter for the age histogram.
+     *
+     * @return The number of students of each age, by ascending age; an unmodifiable map.
+     */
+    public SortedMap<Integer, Long> getAgeHistogram() {
+        return ageHistogram;
+    }
+
+    /**
+     * @brief Getter for the average age.
+     *
+     * @return The mean age, or NaN if the roster is empty.
+     */
+    public double getMeanAge() {
+        return meanAge;
+    }
+
+    /**
+     * @brief Getter for the median age.
+     *
+     * @return The middle age, or the mean of the two middle ages for an even
+     *         roster size; NaN if the roster is empty.
+     */
+    public double getMedianAge() {
+        return medianAge;
+    }
+
+    /**
+     * @brief Getter for the name initial counts.
+     *
+     * An initial is the first letter of a name, in upper case.
+     *
+     * @return The number of names starting with each initial, by initial; an unmodifiable map.
+     */
+    public SortedMap<String, Long> getInitialCounts() {
+        return initialCounts;
+    }
+
+    /**
+     * @brief Getter for the smallest student ID.
+     *
+     * @return The smallest ID, or 0 if the roster is empty.
+     */
+    public int getMinId() {
+        return minId;
+    }
+
+    /**
+     * @brief Getter for the largest student ID.
+     *
+     * @return The largest ID, or 0 if the roster is empty.
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @brief Returns the number of unused IDs between the smallest and largest ID.
+     *
+     * @return The number of missing IDs.
+     */
+    public long getMissingIdCount() {
+        return studentCount == 0 ? 0 : (long) maxId - minId + 1 - studentCount;
+    }
+
+    /**
+     * @brief Getter for the number of gaps in the ID range.
+     *
+     * @return The number of runs of consecutive unused IDs between the smallest and largest ID.
+     */
+    public long getIdGapCount() {
+        return idGapCount;
+    }
+
+    /**
+     * @brief Getter for the widest gaps in the ID range.
+     *
+     * @return Up to RosterAnalytics.MAX_REPORTED_GAPS gaps, widest first and, among
+     *         gaps of one width, by ascending ID; an unmodifiable list.
+     */
+    public List<IdGap> getLargestIdGaps() {
+        return largestIdGaps;
+    }
+}
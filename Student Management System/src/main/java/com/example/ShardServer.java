@@ -0,0 +1,371 @@
+/**
+ * @file ShardServer.java
+ * @brief Serves one shard of a partitioned roster over a TCP socket.
+ *
+ * A ShardedStudentStore can spread the roster over shards in other JVMs, so that
+ * it is not bounded by one process's heap and cores. Each of those processes runs
+ * a ShardServer over its own store, and the router reaches it through a
+ * RemoteStudentStore.
+ */
+
+package com.example;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @class ShardServer
+ * @brief Answers StudentStore operations sent by RemoteStudentStore clients.
+ *
+ * The protocol is a stream of requests on a connection, each answered before the
+ * next is read. A request is an opcode byte followed by its arguments, and an
+ * answer is a status byte followed by its values. Integers are big-endian and a
+ * student is its int ID, int age and modified-UTF-8 name, as written by
+ * DataOutputStream:
+ *
+ *     GET <id>                  FOUND <student> | NONE
+ *     ADD <student>             FOUND | NONE, whether it was added
+ *     REMOVE <id>               FOUND <student> | NONE
+ *     REPLACE <id> <student>    FOUND <student> | NONE | TAKEN if the new ID is in use
+ *     CONTAINS <id>             FOUND | NONE
+ *     SIZE                      FOUND <int>
+ *     PAGE <long after> <int n> FOUND <int count>, then count times long sequence and student
+ *     LIST                      FOUND <int length>, then the roster in the StudentBinaryExporter format
+ *     ENSURE_CAPACITY <int n>   FOUND
+ *     MAX_NAME_LENGTH           FOUND <int>
+ *
+ * Any request is answered with FAILED and a message instead if the store throws.
+ *
+ * Every connection is served on its own virtual thread. If the store is not
+ * thread-safe, the store calls of different connections run one at a time; a
+ * request's arguments are read before the lock is taken and its answer is put
+ * together in memory and sent after the lock is released, so a slow client does
+ * not hold up the others.
+ */
+final class ShardServer {
+
+    static final byte GET = 1;
+    static final byte ADD = 2;
+    static final byte REMOVE = 3;
+    static final byte REPLACE = 4;
+    static final byte CONTAINS = 5;
+    static final byte SIZE = 6;
+    static final byte PAGE = 7;
+    static final byte LIST = 8;
+    static final byte ENSURE_CAPACITY = 9;
+    static final byte MAX_NAME_LENGTH = 10;
+
+    static final byte NONE = 0;   /**< No student, or the operation did nothing. */
+    static final byte FOUND = 1;  /**< A student follows, or the operation succeeded. */
+    static final byte TAKEN = 2;  /**< REPLACE found the new ID taken by another student. */
+    static final byte FAILED = 3; /**< The store threw; a message follows. */
+
+    static final int MAX_PAGE_SIZE = 1 << 16; /**< Largest page a PAGE request may ask for. */
+    static final int MAX_NAME_BYTES = 0xFFFF; /**< Longest name writeUTF can encode, in bytes. */
+
+    private final StudentStore store;             /**< The shard's students. */
+    private final Object storeLock;               /**< Lock serializing requests, or null if they may overlap. */
+    private final ServerSocket serverSocket;      /**< The listening socket. */
+    private final ExecutorService executor;       /**< Virtual-thread-per-connection executor. */
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet(); /**< Open client connections. */
+    private final CountDownLatch stopped = new CountDownLatch(1);          /**< Released by stop(). */
+
+    /**
+     * @brief Constructor that binds the server without accepting connections.
+     */
+    private ShardServer(StudentStore store, InetSocketAddress address) throws IOException {
+        this.store = store;
+        this.storeLock = store.isThreadSafe() ? null : new Object();
+        this.serverSocket = new ServerSocket();
+        serverSocket.bind(address);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * @brief Starts serving a store.
+     *
+     * @param store The shard's store.
+     * @param address The address to listen on; port 0 picks a free port.
+     * @return The running server.
+     * @throws IOException If the address cannot be bound.
+     */
+    static ShardServer start(StudentStore store, InetSocketAddress address) throws IOException {
+        ShardServer server = new ShardServer(store, address);
+        server.executor.execute(server::acceptConnections);
+        return server;
+    }
+
+    /**
+     * @brief Returns the port the server listens on.
+     *
+     * @return The bound port.
+     */
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @brief Stops accepting connections, closes the open ones and releases awaitStop().
+     */
+    void stop() {
+        try {
+            serverSocket.close();
+            for (Socket connection : connections) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            // Closing only fails if the socket is already broken
+        }
+        executor.close();
+        stopped.countDown();
+    }
+
+    /**
+     * @brief Blocks until stop() has been called.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void acceptConnections() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket connection = serverSocket.accept();
+                connection.setTcpNoDelay(true);
+                connections.add(connection);
+                executor.execute(() -> serve(connection));
+            } catch (IOException e) {
+                // The socket was closed by stop()
+            }
+        }
+    }
+
+    /**
+     * @brief Answers the requests of one connection until the client closes it.
+     */
+    private void serve(Socket connection) {
+        try (connection) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            OutputStream out = connection.getOutputStream();
+            AnswerBuffer answer = new AnswerBuffer();
+            while (true) {
+                byte opcode;
+                try {
+                    opcode = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                answer(opcode, in, answer);
+                answer.sendTo(out);
+                answer.clear();
+            }
+        } catch (IOException e) {
+            // The client went away or stop() closed the connection
+        } finally {
+            connections.remove(connection);
+        }
+    }
+
+    /**
+     * @brief Reads the arguments of one request, runs it and puts the answer in a buffer.
+     */
+    private void answer(byte opcode, DataInputStream in, AnswerBuffer answer) throws IOException {
+        DataOutputStream out = answer.data;
+        switch (opcode) {
+            case GET -> {
+                int studentId = in.readInt();
+                run(answer, () -> writeStudent(out, store.get(studentId)));
+            }
+            case ADD -> {
+                Student student = readStudent(in);
+                run(answer, () -> out.writeByte(store.add(student) ? FOUND : NONE));
+            }
+            case REMOVE -> {
+                int studentId = in.readInt();
+                run(answer, () -> writeStudent(out, store.remove(studentId)));
+            }
+            case REPLACE -> {
+                int studentId = in.readInt();
+                Student replacement = readStudent(in);
+                run(answer, () -> {
+                    Student replaced;
+                    try {
+                        replaced = store.replace(studentId, replacement);
+                    } catch (IllegalArgumentException e) {
+                        out.writeByte(TAKEN);
+                        return;
+                    }
+                    writeStudent(out, replaced);
+                });
+            }
+            case CONTAINS -> {
+                int studentId = in.readInt();
+                run(answer, () -> out.writeByte(store.contains(studentId) ? FOUND : NONE));
+            }
+            case SIZE -> run(answer, () -> {
+                int size = store.size();
+                out.writeByte(FOUND);
+                out.writeInt(size);
+            });
+            case PAGE -> {
+                long afterSequence = in.readLong();
+                int pageSize = Math.min(Math.max(in.readInt(), 0), MAX_PAGE_SIZE);
+                run(answer, () -> {
+                    Student[] students = new Student[pageSize];
+                    long[] sequences = new long[pageSize];
+                    int count = store.page(afterSequence, students, sequences);
+                    out.writeByte(FOUND);
+                    out.writeInt(count);
+                    for (int i = 0; i < count; i++) {
+                        out.writeLong(sequences[i]);
+                        writeStudentFields(out, students[i]);
+                    }
+                });
+            }
+            case LIST -> run(answer, () -> {
+                out.writeByte(FOUND);
+                int lengthAt = answer.size();
+                out.writeInt(0);
+                new StudentBinaryExporter().exportTo(Channels.newChannel(answer), store);
+                answer.setInt(lengthAt, answer.size() - lengthAt - Integer.BYTES);
+            });
+            case ENSURE_CAPACITY -> {
+                int expectedSize = in.readInt();
+                run(answer, () -> {
+                    store.ensureCapacity(expectedSize);
+                    out.writeByte(FOUND);
+                });
+            }
+            case MAX_NAME_LENGTH -> run(answer, () -> {
+                int maxNameLength = store.maxNameLength();
+                out.writeByte(FOUND);
+                out.writeInt(maxNameLength);
+            });
+            default -> throw new IOException("Unknown opcode " + opcode);
+        }
+    }
+
+    /**
+     * @class Answer
+     * @brief The part of a request that runs against the store and writes the answer.
+     */
+    private interface Answer {
+        void write() throws IOException;
+    }
+
+    /**
+     * @brief Runs an answer under the store lock, answering FAILED instead if the store throws.
+     */
+    private void run(AnswerBuffer buffer, Answer answer) throws IOException {
+        try {
+            if (storeLock == null) {
+                answer.write();
+            } else {
+                synchronized (storeLock) {
+                    answer.write();
+                }
+            }
+        } catch (RuntimeException e) {
+            buffer.reset();
+            buffer.data.writeByte(FAILED);
+            buffer.data.writeUTF(String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * @class AnswerBuffer
+     * @brief Holds the answer to one request until it is sent.
+     */
+    private static final class AnswerBuffer extends ByteArrayOutputStream {
+
+        private static final int INITIAL_SIZE = 256;      /**< Array size for a typical answer. */
+        private static final int RETAINED_SIZE = 1 << 16; /**< Largest array kept for the next answer. */
+
+        final DataOutputStream data = new DataOutputStream(this); /**< Writer of the answer's values. */
+
+        AnswerBuffer() {
+            super(INITIAL_SIZE);
+        }
+
+        /**
+         * @brief Overwrites a big-endian int written earlier.
+         */
+        void setInt(int position, int value) {
+            for (int i = 0; i < Integer.BYTES; i++) {
+                buf[position + i] = (byte) (value >>> (24 - 8 * i));
+            }
+        }
+
+        /**
+         * @brief Writes the answer to a stream.
+         *
+         * Unlike writeTo(), this holds no monitor, which would pin the virtual
+         * thread to its carrier while a slow client lets the write block.
+         */
+        void sendTo(OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+
+        /**
+         * @brief Empties the buffer, dropping the array if a large answer grew it.
+         */
+        void clear() {
+            if (buf.length > RETAINED_SIZE) {
+                buf = new byte[INITIAL_SIZE];
+            }
+            reset();
+        }
+    }
+
+    /**
+     * @brief Writes FOUND and a student, or NONE if there is no student.
+     */
+    static void writeStudent(DataOutputStream out, Student student) throws IOException {
+        if (student == null) {
+            out.writeByte(NONE);
+            return;
+        }
+        out.writeByte(FOUND);
+        writeStudentFields(out, student);
+    }
+
+    static void writeStudentFields(DataOutputStream out, Student student) throws IOException {
+        out.writeInt(student.getStudentId());
+        out.writeInt(student.getStudentAge());
+        out.writeUTF(student.getStudentName());
+    }
+
+    /**
+     * @brief Returns the number of bytes writeUTF encodes a name in.
+     */
+    static int encodedLength(String name) {
+        int length = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            length += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        return length;
+    }
+
+    static Student readStudent(DataInputStream in) throws IOException {
+        int studentId = in.readInt();
+        int studentAge = in.readInt();
+        return new Student(studentId, in.readUTF(), studentAge);
+    }
+}
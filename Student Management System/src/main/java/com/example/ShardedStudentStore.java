@@ -0,0 +1,445 @@
+/**
+ * @file ShardedStudentStore.java
+ * @brief Roster partitioned by student ID over several stores.
+ *
+ * One store is bounded by the cores of the JVM it lives in. Splitting the
+ * students over shards, each its own store in this process or behind a
+ * ShardServer in another one, spreads the point operations over them, since
+ * each touches a single shard. It does not take the roster out of the router's
+ * heap: see the limitations below.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
+
+/**
+ * @class ShardedStudentStore
+ * @brief Store that routes each student to the shard owning its ID on a HashRing.
+ *
+ * get(), add(), remove() and contains() go to the owning shard only. size() and
+ * iteration scatter to every shard and gather the answers; remote shards are
+ * asked in parallel and each answers with its whole roster in one reply, which
+ * is what the repository's statistics and listings read. Iteration runs shard by
+ * shard, in insertion order within each shard, so students added to different
+ * shards are not in insertion order relative to each other.
+ *
+ * Page positions combine the shard number (high 16 bits) with the shard's own
+ * sequence number (low 48 bits), so paging walks the shards in order and a page
+ * token stays valid while the students before it are removed, as long as no
+ * shard is added in between.
+ *
+ * addShard() moves to the new shard exactly the students whose IDs it takes over
+ * on the ring, about 1/(n + 1) of the roster, and leaves every other student
+ * where it is. It must not run at the same time as other operations. The store
+ * is thread-safe if all of its shards are.
+ *
+ * Limitations: the shards hold the students, but a StudentRepository over this
+ * store still keeps its age, name and ID indexes for the whole roster on the
+ * router, and builds them by iterating every shard when it is created. Every
+ * iteration, and so every statistics call and listing, copies the whole roster
+ * of each remote shard into the router's heap for its duration. A query through
+ * those indexes then gets each matching student with one request to its shard.
+ * The router therefore still needs heap in proportion to the roster; keeping the
+ * indexes on the shards and scattering the queries to them is not done.
+ */
+final class ShardedStudentStore implements StudentStore, Closeable {
+
+    private static final int SHARD_SHIFT = 48;                        /**< Position of the shard number in a sequence. */
+    private static final long LOCAL_MASK = (1L << SHARD_SHIFT) - 1;   /**< Bits of the shard's own sequence number. */
+
+    private volatile StudentStore[] shards; /**< The shards, by shard number. */
+    private volatile HashRing ring;         /**< Owner of each ID, by shard number. */
+    private final List<String> names;       /**< Name of each shard, which places it on the ring. */
+
+    /**
+     * @brief Constructor to initialize a store over existing shards.
+     *
+     * The shards must already hold only the students the ring assigns them, as
+     * they do when they are reopened with the same names.
+     *
+     * @param names The name of each shard, unique and stable across restarts.
+     * @param shards The shards, in the same order as their names.
+     * @throws IllegalArgumentException If there are no shards or the lists differ in length.
+     */
+    ShardedStudentStore(List<String> names, List<? extends StudentStore> shards) {
+        if (shards.isEmpty() || names.size() != shards.size() || shards.size() > 1 << 15) {
+            throw new IllegalArgumentException("Need 1 to 32768 shards with one name each");
+        }
+        HashRing built = new HashRing();
+        for (int shard = 0; shard < names.size(); shard++) {
+            built = built.add(shard, names.get(shard));
+        }
+        this.names = new ArrayList<>(names);
+        this.shards = shards.toArray(new StudentStore[0]);
+        this.ring = built;
+    }
+
+    /**
+     * @brief Creates a store over shards in this process, named "shard-0" to "shard-(n-1)".
+     *
+     * @param shardCount The number of shards.
+     * @param shardFactory Creates the store of each shard.
+     * @return The sharded store.
+     */
+    static ShardedStudentStore inProcess(int shardCount, Supplier<? extends StudentStore> shardFactory) {
+        List<String> names = new ArrayList<>();
+        List<StudentStore> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            names.add("shard-" + shard);
+            shards.add(shardFactory.get());
+        }
+        return new ShardedStudentStore(names, shards);
+    }
+
+    /**
+     * @brief Returns the number of shards.
+     *
+     * @return The shard count.
+     */
+    int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @brief Returns the shard number that owns an ID.
+     *
+     * @param studentId The ID.
+     * @return The number of the shard holding, or to hold, the student with the ID.
+     */
+    int shardOf(int studentId) {
+        return ring.nodeFor(studentId);
+    }
+
+    /**
+     * @brief Returns one shard.
+     *
+     * @param shard The shard number.
+     * @return The shard's store.
+     */
+    StudentStore shard(int shard) {
+        return shards[shard];
+    }
+
+    /**
+     * @brief Adds an empty shard and moves to it the students whose IDs it now owns.
+     *
+     * Every shard is read once to find the students to move. They are copied to
+     * the new shard, the ring is switched, and only then are they removed from
+     * their old shards, so a lookup finds them at every step.
+     *
+     * @param name The shard's name, unique among the shards.
+     * @param shard The new shard's store, which should be empty.
+     * @return The number of students moved.
+     * @throws IllegalArgumentException If the name is already used.
+     */
+    long addShard(String name, StudentStore shard) {
+        if (names.contains(name)) {
+            throw new IllegalArgumentException("Shard name is already used: " + name);
+        }
+        int added = shards.length;
+        HashRing grown = ring.add(added, name);
+        StudentStore[] existing = shards;
+
+        long moved = 0;
+        List<List<Integer>> leaving = new ArrayList<>();
+        for (StudentStore source : existing) {
+            List<Integer> ids = new ArrayList<>();
+            for (Student student : source) {
+                if (grown.nodeFor(student.getStudentId()) == added) {
+                    shard.add(student);
+                    ids.add(student.getStudentId());
+                }
+            }
+            leaving.add(ids);
+            moved += ids.size();
+        }
+
+        names.add(name);
+        StudentStore[] grownShards = Arrays.copyOf(existing, added + 1);
+        grownShards[added] = shard;
+        shards = grownShards;
+        ring = grown;
+        for (int source = 0; source < existing.length; source++) {
+            for (int studentId : leaving.get(source)) {
+                existing[source].remove(studentId);
+            }
+        }
+        return moved;
+    }
+
+    @Override
+    public Student get(int studentId) {
+        return shards[shardOf(studentId)].get(studentId);
+    }
+
+    @Override
+    public boolean contains(int studentId) {
+        return shards[shardOf(studentId)].contains(studentId);
+    }
+
+    @Override
+    public boolean add(Student student) {
+        return shards[shardOf(student.getStudentId())].add(student);
+    }
+
+    @Override
+    public Student remove(int studentId) {
+        return shards[shardOf(studentId)].remove(studentId);
+    }
+
+    /**
+     * @brief Replaces a student, moving it to another shard if the new ID belongs there.
+     *
+     * A student that moves is added at the end of its new shard's insertion order.
+     * It is added to the new shard before it is removed from the old one, so a
+     * shard that fails either step leaves the student on the old shard.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student taking its place.
+     * @return The replaced student, or null if no student had the ID.
+     * @throws IllegalArgumentException If the replacement's ID belongs to another student.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        StudentStore source = shards[shardOf(studentId)];
+        StudentStore target = shards[shardOf(replacement.getStudentId())];
+        if (source == target) {
+            return source.replace(studentId, replacement);
+        }
+        if (!source.contains(studentId)) {
+            return null;
+        }
+        if (!target.add(replacement)) {
+            throw new IllegalArgumentException("Student ID is already taken: " + replacement.getStudentId());
+        }
+        Student replaced;
+        try {
+            replaced = source.remove(studentId);
+        } catch (RuntimeException e) {
+            target.remove(replacement.getStudentId());
+            throw e;
+        }
+        if (replaced == null) {
+            target.remove(replacement.getStudentId()); // Removed by another writer in between
+        }
+        return replaced;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (StudentStore shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        StudentStore[] current = shards;
+        // The ring spreads IDs within a few percent of evenly
+        int perShard = expectedSize / current.length + expectedSize / current.length / 8;
+        for (StudentStore shard : current) {
+            shard.ensureCapacity(perShard);
+        }
+    }
+
+    /**
+     * @brief Runs a group of writes inside the write batch of every shard.
+     */
+    @Override
+    public <T> T writeBatch(Supplier<T> writes) {
+        return writeBatch(shards, 0, writes);
+    }
+
+    private static <T> T writeBatch(StudentStore[] shards, int from, Supplier<T> writes) {
+        if (from == shards.length) {
+            return writes.get();
+        }
+        return shards[from].writeBatch(() -> writeBatch(shards, from + 1, writes));
+    }
+
+    @Override
+    public int page(long afterSequence, Student[] students, long[] sequences) {
+        StudentStore[] current = shards;
+        int shard = afterSequence < 0 ? 0 : (int) (afterSequence >>> SHARD_SHIFT);
+        long after = afterSequence < 0 ? -1 : afterSequence & LOCAL_MASK;
+        int count = 0;
+        for (; shard < current.length && count < students.length; shard++, after = -1) {
+            Student[] shardStudents = count == 0 ? students : new Student[students.length - count];
+            long[] shardSequences = count == 0 ? sequences : new long[students.length - count];
+            int found = current[shard].page(after, shardStudents, shardSequences);
+            if (shardStudents != students) {
+                System.arraycopy(shardStudents, 0, students, count, found);
+            }
+            for (int i = 0; i < found; i++) {
+                sequences[count + i] = (long) shard << SHARD_SHIFT | shardSequences[i];
+            }
+            count += found;
+        }
+        return count;
+    }
+
+    @Override
+    public int maxNameLength() {
+        int maxNameLength = Integer.MAX_VALUE;
+        for (StudentStore shard : shards) {
+            maxNameLength = Math.min(maxNameLength, shard.maxNameLength());
+        }
+        return maxNameLength;
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        for (StudentStore shard : shards) {
+            if (!shard.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return gather().stream().flatMap(part -> StreamSupport.stream(part.spliterator(), false)).iterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        for (Iterable<Student> shard : gather()) {
+            shard.forEach(action);
+        }
+    }
+
+    /**
+     * @brief Returns a spliterator that splits between shards before it splits within one.
+     */
+    @Override
+    public Spliterator<Student> spliterator() {
+        List<Iterable<Student>> parts = gather();
+        List<Spliterator<Student>> spliterators = new ArrayList<>(parts.size());
+        for (Iterable<Student> part : parts) {
+            spliterators.add(part.spliterator());
+        }
+        return new ShardSpliterator(spliterators, 0, spliterators.size());
+    }
+
+    /**
+     * @brief Closes the shards that hold resources, such as connections to remote shards.
+     *
+     * @throws IOException If a shard cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        for (StudentStore shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    /**
+     * @brief Collects what each shard iterates over, asking remote shards in parallel.
+     *
+     * @return The students of each shard: a fetched copy for a remote shard, the shard itself otherwise.
+     */
+    private List<Iterable<Student>> gather() {
+        StudentStore[] current = shards;
+        List<Iterable<Student>> parts = new ArrayList<>(current.length);
+        List<Future<List<Student>>> fetches = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (StudentStore shard : current) {
+                fetches.add(shard instanceof RemoteStudentStore remote ? executor.submit(remote::fetchAll) : null);
+            }
+            for (int shard = 0; shard < current.length; shard++) {
+                parts.add(fetches.get(shard) != null ? fetches.get(shard).get() : current[shard]);
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the shards", e);
+        }
+        return parts;
+    }
+
+    /**
+     * @class ShardSpliterator
+     * @brief Concatenation of the shards' spliterators.
+     *
+     * A range of several shards splits into two halves of shards; a single shard
+     * splits with its own spliterator, so parallel aggregates spread over the
+     * shards first and then within them.
+     */
+    private static final class ShardSpliterator implements Spliterator<Student> {
+        private final List<Spliterator<Student>> parts; /**< Spliterator of every shard. */
+        private int from;                               /**< First shard not yet finished. */
+        private final int to;                           /**< Shard after the last one covered. */
+
+        ShardSpliterator(List<Spliterator<Student>> parts, int from, int to) {
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Student> action) {
+            for (; from < to; from++) {
+                if (parts.get(from).tryAdvance(action)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Student> action) {
+            for (; from < to; from++) {
+                parts.get(from).forEachRemaining(action);
+            }
+        }
+
+        @Override
+        public Spliterator<Student> trySplit() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Spliterator<Student> prefix = new ShardSpliterator(parts, from, middle);
+                from = middle;
+                return prefix;
+            }
+            return from < to ? parts.get(from).trySplit() : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            long size = 0;
+            for (int shard = from; shard < to; shard++) {
+                size += parts.get(shard).estimateSize();
+            }
+            return size;
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = SIZED | SUBSIZED;
+            for (int shard = from; shard < to; shard++) {
+                characteristics &= parts.get(shard).characteristics();
+            }
+            return characteristics | ORDERED | NONNULL;
+        }
+    }
+}
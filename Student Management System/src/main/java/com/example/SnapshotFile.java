@@ -0,0 +1,221 @@
+/**
+ * @file SnapshotFile.java
+ * @brief Compact binary snapshots of the roster.
+ *
+ * A snapshot stores the whole roster as of one write-ahead log position, so that
+ * recovery only has to replay the log written after it.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * @class SnapshotFile
+ * @brief Writes and loads roster snapshot files.
+ *
+ * The file layout is:
+ *
+ *     int   magic ("SMSS")
+ *     short format version
+ *     long  LSN of the last log record included
+ *     int   student count
+ *     per student: int ID, int age, short name length, UTF-8 name
+ *     long  CRC32 of everything before it
+ *
+ * Students are stored in insertion order. A snapshot is written to a temporary file
+ * that is forced to disk and then atomically renamed, so a crash never leaves a
+ * partial snapshot under the final name.
+ */
+final class SnapshotFile {
+
+    private static final int MAGIC = 0x534D5353;     /**< "SMSS" */
+    private static final short VERSION = 1;          /**< Current format version. */
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 4; /**< Bytes before the first student. */
+    private static final int CHUNK_SIZE = 1 << 20;   /**< I/O chunk size in bytes. */
+
+    /**
+     * @class Contents
+     * @brief Column-wise copy of the roster to be written.
+     *
+     * Copying the fields lets the snapshot be written in the background while the
+     * live roster keeps changing.
+     */
+    static final class Contents {
+        final long lsn;       /**< LSN of the last log record included. */
+        final int count;      /**< Number of students. */
+        final int[] ids;      /**< Student IDs in insertion order. */
+        final String[] names; /**< Student names in insertion order. */
+        final int[] ages;     /**< Student ages in insertion order. */
+
+        /**
+         * @brief Constructor copying the students of a store.
+         *
+         * @param lsn The LSN of the last log record reflected in the store.
+         * @param students The store to copy.
+         */
+        Contents(long lsn, StudentStore students) {
+            this.lsn = lsn;
+            this.count = students.size();
+            this.ids = new int[count];
+            this.names = new String[count];
+            this.ages = new int[count];
+            int i = 0;
+            for (Student student : students) {
+                ids[i] = student.getStudentId();
+                names[i] = student.getStudentName();
+                ages[i] = student.getStudentAge();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private SnapshotFile() {
+    }
+
+    /**
+     * @brief Writes a snapshot file.
+     *
+     * @param file The final snapshot file.
+     * @param contents The roster to write.
+     * @throws IOException If the file cannot be written.
+     */
+    static void write(Path file, Contents contents) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            buffer.putInt(MAGIC).putShort(VERSION).putLong(contents.lsn).putInt(contents.count);
+
+            for (int i = 0; i < contents.count; i++) {
+                byte[] name = contents.names[i].getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < 4 + 4 + 2 + name.length) {
+                    drain(out, buffer, crc);
+                }
+                buffer.putInt(contents.ids[i]).putInt(contents.ages[i]).putShort((short) name.length).put(name);
+            }
+            drain(out, buffer, crc);
+
+            buffer.putLong(crc.getValue()).flip();
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(file.toAbsolutePath().getParent());
+    }
+
+    /**
+     * @brief Loads a snapshot file into an empty store.
+     *
+     * @param file The snapshot file.
+     * @param into The store to add the students to.
+     * @return The LSN of the last log record included in the snapshot.
+     * @throws IOException If the file cannot be read or is corrupt.
+     */
+    static long load(Path file, StudentStore into) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long dataSize = in.size() - 8;
+            if (dataSize < HEADER_SIZE) {
+                throw new IOException("Snapshot " + file + " is truncated");
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+            CRC32 crc = new CRC32();
+            long remaining = dataSize;
+            remaining -= fill(in, buffer, crc, remaining);
+
+            if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+                throw new IOException("Snapshot " + file + " has an unknown format");
+            }
+            long lsn = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0 || count > (dataSize - HEADER_SIZE) / (4 + 4 + 2)) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            into.ensureCapacity(count);
+
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < 4 + 4 + 2
+                        || buffer.remaining() < 4 + 4 + 2 + (buffer.getShort(buffer.position() + 8) & 0xFFFF)) {
+                    remaining -= fill(in, buffer.compact(), crc, remaining);
+                }
+                int studentId = buffer.getInt();
+                int studentAge = buffer.getInt();
+                int nameLength = buffer.getShort() & 0xFFFF;
+                String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + nameLength);
+                into.add(new Student(studentId, name, studentAge));
+            }
+
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            in.read(trailer, dataSize);
+            if (remaining != 0 || buffer.hasRemaining() || trailer.flip().getLong() != crc.getValue()) {
+                throw new IOException("Snapshot " + file + " is corrupt");
+            }
+            return lsn;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot " + file + " is corrupt", e);
+        }
+    }
+
+    /**
+     * @brief Writes the buffered bytes, adding them to the checksum.
+     */
+    private static void drain(FileChannel out, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * @brief Reads up to a buffer's free space of snapshot data, adding it to the checksum.
+     *
+     * @param buffer A buffer in write mode; it is returned in read mode.
+     * @param limit The number of data bytes left in the file.
+     * @return The number of bytes read.
+     */
+    private static long fill(FileChannel in, ByteBuffer buffer, CRC32 crc, long limit) throws IOException {
+        int start = buffer.position();
+        int wanted = (int) Math.min(buffer.remaining(), limit);
+        buffer.limit(start + wanted);
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                throw new IOException("Snapshot ended unexpectedly");
+            }
+        }
+        crc.update(buffer.array(), start, wanted);
+        buffer.flip();
+        return wanted;
+    }
+
+    /**
+     * @brief Forces a directory entry change, such as a rename, to disk.
+     */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not every platform can open a directory; the rename is still atomic there
+        }
+    }
+}
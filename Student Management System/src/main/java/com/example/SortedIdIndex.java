@@ -0,0 +1,535 @@
+/**
+ * @file SortedIdIndex.java
+ * @brief Ordered index of the student IDs.
+ *
+ * Student IDs encode the intake year, so "IDs 20250000 to 20259999" is a common
+ * question. The stores hash their IDs and keep insertion order, so without this
+ * index such a range needs a scan of the whole roster and a sort.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * @class SortedIdIndex
+ * @brief Sorted blocks of student IDs supporting range scans, floor and ceiling, maintained on every add and remove.
+ *
+ * The IDs are split between SEGMENTS segments by their low bits, and each
+ * segment keeps its IDs in sorted int arrays of up to BLOCK_SIZE IDs each, in
+ * order, with the first ID of every block in a separate sorted array. This is a
+ * B+tree with two levels: a lookup binary-searches the first IDs for its block
+ * and then the block, so it takes O(log n), and a range scan continues from
+ * there through consecutive blocks, so it takes O(log n + k) for k IDs. An
+ * insert shifts at most one block; a full block is split in two, except that an
+ * ID appended after the last one starts a new block, so IDs added in ascending
+ * order fill every block. A block that shrinks below a quarter is merged with
+ * the next one if they fit in half a block together.
+ *
+ * Each segment is guarded by its own monitor, so the index can be shared by
+ * concurrent writers, and writers of IDs in different segments do not contend.
+ * The segments are chosen by the same low bits as the repository's write locks,
+ * so the writers of one write lock share a segment. A range scan copies each
+ * segment's part of the range under its lock and merges the sorted parts, in
+ * O(k log SEGMENTS) for k IDs, after the locks are released. The iterator does
+ * so for about BATCH_SIZE IDs at a time rather than for the whole scan, so it
+ * sees the writes made between batches and never blocks writers for long.
+ */
+class SortedIdIndex {
+
+    static final int SEGMENTS = 16;    /**< Number of independently locked segments, a power of two. */
+    static final int BLOCK_SIZE = 512; /**< Largest number of IDs in one block. */
+    static final int BATCH_SIZE = 256; /**< IDs an iterator copies out per batch, an equal share from each segment. */
+
+    private final Segment[] segments = new Segment[SEGMENTS]; /**< Segments by the low bits of their IDs. */
+
+    /**
+     * @brief Constructor to initialize an empty index.
+     */
+    SortedIdIndex() {
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s] = new Segment();
+        }
+    }
+
+    /**
+     * @brief Returns the number of indexed IDs.
+     *
+     * @return The index size.
+     */
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @brief Indexes a student ID.
+     *
+     * @param studentId The ID of the student that was added to the roster.
+     * @return True if the ID was added, false if it was already indexed.
+     */
+    boolean add(int studentId) {
+        return segment(studentId).add(studentId);
+    }
+
+    /**
+     * @brief Removes a student ID from the index.
+     *
+     * @param studentId The ID of the student that was removed from the roster.
+     */
+    void remove(int studentId) {
+        segment(studentId).remove(studentId);
+    }
+
+    /**
+     * @brief Replaces the contents of the index with sorted IDs, filling every block.
+     *
+     * Loading n sorted IDs takes O(n), against O(n log n) for adding them one at a time.
+     *
+     * @param studentIds The IDs in ascending order, without duplicates.
+     * @param count The number of IDs to load from the start of the array.
+     */
+    void load(int[] studentIds, int count) {
+        int[] counts = new int[SEGMENTS];
+        for (int i = 0; i < count; i++) {
+            counts[studentIds[i] & (SEGMENTS - 1)]++;
+        }
+        int[][] parts = new int[SEGMENTS][];
+        for (int s = 0; s < SEGMENTS; s++) {
+            parts[s] = new int[counts[s]];
+            counts[s] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int s = studentIds[i] & (SEGMENTS - 1);
+            parts[s][counts[s]++] = studentIds[i];
+        }
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s].load(parts[s], counts[s]);
+        }
+    }
+
+    /**
+     * @brief Returns the largest indexed ID at or below an ID.
+     *
+     * @param studentId The ID to look down from.
+     * @return The floor ID, or 0 if every indexed ID is larger.
+     */
+    int floor(int studentId) {
+        int floor = 0;
+        for (Segment segment : segments) {
+            floor = Math.max(floor, segment.floor(studentId));
+        }
+        return floor;
+    }
+
+    /**
+     * @brief Returns the smallest indexed ID at or above an ID.
+     *
+     * @param studentId The ID to look up from.
+     * @return The ceiling ID, or 0 if every indexed ID is smaller.
+     */
+    int ceiling(int studentId) {
+        int ceiling = 0;
+        for (Segment segment : segments) {
+            int candidate = segment.ceiling(studentId);
+            if (candidate != 0 && (ceiling == 0 || candidate < ceiling)) {
+                ceiling = candidate;
+            }
+        }
+        return ceiling;
+    }
+
+    /**
+     * @brief Copies the IDs that lie in a closed range.
+     *
+     * @param fromId The smallest ID to include.
+     * @param toId The largest ID to include.
+     * @return The IDs in ascending order.
+     */
+    IdList inRange(int fromId, int toId) {
+        IdList runs = new IdList();
+        int[] ends = new int[SEGMENTS];
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s].appendRange(fromId, toId, runs);
+            ends[s] = runs.size();
+        }
+        return merge(runs, ends);
+    }
+
+    /**
+     * @brief Merges the sorted runs of the segments into one sorted list.
+     *
+     * A binary min-heap holds the segments whose runs are not used up, keyed by
+     * the next ID of their run.
+     *
+     * @param runs The runs, one after another in segment order.
+     * @param ends The end of each segment's run in runs.
+     * @return The IDs of all runs in ascending order.
+     */
+    private static IdList merge(IdList runs, int[] ends) {
+        // The position of the next ID of each run
+        int[] heads = new int[SEGMENTS];
+        int[] heap = new int[SEGMENTS];
+        int heapSize = 0;
+        for (int s = 0; s < SEGMENTS; s++) {
+            heads[s] = s == 0 ? 0 : ends[s - 1];
+            if (heads[s] < ends[s]) {
+                heap[heapSize++] = s;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, runs, heads);
+        }
+
+        IdList ids = new IdList(runs.size());
+        while (heapSize > 0) {
+            int s = heap[0];
+            ids.add(runs.get(heads[s]++));
+            if (heads[s] == ends[s]) {
+                heap[0] = heap[--heapSize];
+            }
+            if (heapSize > 0) {
+                siftDown(heap, heapSize, 0, runs, heads);
+            }
+        }
+        return ids;
+    }
+
+    private static void siftDown(int[] heap, int heapSize, int i, IdList runs, int[] heads) {
+        int s = heap[i];
+        int id = runs.get(heads[s]);
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && runs.get(heads[heap[child + 1]]) < runs.get(heads[heap[child]])) {
+                child++;
+            }
+            if (runs.get(heads[heap[child]]) > id) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = s;
+    }
+
+    /**
+     * @brief Returns an iterator over the IDs in a closed range, in ascending order.
+     *
+     * Each batch copies up to BATCH_SIZE / SEGMENTS IDs from every segment, under one
+     * segment lock at a time, and returns the IDs up to the smallest last ID of
+     * the segments that had more; the next batch continues after it. The iterator
+     * reflects the writes made to later parts of the range while it runs, and
+     * never throws ConcurrentModificationException.
+     *
+     * @param fromId The smallest ID to include.
+     * @param toId The largest ID to include.
+     * @return The iterator.
+     */
+    PrimitiveIterator.OfInt iterator(int fromId, int toId) {
+        return new PrimitiveIterator.OfInt() {
+            private final int[] batch = new int[BATCH_SIZE]; /**< IDs copied out of the index. */
+            private int count;                               /**< Number of IDs in the batch. */
+            private int next;                                /**< Position of the next ID to return. */
+            private int resumeFrom = fromId;                 /**< First ID of the next batch. */
+            private boolean exhausted = fromId > toId;       /**< Whether the range has been read to its end. */
+
+            @Override
+            public boolean hasNext() {
+                if (next < count) {
+                    return true;
+                }
+                if (exhausted) {
+                    return false;
+                }
+                // A segment that filled its share may hold more IDs above its last one
+                int copied = 0;
+                int cutoff = toId;
+                for (Segment segment : segments) {
+                    int n = segment.copyRange(resumeFrom, toId, batch, copied, BATCH_SIZE / SEGMENTS);
+                    copied += n;
+                    if (n == BATCH_SIZE / SEGMENTS && batch[copied - 1] < cutoff) {
+                        cutoff = batch[copied - 1];
+                    }
+                }
+                count = 0;
+                for (int i = 0; i < copied; i++) {
+                    if (batch[i] <= cutoff) {
+                        batch[count++] = batch[i];
+                    }
+                }
+                Arrays.sort(batch, 0, count);
+                next = 0;
+                if (cutoff == toId) {
+                    exhausted = true;
+                } else {
+                    resumeFrom = cutoff + 1;
+                }
+                return count > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch[next++];
+            }
+        };
+    }
+
+    private Segment segment(int studentId) {
+        return segments[studentId & (SEGMENTS - 1)];
+    }
+
+    /**
+     * @class Segment
+     * @brief The sorted blocks of the IDs of one segment; every method is synchronized on the segment.
+     */
+    private static final class Segment {
+
+        private int[][] blocks = new int[4][]; /**< Sorted blocks, in ascending order of their IDs. */
+        private int[] lengths = new int[4];    /**< Number of IDs in use in each block. */
+        private int[] firsts = new int[4];     /**< First ID of each block. */
+        private int blockCount;                /**< Number of blocks in use. */
+        private int size;                      /**< Number of IDs in the segment. */
+
+        /**
+         * @brief Returns the number of IDs in the segment.
+         *
+         * @return The segment size.
+         */
+        synchronized int size() {
+            return size;
+        }
+
+        /**
+         * @brief Indexes a student ID.
+         *
+         * @param studentId The ID of the student that was added to the roster.
+         * @return True if the ID was added, false if it was already indexed.
+         */
+        synchronized boolean add(int studentId) {
+            if (blockCount == 0) {
+                insertBlock(0, new int[BLOCK_SIZE], 0);
+            }
+            int b = blockFor(studentId);
+            int[] block = blocks[b];
+            int length = lengths[b];
+            int position = Arrays.binarySearch(block, 0, length, studentId);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+
+            if (length == BLOCK_SIZE) {
+                if (b == blockCount - 1 && position == length) {
+                    // Appending past the largest ID: start a new block and leave this one full
+                    int[] next = new int[BLOCK_SIZE];
+                    next[0] = studentId;
+                    insertBlock(b + 1, next, 1);
+                    size++;
+                    return true;
+                }
+                int half = BLOCK_SIZE / 2;
+                int[] upper = new int[BLOCK_SIZE];
+                System.arraycopy(block, half, upper, 0, BLOCK_SIZE - half);
+                lengths[b] = half;
+                insertBlock(b + 1, upper, BLOCK_SIZE - half);
+                if (position > half) {
+                    b++;
+                    position -= half;
+                }
+                block = blocks[b];
+                length = lengths[b];
+            }
+            System.arraycopy(block, position, block, position + 1, length - position);
+            block[position] = studentId;
+            lengths[b] = length + 1;
+            firsts[b] = block[0];
+            size++;
+            return true;
+        }
+
+        /**
+         * @brief Removes a student ID from the index.
+         *
+         * @param studentId The ID of the student that was removed from the roster.
+         */
+        synchronized void remove(int studentId) {
+            if (blockCount == 0) {
+                return;
+            }
+            int b = blockFor(studentId);
+            int[] block = blocks[b];
+            int length = lengths[b];
+            int position = Arrays.binarySearch(block, 0, length, studentId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(block, position + 1, block, position, length - position - 1);
+            lengths[b] = --length;
+            size--;
+            if (length == 0) {
+                removeBlock(b);
+                return;
+            }
+            firsts[b] = block[0];
+            if (length < BLOCK_SIZE / 4 && b + 1 < blockCount && length + lengths[b + 1] <= BLOCK_SIZE / 2) {
+                System.arraycopy(blocks[b + 1], 0, block, length, lengths[b + 1]);
+                lengths[b] = length + lengths[b + 1];
+                removeBlock(b + 1);
+            }
+        }
+
+        /**
+         * @brief Replaces the contents of the index with sorted IDs, filling every block.
+         *
+         * Loading n sorted IDs takes O(n), against O(n log n) for adding them one at a time.
+         *
+         * @param studentIds The IDs in ascending order, without duplicates.
+         * @param count The number of IDs to load from the start of the array.
+         */
+        synchronized void load(int[] studentIds, int count) {
+            int needed = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+            int capacity = Math.max(4, needed);
+            blocks = new int[capacity][];
+            lengths = new int[capacity];
+            firsts = new int[capacity];
+            blockCount = needed;
+            for (int b = 0; b < needed; b++) {
+                int from = b * BLOCK_SIZE;
+                blocks[b] = Arrays.copyOfRange(studentIds, from, from + BLOCK_SIZE);
+                lengths[b] = Math.min(BLOCK_SIZE, count - from);
+                firsts[b] = studentIds[from];
+            }
+            size = count;
+        }
+
+        /**
+         * @brief Returns the largest indexed ID at or below an ID.
+         *
+         * @param studentId The ID to look down from.
+         * @return The floor ID, or 0 if every indexed ID is larger.
+         */
+        synchronized int floor(int studentId) {
+            if (blockCount == 0 || studentId < firsts[0]) {
+                return 0;
+            }
+            int b = blockFor(studentId);
+            int position = Arrays.binarySearch(blocks[b], 0, lengths[b], studentId);
+            return position >= 0 ? studentId : blocks[b][-position - 2];
+        }
+
+        /**
+         * @brief Returns the smallest indexed ID at or above an ID.
+         *
+         * @param studentId The ID to look up from.
+         * @return The ceiling ID, or 0 if every indexed ID is smaller.
+         */
+        synchronized int ceiling(int studentId) {
+            if (blockCount == 0) {
+                return 0;
+            }
+            int b = blockFor(studentId);
+            int position = Arrays.binarySearch(blocks[b], 0, lengths[b], studentId);
+            if (position >= 0) {
+                return studentId;
+            }
+            position = -position - 1;
+            if (position < lengths[b]) {
+                return blocks[b][position];
+            }
+            return b + 1 < blockCount ? firsts[b + 1] : 0;
+        }
+
+        /**
+         * @brief Appends the IDs that lie in a closed range to a list, in ascending order.
+         *
+         * @param fromId The smallest ID to include.
+         * @param toId The largest ID to include.
+         * @param ids The list receiving the IDs.
+         */
+        synchronized void appendRange(int fromId, int toId, IdList ids) {
+            if (blockCount == 0 || fromId > toId) {
+                return;
+            }
+            int b = blockFor(fromId);
+            int position = Arrays.binarySearch(blocks[b], 0, lengths[b], fromId);
+            position = position >= 0 ? position : -position - 1;
+            for (; b < blockCount; b++, position = 0) {
+                int[] block = blocks[b];
+                for (int i = position; i < lengths[b]; i++) {
+                    if (block[i] > toId) {
+                        return;
+                    }
+                    ids.add(block[i]);
+                }
+            }
+        }
+
+        /**
+         * @brief Copies the first IDs of a closed range into part of an array.
+         *
+         * @return The number of IDs copied, up to limit.
+         */
+        synchronized int copyRange(int fromId, int toId, int[] out, int offset, int limit) {
+            if (blockCount == 0 || fromId > toId) {
+                return 0;
+            }
+            int count = 0;
+            int b = blockFor(fromId);
+            int position = Arrays.binarySearch(blocks[b], 0, lengths[b], fromId);
+            position = position >= 0 ? position : -position - 1;
+            for (; b < blockCount && count < limit; b++, position = 0) {
+                int[] block = blocks[b];
+                int end = Math.min(lengths[b], position + limit - count);
+                for (int i = position; i < end; i++) {
+                    if (block[i] > toId) {
+                        return count;
+                    }
+                    out[offset + count++] = block[i];
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @brief Returns the block that holds an ID, or would hold it: the last block whose first ID is not larger.
+         */
+        private int blockFor(int studentId) {
+            int position = Arrays.binarySearch(firsts, 0, blockCount, studentId);
+            return position >= 0 ? position : Math.max(0, -position - 2);
+        }
+
+        private void insertBlock(int b, int[] block, int length) {
+            if (blockCount == blocks.length) {
+                int capacity = blockCount * 2;
+                blocks = Arrays.copyOf(blocks, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                firsts = Arrays.copyOf(firsts, capacity);
+            }
+            System.arraycopy(blocks, b, blocks, b + 1, blockCount - b);
+            System.arraycopy(lengths, b, lengths, b + 1, blockCount - b);
+            System.arraycopy(firsts, b, firsts, b + 1, blockCount - b);
+            blocks[b] = block;
+            lengths[b] = length;
+            firsts[b] = block[0];
+            blockCount++;
+        }
+
+        private void removeBlock(int b) {
+            System.arraycopy(blocks, b + 1, blocks, b, blockCount - b - 1);
+            System.arraycopy(lengths, b + 1, lengths, b, blockCount - b - 1);
+            System.arraycopy(firsts, b + 1, firsts, b, blockCount - b - 1);
+            blocks[--blockCount] = null;
+        }
+    }
+}
@@ -16,7 +16,7 @@ package com.example;
  * The Student class provides attributes to store the ID, name, and age of a student. 
  * It also provides methods to get and set these attributes.
  */
-class Student {
+public class Student {
     private int studentId;      /**< Unique ID of the student. */
     private String studentName; /**< Name of the student. */
     private int studentAge;     /**< Age of the student. */
@@ -0,0 +1,246 @@
+/**
+ * @file StudentBinaryExporter.java
+ * @brief Bulk export of students to the compact binary roster format.
+ *
+ * CSV is the format people read and edit; moving a whole roster between
+ * processes or keeping a copy of it does not need that. The binary roster format
+ * takes a fraction of the space of CSV and is written and read in large blocks
+ * that each carry their own checksum.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * @class StudentBinaryExporter
+ * @brief Encodes students into checksummed, optionally compressed blocks.
+ *
+ * The format, read by StudentBinaryImporter, is:
+ *
+ *     int   magic ("SMSR")
+ *     byte  format version
+ *     byte  flags: DICTIONARY if names may refer to the dictionary, COMPRESSED if blocks may be compressed
+ *     blocks, each:
+ *         int    student count; 0 in the block that ends the roster, whose other fields are 0 too
+ *         int    encoded length of the students
+ *         int    stored length; less than the encoded length if the block is compressed
+ *         int    CRC32C of the three ints above and the stored bytes
+ *         bytes  the students, compressed by LzBlockCodec if the block is compressed
+ *     per student, within a block:
+ *         varint ID minus the ID of the block's previous student (0 for the first), zigzag-encoded
+ *         varint age
+ *         varint (length << 1) followed by the UTF-8 name, or (index << 1) | 1 for the name at that
+ *                index of the block's dictionary
+ *
+ * Varints hold 7 bits per byte, lowest first, with the high bit set on every
+ * byte but the last; integers in the header are big-endian. Students are written
+ * in iteration order, so the IDs of a roster loaded in ID order take one byte each.
+ *
+ * With the dictionary, every distinct name of a block is appended to the block's
+ * dictionary the first time it is written out, and later students of the block
+ * with the same name refer to it. The dictionary starts empty in every block, so
+ * that each block decodes on its own. Blocks hold about BLOCK_SIZE bytes of
+ * encoded students; a compressed block is stored only if it is smaller.
+ *
+ * Rosters of version 1 differ only in that the checksum covers the stored bytes
+ * and not the header; StudentBinaryImporter still reads them.
+ */
+final class StudentBinaryExporter {
+
+    static final String EXTENSION = ".roster"; /**< File name ending of binary roster files. */
+
+    static final int MAGIC = 0x534D5352;       /**< "SMSR" */
+    static final byte VERSION = 2;             /**< Current format version. */
+    static final byte DICTIONARY = 1;          /**< Flag of rosters whose names may use the dictionary. */
+    static final byte COMPRESSED = 2;          /**< Flag of rosters whose blocks may be compressed. */
+    static final int BLOCK_HEADER_SIZE = 16;   /**< Bytes before the students of a block. */
+    static final int BLOCK_SIZE = 1 << 16;     /**< Encoded bytes after which a block is ended. */
+
+    static final int MAX_DICTIONARY_SIZE = 4096; /**< Most names in a block's dictionary. */
+
+    private static final int MAX_STUDENT_PREFIX = 15; /**< Longest ID, age and name tag varints together. */
+
+    private final boolean dictionary; /**< Whether repeated names refer to the block's dictionary. */
+    private final boolean compress;   /**< Whether blocks are compressed. */
+
+    private final Map<String, Integer> names = new HashMap<>(); /**< Dictionary index of each name of the block. */
+    private final LzBlockCodec codec = new LzBlockCodec();      /**< Compressor of the blocks. */
+    private final CRC32C crc = new CRC32C();                    /**< Checksum of the stored bytes. */
+    private byte[] block = new byte[BLOCK_HEADER_SIZE + BLOCK_SIZE + BLOCK_SIZE / 4]; /**< Header and encoded students. */
+    private byte[] compressed = new byte[block.length];        /**< Header and compressed students. */
+    private int length;       /**< End of the encoded students in block. */
+    private int count;        /**< Number of students in the block. */
+    private int previousId;   /**< ID of the block's previous student. */
+
+    /**
+     * @brief Constructor to initialize an exporter with the dictionary and compression.
+     */
+    StudentBinaryExporter() {
+        this(true, true);
+    }
+
+    /**
+     * @brief Constructor to initialize an exporter.
+     *
+     * @param dictionary Whether repeated names within a block refer to the first one.
+     * @param compress Whether blocks are compressed when that makes them smaller.
+     */
+    StudentBinaryExporter(boolean dictionary, boolean compress) {
+        this.dictionary = dictionary;
+        this.compress = compress;
+    }
+
+    /**
+     * @brief Exports students to a binary roster file, replacing any existing file.
+     *
+     * @param file The file to write.
+     * @param students The students to export, in output order.
+     * @return The number of students written.
+     * @throws IOException If the file cannot be written.
+     */
+    long exportTo(Path file, Iterable<Student> students) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return exportTo(out, students);
+        }
+    }
+
+    /**
+     * @brief Exports students to a channel.
+     *
+     * The students are encoded into the block buffer that is handed to the channel,
+     * with no intermediate stream. The channel is not closed.
+     *
+     * @param out The channel to write to.
+     * @param students The students to export, in output order.
+     * @return The number of students written.
+     * @throws IOException If the channel cannot be written.
+     */
+    long exportTo(WritableByteChannel out, Iterable<Student> students) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(6).putInt(MAGIC).put(VERSION)
+                .put((byte) ((dictionary ? DICTIONARY : 0) | (compress ? COMPRESSED : 0)));
+        write(out, header.flip());
+        startBlock();
+
+        long total = 0;
+        for (Student student : students) {
+            String name = student.getStudentName();
+            if (length + MAX_STUDENT_PREFIX + name.length() * 3 > BLOCK_HEADER_SIZE + BLOCK_SIZE && count > 0) {
+                writeBlock(out);
+            }
+            append(student.getStudentId(), student.getStudentAge(), name);
+            total++;
+        }
+        if (count > 0) {
+            writeBlock(out);
+        }
+        // The end block: a header of zeros
+        write(out, ByteBuffer.allocate(BLOCK_HEADER_SIZE));
+        return total;
+    }
+
+    /**
+     * @brief Encodes one student at the end of the block.
+     */
+    private void append(int studentId, int studentAge, String name) {
+        ensureRoom(MAX_STUDENT_PREFIX + name.length() * 3);
+        int delta = studentId - previousId;
+        writeVarint((delta << 1) ^ (delta >> 31));
+        writeVarint(studentAge);
+        previousId = studentId;
+        count++;
+
+        if (dictionary) {
+            Integer index = names.get(name);
+            if (index != null) {
+                writeVarint(index << 1 | 1);
+                return;
+            }
+            if (names.size() < MAX_DICTIONARY_SIZE) {
+                names.put(name, names.size());
+            }
+        }
+        int start = length;
+        writeVarint(name.length() << 1);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                // Rare non-ASCII name: discard the partial copy and write its UTF-8 bytes
+                length = start;
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                writeVarint(encoded.length << 1);
+                System.arraycopy(encoded, 0, block, length, encoded.length);
+                length += encoded.length;
+                return;
+            }
+            block[length++] = (byte) c;
+        }
+    }
+
+    /**
+     * @brief Compresses the block if that makes it smaller, writes it and starts the next one.
+     */
+    private void writeBlock(WritableByteChannel out) throws IOException {
+        int encodedLength = length - BLOCK_HEADER_SIZE;
+        byte[] stored = block;
+        int storedEnd = length;
+        if (compress) {
+            int end = codec.compress(block, BLOCK_HEADER_SIZE, encodedLength, compressed, BLOCK_HEADER_SIZE, length - 1);
+            if (end > 0) {
+                stored = compressed;
+                storedEnd = end;
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(stored, 0, storedEnd);
+        buffer.putInt(0, count).putInt(4, encodedLength).putInt(8, storedEnd - BLOCK_HEADER_SIZE);
+        crc.reset();
+        crc.update(stored, 0, 12);
+        crc.update(stored, BLOCK_HEADER_SIZE, storedEnd - BLOCK_HEADER_SIZE);
+        buffer.putInt(12, (int) crc.getValue());
+        write(out, buffer);
+        startBlock();
+    }
+
+    private void startBlock() {
+        length = BLOCK_HEADER_SIZE;
+        count = 0;
+        previousId = 0;
+        names.clear();
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            block[length++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        block[length++] = (byte) value;
+    }
+
+    /**
+     * @brief Grows the block buffers if fewer than the given number of bytes are free.
+     */
+    private void ensureRoom(int bytes) {
+        if (length + bytes > block.length) {
+            block = Arrays.copyOf(block, Math.max(block.length << 1, length + bytes));
+            compressed = new byte[block.length];
+        }
+    }
+
+    private static void write(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/**
+ * @file StudentBinaryImporter.java
+ * @brief Bulk import of students from the compact binary roster format.
+ *
+ * This class loads rosters written by StudentBinaryExporter. A file is mapped
+ * into memory and decoded in place, block by block, so the roster is never
+ * copied through a stream, and students are added to the repository in batches.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * @class StudentBinaryImporter
+ * @brief Decodes binary roster blocks into the repository and reports rejected students.
+ *
+ * Every block's checksum, which covers its header, is verified before its
+ * students are decoded or a buffer of its encoded length is allocated, and a
+ * roster that is truncated, corrupt or of an unknown version fails the import
+ * with an IOException; the students of the blocks before the bad one have been
+ * added by then. Decoded students are validated by the repository like CSV rows,
+ * and the ones it rejects are recorded in the StudentImportReport under their
+ * position in the roster, counting from 1, in place of a line number.
+ */
+final class StudentBinaryImporter {
+
+    private static final int MAX_WINDOW = 1 << 30; /**< Most bytes of a file mapped at once. */
+
+    private final StudentRepository repository; /**< Repository the students are added to. */
+    private final int batchSize;                /**< Students added to the repository at once. */
+    private final int maxReportedErrors;        /**< Rejected students kept in the report. */
+
+    private final List<Student> batch = new ArrayList<>(); /**< Decoded students awaiting addition. */
+    private final CRC32C crc = new CRC32C();              /**< Checksum of a block's header and stored bytes. */
+    private byte[] decompressed = new byte[StudentBinaryExporter.BLOCK_SIZE]; /**< Students of a compressed block. */
+    private byte[] nameBytes = new byte[64];              /**< Name copied out of a buffer without an array. */
+    private String[] dictionary = new String[64];         /**< Names of the current block, by dictionary index. */
+    private StudentImportReport report;                   /**< Report of the running import. */
+    private long position;                                /**< Number of students decoded so far. */
+    private boolean sharedNames;                          /**< Whether the roster's names may use the dictionary. */
+    private boolean checkedHeaders;                       /**< Whether block checksums cover the block headers. */
+    private boolean ended;                                /**< Whether the end block has been read. */
+    private int cursor;                                   /**< Index of the next byte of the block being decoded. */
+
+    /**
+     * @brief Constructor to initialize an importer with the default batch and report sizes.
+     *
+     * @param repository The repository to import students into.
+     */
+    StudentBinaryImporter(StudentRepository repository) {
+        this(repository, StudentCsvImporter.DEFAULT_BATCH_SIZE, StudentCsvImporter.DEFAULT_MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * @brief Constructor to initialize an importer.
+     *
+     * @param repository The repository to import students into.
+     * @param batchSize The number of students added to the repository at once.
+     * @param maxReportedErrors The maximum number of rejected students kept in the report.
+     */
+    StudentBinaryImporter(StudentRepository repository, int batchSize, int maxReportedErrors) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * @brief Imports students from a binary roster file.
+     *
+     * The file is mapped in windows of up to 1 GB, each holding whole blocks.
+     *
+     * @param file The file to read.
+     * @return The report of imported and rejected students.
+     * @throws IOException If the file cannot be read or is not a valid roster.
+     */
+    StudentImportReport importFrom(Path file) throws IOException {
+        start();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_WINDOW));
+            int offset = readHeader(window);
+            long windowStart = 0;
+            while (true) {
+                int decoded = decodeBlocks(window, offset, this::accept);
+                if (ended) {
+                    if (windowStart + decoded != size) {
+                        throw new IOException("Roster has data after its end");
+                    }
+                    break;
+                }
+                if (windowStart + window.limit() == size) {
+                    throw new IOException("Roster is truncated");
+                }
+                if (decoded == offset) {
+                    // Not even one block fits in a window
+                    throw new IOException("Roster is corrupt");
+                }
+                windowStart += decoded;
+                window = in.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(size - windowStart, MAX_WINDOW));
+                offset = 0;
+            }
+        }
+        flushBatch();
+        return report;
+    }
+
+    /**
+     * @brief Imports students from a binary roster held in a buffer.
+     *
+     * The roster is read from the buffer's position to its limit with absolute
+     * gets, so the buffer's position is left alone.
+     *
+     * @param roster The buffer holding the roster.
+     * @return The report of imported and rejected students.
+     * @throws IOException If the buffer does not hold a valid roster.
+     */
+    StudentImportReport importFrom(ByteBuffer roster) throws IOException {
+        start();
+        decode(roster, this::accept);
+        flushBatch();
+        return report;
+    }
+
+    /**
+     * @brief Decodes a binary roster held in a buffer without adding it to the repository.
+     *
+     * @param roster The buffer holding the roster, from its position to its limit.
+     * @param sink The consumer receiving the students, in roster order.
+     * @return The number of students decoded.
+     * @throws IOException If the buffer does not hold a valid roster.
+     */
+    long decode(ByteBuffer roster, Consumer<Student> sink) throws IOException {
+        ByteBuffer in = roster.slice();
+        long before = position;
+        ended = false;
+        int end = decodeBlocks(in, readHeader(in), sink);
+        if (!ended) {
+            throw new IOException("Roster is truncated");
+        }
+        if (end != in.limit()) {
+            throw new IOException("Roster has data after its end");
+        }
+        return position - before;
+    }
+
+    private void start() {
+        report = new StudentImportReport(maxReportedErrors);
+        position = 0;
+        ended = false;
+    }
+
+    /**
+     * @brief Checks the magic, version and flags at the start of a roster.
+     *
+     * @return The index of the first block.
+     */
+    private int readHeader(ByteBuffer in) throws IOException {
+        if (in.limit() < 6 || in.getInt(0) != StudentBinaryExporter.MAGIC) {
+            throw new IOException("Not a binary roster");
+        }
+        byte version = in.get(4);
+        if (version < 1 || version > StudentBinaryExporter.VERSION
+                || (in.get(5) & ~(StudentBinaryExporter.DICTIONARY | StudentBinaryExporter.COMPRESSED)) != 0) {
+            throw new IOException("Roster has an unknown format version");
+        }
+        sharedNames = (in.get(5) & StudentBinaryExporter.DICTIONARY) != 0;
+        checkedHeaders = version > 1;
+        return 6;
+    }
+
+    /**
+     * @brief Decodes the whole blocks of a buffer from an index, up to the end block.
+     *
+     * @return The index after the last whole block decoded.
+     */
+    private int decodeBlocks(ByteBuffer in, int offset, Consumer<Student> sink) throws IOException {
+        int limit = in.limit();
+        while (limit - offset >= StudentBinaryExporter.BLOCK_HEADER_SIZE) {
+            int count = in.getInt(offset);
+            int encodedLength = in.getInt(offset + 4);
+            int storedLength = in.getInt(offset + 8);
+            int checksum = in.getInt(offset + 12);
+            if (count == 0) {
+                if ((encodedLength | storedLength | checksum) != 0) {
+                    throw new IOException("Roster is corrupt");
+                }
+                ended = true;
+                return offset + StudentBinaryExporter.BLOCK_HEADER_SIZE;
+            }
+            // Every student takes at least three bytes, and only a block of one
+            // student with a long name is longer than BLOCK_SIZE
+            if (count < 0 || encodedLength / 3 < count || storedLength <= 0 || storedLength > encodedLength
+                    || (count > 1 && encodedLength > StudentBinaryExporter.BLOCK_SIZE)) {
+                throw new IOException("Roster is corrupt");
+            }
+            int from = offset + StudentBinaryExporter.BLOCK_HEADER_SIZE;
+            if (limit - from < storedLength) {
+                break;
+            }
+
+            crc.reset();
+            if (checkedHeaders) {
+                crc.update(in.slice(offset, 12));
+            }
+            crc.update(in.slice(from, storedLength));
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Roster block at byte " + offset + " fails its checksum");
+            }
+            if (storedLength < encodedLength) {
+                if (decompressed.length < encodedLength) {
+                    decompressed = new byte[encodedLength];
+                }
+                LzBlockCodec.decompress(in, from, from + storedLength, decompressed, encodedLength);
+                decodeStudents(ByteBuffer.wrap(decompressed, 0, encodedLength), 0, encodedLength, count, sink);
+            } else {
+                decodeStudents(in, from, from + storedLength, count, sink);
+            }
+            offset = from + storedLength;
+        }
+        return offset;
+    }
+
+    /**
+     * @brief Decodes the students of one block, reading names straight from the buffer's array if it has one.
+     */
+    private void decodeStudents(ByteBuffer in, int from, int to, int count, Consumer<Student> sink) throws IOException {
+        cursor = from;
+        int previousId = 0;
+        int dictionarySize = 0;
+        try {
+            for (int i = 0; i < count; i++) {
+                int delta = readVarint(in);
+                int studentId = previousId + ((delta >>> 1) ^ -(delta & 1));
+                int studentAge = readVarint(in);
+                int tag = readVarint(in);
+
+                String name;
+                if ((tag & 1) != 0) {
+                    int index = tag >>> 1;
+                    if (index >= dictionarySize) {
+                        throw new IOException("Roster is corrupt");
+                    }
+                    name = dictionary[index];
+                } else {
+                    int nameLength = tag >>> 1;
+                    if (nameLength > to - cursor) {
+                        throw new IOException("Roster is corrupt");
+                    }
+                    if (in.hasArray()) {
+                        name = new String(in.array(), in.arrayOffset() + cursor, nameLength, StandardCharsets.UTF_8);
+                    } else {
+                        if (nameBytes.length < nameLength) {
+                            nameBytes = new byte[Math.max(nameBytes.length << 1, nameLength)];
+                        }
+                        in.get(cursor, nameBytes, 0, nameLength);
+                        name = new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+                    }
+                    cursor += nameLength;
+                    // Mirror the exporter, which adds every name it writes out until the dictionary is full
+                    if (sharedNames && dictionarySize < StudentBinaryExporter.MAX_DICTIONARY_SIZE) {
+                        if (dictionarySize == dictionary.length) {
+                            dictionary = Arrays.copyOf(dictionary, dictionarySize << 1);
+                        }
+                        dictionary[dictionarySize++] = name;
+                    }
+                }
+                previousId = studentId;
+                position++;
+                sink.accept(new Student(studentId, name, studentAge));
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Roster is corrupt", e);
+        } finally {
+            Arrays.fill(dictionary, 0, dictionarySize, null);
+        }
+        if (cursor != to) {
+            throw new IOException("Roster is corrupt");
+        }
+    }
+
+    /**
+     * @brief Reads a varint at the cursor and moves the cursor past it.
+     */
+    private int readVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get(cursor++);
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Roster is corrupt");
+    }
+
+    /**
+     * @brief Batches a decoded student, adding the batch to the repository when it is full.
+     */
+    private void accept(Student student) {
+        batch.add(student);
+        if (batch.size() >= batchSize) {
+            flushBatch();
+        }
+    }
+
+    /**
+     * @brief Adds the batched students to the repository and records the outcome of each.
+     */
+    private void flushBatch() {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<StudentResult> results = repository.addAll(batch);
+        long first = position - batch.size();
+        for (int i = 0; i < results.size(); i++) {
+            StudentResult result = results.get(i);
+            if (result.isSuccess()) {
+                report.recordImported();
+            } else {
+                report.recordRejected(first + i + 1, batch.get(i).getStudentId(), result.getError());
+            }
+        }
+        batch.clear();
+    }
+}
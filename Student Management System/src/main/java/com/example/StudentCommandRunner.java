@@ -0,0 +1,501 @@
+/**
+ * @file StudentCommandRunner.java
+ * @brief Non-interactive command mode for scripted sessions.
+ *
+ * This class reads a stream of one-line commands such as "ADD 101 Ali 20",
+ * "UPD 101 age=21", "DEL 101" or "GET 101" and writes one result line per command. Commands are
+ * tokenized straight from a reusable byte buffer and applied to the repository in
+ * batches, and the results are written through one output buffer, so a script of
+ * millions of commands is not slowed down by per-line parsing and flushing.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * @class StudentCommandRunner
+ * @brief Parses commands, runs them against the repository in batches and writes their results.
+ *
+ * The commands are:
+ *
+ *     ADD <id> <name> <age>   add a student; the name may contain spaces
+ *     UPD <id> [id=<new id>] [age=<age>] [name=<name>]
+ *                             update some fields of the student with the ID; the
+ *                             name comes last and may contain spaces
+ *     DEL <id>                remove the student with the ID
+ *     GET <id>                look up the student with the ID
+ *     STATS                   show the repository's size and operation statistics
+ *
+ * Command names are not case-sensitive. Blank lines and lines starting with '#'
+ * are skipped. Every other line is answered, in input order, with either
+ * "OK <id> <name> <age>" for the added, updated, removed or found student, "OK" followed
+ * by the one-line StudentMetrics summary for STATS, or "ERR <message>" with the
+ * same messages as the interactive menu.
+ *
+ * Commands are run in input order, in batches of up to batchSize commands that
+ * the store treats as one write batch, so a durable store syncs once per batch;
+ * a nightly file of corrections runs as a few large batches.
+ * A batch also ends whenever no more input is available yet, so a client that
+ * waits for each result before sending the next command still gets it at once.
+ */
+class StudentCommandRunner {
+
+    static final int DEFAULT_BATCH_SIZE = 4096; /**< Commands run against the repository at once. */
+
+    private static final int BUFFER_SIZE = 1 << 16; /**< Initial read and write buffer size in bytes. */
+    private static final int MAX_INT_DIGITS = 11;   /**< Longest decimal int, including the sign. */
+
+    private static final byte INVALID = 0; /**< A line that could not be parsed. */
+    private static final byte ADD = 1;     /**< ADD command. */
+    private static final byte DELETE = 2;  /**< DEL command. */
+    private static final byte GET = 3;     /**< GET command. */
+    private static final byte STATS = 4;   /**< STATS command. */
+    private static final byte UPDATE = 5;  /**< UPD command. */
+
+    private final StudentRepository repository; /**< Repository the commands run against. */
+    private final int batchSize;                /**< Commands run against the repository at once. */
+
+    private final byte[] operations;  /**< Operation of each pending command. */
+    private final int[] studentIds;   /**< Student ID of each pending DEL, GET and UPD command. */
+    private final Student[] students; /**< Student of each pending ADD command. */
+    private final StudentPatch[] patches; /**< Patch of each pending UPD command. */
+    private final String[] errors;    /**< Error message of each pending invalid command. */
+    private int pending;              /**< Number of parsed commands not yet run. */
+
+    private byte[] output = new byte[BUFFER_SIZE]; /**< Results encoded but not yet written. */
+    private int outputLength;                      /**< Number of bytes in the output buffer. */
+
+    /**
+     * @brief Constructor to initialize a runner with the default batch size.
+     *
+     * @param repository The repository to run the commands against.
+     */
+    StudentCommandRunner(StudentRepository repository) {
+        this(repository, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @brief Constructor to initialize a runner.
+     *
+     * @param repository The repository to run the commands against.
+     * @param batchSize The largest number of commands run against the repository at once.
+     */
+    StudentCommandRunner(StudentRepository repository, int batchSize) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.operations = new byte[batchSize];
+        this.studentIds = new int[batchSize];
+        this.students = new Student[batchSize];
+        this.patches = new StudentPatch[batchSize];
+        this.errors = new String[batchSize];
+    }
+
+    /**
+     * @brief Runs every command of a stream and writes their results.
+     *
+     * The input is read to its end but not closed; the output is flushed after
+     * every batch but not closed.
+     *
+     * @param in The commands, one per line.
+     * @param out The stream to write the results to, one line per command.
+     * @return The number of commands run, including invalid ones.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    long run(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;      // First byte of the current line
+        int limit = 0;      // End of the valid bytes in the buffer
+        int scan = 0;       // Next byte to check for a line break
+        long commandCount = 0;
+
+        while (true) {
+            // Parse every complete line in the buffer, running full batches as they fill up
+            while (scan < limit) {
+                if (buffer[scan] == '\n') {
+                    commandCount += parseCommand(buffer, start, scan);
+                    start = scan + 1;
+                    if (pending == batchSize) {
+                        runBatch(out);
+                    }
+                }
+                scan++;
+            }
+
+            // Move the partial line to the front, growing the buffer for very long lines
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                limit -= start;
+                scan -= start;
+                start = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+
+            // Answer the pending commands before waiting for more input
+            if (pending > 0 && in.available() == 0) {
+                runBatch(out);
+            }
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+        }
+
+        // The last line may lack a line break
+        if (start < limit) {
+            commandCount += parseCommand(buffer, start, limit);
+        }
+        runBatch(out);
+        return commandCount;
+    }
+
+    /**
+     * @brief Parses one line into the next pending command.
+     *
+     * @param buffer The buffer holding the line.
+     * @param from The index of the first byte of the line.
+     * @param to The index just past the last byte of the line, excluding the line break.
+     * @return 1 if the line holds a command, 0 if it is blank or a comment.
+     */
+    private int parseCommand(byte[] buffer, int from, int to) {
+        from = skipBlanks(buffer, from, to);
+        to = skipTrailingBlanks(buffer, from, to);
+        if (from == to || buffer[from] == '#') {
+            return 0;
+        }
+
+        int slot = pending++;
+        operations[slot] = INVALID;
+        int nameEnd = tokenEnd(buffer, from, to);
+        int argumentsFrom = skipBlanks(buffer, nameEnd, to);
+        if (isCommand(buffer, from, nameEnd, "ADD")) {
+            parseAdd(slot, buffer, argumentsFrom, to);
+        } else if (isCommand(buffer, from, nameEnd, "UPD")) {
+            parseUpdate(slot, buffer, argumentsFrom, to);
+        } else if (isCommand(buffer, from, nameEnd, "DEL")) {
+            parseId(slot, DELETE, buffer, argumentsFrom, to);
+        } else if (isCommand(buffer, from, nameEnd, "GET")) {
+            parseId(slot, GET, buffer, argumentsFrom, to);
+        } else if (isCommand(buffer, from, nameEnd, "STATS")) {
+            if (argumentsFrom == to) {
+                operations[slot] = STATS;
+            } else {
+                errors[slot] = "Usage: STATS";
+            }
+        } else {
+            errors[slot] = "Unknown command: " + new String(buffer, from, nameEnd - from, StandardCharsets.ISO_8859_1);
+        }
+        return 1;
+    }
+
+    /**
+     * @brief Parses the arguments of an ADD command.
+     *
+     * The ID is the first argument and the age the last one; the name is
+     * everything in between.
+     */
+    private void parseAdd(int slot, byte[] buffer, int from, int to) {
+        int idEnd = tokenEnd(buffer, from, to);
+        int ageFrom = to;
+        while (ageFrom > idEnd && !isBlank(buffer[ageFrom - 1])) {
+            ageFrom--;
+        }
+        int nameFrom = skipBlanks(buffer, idEnd, ageFrom);
+        int nameTo = skipTrailingBlanks(buffer, nameFrom, ageFrom);
+        if (from == idEnd || nameFrom == nameTo) {
+            errors[slot] = "Usage: ADD <id> <name> <age>";
+            return;
+        }
+
+        long parsedId = StudentValidator.parseInt(buffer, from, idEnd);
+        if (parsedId == StudentValidator.NOT_A_NUMBER) {
+            errors[slot] = StudentError.NON_NUMERIC_ID.message(0);
+            return;
+        }
+        long parsedAge = StudentValidator.parseInt(buffer, ageFrom, to);
+        if (parsedAge == StudentValidator.NOT_A_NUMBER) {
+            errors[slot] = StudentError.NON_NUMERIC_AGE.message((int) parsedId);
+            return;
+        }
+
+        // Validate the name on the bytes, so that a rejected name is never decoded
+        StudentError error = StudentValidator.validateName(buffer, nameFrom, nameTo);
+        if (error != null) {
+            errors[slot] = error.message((int) parsedId);
+            return;
+        }
+        String studentName = new String(buffer, nameFrom, nameTo - nameFrom, StandardCharsets.ISO_8859_1);
+        operations[slot] = ADD;
+        students[slot] = new Student((int) parsedId, studentName, (int) parsedAge);
+    }
+
+    /**
+     * @brief Parses the arguments of an UPD command.
+     *
+     * The ID is followed by field=value pairs in any order, except that a name
+     * takes the rest of the line. Each value is checked like an ADD argument.
+     */
+    private void parseUpdate(int slot, byte[] buffer, int from, int to) {
+        int idEnd = tokenEnd(buffer, from, to);
+        if (from == idEnd) {
+            errors[slot] = "Usage: UPD <id> [id=<new id>] [age=<age>] [name=<name>]";
+            return;
+        }
+        long parsedId = StudentValidator.parseInt(buffer, from, idEnd);
+        if (parsedId == StudentValidator.NOT_A_NUMBER) {
+            errors[slot] = StudentError.NON_NUMERIC_ID.message(0);
+            return;
+        }
+
+        StudentPatch patch = StudentPatch.empty();
+        for (int field = skipBlanks(buffer, idEnd, to); field < to; ) {
+            int fieldEnd = tokenEnd(buffer, field, to);
+            if (isField(buffer, field, fieldEnd, "NAME")) {
+                int nameFrom = field + "NAME=".length();
+                StudentError error = StudentValidator.validateName(buffer, nameFrom, to);
+                if (error != null) {
+                    errors[slot] = error.message((int) parsedId);
+                    return;
+                }
+                patch = patch.withStudentName(new String(buffer, nameFrom, to - nameFrom, StandardCharsets.ISO_8859_1));
+                break;
+            }
+            boolean isId = isField(buffer, field, fieldEnd, "ID");
+            if (!isId && !isField(buffer, field, fieldEnd, "AGE")) {
+                errors[slot] = "Unknown field: " + new String(buffer, field, fieldEnd - field,
+                        StandardCharsets.ISO_8859_1);
+                return;
+            }
+            long value = StudentValidator.parseInt(buffer, isId ? field + 3 : field + 4, fieldEnd);
+            if (value == StudentValidator.NOT_A_NUMBER) {
+                errors[slot] = (isId ? StudentError.NON_NUMERIC_ID : StudentError.NON_NUMERIC_AGE)
+                        .message((int) parsedId);
+                return;
+            }
+            patch = isId ? patch.withStudentId((int) value) : patch.withStudentAge((int) value);
+            field = skipBlanks(buffer, fieldEnd, to);
+        }
+        operations[slot] = UPDATE;
+        studentIds[slot] = (int) parsedId;
+        patches[slot] = patch;
+    }
+
+    /**
+     * @brief Parses the single ID argument of a DEL or GET command.
+     */
+    private void parseId(int slot, byte operation, byte[] buffer, int from, int to) {
+        if (from == to) {
+            errors[slot] = operation == DELETE ? "Usage: DEL <id>" : "Usage: GET <id>";
+            return;
+        }
+        long parsedId = StudentValidator.parseInt(buffer, from, to);
+        if (parsedId == StudentValidator.NOT_A_NUMBER) {
+            errors[slot] = StudentError.NON_NUMERIC_ID.message(0);
+            return;
+        }
+        operations[slot] = operation;
+        studentIds[slot] = (int) parsedId;
+    }
+
+    /**
+     * @brief Runs the pending commands as one write batch and writes their results.
+     *
+     * @param out The stream to write the results to.
+     * @throws IOException If the output cannot be written.
+     */
+    private void runBatch(OutputStream out) throws IOException {
+        if (pending == 0) {
+            return;
+        }
+        repository.writeBatch(() -> {
+            for (int slot = 0; slot < pending; slot++) {
+                runCommand(slot);
+            }
+            return null;
+        });
+        Arrays.fill(students, 0, pending, null);
+        Arrays.fill(patches, 0, pending, null);
+        Arrays.fill(errors, 0, pending, null);
+        pending = 0;
+
+        out.write(output, 0, outputLength);
+        out.flush();
+        outputLength = 0;
+    }
+
+    /**
+     * @brief Runs one pending command and appends its result line.
+     */
+    private void runCommand(int slot) {
+        switch (operations[slot]) {
+            case ADD -> appendResult(repository.add(students[slot]), students[slot].getStudentId());
+            case UPDATE -> {
+                StudentResult result = repository.update(studentIds[slot], patches[slot]);
+                appendResult(result, result.getError() == StudentError.DUPLICATE_ID
+                        ? patches[slot].getStudentId() : studentIds[slot]);
+            }
+            case DELETE -> appendResult(repository.remove(studentIds[slot]), studentIds[slot]);
+            case GET -> {
+                Student student = repository.find(studentIds[slot]).orElse(null);
+                if (student != null) {
+                    appendStudent(student);
+                } else {
+                    appendError(StudentError.NOT_FOUND.message(studentIds[slot]));
+                }
+            }
+            case STATS -> {
+                appendText("OK ");
+                appendText(repository.metrics().summary());
+                appendByte('\n');
+            }
+            default -> appendError(errors[slot]);
+        }
+    }
+
+    private void appendResult(StudentResult result, int studentId) {
+        if (result.isSuccess()) {
+            appendStudent(result.getStudent());
+        } else {
+            appendError(result.getError().message(studentId));
+        }
+    }
+
+    private void appendStudent(Student student) {
+        appendText("OK ");
+        appendInt(student.getStudentId());
+        appendByte(' ');
+        appendText(student.getStudentName());
+        appendByte(' ');
+        appendInt(student.getStudentAge());
+        appendByte('\n');
+    }
+
+    private void appendError(String message) {
+        appendText("ERR ");
+        appendText(message);
+        appendByte('\n');
+    }
+
+    /**
+     * @brief Appends ISO-8859-1 text, which is all that names and messages hold.
+     */
+    private void appendText(String text) {
+        ensureRoom(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            output[outputLength++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * @brief Appends the decimal digits of an int.
+     */
+    private void appendInt(int value) {
+        if (value == Integer.MIN_VALUE) {
+            appendText(Integer.toString(value));
+            return;
+        }
+        ensureRoom(MAX_INT_DIGITS);
+        if (value < 0) {
+            output[outputLength++] = '-';
+            value = -value;
+        }
+        int position = outputLength + digitCount(value);
+        outputLength = position;
+        do {
+            output[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+    }
+
+    private void appendByte(char c) {
+        ensureRoom(1);
+        output[outputLength++] = (byte) c;
+    }
+
+    /**
+     * @brief Grows the output buffer if fewer than the given number of bytes are free.
+     */
+    private void ensureRoom(int bytes) {
+        if (outputLength + bytes > output.length) {
+            output = Arrays.copyOf(output, Math.max(output.length << 1, outputLength + bytes));
+        }
+    }
+
+    /**
+     * @brief Checks whether a token is a command name, ignoring ASCII case.
+     */
+    private static boolean isCommand(byte[] buffer, int from, int to, String name) {
+        if (to - from != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if ((buffer[from + i] & ~0x20) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief Checks whether a token starts with a field name and '=', ignoring ASCII case.
+     */
+    private static boolean isField(byte[] buffer, int from, int to, String field) {
+        int equals = from + field.length();
+        return equals < to && buffer[equals] == '=' && isCommand(buffer, from, equals, field);
+    }
+
+    /**
+     * @brief Returns the index just past the token starting at an index.
+     */
+    private static int tokenEnd(byte[] buffer, int from, int to) {
+        while (from < to && !isBlank(buffer[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * @brief Returns the index of the first non-blank byte of a range, or its end.
+     */
+    private static int skipBlanks(byte[] buffer, int from, int to) {
+        while (from < to && isBlank(buffer[from])) {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * @brief Returns the index just past the last non-blank byte of a range, or its start.
+     */
+    private static int skipTrailingBlanks(byte[] buffer, int from, int to) {
+        while (to > from && isBlank(buffer[to - 1])) {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * @brief Checks whether a byte separates tokens; a trailing '\r' counts as one.
+     */
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    /**
+     * @brief Counts the decimal digits of a non-negative int.
+     */
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * @file StudentCsvExporter.java
+ * @brief Bulk export of students to CSV files.
+ *
+ * This class writes students as "id,name,age" rows in the format read by
+ * StudentCsvImporter, encoding each row into a reusable byte buffer that is
+ * written out in large chunks.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * @class StudentCsvExporter
+ * @brief Streams students to CSV without per-row string formatting.
+ */
+class StudentCsvExporter {
+
+    static final String HEADER = "id,name,age"; /**< Header row written before the students. */
+
+    private static final int BUFFER_SIZE = 1 << 16; /**< Output chunk size in bytes. */
+    private static final int MAX_INT_DIGITS = 11;   /**< Longest decimal int, including the sign. */
+
+    private byte[] buffer = new byte[BUFFER_SIZE]; /**< Bytes encoded but not yet written. */
+    private int length;                           /**< Number of bytes in the buffer. */
+
+    /**
+     * @brief Exports students to a CSV file, replacing any existing file.
+     *
+     * @param file The file to write.
+     * @param students The students to export, in output order.
+     * @return The number of students written.
+     * @throws IOException If the file cannot be written.
+     */
+    long exportTo(Path file, Iterable<Student> students) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return exportTo(out, students);
+        }
+    }
+
+    /**
+     * @brief Exports students to a CSV stream.
+     *
+     * The stream is flushed but not closed.
+     *
+     * @param out The stream to write to.
+     * @param students The students to export, in output order.
+     * @return The number of students written.
+     * @throws IOException If the stream cannot be written.
+     */
+    long exportTo(OutputStream out, Iterable<Student> students) throws IOException {
+        length = 0;
+        appendText(HEADER);
+        appendByte('\n');
+
+        long count = 0;
+        for (Student student : students) {
+            if (length > buffer.length - BUFFER_SIZE / 4) {
+                out.write(buffer, 0, length);
+                length = 0;
+            }
+            appendInt(student.getStudentId());
+            appendByte(',');
+            appendName(student.getStudentName());
+            appendByte(',');
+            appendInt(student.getStudentAge());
+            appendByte('\n');
+            count++;
+        }
+        out.write(buffer, 0, length);
+        out.flush();
+        return count;
+    }
+
+    /**
+     * @brief Appends a name, quoting it if it contains a comma or a quote.
+     */
+    private void appendName(String name) {
+        if (name.indexOf(',') >= 0 || name.indexOf('"') >= 0) {
+            appendText('"' + name.replace("\"", "\"\"") + '"');
+        } else {
+            appendText(name);
+        }
+    }
+
+    /**
+     * @brief Appends text, taking the ASCII fast path when possible.
+     */
+    private void appendText(String text) {
+        ensureRoom(text.length());
+        int start = length;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Rare non-ASCII text: discard the partial copy and encode properly
+                length = start;
+                byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+                ensureRoom(encoded.length);
+                System.arraycopy(encoded, 0, buffer, length, encoded.length);
+                length += encoded.length;
+                return;
+            }
+            buffer[length++] = (byte) c;
+        }
+    }
+
+    /**
+     * @brief Appends the decimal digits of an int.
+     */
+    private void appendInt(int value) {
+        ensureRoom(MAX_INT_DIGITS);
+        if (value == Integer.MIN_VALUE) {
+            appendText(Integer.toString(value));
+            return;
+        }
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int end = length + digitCount(value);
+        int position = end;
+        do {
+            buffer[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        length = end;
+    }
+
+    /**
+     * @brief Appends a single ASCII byte.
+     */
+    private void appendByte(char c) {
+        ensureRoom(1);
+        buffer[length++] = (byte) c;
+    }
+
+    /**
+     * @brief Grows the buffer if fewer than the given number of bytes are free.
+     */
+    private void ensureRoom(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, length + bytes));
+        }
+    }
+
+    /**
+     * @brief Counts the decimal digits of a non-negative int.
+     */
+    private static int digitCount(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
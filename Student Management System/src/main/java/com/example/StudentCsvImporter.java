@@ -0,0 +1,294 @@
+/**
+ * @file StudentCsvImporter.java
+ * @brief Bulk import of students from CSV files.
+ *
+ * This class streams a CSV file of "id,name,age" rows into a StudentRepository.
+ * The input is parsed straight from a reusable byte buffer, so a file of millions
+ * of rows is never held in memory, and rows are added to the repository in batches.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @class StudentCsvImporter
+ * @brief Streams CSV rows into the repository and reports per-row errors.
+ *
+ * Each row is validated with the same rules as the interactive menu. Rows that fail
+ * to parse or validate, and rows whose ID duplicates the roster or an earlier row,
+ * are recorded in the StudentImportReport while the load carries on.
+ *
+ * The name may be enclosed in double quotes. An optional header row whose first
+ * field is "id" is skipped, as are blank lines.
+ */
+class StudentCsvImporter {
+
+    static final int DEFAULT_BATCH_SIZE = 8192;          /**< Rows added to the repository at once. */
+    static final int DEFAULT_MAX_REPORTED_ERRORS = 1000; /**< Row errors kept in the report. */
+
+    private static final int BUFFER_SIZE = 1 << 16;     /**< Initial read buffer size in bytes. */
+
+    private final StudentRepository repository; /**< Repository the students are added to. */
+    private final int batchSize;                /**< Rows added to the repository at once. */
+    private final int maxReportedErrors;        /**< Row errors kept in the report. */
+
+    private final List<Student> batch = new ArrayList<>();   /**< Valid rows awaiting addition. */
+    private long[] batchLines = new long[16];                 /**< Line number of each batched row. */
+
+    /**
+     * @brief Constructor to initialize an importer with the default batch and report sizes.
+     *
+     * @param repository The repository to import students into.
+     */
+    StudentCsvImporter(StudentRepository repository) {
+        this(repository, DEFAULT_BATCH_SIZE, DEFAULT_MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * @brief Constructor to initialize an importer.
+     *
+     * @param repository The repository to import students into.
+     * @param batchSize The number of rows added to the repository at once.
+     * @param maxReportedErrors The maximum number of row errors kept in the report.
+     */
+    StudentCsvImporter(StudentRepository repository, int batchSize, int maxReportedErrors) {
+        this.repository = repository;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * @brief Imports students from a CSV file.
+     *
+     * @param file The file to read.
+     * @return The report of imported and rejected rows.
+     * @throws IOException If the file cannot be read.
+     */
+    StudentImportReport importFrom(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return importFrom(in);
+        }
+    }
+
+    /**
+     * @brief Imports students from a CSV stream.
+     *
+     * The stream is read to its end but not closed.
+     *
+     * @param in The stream to read.
+     * @return The report of imported and rejected rows.
+     * @throws IOException If the stream cannot be read.
+     */
+    StudentImportReport importFrom(InputStream in) throws IOException {
+        StudentImportReport report = new StudentImportReport(maxReportedErrors);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int start = 0;      // First byte of the current line
+        int limit = 0;      // End of the valid bytes in the buffer
+        int scan = 0;       // Next byte to check for a line break
+        long lineNumber = 0;
+
+        while (true) {
+            // Process every complete line in the buffer
+            while (scan < limit) {
+                if (buffer[scan] == '\n') {
+                    parseRow(buffer, start, scan, ++lineNumber, report);
+                    start = scan + 1;
+                }
+                scan++;
+            }
+
+            // Move the partial line to the front, growing the buffer for very long lines
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, limit - start);
+                limit -= start;
+                scan -= start;
+                start = 0;
+            } else if (limit == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
+            }
+
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                break;
+            }
+            limit += read;
+        }
+
+        // The last line may lack a line break
+        if (start < limit) {
+            parseRow(buffer, start, limit, ++lineNumber, report);
+        }
+        flushBatch(report);
+        return report;
+    }
+
+    /**
+     * @brief Parses and validates one row, batching it if it is valid.
+     *
+     * @param buffer The buffer holding the row.
+     * @param from The index of the first byte of the row.
+     * @param to The index just past the last byte of the row, excluding the line break.
+     * @param lineNumber The 1-based line number of the row.
+     * @param report The report to record rejected rows in.
+     */
+    private void parseRow(byte[] buffer, int from, int to, long lineNumber, StudentImportReport report) {
+        if (to > from && buffer[to - 1] == '\r') {
+            to--;
+        }
+        if (isBlank(buffer, from, to)) {
+            return;
+        }
+
+        // The ID is before the first comma and the age after the last one; the name is
+        // everything in between, which keeps quoted names with commas intact
+        int firstComma = indexOf(buffer, from, to, (byte) ',');
+        int lastComma = lastIndexOf(buffer, from, to, (byte) ',');
+        if (firstComma < 0 || firstComma == lastComma) {
+            report.recordRejected(lineNumber, 0, StudentError.MALFORMED_ROW);
+            return;
+        }
+
+        long parsedId = StudentValidator.parseInt(buffer, from, firstComma);
+        if (parsedId == StudentValidator.NOT_A_NUMBER) {
+            if (lineNumber == 1 && isHeader(buffer, from, firstComma)) {
+                return;
+            }
+            report.recordRejected(lineNumber, 0, StudentError.NON_NUMERIC_ID);
+            return;
+        }
+        int studentId = (int) parsedId;
+        StudentError error = StudentValidator.validateId(studentId);
+        if (error != null) {
+            report.recordRejected(lineNumber, studentId, error);
+            return;
+        }
+
+        // Validate the name on the bytes, so that a rejected name is never decoded. An
+        // escaped quote inside a quoted name is not a valid name character either.
+        int nameFrom = skipSpaces(buffer, firstComma + 1, lastComma);
+        int nameTo = skipTrailingSpaces(buffer, nameFrom, lastComma);
+        if (nameTo - nameFrom >= 2 && buffer[nameFrom] == '"' && buffer[nameTo - 1] == '"') {
+            nameFrom = skipSpaces(buffer, nameFrom + 1, nameTo - 1);
+            nameTo = skipTrailingSpaces(buffer, nameFrom, nameTo - 1);
+        }
+        error = StudentValidator.validateName(buffer, nameFrom, nameTo);
+        if (error != null) {
+            report.recordRejected(lineNumber, studentId, error);
+            return;
+        }
+        String studentName = new String(buffer, nameFrom, nameTo - nameFrom, StandardCharsets.ISO_8859_1);
+
+        long parsedAge = StudentValidator.parseInt(buffer, lastComma + 1, to);
+        if (parsedAge == StudentValidator.NOT_A_NUMBER) {
+            report.recordRejected(lineNumber, studentId, StudentError.NON_NUMERIC_AGE);
+            return;
+        }
+        error = StudentValidator.validateAge((int) parsedAge);
+        if (error != null) {
+            report.recordRejected(lineNumber, studentId, error);
+            return;
+        }
+
+        if (batch.size() == batchLines.length) {
+            batchLines = Arrays.copyOf(batchLines, batchLines.length << 1);
+        }
+        batchLines[batch.size()] = lineNumber;
+        batch.add(new Student(studentId, studentName, (int) parsedAge));
+        if (batch.size() >= batchSize) {
+            flushBatch(report);
+        }
+    }
+
+    /**
+     * @brief Adds the batched rows to the repository and records the outcome of each.
+     *
+     * @param report The report to record the rows in.
+     */
+    private void flushBatch(StudentImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<StudentResult> results = repository.addAll(batch);
+        for (int i = 0; i < results.size(); i++) {
+            StudentResult result = results.get(i);
+            if (result.isSuccess()) {
+                report.recordImported();
+            } else {
+                report.recordRejected(batchLines[i], batch.get(i).getStudentId(), result.getError());
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * @brief Checks whether an ID field is the "id" column title of a header row.
+     */
+    private static boolean isHeader(byte[] buffer, int from, int to) {
+        String field = new String(buffer, from, to - from, StandardCharsets.UTF_8).trim();
+        return field.equalsIgnoreCase("id");
+    }
+
+    /**
+     * @brief Returns the index of the first non-space byte of a range, or its end.
+     */
+    private static int skipSpaces(byte[] buffer, int from, int to) {
+        while (from < to && buffer[from] == ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * @brief Returns the index just past the last non-space byte of a range, or its start.
+     */
+    private static int skipTrailingSpaces(byte[] buffer, int from, int to) {
+        while (to > from && buffer[to - 1] == ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * @brief Checks whether a byte range holds only spaces.
+     */
+    private static boolean isBlank(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @brief Finds the first occurrence of a byte in a range, or -1.
+     */
+    private static int indexOf(byte[] buffer, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Finds the last occurrence of a byte in a range, or -1.
+     */
+    private static int lastIndexOf(byte[] buffer, int from, int to, byte value) {
+        for (int i = to - 1; i >= from; i--) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
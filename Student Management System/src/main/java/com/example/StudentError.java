@@ -0,0 +1,46 @@
+/**
+ * @file StudentError.java
+ * @brief Typed errors returned by the StudentRepository API.
+ *
+ * Each constant carries the message shown to users when the error is reported.
+ */
+
+package com.example;
+
+/**
+ * @class StudentError
+ * @brief Reasons why a repository operation can fail.
+ */
+public enum StudentError {
+    INVALID_ID("Student ID must be a positive number."),
+    EMPTY_NAME("Name cannot be empty."),
+    INVALID_NAME("Name can only contain alphabetic characters and spaces."),
+    NAME_TOO_LONG("Name is too long to be stored."),
+    INVALID_AGE("Student Age must be a positive number."),
+    DUPLICATE_ID("A student with ID %d already exists."),
+    NOT_FOUND("Student with ID %d not found."),
+    NON_NUMERIC_ID("Student ID must be a valid number."),
+    NON_NUMERIC_AGE("Student Age must be a valid number."),
+    MALFORMED_ROW("Row must contain an ID, a name and an age separated by commas.");
+
+    private final String messageFormat; /**< Message, optionally with a %d placeholder for the ID. */
+
+    /**
+     * @brief Constructor to initialize an error with its message.
+     *
+     * @param messageFormat The message, optionally containing a %d placeholder for the student ID.
+     */
+    StudentError(String messageFormat) {
+        this.messageFormat = messageFormat;
+    }
+
+    /**
+     * @brief Builds the user-facing message for this error.
+     *
+     * @param studentId The ID of the student the failed operation concerned.
+     * @return The message describing the error.
+     */
+    public String message(int studentId) {
+        return String.format(messageFormat, studentId);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * @file StudentEvent.java
+ * @brief One change of the roster, as delivered by the ChangeFeed.
+ *
+ * Downstream systems apply the events in sequence order to keep their copy of
+ * the roster current instead of re-reading all of it.
+ */
+
+package com.example;
+
+/**
+ * @class StudentEvent
+ * @brief The sequence number, kind and before and after images of one write.
+ *
+ * An added student has no before image and a removed one has no after image.
+ * An update carries both, and re-keys the student if their IDs differ.
+ */
+public final class StudentEvent {
+
+    /**
+     * @enum Type
+     * @brief The kinds of writes that produce events.
+     */
+    public enum Type {
+        ADDED, UPDATED, REMOVED
+    }
+
+    private final long sequence;  /**< Position of the event in the feed, from 0. */
+    private final Type type;      /**< The kind of write. */
+    private final Student before; /**< The student before the write, or null if it was added. */
+    private final Student after;  /**< The student after the write, or null if it was removed. */
+
+    /**
+     * @brief Constructor to initialize an event.
+     *
+     * @param sequence The position of the event in the feed.
+     * @param type The kind of write.
+     * @param before The student before the write, or null for ADDED.
+     * @param after The student after the write, or null for REMOVED.
+     */
+    StudentEvent(long sequence, Type type, Student before, Student after) {
+        this.sequence = sequence;
+        this.type = type;
+        this.before = before;
+        this.after = after;
+    }
+
+    /**
+     * @brief Getter for the sequence number.
+     *
+     * @return The position of the event in the feed; one more than the event before it.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @brief Getter for the kind of write.
+     *
+     * @return ADDED, UPDATED or REMOVED.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @brief Getter for the ID of the student the event is about.
+     *
+     * @return The ID before the write, or the ID of the added student.
+     */
+    public int getStudentId() {
+        return before != null ? before.getStudentId() : after.getStudentId();
+    }
+
+    /**
+     * @brief Getter for the student before the write.
+     *
+     * @return The updated or removed student as it was, or null for ADDED.
+     */
+    public Student getBefore() {
+        return before;
+    }
+
+    /**
+     * @brief Getter for the student after the write.
+     *
+     * @return The added or updated student, or null for REMOVED.
+     */
+    public Student getAfter() {
+        return after;
+    }
+}
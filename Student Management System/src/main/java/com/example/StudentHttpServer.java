@@ -0,0 +1,374 @@
+/**
+ * @file StudentHttpServer.java
+ * @brief HTTP/JSON API over a StudentRepository.
+ *
+ * The server exposes the repository operations that the console menu offers, so
+ * that many clients can use one roster at the same time. It runs on the JDK's
+ * built-in HTTP server and handles every request on its own virtual thread.
+ */
+
+package com.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @class StudentHttpServer
+ * @brief Serves add, remove, get-by-ID and paged listing of students, and the change feed, as JSON.
+ *
+ * The API is:
+ *
+ *     GET    /students?pageToken=&pageSize=   one page of the roster, in insertion order
+ *     POST   /students                        add the student in the request body
+ *     GET    /students/{id}                   the student with the ID
+ *     DELETE /students/{id}                   remove the student with the ID
+ *     GET    /changes?from=&max=&waitMs=      the next events of the ChangeFeed
+ *
+ * Students are encoded as described in StudentJson. Failures are answered with an
+ * {"error": ...} object carrying the StudentError message and a matching status:
+ * 400 for invalid input, 404 for an unknown ID and 409 for a duplicate ID. A
+ * body larger than MAX_BODY_BYTES is answered with 413 without being read to the
+ * end. A store that fails to read or write its files is answered with 500.
+ *
+ * /changes is a long poll: it answers as soon as the event with sequence number
+ * `from` is published, with up to `max` events, or with none after `waitMs`.
+ * Without `from`, it starts at the next event. A client passes the answer's
+ * nextSequence as the following request's `from`, and re-reads the roster if it
+ * is answered 410 because the events it asked for were overwritten.
+ *
+ * Requests run concurrently on virtual threads. If the repository's store is not
+ * thread-safe, they are run one at a time instead, except for /changes, which
+ * only reads the thread-safe feed. Request bodies are read before a request waits
+ * for its turn, so a client that is slow to send one holds up no one else. The
+ * JDK server reads bodies under a monitor, which on JDK 21 pins the virtual thread
+ * to its carrier, so a request that is not received within MAX_REQUEST_SECONDS is
+ * dropped to free the carrier.
+ */
+final class StudentHttpServer {
+
+    static final int DEFAULT_PAGE_SIZE = 100; /**< Page size when the request names none. */
+    static final int MAX_PAGE_SIZE = 1000;    /**< Largest page size a request may ask for. */
+    static final int MAX_WAIT_MILLIS = 60_000; /**< Longest a /changes request may wait for an event. */
+    static final int MAX_REQUEST_SECONDS = 30; /**< Longest a client may take to send a request. */
+    static final int MAX_BODY_BYTES = 64 * 1024; /**< Largest request body the server reads. */
+
+    private static final String PATH = "/students";
+    private static final String CHANGES_PATH = "/changes";
+    private static final int BACKLOG = 4096;  /**< Pending connections the listening socket queues. */
+
+    static {
+        // The JDK server reads these once, when it is first used. Without TCP_NODELAY
+        // the response body waits for the client's delayed ACK of the headers (~40 ms
+        // per request), and by default only 200 idle keep-alive connections are kept,
+        // so with more clients connections are closed between requests.
+        setDefaultProperty("sun.net.httpserver.nodelay", "true");
+        setDefaultProperty("sun.net.httpserver.maxIdleConnections", Integer.toString(BACKLOG));
+        setDefaultProperty("sun.net.httpserver.maxReqTime", Integer.toString(MAX_REQUEST_SECONDS));
+    }
+
+    private final StudentRepository repository; /**< The roster being served. */
+    private final ReentrantLock requestLock;    /**< Lock serializing requests, or null if they may overlap. */
+    private final HttpServer server;            /**< The JDK HTTP server. */
+    private final ExecutorService executor;     /**< Virtual-thread-per-request executor. */
+    private final CountDownLatch stopped = new CountDownLatch(1); /**< Released by stop(). */
+
+    /**
+     * @brief Constructor that binds the server without starting it.
+     */
+    private StudentHttpServer(StudentRepository repository, InetSocketAddress address) throws IOException {
+        this.repository = repository;
+        this.requestLock = repository.isThreadSafe() ? null : new ReentrantLock();
+        this.server = HttpServer.create(address, BACKLOG);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.createContext(PATH, this::handle);
+        server.createContext(CHANGES_PATH, this::handleChanges);
+        server.setExecutor(executor);
+    }
+
+    /**
+     * @brief Starts serving a repository.
+     *
+     * @param repository The repository to serve.
+     * @param address The address to listen on; port 0 picks a free port.
+     * @return The running server.
+     * @throws IOException If the address cannot be bound.
+     */
+    static StudentHttpServer start(StudentRepository repository, InetSocketAddress address) throws IOException {
+        StudentHttpServer server = new StudentHttpServer(repository, address);
+        server.server.start();
+        return server;
+    }
+
+    /**
+     * @brief Returns the port the server listens on.
+     *
+     * @return The bound port.
+     */
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @brief Stops accepting requests, waits briefly for running ones and releases awaitStop().
+     */
+    void stop() {
+        server.stop(1);
+        // Wake the /changes requests still waiting for events
+        executor.shutdownNow();
+        executor.close();
+        stopped.countDown();
+    }
+
+    /**
+     * @brief Blocks until stop() has been called.
+     *
+     * @throws InterruptedException If the waiting thread is interrupted.
+     */
+    void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    /**
+     * @brief Routes one request and sends its response.
+     *
+     * @param exchange The request and response.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String body = exchange.getRequestMethod().equals("POST") ? readBody(exchange) : null;
+            if (body == null && exchange.getRequestMethod().equals("POST")) {
+                send(exchange, Response.error(413, "The request body is larger than " + MAX_BODY_BYTES + " bytes."));
+                return;
+            }
+            Response response;
+            try {
+                if (requestLock == null) {
+                    response = route(exchange, body);
+                } else {
+                    // A lock rather than a monitor, so a waiting virtual thread frees its carrier
+                    requestLock.lock();
+                    try {
+                        response = route(exchange, body);
+                    } finally {
+                        requestLock.unlock();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (UncheckedIOException e) {
+                response = Response.error(500, "The roster could not be stored: " + e.getCause().getMessage());
+            }
+            send(exchange, response);
+        }
+    }
+
+    /**
+     * @brief Answers a /changes request, outside the request lock so that its wait holds up no one.
+     *
+     * @param exchange The request and response.
+     */
+    private void handleChanges(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Response response;
+            try {
+                response = changes(exchange);
+            } catch (IllegalArgumentException e) {
+                response = Response.error(400, e.getMessage());
+            } catch (IllegalStateException e) {
+                response = Response.error(410, e.getMessage());
+            } catch (InterruptedException e) {
+                response = Response.error(503, "The server is stopping.");
+            }
+            send(exchange, response);
+        }
+    }
+
+    private Response route(HttpExchange exchange, String body) {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        if (path.equals(PATH) || path.equals(PATH + "/")) {
+            return switch (method) {
+                case "GET" -> list(exchange.getRequestURI().getRawQuery());
+                case "POST" -> add(body);
+                default -> Response.methodNotAllowed("GET, POST");
+            };
+        }
+        if (!path.startsWith(PATH + "/") || path.indexOf('/', PATH.length() + 1) >= 0) {
+            return Response.error(404, "No such resource: " + path);
+        }
+
+        long parsedId = StudentValidator.parseInt(path.substring(PATH.length() + 1));
+        if (parsedId == StudentValidator.NOT_A_NUMBER) {
+            return Response.error(400, StudentError.NON_NUMERIC_ID.message(0));
+        }
+        int studentId = (int) parsedId;
+        return switch (method) {
+            case "GET" -> repository.find(studentId)
+                    .map(student -> new Response(200, StudentJson.toJson(student)))
+                    .orElseGet(() -> Response.error(404, StudentError.NOT_FOUND.message(studentId)));
+            case "DELETE" -> result(repository.remove(studentId), studentId, 200);
+            default -> Response.methodNotAllowed("GET, DELETE");
+        };
+    }
+
+    private Response add(String body) {
+        Student student = StudentJson.parseStudent(body);
+        return result(repository.add(student), student.getStudentId(), 201);
+    }
+
+    private Response list(String query) {
+        Map<String, String> parameters = parseQuery(query);
+        String pageToken = parameters.get("pageToken");
+        if (pageToken != null && pageToken.isEmpty()) {
+            pageToken = null;
+        }
+        int pageSize = DEFAULT_PAGE_SIZE;
+        if (parameters.containsKey("pageSize")) {
+            long parsed = StudentValidator.parseInt(parameters.get("pageSize"));
+            if (parsed == StudentValidator.NOT_A_NUMBER || parsed <= 0 || parsed > MAX_PAGE_SIZE) {
+                return Response.error(400, "pageSize must be a number from 1 to " + MAX_PAGE_SIZE + ".");
+            }
+            pageSize = (int) parsed;
+        }
+        return new Response(200, StudentJson.toJson(repository.page(pageToken, pageSize)));
+    }
+
+    private Response changes(HttpExchange exchange) throws InterruptedException {
+        if (!exchange.getRequestURI().getPath().equals(CHANGES_PATH)) {
+            return Response.error(404, "No such resource: " + exchange.getRequestURI().getPath());
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+            return Response.methodNotAllowed("GET");
+        }
+        Map<String, String> parameters = parseQuery(exchange.getRequestURI().getRawQuery());
+        ChangeFeed feed = repository.changes();
+        long from = feed.nextSequence();
+        if (parameters.containsKey("from")) {
+            try {
+                from = Long.parseLong(parameters.get("from"));
+            } catch (NumberFormatException e) {
+                return Response.error(400, "from must be a sequence number.");
+            }
+        }
+        int max = DEFAULT_PAGE_SIZE;
+        if (parameters.containsKey("max")) {
+            long parsed = StudentValidator.parseInt(parameters.get("max"));
+            if (parsed == StudentValidator.NOT_A_NUMBER || parsed <= 0 || parsed > MAX_PAGE_SIZE) {
+                return Response.error(400, "max must be a number from 1 to " + MAX_PAGE_SIZE + ".");
+            }
+            max = (int) parsed;
+        }
+        long waitMillis = 0;
+        if (parameters.containsKey("waitMs")) {
+            waitMillis = StudentValidator.parseInt(parameters.get("waitMs"));
+            if (waitMillis == StudentValidator.NOT_A_NUMBER || waitMillis < 0 || waitMillis > MAX_WAIT_MILLIS) {
+                return Response.error(400, "waitMs must be a number from 0 to " + MAX_WAIT_MILLIS + ".");
+            }
+        }
+
+        ChangeFeed.Subscription subscription = feed.subscribe(from);
+        List<StudentEvent> events = subscription.poll(max, waitMillis, TimeUnit.MILLISECONDS);
+        return new Response(200, StudentJson.toJson(events, subscription.position()));
+    }
+
+    /**
+     * @brief Decodes the parameters of a query string; a parameter without a value maps to "".
+     */
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                String value = equals < 0 ? "" : URLDecoder.decode(parameter.substring(equals + 1),
+                        StandardCharsets.UTF_8);
+                parameters.put(name, value);
+            }
+        }
+        return parameters;
+    }
+
+    private static Response result(StudentResult result, int studentId, int successStatus) {
+        if (result.isSuccess()) {
+            return new Response(successStatus, StudentJson.toJson(result.getStudent()));
+        }
+        int status = switch (result.getError()) {
+            case NOT_FOUND -> 404;
+            case DUPLICATE_ID -> 409;
+            default -> 400;
+        };
+        return Response.error(status, result.getError().message(studentId));
+    }
+
+    private static void setDefaultProperty(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * @brief Reads a request body of at most MAX_BODY_BYTES.
+     *
+     * A body announced as larger is refused before any of it is read. A chunked
+     * body, whose length is not announced, is read up to one byte past the limit.
+     *
+     * @param exchange The request.
+     * @return The body, or null if it is larger than MAX_BODY_BYTES.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        String length = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (length != null && Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+            return null;
+        }
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            return body.length > MAX_BODY_BYTES ? null : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] body = response.body().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        if (response.allow() != null) {
+            exchange.getResponseHeaders().set("Allow", response.allow());
+        }
+        exchange.sendResponseHeaders(response.status(), body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @brief Status, JSON body and optional Allow header of a response.
+     */
+    private record Response(int status, String body, String allow) {
+
+        Response(int status, String body) {
+            this(status, body, null);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, StudentJson.errorJson(message));
+        }
+
+        static Response methodNotAllowed(String allow) {
+            return new Response(405, StudentJson.errorJson("Method not allowed."), allow);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * @file StudentImportReport.java
+ * @brief Summary of a bulk student import.
+ *
+ * The report counts imported and rejected rows and keeps the details of the first
+ * rejected rows, so that a load with many bad rows cannot exhaust memory.
+ */
+
+package com.example;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @class StudentImportReport
+ * @brief Counts and row errors collected while importing students.
+ */
+class StudentImportReport {
+
+    /**
+     * @class RowError
+     * @brief A rejected input row.
+     */
+    static final class RowError {
+        private final long lineNumber;    /**< 1-based line number of the row. */
+        private final int studentId;      /**< ID parsed from the row, or 0 if it had none. */
+        private final StudentError error; /**< Reason the row was rejected. */
+
+        /**
+         * @brief Constructor to initialize a row error.
+         *
+         * @param lineNumber The 1-based line number of the row.
+         * @param studentId The ID parsed from the row, or 0 if it had none.
+         * @param error The reason the row was rejected.
+         */
+        RowError(long lineNumber, int studentId, StudentError error) {
+            this.lineNumber = lineNumber;
+            this.studentId = studentId;
+            this.error = error;
+        }
+
+        /**
+         * @brief Getter for lineNumber.
+         *
+         * @return The 1-based line number of the row.
+         */
+        long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * @brief Getter for studentId.
+         *
+         * @return The ID parsed from the row, or 0 if it had none.
+         */
+        int getStudentId() {
+            return studentId;
+        }
+
+        /**
+         * @brief Getter for error.
+         *
+         * @return The reason the row was rejected.
+         */
+        StudentError getError() {
+            return error;
+        }
+
+        /**
+         * @brief Describes the error for display.
+         *
+         * @return The line number followed by the error message.
+         */
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + error.message(studentId);
+        }
+    }
+
+    private final int maxReportedErrors;          /**< Maximum number of row errors kept. */
+    private final List<RowError> rowErrors = new ArrayList<>(); /**< First rejected rows. */
+    private long importedCount;                   /**< Number of students added. */
+    private long rejectedCount;                   /**< Number of rows rejected. */
+
+    /**
+     * @brief Constructor to initialize an empty report.
+     *
+     * @param maxReportedErrors The maximum number of row errors to keep.
+     */
+    StudentImportReport(int maxReportedErrors) {
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * @brief Records a successfully imported row.
+     */
+    void recordImported() {
+        importedCount++;
+    }
+
+    /**
+     * @brief Records a rejected row.
+     *
+     * @param lineNumber The 1-based line number of the row.
+     * @param studentId The ID parsed from the row, or 0 if it had none.
+     * @param error The reason the row was rejected.
+     */
+    void recordRejected(long lineNumber, int studentId, StudentError error) {
+        rejectedCount++;
+        if (rowErrors.size() < maxReportedErrors) {
+            rowErrors.add(new RowError(lineNumber, studentId, error));
+        }
+    }
+
+    /**
+     * @brief Getter for the number of imported students.
+     *
+     * @return The number of students added to the repository.
+     */
+    long getImportedCount() {
+        return importedCount;
+    }
+
+    /**
+     * @brief Getter for the number of rejected rows.
+     *
+     * @return The number of rows that were not imported.
+     */
+    long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @brief Getter for the details of the rejected rows.
+     *
+     * @return The first rejected rows recorded, up to the configured maximum.
+     */
+    List<RowError> getRowErrors() {
+        return Collections.unmodifiableList(rowErrors);
+    }
+}
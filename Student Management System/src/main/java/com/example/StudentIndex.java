@@ -0,0 +1,506 @@
+/**
+ * @file StudentIndex.java
+ * @brief Primary-key index that maps student IDs to Student records.
+ *
+ * This class replaces linear list scans with an open-addressing hash table keyed
+ * by the primitive student ID. Lookup, insertion and removal run in constant
+ * expected time, while iteration still follows insertion order.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * @class StudentIndex
+ * @brief Insertion-ordered, open-addressing int-to-Student map.
+ *
+ * Students are appended to a dense entry array in insertion order. A separate
+ * power-of-two slot table, probed linearly, stores the position of each entry.
+ * Keys are kept in their own int array so that probing never has to dereference
+ * a Student object. Removed entries leave a hole in the entry array; the holes
+ * are compacted away once they make up half of it.
+ *
+ * Every entry also records an insertion sequence number. The numbers increase
+ * along the entry array and survive compaction, so a position in the insertion
+ * order can be found again by binary search, even after the student there left.
+ */
+class StudentIndex implements StudentStore {
+
+    private static final int MIN_CAPACITY = 16;      /**< Smallest slot table size. */
+    private static final int MAX_LOAD_PERCENT = 60;  /**< Slot table load that triggers growth. */
+    private static final int EMPTY = 0;              /**< Marker for an unused slot. */
+
+    private int[] slots;        /**< Slot table holding entry position + 1, or EMPTY. */
+    private int shift;          /**< Right shift that maps a hash onto the slot table. */
+    private int growThreshold;  /**< Live entry count at which the slot table doubles. */
+
+    private int[] keys;         /**< Student ID of each entry, by entry position. */
+    private Student[] entries;  /**< Students in insertion order; null marks a removed entry. */
+    private long[] sequences;   /**< Insertion sequence number of each entry, by entry position. */
+    private long nextSequence;  /**< Sequence number of the next added entry. */
+    private int end;            /**< Number of used entry positions, including holes. */
+    private int size;           /**< Number of live entries. */
+    private int modCount;       /**< Structural modification counter for fail-fast iteration. */
+
+    /**
+     * @brief Constructs an empty index.
+     */
+    public StudentIndex() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @brief Constructs an empty index sized for the expected number of students.
+     *
+     * @param expectedSize The number of students the index should hold without resizing.
+     */
+    public StudentIndex(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        allocateSlots(capacity);
+        keys = new int[Math.max(expectedSize, MIN_CAPACITY)];
+        entries = new Student[keys.length];
+        sequences = new long[keys.length];
+    }
+
+    /**
+     * @brief Returns the number of students in the index.
+     *
+     * @return The number of live entries.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @brief Checks whether the index holds no students.
+     *
+     * @return True if the index is empty, false otherwise.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @brief Checks whether a student with the given ID is present.
+     *
+     * @param studentId The ID to look up.
+     * @return True if a student with the ID exists, false otherwise.
+     */
+    @Override
+    public boolean contains(int studentId) {
+        return findSlot(studentId) >= 0;
+    }
+
+    /**
+     * @brief Looks up a student by ID.
+     *
+     * @param studentId The ID to look up.
+     * @return The student with the ID, or null if there is none.
+     */
+    @Override
+    public Student get(int studentId) {
+        int slot = findSlot(studentId);
+        return slot < 0 ? null : entries[slots[slot] - 1];
+    }
+
+    /**
+     * @brief Adds a student unless one with the same ID already exists.
+     *
+     * The student is indexed under the ID it carries at the time of the call.
+     *
+     * @param student The student to add.
+     * @return True if the student was added, false if the ID was already taken.
+     */
+    @Override
+    public boolean add(Student student) {
+        int studentId = student.getStudentId();
+        int slot = slotFor(studentId);
+        int position;
+
+        // Probe until we find the key or an empty slot to claim
+        while ((position = slots[slot]) != EMPTY) {
+            if (keys[position - 1] == studentId) {
+                return false;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+
+        if (end == entries.length && makeRoomForEntry()) {
+            slot = emptySlotFor(studentId); // Compaction rebuilt the slot table
+        }
+        keys[end] = studentId;
+        entries[end] = student;
+        sequences[end] = nextSequence++;
+        end++;
+        size++;
+        modCount++;
+
+        if (size > growThreshold) {
+            // Rebuild the table at double size; this also places the new entry
+            rehash(slots.length << 1);
+        } else {
+            slots[slot] = end;
+        }
+        return true;
+    }
+
+    /**
+     * @brief Removes the student with the given ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return The removed student, or null if no student had the ID.
+     */
+    @Override
+    public Student remove(int studentId) {
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+
+        int position = slots[slot] - 1;
+        Student removed = entries[position];
+        entries[position] = null;
+        size--;
+        modCount++;
+        deleteSlot(slot);
+
+        if (position == end - 1) {
+            end--; // Removing the newest entry leaves no hole behind
+        } else if (end - size > (end >>> 1) && end > MIN_CAPACITY) {
+            compact();
+        }
+        return removed;
+    }
+
+    /**
+     * @brief Replaces a student by another in the same entry.
+     *
+     * The entry keeps its position and sequence number. A new ID only moves the
+     * entry's slot in the slot table.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student taking its place, indexed under the ID it carries.
+     * @return The replaced student, or null if no student had the ID.
+     * @throws IllegalArgumentException If the replacement's ID belongs to another student.
+     */
+    @Override
+    public Student replace(int studentId, Student replacement) {
+        int slot = findSlot(studentId);
+        if (slot < 0) {
+            return null;
+        }
+        int newId = replacement.getStudentId();
+        if (newId != studentId && findSlot(newId) >= 0) {
+            throw new IllegalArgumentException("Student ID is already taken: " + newId);
+        }
+
+        int position = slots[slot] - 1;
+        Student replaced = entries[position];
+        entries[position] = replacement;
+        if (newId != studentId) {
+            deleteSlot(slot);
+            keys[position] = newId;
+            slots[emptySlotFor(newId)] = position + 1;
+        }
+        return replaced;
+    }
+
+    /**
+     * @brief Grows the slot table and entry array to hold the given number of students.
+     *
+     * @param expectedSize The total number of students the index is about to hold.
+     */
+    @Override
+    public void ensureCapacity(int expectedSize) {
+        if (expectedSize > entries.length) {
+            keys = Arrays.copyOf(keys, expectedSize);
+            entries = Arrays.copyOf(entries, expectedSize);
+            sequences = Arrays.copyOf(sequences, expectedSize);
+        }
+        if (expectedSize > growThreshold) {
+            rehash(tableSizeFor(expectedSize));
+        }
+    }
+
+    /**
+     * @brief Removes all students from the index.
+     */
+    public void clear() {
+        Arrays.fill(slots, EMPTY);
+        Arrays.fill(entries, 0, end, null);
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @brief Returns the fraction of slot table entries in use.
+     *
+     * @return The current load factor of the slot table.
+     */
+    @Override
+    public double loadFactor() {
+        return (double) size / slots.length;
+    }
+
+    /**
+     * @brief Copies the students that follow a position in insertion order.
+     *
+     * The start is found by binary search over the sequence numbers, so a page
+     * costs O(log n) plus its own length.
+     *
+     * @param afterSequence The sequence number to continue after, or -1 to start at the beginning.
+     * @param students The array receiving the students.
+     * @param studentSequences The array receiving each student's sequence number.
+     * @return The number of students copied.
+     */
+    @Override
+    public int page(long afterSequence, Student[] students, long[] studentSequences) {
+        int position = Arrays.binarySearch(sequences, 0, end, afterSequence);
+        position = position >= 0 ? position + 1 : -position - 1;
+
+        int count = 0;
+        for (; position < end && count < students.length; position++) {
+            if (entries[position] != null) {
+                students[count] = entries[position];
+                studentSequences[count] = sequences[position];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Performs an action on every student in insertion order.
+     *
+     * @param action The action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super Student> action) {
+        int expectedModCount = modCount;
+        Student[] snapshot = entries;
+        for (int i = 0, limit = end; i < limit; i++) {
+            Student student = snapshot[i];
+            if (student != null) {
+                action.accept(student);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    /**
+     * @brief Returns an iterator over the students in insertion order.
+     *
+     * @return A fail-fast iterator over the index.
+     */
+    @Override
+    public Iterator<Student> iterator() {
+        return new Iterator<>() {
+            private final int expectedModCount = modCount;
+            private int cursor = advance(0);
+
+            private int advance(int from) {
+                while (from < end && entries[from] == null) {
+                    from++;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cursor < end;
+            }
+
+            @Override
+            public Student next() {
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+                if (cursor >= end) {
+                    throw new NoSuchElementException();
+                }
+                Student student = entries[cursor];
+                cursor = advance(cursor + 1);
+                return student;
+            }
+        };
+    }
+
+    /**
+     * @brief Returns a spliterator over the students in insertion order.
+     *
+     * The spliterator splits the entry array in halves, so parallel streams and
+     * RosterAnalytics give each thread its own slice of the array.
+     *
+     * @return A sized, ordered, fail-fast spliterator over the index.
+     */
+    @Override
+    public Spliterator<Student> spliterator() {
+        return new PositionSpliterator(end, size, position -> entries[position], () -> modCount);
+    }
+
+    /**
+     * @brief Finds the slot holding the given key.
+     *
+     * @param studentId The key to find.
+     * @return The slot index, or -1 if the key is absent.
+     */
+    private int findSlot(int studentId) {
+        int mask = slots.length - 1;
+        int slot = slotFor(studentId);
+        int position;
+        while ((position = slots[slot]) != EMPTY) {
+            if (keys[position - 1] == studentId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * @brief Computes the home slot of a key using Fibonacci hashing.
+     *
+     * Sequential IDs are common, so the multiplicative hash spreads them across
+     * the high bits before the shift selects the slot.
+     *
+     * @param studentId The key to hash.
+     * @return The home slot of the key.
+     */
+    private int slotFor(int studentId) {
+        return (studentId * 0x9E3779B9) >>> shift;
+    }
+
+    /**
+     * @brief Empties a slot while keeping every probe chain unbroken.
+     *
+     * Linear probing allows deletion without tombstones: entries further along the
+     * chain are shifted back into the hole whenever their home slot permits it.
+     *
+     * @param hole The slot to empty.
+     */
+    private void deleteSlot(int hole) {
+        int mask = slots.length - 1;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int position = slots[slot];
+            if (position == EMPTY) {
+                break;
+            }
+            int home = slotFor(keys[position - 1]);
+            // Move the entry back if the hole lies between its home slot and its current slot
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                slots[hole] = position;
+                hole = slot;
+            }
+        }
+        slots[hole] = EMPTY;
+    }
+
+    /**
+     * @brief Finds the first empty slot on the probe chain of a key.
+     *
+     * @param studentId A key known to be absent from the table.
+     * @return The slot where the key can be placed.
+     */
+    private int emptySlotFor(int studentId) {
+        int mask = slots.length - 1;
+        int slot = slotFor(studentId);
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @brief Frees space at the end of the entry array for one more entry.
+     *
+     * Compacts away holes if they make up a large share of the array, and grows
+     * the array otherwise.
+     *
+     * @return True if the slot table was rebuilt by a compaction.
+     */
+    private boolean makeRoomForEntry() {
+        boolean compacted = false;
+        if (end - size >= (end >>> 2)) {
+            compact();
+            compacted = true;
+        }
+        if (end == entries.length) {
+            int newLength = entries.length + (entries.length >>> 1) + 1;
+            keys = Arrays.copyOf(keys, newLength);
+            entries = Arrays.copyOf(entries, newLength);
+            sequences = Arrays.copyOf(sequences, newLength);
+        }
+        return compacted;
+    }
+
+    /**
+     * @brief Moves live entries down over the holes, keeping their order.
+     */
+    private void compact() {
+        int target = 0;
+        for (int i = 0; i < end; i++) {
+            if (entries[i] != null) {
+                keys[target] = keys[i];
+                entries[target] = entries[i];
+                sequences[target] = sequences[i];
+                target++;
+            }
+        }
+        Arrays.fill(entries, target, end, null);
+        end = target;
+        rehash(slots.length);
+    }
+
+    /**
+     * @brief Rebuilds the slot table from the entry array.
+     *
+     * @param capacity The new slot table size, a power of two.
+     */
+    private void rehash(int capacity) {
+        allocateSlots(capacity);
+        for (int i = 0; i < end; i++) {
+            if (entries[i] != null) {
+                slots[emptySlotFor(keys[i])] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * @brief Allocates an empty slot table and updates the derived fields.
+     *
+     * @param capacity The slot table size, a power of two.
+     */
+    private void allocateSlots(int capacity) {
+        slots = new int[capacity];
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        growThreshold = (int) ((long) capacity * MAX_LOAD_PERCENT / 100);
+    }
+
+    /**
+     * @brief Computes the slot table size needed for the expected entry count.
+     *
+     * @param expectedSize The number of entries to accommodate.
+     * @return A power of two that keeps the load below the growth threshold.
+     */
+    private static int tableSizeFor(int expectedSize) {
+        long needed = (long) Math.max(expectedSize, 1) * 100 / MAX_LOAD_PERCENT + 1;
+        int capacity = MIN_CAPACITY;
+        while (capacity < needed && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,301 @@
+/**
+ * @file StudentJson.java
+ * @brief JSON encoding of students for the HTTP API.
+ *
+ * The API only exchanges flat objects, so this class reads and writes them
+ * directly instead of depending on a JSON library.
+ */
+
+package com.example;
+
+import java.util.List;
+
+/**
+ * @class StudentJson
+ * @brief Writes students, pages, change events and errors as JSON and reads a student from JSON.
+ *
+ * A student is encoded as {"id":101,"name":"Ali","age":20}.
+ */
+final class StudentJson {
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private StudentJson() {
+    }
+
+    /**
+     * @brief Encodes a student.
+     *
+     * @param student The student to encode.
+     * @return The JSON object.
+     */
+    static String toJson(Student student) {
+        StringBuilder json = new StringBuilder(48);
+        appendStudent(json, student);
+        return json.toString();
+    }
+
+    /**
+     * @brief Encodes a page of students and the token of the following page.
+     *
+     * @param page The page to encode.
+     * @return The JSON object {"students":[...],"nextPageToken":"..." or null}.
+     */
+    static String toJson(StudentPage page) {
+        List<Student> students = page.getStudents();
+        StringBuilder json = new StringBuilder(32 + students.size() * 40);
+        json.append("{\"students\":[");
+        for (int i = 0; i < students.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendStudent(json, students.get(i));
+        }
+        json.append("],\"nextPageToken\":");
+        if (page.hasNextPage()) {
+            appendString(json, page.getNextPageToken());
+        } else {
+            json.append("null");
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * @brief Encodes a batch of change events and the sequence number that follows it.
+     *
+     * @param events The events to encode.
+     * @param nextSequence The sequence number of the event after the batch.
+     * @return The JSON object {"events":[{"sequence":0,"type":"ADDED","before":null,"after":{...}},...],
+     *         "nextSequence":1}.
+     */
+    static String toJson(List<StudentEvent> events, long nextSequence) {
+        StringBuilder json = new StringBuilder(32 + events.size() * 112);
+        json.append("{\"events\":[");
+        for (int i = 0; i < events.size(); i++) {
+            StudentEvent event = events.get(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"sequence\":").append(event.getSequence())
+                    .append(",\"type\":\"").append(event.getType()).append("\",\"before\":");
+            appendNullableStudent(json, event.getBefore());
+            json.append(",\"after\":");
+            appendNullableStudent(json, event.getAfter());
+            json.append('}');
+        }
+        return json.append("],\"nextSequence\":").append(nextSequence).append('}').toString();
+    }
+
+    /**
+     * @brief Encodes an error message.
+     *
+     * @param message The message to encode.
+     * @return The JSON object {"error":"..."}.
+     */
+    static String errorJson(String message) {
+        StringBuilder json = new StringBuilder(message.length() + 16);
+        json.append("{\"error\":");
+        appendString(json, message);
+        return json.append('}').toString();
+    }
+
+    /**
+     * @brief Decodes a student from a JSON object with id, name and age members.
+     *
+     * Other members are ignored as long as their values are strings, numbers,
+     * booleans or null. The fields are not validated beyond their JSON types.
+     *
+     * @param json The JSON text.
+     * @return The decoded student.
+     * @throws IllegalArgumentException If the text is not such an object, or a member
+     *         is missing or of the wrong type.
+     */
+    static Student parseStudent(String json) {
+        Parser parser = new Parser(json);
+        Integer studentId = null;
+        String studentName = null;
+        Integer studentAge = null;
+
+        parser.expect('{');
+        if (!parser.consume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                switch (key) {
+                    case "id" -> studentId = parser.readInt(StudentError.NON_NUMERIC_ID);
+                    case "name" -> studentName = parser.readString();
+                    case "age" -> studentAge = parser.readInt(StudentError.NON_NUMERIC_AGE);
+                    default -> parser.skipValue();
+                }
+            } while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+
+        if (studentId == null || studentName == null || studentAge == null) {
+            throw new IllegalArgumentException("A student needs an id, a name and an age.");
+        }
+        return new Student(studentId, studentName, studentAge);
+    }
+
+    private static void appendStudent(StringBuilder json, Student student) {
+        json.append("{\"id\":").append(student.getStudentId()).append(",\"name\":");
+        appendString(json, student.getStudentName());
+        json.append(",\"age\":").append(student.getStudentAge()).append('}');
+    }
+
+    private static void appendNullableStudent(StringBuilder json, Student student) {
+        if (student == null) {
+            json.append("null");
+        } else {
+            appendStudent(json, student);
+        }
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * @class Parser
+     * @brief Reads JSON tokens from a string, skipping whitespace between them.
+     */
+    private static final class Parser {
+
+        private final String text; /**< The JSON text. */
+        private int position;      /**< Index of the next character to read. */
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        void expect(char c) {
+            if (!consume(c)) {
+                throw malformed("expected '" + c + "'");
+            }
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position < text.length()) {
+                throw malformed("unexpected text after the object");
+            }
+        }
+
+        String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw malformed("truncated \\u escape");
+                        }
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(text.charAt(position++), 16);
+                            if (digit < 0) {
+                                throw malformed("invalid \\u escape");
+                            }
+                            code = code * 16 + digit;
+                        }
+                        value.append((char) code);
+                    }
+                    default -> throw malformed("invalid escape \\" + escaped);
+                }
+            }
+            throw malformed("unterminated string");
+        }
+
+        int readInt(StudentError error) {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && isNumberCharacter(text.charAt(position))) {
+                position++;
+            }
+            long value = StudentValidator.parseInt(text.subSequence(start, position));
+            if (value == StudentValidator.NOT_A_NUMBER) {
+                throw new IllegalArgumentException(error.message(0));
+            }
+            return (int) value;
+        }
+
+        void skipValue() {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == '"') {
+                readString();
+                return;
+            }
+            int start = position;
+            while (position < text.length() && (isNumberCharacter(text.charAt(position))
+                    || Character.isLetter(text.charAt(position)))) {
+                position++;
+            }
+            String literal = text.substring(start, position);
+            if (literal.isEmpty() || (Character.isLetter(literal.charAt(0))
+                    && !literal.equals("true") && !literal.equals("false") && !literal.equals("null"))) {
+                throw malformed("unsupported value");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private static boolean isNumberCharacter(char c) {
+            return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+        }
+
+        private IllegalArgumentException malformed(String reason) {
+            return new IllegalArgumentException("Malformed JSON at offset " + position + ": " + reason + ".");
+        }
+    }
+}
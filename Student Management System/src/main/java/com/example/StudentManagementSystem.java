@@ -4,39 +4,372 @@
  * 
  * This class initializes the application, sets up required resources, and starts 
  * the menu-driven system to manage students.
+ *
+ * Usage: StudentManagementSystem [--data-dir <dir>] [--fsync always|interval|never]
+ *                                [--layout objects|columnar|mapped] [--serve <port> | --commands]
+ *                                [--cache <size>] [--cache-policy lru|tinylfu]
+ *                                [--shards <n> | --shards <host:port>,... | --shard-server <port>]
+ *                                [--record <file>]
+ *
+ * Without --data-dir the roster lives in memory only. With it, the roster is kept
+ * durable in the given directory and reloaded on the next start. --layout selects
+ * how the roster is held: as Student objects on the heap (the default), in compact
+ * columns on the heap for very large rosters, or in memory-mapped files for rosters
+ * larger than the heap. The mapped layout needs --data-dir, where it keeps its files.
+ * With --serve, the roster is served over HTTP/JSON on the given port instead of
+ * the console menu, until the process is stopped. With --commands, commands such as
+ * "ADD 101 Ali 20" are read from standard input and their results written to
+ * standard output, as described in StudentCommandRunner, until the input ends.
+ * --cache keeps up to the given number of students in a cache in front of the
+ * store, which pays off for the mapped layout when a few students get most of the
+ * lookups; --cache-policy chooses how the cache evicts, by default W-TinyLFU.
+ *
+ * --shards partitions the roster by student ID, as described in
+ * ShardedStudentStore: a number splits it over that many stores in this process,
+ * and a list of addresses routes it to shard processes started with
+ * --shard-server, which serve their store on the given port instead of running
+ * a menu. A shard process takes --data-dir, --layout and --cache like any other;
+ * the router keeps nothing on disk, so it takes none of them but --cache.
+ *
+ * --record writes every add, update, remove and find of the session to the given
+ * file as a command script, as described in CommandRecorder, which --commands can
+ * run again and the WorkloadGenerator benchmark can replay at the recorded pace.
+ *
+ * In every mode, the repository's operation statistics are published over JMX
+ * as com.example:type=StudentRepository.
  */
 
 package com.example;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import javax.management.JMException;
 
 /**
  * @class StudentManagementSystem
  * @brief Entry point for the Student Management System application.
  * 
- * This class contains the main method to initialize the application, create a list 
+ * This class contains the main method to initialize the application, create a repository 
  * to store student data, and start the menu-driven system using the MenuHandler class.
  */
 public class StudentManagementSystem {
 
+    private static final String USAGE =
+            "Usage: StudentManagementSystem [--data-dir <dir>] [--fsync always|interval|never]"
+                    + " [--layout objects|columnar|mapped] [--serve <port> | --commands]"
+                    + " [--cache <size>] [--cache-policy lru|tinylfu]"
+                    + " [--shards <n> | --shards <host:port>,... | --shard-server <port>]"
+                    + " [--record <file>]";
+
     /**
      * @brief Main method to start the application.
      * 
      * The main method sets up the Scanner for user input and initializes 
-     * an ArrayList to store student information. It then calls the MenuHandler 
+     * a StudentRepository to store student information. It then calls the MenuHandler 
      * class to start the menu-driven system.
      * 
-     * @param args Command-line arguments (not used in this application).
+     * @param args Command-line arguments; see the usage in the file description.
+     * @throws IOException If the data directory cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        Path dataDirectory = null;
+        FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        String layout = "objects";
+        int servePort = -1;
+        boolean commandMode = false;
+        int cacheSize = 0;
+        CachePolicy cachePolicy = CachePolicy.TINY_LFU;
+        String shards = null;
+        int shardPort = -1;
+        Path recordFile = null;
+
+        // Parse the command-line options
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--data-dir" -> dataDirectory = Path.of(optionValue(args, ++i));
+                case "--fsync" -> {
+                    try {
+                        fsyncPolicy = FsyncPolicy.valueOf(optionValue(args, ++i).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        exitWithUsage("Unknown fsync policy: " + args[i]);
+                    }
+                }
+                case "--layout" -> {
+                    layout = optionValue(args, ++i);
+                    if (!layout.equals("objects") && !layout.equals("columnar") && !layout.equals("mapped")) {
+                        exitWithUsage("Unknown layout: " + layout);
+                    }
+                }
+                case "--serve" -> {
+                    long port = StudentValidator.parseInt(optionValue(args, ++i));
+                    if (port < 0 || port > 65535) {
+                        exitWithUsage("Invalid port: " + args[i]);
+                    }
+                    servePort = (int) port;
+                }
+                case "--commands" -> commandMode = true;
+                case "--cache" -> {
+                    long size = StudentValidator.parseInt(optionValue(args, ++i));
+                    if (size <= 0) {
+                        exitWithUsage("Invalid cache size: " + args[i]);
+                    }
+                    cacheSize = (int) size;
+                }
+                case "--cache-policy" -> {
+                    switch (optionValue(args, ++i)) {
+                        case "lru" -> cachePolicy = CachePolicy.LRU;
+                        case "tinylfu" -> cachePolicy = CachePolicy.TINY_LFU;
+                        default -> exitWithUsage("Unknown cache policy: " + args[i]);
+                    }
+                }
+                case "--shards" -> shards = optionValue(args, ++i);
+                case "--shard-server" -> {
+                    long port = StudentValidator.parseInt(optionValue(args, ++i));
+                    if (port < 0 || port > 65535) {
+                        exitWithUsage("Invalid port: " + args[i]);
+                    }
+                    shardPort = (int) port;
+                }
+                case "--record" -> recordFile = Path.of(optionValue(args, ++i));
+                default -> exitWithUsage("Unknown option: " + args[i]);
+            }
+        }
+        if (layout.equals("mapped") && dataDirectory == null) {
+            exitWithUsage("The mapped layout needs --data-dir");
+        }
+        if (commandMode && servePort >= 0) {
+            exitWithUsage("--serve and --commands cannot be combined");
+        }
+        if (shardPort >= 0 && (servePort >= 0 || commandMode || shards != null)) {
+            exitWithUsage("--shard-server cannot be combined with --serve, --commands or --shards");
+        }
+        if (shardPort >= 0 && recordFile != null) {
+            exitWithUsage("--shard-server records nothing; record on the router instead");
+        }
+        if (shards != null && (dataDirectory != null || layout.equals("mapped"))) {
+            exitWithUsage("--shards keeps the roster in memory; give each shard process its own --data-dir");
+        }
+        // Keep standard output for the command results in command mode
+        PrintStream status = commandMode ? System.err : System.out;
+        // A server without a data directory uses the concurrent store so requests run in parallel
+        boolean concurrent = (servePort >= 0 || shardPort >= 0) && dataDirectory == null;
+
+        if (shards != null) {
+            // Repository partitioned over shards in this process or in shard processes
+            try (ShardedStudentStore store = shardedStore(shards, layout, concurrent)) {
+                status.println("Routing " + store.size() + " students over " + store.shardCount() + " shards.");
+                start(cached(store, cacheSize, cachePolicy), servePort, commandMode, shardPort, recordFile);
+            }
+            return;
+        }
+
+        if (layout.equals("mapped")) {
+            // Repository backed by memory-mapped files in the data directory
+            try (MappedStudentStore store = MappedStudentStore.open(dataDirectory, fsyncPolicy)) {
+                status.println("Opened " + store.size() + " students in " + dataDirectory + ".");
+                start(cached(store, cacheSize, cachePolicy), servePort, commandMode, shardPort, recordFile);
+            }
+            return;
+        }
+
+        // Store to hold student information in memory, keyed by student ID
+        StudentStore memory = memoryStore(layout, concurrent);
+
+        if (dataDirectory == null) {
+            start(cached(memory, cacheSize, cachePolicy), servePort, commandMode, shardPort, recordFile);
+            return;
+        }
+
+        // Repository backed by the write-ahead log and snapshots in the data directory
+        try (DurableStudentStore store = DurableStudentStore.open(dataDirectory, fsyncPolicy, memory)) {
+            status.println("Loaded " + store.size() + " students from " + dataDirectory + ".");
+            start(cached(store, cacheSize, cachePolicy), servePort, commandMode, shardPort, recordFile);
+        }
+    }
+
+    /**
+     * @brief Creates an empty in-memory store of a layout.
+     *
+     * @param layout The layout, "objects" or "columnar".
+     * @param concurrent Whether an objects store must be thread-safe.
+     * @return The store.
      */
-    public static void main(String[] args) {
-        // Create a Scanner for user input
-        Scanner inputScanner = new Scanner(System.in);
+    private static StudentStore memoryStore(String layout, boolean concurrent) {
+        if (layout.equals("columnar")) {
+            return new ColumnarStudentStore();
+        }
+        return concurrent ? new ConcurrentStudentStore() : new StudentIndex();
+    }
 
-        // Static list to store student information
-        ArrayList<Student> studentList = new ArrayList<>();
+    /**
+     * @brief Creates the sharded store described by the --shards option.
+     *
+     * @param shards A shard count, or a comma-separated list of host:port shard addresses.
+     * @param layout The layout of shards in this process.
+     * @param concurrent Whether shards in this process must be thread-safe.
+     * @return The sharded store.
+     * @throws IOException If a shard process cannot be reached.
+     */
+    private static ShardedStudentStore shardedStore(String shards, String layout, boolean concurrent)
+            throws IOException {
+        long shardCount = StudentValidator.parseInt(shards);
+        if (shardCount != StudentValidator.NOT_A_NUMBER) {
+            if (shardCount < 1 || shardCount > 1 << 15) {
+                exitWithUsage("Invalid shard count: " + shards);
+            }
+            return ShardedStudentStore.inProcess((int) shardCount, () -> memoryStore(layout, concurrent));
+        }
+
+        List<String> names = new ArrayList<>();
+        List<RemoteStudentStore> remotes = new ArrayList<>();
+        for (String address : shards.split(",")) {
+            int colon = address.lastIndexOf(':');
+            long port = colon < 0 ? -1 : StudentValidator.parseInt(address.substring(colon + 1));
+            if (port < 1 || port > 65535) {
+                exitWithUsage("Invalid shard address: " + address);
+            }
+            // The address names the shard, so the ring stays the same across restarts
+            names.add(address);
+            remotes.add(RemoteStudentStore.connect(new InetSocketAddress(address.substring(0, colon), (int) port)));
+        }
+        return new ShardedStudentStore(names, remotes);
+    }
+
+    /**
+     * @brief Serves a store as a shard if a shard port is given, or runs a repository over it.
+     *
+     * @param store The store to serve or to run the repository over.
+     * @param servePort The HTTP port to serve on, or -1.
+     * @param commandMode Whether to run the commands on standard input instead of the menu.
+     * @param shardPort The port to serve the store as a shard on, or -1.
+     * @param recordFile The file to record the session's commands in, or null.
+     * @throws IOException If a port cannot be bound, standard input or output fails,
+     *                     or the recording cannot be written.
+     */
+    private static void start(StudentStore store, int servePort, boolean commandMode, int shardPort,
+            Path recordFile) throws IOException {
+        if (shardPort < 0) {
+            StudentRepository repository = new StudentRepository(store);
+            if (recordFile == null) {
+                run(repository, servePort, commandMode);
+                return;
+            }
+            try (CommandRecorder recorder = CommandRecorder.open(recordFile)) {
+                repository.recordTo(recorder);
+                run(repository, servePort, commandMode);
+                repository.recordTo(null);
+            }
+            return;
+        }
+        ShardServer server = ShardServer.start(store, new InetSocketAddress(shardPort));
+        System.out.println("Serving a shard of " + store.size() + " students on port " + server.port());
+        awaitShutdown(server::stop, server::awaitStop);
+    }
+
+    /**
+     * @brief Runs the console menu, the command mode or, if a port is given, the HTTP server.
+     *
+     * @param repository The repository to manage.
+     * @param servePort The port to serve on, or -1 for the console menu or command mode.
+     * @param commandMode Whether to run the commands on standard input instead of the menu.
+     * @throws IOException If the server cannot bind the port, or standard input or output fails.
+     */
+    private static void run(StudentRepository repository, int servePort, boolean commandMode) throws IOException {
+        try {
+            repository.metrics().registerMBean();
+        } catch (JMException e) {
+            System.err.println("Could not publish the statistics over JMX: " + e.getMessage());
+        }
 
-        // Start the menu-driven application
-        MenuHandler.start(studentList, inputScanner);
+        if (commandMode) {
+            new StudentCommandRunner(repository).run(System.in, System.out);
+            return;
+        }
+        if (servePort < 0) {
+            MenuHandler.start(repository, new Scanner(System.in));
+            return;
+        }
+
+        StudentHttpServer server = StudentHttpServer.start(repository, new InetSocketAddress(servePort));
+        System.out.println("Serving " + repository.size() + " students on http://localhost:" + server.port()
+                + "/students");
+
+        awaitShutdown(server::stop, server::awaitStop);
+    }
+
+    /**
+     * @class StopSignal
+     * @brief Blocking wait for a server to stop.
+     */
+    private interface StopSignal {
+        void await() throws InterruptedException;
+    }
+
+    /**
+     * @brief Blocks until a server stops, stopping it on Ctrl+C.
+     *
+     * @param stop Stops the server.
+     * @param stopped Returns once the server has stopped.
+     */
+    private static void awaitShutdown(Runnable stop, StopSignal stopped) {
+        // On Ctrl+C, stop the server and keep the JVM alive until main has closed the store
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stop.run();
+            try {
+                mainThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop.run();
+        }
+    }
+
+    /**
+     * @brief Puts a cache in front of a store if a cache size was given.
+     *
+     * @param store The store to cache.
+     * @param cacheSize The most students to cache, or 0 for no cache.
+     * @param cachePolicy How the cache evicts students.
+     * @return The caching store, or the store itself if cacheSize is 0.
+     */
+    private static StudentStore cached(StudentStore store, int cacheSize, CachePolicy cachePolicy) {
+        return cacheSize == 0 ? store : new CachingStudentStore(store, cacheSize, cachePolicy);
+    }
+
+    /**
+     * @brief Returns the value following an option, or exits if it is missing.
+     *
+     * @param args The command-line arguments.
+     * @param index The index of the value.
+     * @return The option value.
+     */
+    private static String optionValue(String[] args, int index) {
+        if (index >= args.length) {
+            exitWithUsage("Missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * @brief Prints an error and the usage, then exits.
+     *
+     * @param message The error to print.
+     */
+    private static void exitWithUsage(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
     }
 }
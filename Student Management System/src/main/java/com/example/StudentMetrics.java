@@ -0,0 +1,244 @@
+/**
+ * @file StudentMetrics.java
+ * @brief Always-on counters and latency histograms for repository operations.
+ *
+ * Every StudentRepository records each of its operations here, so the roster's
+ * load and latency can be watched in production, through JMX or the stats menu
+ * and command, without attaching a profiler.
+ */
+
+package com.example;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * @class StudentMetrics
+ * @brief Records the count, failures and latency of each kind of repository operation.
+ *
+ * Every operation is counted exactly, but only a random one in SAMPLE_INTERVAL
+ * operations is timed into the latency histogram. Reading the clock waits for
+ * the instructions before it to finish, so timing every lookup would keep the
+ * processor from overlapping the cache misses of consecutive lookups and make a
+ * lookup in a large roster several times slower. Atomic increments have the same
+ * effect, so over a store that is not thread-safe, where its callers already
+ * take turns, the counters are plain longs, published to readers such as JMX
+ * with opaque writes. Over a thread-safe store they are LongAdders, which
+ * threads update without locks and without losing increments, each mostly in a
+ * cell of its own. The roster size, index load factor and cache hit rate are
+ * read from the store when they are asked for.
+ */
+final class StudentMetrics implements StudentMetricsMXBean {
+
+    static final String OBJECT_NAME = "com.example:type=StudentRepository"; /**< JMX name of the metrics. */
+    static final int SAMPLE_INTERVAL = 256; /**< One in this many operations is timed, at random; a power of two. */
+
+    /**
+     * @enum Operation
+     * @brief The kinds of repository operations that are measured.
+     */
+    enum Operation {
+        ADD, REMOVE, UPDATE, FIND, QUERY, PAGE
+    }
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final long NOT_TIMED = Long.MIN_VALUE; /**< start() value of an operation that is not timed. */
+    private static final VarHandle COUNT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final StudentStore store;           /**< Store whose size and load factor are reported. */
+    private final LatencyHistogram[] latencies; /**< Sampled latency histogram per operation. */
+    private final long[] counts;                /**< Count and failure count per operation, or null. */
+    private final LongAdder[] adders;           /**< The same counters over a thread-safe store, or null. */
+
+    /**
+     * @brief Constructor to initialize empty metrics for a store.
+     *
+     * @param store The store whose size and index load factor are reported.
+     */
+    StudentMetrics(StudentStore store) {
+        this.store = store;
+        this.latencies = new LatencyHistogram[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        if (store.isThreadSafe()) {
+            this.counts = null;
+            this.adders = new LongAdder[OPERATIONS.length * 2];
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+        } else {
+            this.counts = new long[OPERATIONS.length * 2];
+            this.adders = null;
+        }
+    }
+
+    /**
+     * @brief Starts an operation, deciding whether it is timed.
+     *
+     * @param operation The kind of operation.
+     * @return The value to pass to record() when the operation has finished.
+     */
+    long start(Operation operation) {
+        return (ThreadLocalRandom.current().nextInt() & (SAMPLE_INTERVAL - 1)) == 0 ? System.nanoTime() : NOT_TIMED;
+    }
+
+    /**
+     * @brief Records one finished operation.
+     *
+     * @param operation The kind of operation.
+     * @param start The value start() returned when the operation started.
+     * @param success Whether the operation succeeded.
+     */
+    void record(Operation operation, long start, boolean success) {
+        if (start != NOT_TIMED) {
+            latencies[operation.ordinal()].record(System.nanoTime() - start);
+        }
+        int count = operation.ordinal() * 2;
+        if (adders != null) {
+            adders[count].increment();
+            if (!success) {
+                adders[count + 1].increment();
+            }
+        } else {
+            COUNT.setOpaque(counts, count, (long) COUNT.getOpaque(counts, count) + 1);
+            if (!success) {
+                COUNT.setOpaque(counts, count + 1, (long) COUNT.getOpaque(counts, count + 1) + 1);
+            }
+        }
+    }
+
+    /**
+     * @brief Summarizes the counters and sampled latencies of one kind of operation.
+     *
+     * @param operation The kind of operation.
+     * @return The summary.
+     */
+    OperationStats stats(Operation operation) {
+        LatencyHistogram.Snapshot snapshot = latencies[operation.ordinal()].snapshot();
+        int count = operation.ordinal() * 2;
+        return new OperationStats(sum(count), sum(count + 1),
+                snapshot.valueAtPercentile(50) / 1000.0, snapshot.valueAtPercentile(99) / 1000.0,
+                snapshot.valueAtPercentile(99.9) / 1000.0, snapshot.max() / 1000.0);
+    }
+
+    @Override
+    public int getRosterSize() {
+        return store.size();
+    }
+
+    @Override
+    public double getIndexLoadFactor() {
+        return store.loadFactor();
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        return store.cacheHitRate();
+    }
+
+    @Override
+    public OperationStats getAdd() {
+        return stats(Operation.ADD);
+    }
+
+    @Override
+    public OperationStats getRemove() {
+        return stats(Operation.REMOVE);
+    }
+
+    @Override
+    public OperationStats getUpdate() {
+        return stats(Operation.UPDATE);
+    }
+
+    @Override
+    public OperationStats getFind() {
+        return stats(Operation.FIND);
+    }
+
+    @Override
+    public OperationStats getQuery() {
+        return stats(Operation.QUERY);
+    }
+
+    @Override
+    public OperationStats getPage() {
+        return stats(Operation.PAGE);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i].reset();
+        }
+        if (adders != null) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+        } else {
+            for (int i = 0; i < counts.length; i++) {
+                COUNT.setOpaque(counts, i, 0L);
+            }
+        }
+    }
+
+    /**
+     * @brief Reads one counter.
+     */
+    private long sum(int counter) {
+        return adders != null ? adders[counter].sum() : (long) COUNT.getOpaque(counts, counter);
+    }
+
+    /**
+     * @brief Returns all metrics as one line of text.
+     *
+     * @return The size, load factor, cache hit rate and per-operation statistics, for
+     *         example "size=10 loadFactor=0.01 cacheHitRate=NaN add[count=10 failures=0 ...] ...".
+     */
+    String summary() {
+        StringBuilder summary = new StringBuilder(512);
+        summary.append("size=").append(getRosterSize())
+                .append(String.format(Locale.ROOT, " loadFactor=%.3f cacheHitRate=%.3f", getIndexLoadFactor(),
+                        getCacheHitRate()));
+        for (Operation operation : OPERATIONS) {
+            summary.append(' ').append(operation.name().toLowerCase(Locale.ROOT))
+                    .append('[').append(stats(operation)).append(']');
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @brief Registers the metrics with the platform MBean server, replacing earlier ones.
+     *
+     * @throws JMException If the metrics cannot be registered.
+     */
+    void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(this, name);
+    }
+
+    /**
+     * @brief Removes the metrics from the platform MBean server if they are registered.
+     *
+     * @throws JMException If the metrics cannot be unregistered.
+     */
+    void unregisterMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * @file StudentMetricsMXBean.java
+ * @brief JMX view of the repository metrics.
+ */
+
+package com.example;
+
+/**
+ * @class StudentMetricsMXBean
+ * @brief Management interface exposing the repository's size, index load and operation statistics.
+ *
+ * StudentMetrics registers under the object name com.example:type=StudentRepository.
+ * Each operation attribute is a composite with the items of OperationStats, so a
+ * monitoring tool can alert on, for example, Find.p99Micros.
+ */
+public interface StudentMetricsMXBean {
+
+    /**
+     * @brief Returns the number of students in the repository.
+     *
+     * @return The roster size.
+     */
+    int getRosterSize();
+
+    /**
+     * @brief Returns the load factor of the store's ID index.
+     *
+     * @return The share of index slots in use, or NaN if the store has no hash index.
+     */
+    double getIndexLoadFactor();
+
+    /**
+     * @brief Returns the hit rate of the student cache.
+     *
+     * @return The share of ID lookups answered from the cache, or NaN if the store has no cache.
+     */
+    double getCacheHitRate();
+
+    /**
+     * @brief Returns the statistics of adding students.
+     *
+     * @return The add statistics.
+     */
+    OperationStats getAdd();
+
+    /**
+     * @brief Returns the statistics of removing students.
+     *
+     * @return The remove statistics.
+     */
+    OperationStats getRemove();
+
+    /**
+     * @brief Returns the statistics of updating students.
+     *
+     * @return The update statistics.
+     */
+    OperationStats getUpdate();
+
+    /**
+     * @brief Returns the statistics of finding students by ID.
+     *
+     * @return The find statistics; failures are lookups of unknown IDs.
+     */
+    OperationStats getFind();
+
+    /**
+     * @brief Returns the statistics of age range, name prefix and roster statistics queries.
+     *
+     * @return The query statistics.
+     */
+    OperationStats getQuery();
+
+    /**
+     * @brief Returns the statistics of fetching pages of the roster.
+     *
+     * @return The page statistics.
+     */
+    OperationStats getPage();
+
+    /**
+     * @brief Clears all counters and histograms.
+     */
+    void reset();
+}
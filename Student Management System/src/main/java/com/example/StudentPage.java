@@ -0,0 +1,63 @@
+/**
+ * @file StudentPage.java
+ * @brief One page of the roster returned by StudentRepository.page().
+ *
+ * A page holds a bounded slice of the roster in insertion order and an opaque
+ * token that continues the listing where the page ended.
+ */
+
+package com.example;
+
+import java.util.List;
+
+/**
+ * @class StudentPage
+ * @brief A slice of students plus the token of the following page.
+ *
+ * The token names a position in the insertion order rather than an offset, so
+ * students removed before it do not shift later pages, and students added while
+ * paging appear on the last page.
+ */
+public final class StudentPage {
+
+    private final List<Student> students; /**< The students on this page, in insertion order. */
+    private final String nextPageToken;   /**< Token of the following page, or null on the last page. */
+
+    /**
+     * @brief Constructor to initialize a page.
+     *
+     * @param students The students on the page.
+     * @param nextPageToken The token of the following page, or null if this is the last page.
+     */
+    StudentPage(List<Student> students, String nextPageToken) {
+        this.students = students;
+        this.nextPageToken = nextPageToken;
+    }
+
+    /**
+     * @brief Getter for the students on the page.
+     *
+     * @return The students, in insertion order; an unmodifiable list.
+     */
+    public List<Student> getStudents() {
+        return students;
+    }
+
+    /**
+     * @brief Getter for the token of the following page.
+     *
+     * @return The token to pass to StudentRepository.page(), or null on the last page.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    /**
+     * @brief Checks whether another page follows this one.
+     *
+     * @return True if getNextPageToken() returns a token, false otherwise.
+     */
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+}
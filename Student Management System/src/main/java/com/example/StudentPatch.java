@@ -0,0 +1,178 @@
+/**
+ * @file StudentPatch.java
+ * @brief Field changes applied to a stored student by StudentRepository.update().
+ *
+ * Correcting a record used to mean removing the student and adding a corrected
+ * copy. A patch names only the fields that change, so the repository can apply
+ * it to the stored student in one step.
+ */
+
+package com.example;
+
+/**
+ * @class StudentPatch
+ * @brief Immutable set of new values for some of a student's fields.
+ *
+ * Fields that the patch does not set keep their current value. Setting the ID
+ * re-keys the student under the new ID. Patches are built from the empty patch:
+ *
+ *     StudentPatch.empty().withStudentName("Ali Khan").withStudentAge(21)
+ *
+ * Every with method returns a new patch, so one patch can be shared and reused.
+ */
+public final class StudentPatch {
+
+    private static final int ID = 1;   /**< Bit of a patch that sets the ID. */
+    private static final int NAME = 2; /**< Bit of a patch that sets the name. */
+    private static final int AGE = 4;  /**< Bit of a patch that sets the age. */
+
+    private static final StudentPatch EMPTY = new StudentPatch(0, 0, null, 0);
+
+    private final int fields;         /**< Bits of the fields the patch sets. */
+    private final int studentId;      /**< New ID, if set. */
+    private final String studentName; /**< New name, if set. */
+    private final int studentAge;     /**< New age, if set. */
+
+    /**
+     * @brief Private constructor; start from empty().
+     */
+    private StudentPatch(int fields, int studentId, String studentName, int studentAge) {
+        this.fields = fields;
+        this.studentId = studentId;
+        this.studentName = studentName;
+        this.studentAge = studentAge;
+    }
+
+    /**
+     * @brief Returns the patch that changes nothing.
+     *
+     * @return The empty patch.
+     */
+    public static StudentPatch empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @brief Returns a copy of this patch that also sets the ID.
+     *
+     * @param studentId The new ID.
+     * @return The new patch.
+     */
+    public StudentPatch withStudentId(int studentId) {
+        return new StudentPatch(fields | ID, studentId, studentName, studentAge);
+    }
+
+    /**
+     * @brief Returns a copy of this patch that also sets the name.
+     *
+     * @param studentName The new name.
+     * @return The new patch.
+     */
+    public StudentPatch withStudentName(String studentName) {
+        return new StudentPatch(fields | NAME, studentId, studentName, studentAge);
+    }
+
+    /**
+     * @brief Returns a copy of this patch that also sets the age.
+     *
+     * @param studentAge The new age.
+     * @return The new patch.
+     */
+    public StudentPatch withStudentAge(int studentAge) {
+        return new StudentPatch(fields | AGE, studentId, studentName, studentAge);
+    }
+
+    /**
+     * @brief Checks whether the patch sets no field.
+     *
+     * @return True if applying the patch changes nothing.
+     */
+    public boolean isEmpty() {
+        return fields == 0;
+    }
+
+    /**
+     * @brief Checks whether the patch sets the ID.
+     *
+     * @return True if the patch re-keys the student.
+     */
+    public boolean hasStudentId() {
+        return (fields & ID) != 0;
+    }
+
+    /**
+     * @brief Checks whether the patch sets the name.
+     *
+     * @return True if the patch sets the name.
+     */
+    public boolean hasStudentName() {
+        return (fields & NAME) != 0;
+    }
+
+    /**
+     * @brief Checks whether the patch sets the age.
+     *
+     * @return True if the patch sets the age.
+     */
+    public boolean hasStudentAge() {
+        return (fields & AGE) != 0;
+    }
+
+    /**
+     * @brief Getter for the new ID.
+     *
+     * @return The ID the patch sets; meaningful only if hasStudentId().
+     */
+    public int getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * @brief Getter for the new name.
+     *
+     * @return The name the patch sets, or null if it keeps the name.
+     */
+    public String getStudentName() {
+        return studentName;
+    }
+
+    /**
+     * @brief Getter for the new age.
+     *
+     * @return The age the patch sets; meaningful only if hasStudentAge().
+     */
+    public int getStudentAge() {
+        return studentAge;
+    }
+
+    /**
+     * @brief Validates the fields the patch sets.
+     *
+     * @return The first error found, or null if every set field is valid.
+     */
+    StudentError validate() {
+        StudentError error = null;
+        if (hasStudentId()) {
+            error = StudentValidator.validateId(studentId);
+        }
+        if (error == null && hasStudentName()) {
+            error = StudentValidator.validateName(studentName);
+        }
+        if (error == null && hasStudentAge()) {
+            error = StudentValidator.validateAge(studentAge);
+        }
+        return error;
+    }
+
+    /**
+     * @brief Creates the student that results from applying the patch.
+     *
+     * @param student The current student; it is not changed.
+     * @return A new Student with the patched fields.
+     */
+    Student applyTo(Student student) {
+        return new Student(hasStudentId() ? studentId : student.getStudentId(),
+                hasStudentName() ? studentName : student.getStudentName(),
+                hasStudentAge() ? studentAge : student.getStudentAge());
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * @file StudentPrinter.java
+ * @brief Renders students for the console.
+ *
+ * This class holds the table and detail formats used by the menu, keeping all
+ * presentation out of the StudentRepository.
+ */
+
+package com.example;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+
+/**
+ * @class StudentPrinter
+ * @brief Prints single students and student tables to an output stream.
+ *
+ * Table rows are laid out by hand into one reused StringBuilder instead of going
+ * through a Formatter per row, and the text reaches the stream in chunks of
+ * CHUNK_SIZE characters, so printing a large roster is bound by the output
+ * device rather than by formatting.
+ */
+class StudentPrinter {
+
+    static final int CHUNK_SIZE = 64 * 1024; /**< Characters buffered before they are written out. */
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int ID_WIDTH = 10;   /**< Width of the ID column. */
+    private static final int NAME_WIDTH = 20; /**< Width of the name column. */
+    private static final int AGE_WIDTH = 5;   /**< Width of the age column. */
+
+    private final PrintStream out; /**< Stream the students are printed to. */
+    private final Writer writer;   /**< Encoder from table text to the stream. */
+    private final StringBuilder text = new StringBuilder(CHUNK_SIZE + 256); /**< Table text not yet written. */
+    private final char[] chunk = new char[CHUNK_SIZE + 256]; /**< Transfer buffer for writing the text. */
+
+    /**
+     * @brief Constructor to initialize the printer with its output stream.
+     *
+     * @param out The stream to print to.
+     */
+    StudentPrinter(PrintStream out) {
+        this.out = out;
+        this.writer = new OutputStreamWriter(out, Charset.defaultCharset());
+    }
+
+    /**
+     * @brief Prints a table of students.
+     *
+     * If no students exist, a message indicating the absence of students is printed.
+     *
+     * @param students The students to print, in display order.
+     */
+    void printStudentTable(Iterable<Student> students) {
+        Iterator<Student> iterator = students.iterator();
+        if (!iterator.hasNext()) { // Check if there is anything to print
+            out.println("\nNo students found.");
+            return;
+        }
+
+        printTableHeader();
+        printRows(iterator);
+    }
+
+    /**
+     * @brief Prints the title and column header of a student table.
+     */
+    void printTableHeader() {
+        // Print header with aligned columns
+        text.append(LINE_SEPARATOR).append("--- List of Students ---").append(LINE_SEPARATOR);
+        appendCell("ID", ID_WIDTH).append(' ');
+        appendCell("Name", NAME_WIDTH).append(' ');
+        appendCell("Age", AGE_WIDTH).append(LINE_SEPARATOR);
+        text.append("-----------------------------------------").append(LINE_SEPARATOR);
+        flushText();
+    }
+
+    /**
+     * @brief Prints table rows, without a header, for students of one table page.
+     *
+     * @param students The students to print, in display order.
+     */
+    void printStudentRows(Iterable<Student> students) {
+        printRows(students.iterator());
+    }
+
+    /**
+     * @brief Prints the details of a single student.
+     *
+     * @param student The student to print.
+     */
+    void printStudentDetails(Student student) {
+        out.println("\n--- Student Found ---");
+        out.printf("%-10s: %d%n", "ID", student.getStudentId());
+        out.printf("%-10s: %s%n", "Name", student.getStudentName());
+        out.printf("%-10s: %d%n", "Age", student.getStudentAge());
+    }
+
+    /**
+     * @brief Prints one aligned row per student, writing whenever a chunk is full.
+     *
+     * The rows match the format "%-10s %-20s %-5d%n": every column is padded to its
+     * width and longer values are printed in full.
+     */
+    private void printRows(Iterator<Student> students) {
+        while (students.hasNext()) {
+            Student student = students.next();
+            int start = text.length();
+            text.append(student.getStudentId());
+            pad(start + ID_WIDTH).append(' ');
+            start = text.length();
+            text.append(student.getStudentName());
+            pad(start + NAME_WIDTH).append(' ');
+            start = text.length();
+            text.append(student.getStudentAge());
+            pad(start + AGE_WIDTH).append(LINE_SEPARATOR);
+
+            if (text.length() >= CHUNK_SIZE) {
+                writeText();
+            }
+        }
+        flushText();
+    }
+
+    private StringBuilder appendCell(String value, int width) {
+        int start = text.length();
+        text.append(value);
+        return pad(start + width);
+    }
+
+    /**
+     * @brief Appends spaces until the text reaches the given length.
+     */
+    private StringBuilder pad(int length) {
+        for (int i = text.length(); i < length; i++) {
+            text.append(' ');
+        }
+        return text;
+    }
+
+    /**
+     * @brief Hands the buffered text to the writer and empties the buffer.
+     */
+    private void writeText() {
+        int length = text.length();
+        char[] buffer = length <= chunk.length ? chunk : new char[length];
+        text.getChars(0, length, buffer, 0);
+        text.setLength(0);
+        try {
+            writer.write(buffer, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A PrintStream never reports failures this way
+        }
+    }
+
+    /**
+     * @brief Writes the buffered text and flushes it through to the stream.
+     */
+    private void flushText() {
+        writeText();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,246 +1,779 @@
 /**
  * @file StudentRepository.java
  * @brief Repository class for managing student operations.
- * 
- * This class provides methods to perform various operations on a list of students, 
- * including adding, removing, displaying, and searching for students.
+ *
+ * This class provides the programmatic API of the Student Management System: adding,
+ * removing, updating, finding and streaming students. It performs no console input or output,
+ * so it can be driven at full speed by batch jobs as well as by the interactive menu.
  */
 
 package com.example;
 
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @class StudentRepository
  * @brief Provides methods for managing students.
- * 
- * This class allows adding new students, removing existing ones, displaying all students, 
- * and searching for a student by their ID.
+ *
+ * This class validates students before they are stored and reports failures as
+ * typed StudentError values instead of printing them. Students handed to the
+ * repository are stored as-is; their ID, name and age must not be changed while
+ * they are stored. To correct a student, pass a StudentPatch to update(), which
+ * stores a patched copy in the student's place.
+ *
+ * Besides the store, which is keyed by ID, the repository maintains secondary
+ * indexes on age and name and an ordered index of the IDs. They are updated on
+ * every add, remove and update, so age range, name prefix and ID range queries
+ * only visit the students they return, and typo-tolerant name queries only the
+ * names that resemble the query.
+ *
+ * The repository is as thread-safe as its store. Each write updates the store and
+ * the secondary indexes while holding a lock striped by student ID, so the indexes
+ * never disagree with the store about a student. Use concurrent() to share one
+ * repository between threads.
+ *
+ * A report that must see the roster as of one moment while writes go on reads it
+ * through snapshot(). Opening a snapshot copies nothing; while one is open, each
+ * write keeps the before-image of the students it changes in the repository's
+ * VersionLog, until no open snapshot needs it.
+ *
+ * Every operation is counted and timed in the repository's StudentMetrics, and
+ * once changes() has been called, every successful write is published to the
+ * repository's ChangeFeed. Adds, updates, removes and finds can also be recorded
+ * as a command script with recordTo().
  */
-class StudentRepository {
+public class StudentRepository {
+
+    private static final int WRITE_LOCK_STRIPES = 64; /**< Number of per-ID write locks, a power of two. */
+
+    /**
+     * @brief Store holding student objects, keyed by student ID.
+     */
+    private final StudentStore studentStore;
+
+    private final AgeIndex ageIndex = new AgeIndex();    /**< Students grouped by age. */
+    private final NameIndex nameIndex = new NameIndex(); /**< Students sorted by name. */
+    private final SortedIdIndex idIndex = new SortedIdIndex(); /**< Student IDs in ascending order. */
+    private final Object[] writeLocks;                   /**< Locks making a write and its index updates atomic. */
+    private final VersionLog versions;                   /**< Before-images kept for the open snapshots. */
+    private final StudentMetrics metrics;                /**< Counters and latencies of the operations. */
+    private volatile ChangeFeed changeFeed;              /**< Events of the writes, or null until changes() is called. */
+    private volatile CommandRecorder recorder;           /**< Script of the keyed operations, or null if not recorded. */
+
+    /**
+     * @brief Constructor to initialize an empty, in-memory repository.
+     */
+    public StudentRepository() {
+        this(new StudentIndex());
+    }
+
+    /**
+     * @brief Creates an empty, in-memory repository that many threads can use at once.
+     *
+     * Lookups do not block, writes to different students rarely contend, and
+     * stream() iterates over a consistent snapshot of the roster.
+     *
+     * @return The thread-safe repository.
+     */
+    public static StudentRepository concurrent() {
+        return new StudentRepository(new ConcurrentStudentStore());
+    }
 
     /**
-     * @brief List to hold student objects.
+     * @brief Creates an empty, in-memory repository that stores the roster in columns.
+     *
+     * The roster takes several times less heap than with Student objects, at the
+     * cost of creating a new Student on every read. Students returned by the
+     * repository are copies, so find() returns a different object on every call.
+     *
+     * @return The columnar repository.
      */
-    private final ArrayList<Student> studentList;
+    public static StudentRepository columnar() {
+        return new StudentRepository(new ColumnarStudentStore());
+    }
 
     /**
-     * @brief Constructor to initialize the repository with the student list.
-     * 
-     * @param studentList The list of students to manage.
+     * @brief Constructor to initialize the repository with a student store.
+     *
+     * @param studentStore The store of students to manage.
      */
-    public StudentRepository(ArrayList<Student> studentList) {
-        this.studentList = studentList;
+    StudentRepository(StudentStore studentStore) {
+        this.studentStore = studentStore;
+        this.metrics = new StudentMetrics(studentStore);
+        this.writeLocks = new Object[WRITE_LOCK_STRIPES];
+        for (int i = 0; i < WRITE_LOCK_STRIPES; i++) {
+            writeLocks[i] = new Object();
+        }
+        this.versions = new VersionLog(studentStore, idIndex, this::writeLock);
+
+        // Index the students the store already holds, such as a recovered roster
+        int[] studentIds = new int[studentStore.size()];
+        int count = 0;
+        for (Student student : studentStore) {
+            ageIndex.add(student);
+            nameIndex.add(student);
+            if (count == studentIds.length) {
+                studentIds = Arrays.copyOf(studentIds, count * 2 + 1);
+            }
+            studentIds[count++] = student.getStudentId();
+        }
+        Arrays.sort(studentIds, 0, count);
+        idIndex.load(studentIds, count);
     }
 
     /**
      * @brief Adds a new student to the repository.
-     * 
-     * Prompts the user to input the student's ID, name, and age, and adds the student 
-     * to the list if the input is valid and no student with the same ID exists.
-     * 
-     * @param inputScanner The Scanner object for reading user input.
-     */
-    void addNewStudent(Scanner inputScanner) {
-        int studentId = 0;
-        String studentName = "";
-        int studentAge = 0;
-
-        // Input Student ID
-        while (true) {
-            System.out.print("\nEnter Student ID: ");
+     *
+     * The student is added if all of its fields are valid and no student with the
+     * same ID exists.
+     *
+     * @param student The student to add.
+     * @return The added student, or the validation, NAME_TOO_LONG or DUPLICATE_ID error.
+     */
+    public StudentResult add(Student student) {
+        long start = metrics.start(StudentMetrics.Operation.ADD);
+        StudentResult result = insert(student);
+        metrics.record(StudentMetrics.Operation.ADD, start, result.isSuccess());
+        return result;
+    }
+
+    /**
+     * @brief Validates and stores a student, updating the secondary indexes.
+     */
+    private StudentResult insert(Student student) {
+        StudentError error = StudentValidator.validate(student);
+        if (error != null) {
+            return StudentResult.failure(error);
+        }
+        if (student.getStudentName().length() > studentStore.maxNameLength()) {
+            return StudentResult.failure(StudentError.NAME_TOO_LONG);
+        }
+
+        synchronized (writeLock(student.getStudentId())) {
+            CommandRecorder commands = recorder;
+            if (commands != null) {
+                commands.add(student);
+            }
+            // Index the ID before the write reads the open snapshots, so that a snapshot
+            // opened too late for the write to see it still meets the ID in its scan; a
+            // stored ID is indexed already
+            boolean indexed = idIndex.add(student.getStudentId());
+            // Add the new student unless a student with the same ID already exists
+            boolean added;
             try {
-                String input = inputScanner.nextLine().trim();
-                if (input.isEmpty()) {
-                    System.out.println("\nStudent ID cannot be empty. Please try again.");
-                    continue;
-                }
-                studentId = Integer.parseInt(input);
-                if (studentId <= 0) {
-                    System.out.println("\nStudent ID must be a positive number. Please try again.");
-                    continue;
-                }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("\nInvalid input. Please enter a valid numeric Student ID.");
+                added = studentStore.add(student);
+            } catch (RuntimeException e) {
+                unindex(indexed, student.getStudentId());
+                throw e;
             }
+            if (!added) {
+                unindex(indexed, student.getStudentId());
+                return StudentResult.failure(StudentError.DUPLICATE_ID);
+            }
+            versions.record(versions.beginWrite(), student.getStudentId(), null);
+            ageIndex.add(student);
+            nameIndex.add(student);
+            publish(StudentEvent.Type.ADDED, null, student);
         }
+        return StudentResult.success(student);
+    }
 
-        // Input Student Name
-        while (true) {
-            System.out.print("\nEnter Student Name: ");
-            studentName = inputScanner.nextLine().trim();
+    /**
+     * @brief Adds a batch of students to the repository.
+     *
+     * Every student is validated and added as if by add(Student), in order, so a
+     * duplicate ID is rejected whether it clashes with the existing roster or with
+     * an earlier student of the same batch. The store is sized for the whole batch
+     * up front and runs the batch as a single write batch.
+     *
+     * @param students The students to add.
+     * @return One result per student, in the order of the batch.
+     */
+    public List<StudentResult> addAll(Collection<? extends Student> students) {
+        studentStore.ensureCapacity(studentStore.size() + students.size());
 
-            // Check if the name is empty
-            if (studentName.isEmpty()) {
-                System.out.println("\nName cannot be empty. Please try again.");
-                continue;
+        return studentStore.writeBatch(() -> {
+            List<StudentResult> results = new ArrayList<>(students.size());
+            for (Student student : students) {
+                results.add(add(student));
             }
+            return results;
+        });
+    }
 
-            // Check if the name contains only alphabetic characters and spaces
-            if (!studentName.matches("[a-zA-Z ]+")) {
-                System.out.println("\nName can only contain alphabetic characters and spaces. Please try again.");
-                continue;
+    /**
+     * @brief Runs a group of repository operations as one write batch of the store.
+     *
+     * The operations run in order on the calling thread. A durable store makes
+     * their writes durable together when the group ends instead of one at a time.
+     *
+     * @param operations The operations to run against this repository.
+     * @return The value returned by the operations.
+     */
+    <T> T writeBatch(Supplier<T> operations) {
+        return studentStore.writeBatch(operations);
+    }
+
+    /**
+     * @brief Removes a student from the repository based on their ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return The removed student, or the INVALID_ID or NOT_FOUND error.
+     */
+    public StudentResult remove(int studentId) {
+        long start = metrics.start(StudentMetrics.Operation.REMOVE);
+        StudentResult result = delete(studentId);
+        metrics.record(StudentMetrics.Operation.REMOVE, start, result.isSuccess());
+        return result;
+    }
+
+    /**
+     * @brief Removes a student from the store and the secondary indexes.
+     */
+    private StudentResult delete(int studentId) {
+        StudentError error = StudentValidator.validateId(studentId);
+        if (error != null) {
+            return StudentResult.failure(error);
+        }
+
+        Student removed;
+        synchronized (writeLock(studentId)) {
+            CommandRecorder commands = recorder;
+            if (commands != null) {
+                commands.remove(studentId);
+            }
+            removed = studentStore.remove(studentId);
+            if (removed == null) {
+                return StudentResult.failure(StudentError.NOT_FOUND);
             }
+            versions.record(versions.beginWrite(), studentId, removed);
+            ageIndex.remove(removed);
+            nameIndex.remove(removed);
+            idIndex.remove(studentId);
+            publish(StudentEvent.Type.REMOVED, removed, null);
+        }
+        return StudentResult.success(removed);
+    }
+
+    /**
+     * @brief Applies a patch to the student with an ID.
+     *
+     * The patched student replaces the stored one in its place in insertion order,
+     * instead of being removed and added again, and the secondary indexes are
+     * updated for the fields that changed. The stored student is not changed
+     * through its setters, so a reader holding it never sees half of an update.
+     * A patch that sets a new ID re-keys the student; the old and the new ID are
+     * locked together, so the update is atomic for other writers of either ID.
+     *
+     * @param studentId The ID of the student to update.
+     * @param patch The fields to change.
+     * @return The updated student, or the INVALID_ID, NOT_FOUND, validation,
+     *         NAME_TOO_LONG or DUPLICATE_ID error.
+     */
+    public StudentResult update(int studentId, StudentPatch patch) {
+        long start = metrics.start(StudentMetrics.Operation.UPDATE);
+        StudentResult result = patch(studentId, patch);
+        metrics.record(StudentMetrics.Operation.UPDATE, start, result.isSuccess());
+        return result;
+    }
 
-            // If both conditions are met, break the loop
-            break;
+    /**
+     * @brief Validates a patch and replaces the student in the store and the secondary indexes.
+     */
+    private StudentResult patch(int studentId, StudentPatch patch) {
+        StudentError error = StudentValidator.validateId(studentId);
+        if (error == null) {
+            error = patch.validate();
         }
-        
-        // Input Student Age
-        while (true) {
-            System.out.print("\nEnter Student Age: ");
-            try {
-                String input = inputScanner.nextLine().trim();
-                if (input.isEmpty()) {
-                    System.out.println("\nStudent Age cannot be empty. Please try again.");
-                    continue;
+        if (error != null) {
+            return StudentResult.failure(error);
+        }
+        if (patch.hasStudentName() && patch.getStudentName().length() > studentStore.maxNameLength()) {
+            return StudentResult.failure(StudentError.NAME_TOO_LONG);
+        }
+
+        int newId = patch.hasStudentId() ? patch.getStudentId() : studentId;
+        // Take the two stripes in a fixed order, so that opposite re-keys cannot deadlock
+        int stripe = studentId & (WRITE_LOCK_STRIPES - 1);
+        int newStripe = newId & (WRITE_LOCK_STRIPES - 1);
+        Student current;
+        Student updated;
+        synchronized (writeLocks[Math.min(stripe, newStripe)]) {
+            synchronized (writeLocks[Math.max(stripe, newStripe)]) {
+                CommandRecorder commands = recorder;
+                if (commands != null) {
+                    commands.update(studentId, patch);
                 }
-                studentAge = Integer.parseInt(input);
-                if (studentAge <= 0) {
-                    System.out.println("\nStudent Age must be a positive number. Please try again.");
-                    continue;
+                current = studentStore.get(studentId);
+                if (current == null) {
+                    return StudentResult.failure(StudentError.NOT_FOUND);
                 }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("\nInvalid input. Please enter a valid numeric Student Age.");
+                if (patch.isEmpty()) {
+                    return StudentResult.success(current);
+                }
+                if (newId != studentId && studentStore.contains(newId)) {
+                    return StudentResult.failure(StudentError.DUPLICATE_ID);
+                }
+
+                updated = patch.applyTo(current);
+                // Index a new ID before the write reads the open snapshots, as in insert()
+                boolean indexed = newId != studentId && idIndex.add(newId);
+                try {
+                    studentStore.replace(studentId, updated);
+                } catch (RuntimeException e) {
+                    unindex(indexed, newId);
+                    throw e;
+                }
+                long version = versions.beginWrite();
+                versions.record(version, studentId, current);
+                if (newId != studentId) {
+                    versions.record(version, newId, null);
+                }
+                if (newId != studentId || updated.getStudentAge() != current.getStudentAge()) {
+                    ageIndex.remove(current);
+                    ageIndex.add(updated);
+                }
+                if (newId != studentId || !updated.getStudentName().equalsIgnoreCase(current.getStudentName())) {
+                    nameIndex.remove(current);
+                    nameIndex.add(updated);
+                }
+                if (newId != studentId) {
+                    idIndex.remove(studentId);
+                }
+                publish(StudentEvent.Type.UPDATED, current, updated);
             }
         }
+        return StudentResult.success(updated);
+    }
 
-        // Check if a student with the same ID already exists
-        for (Student student : studentList) {
-            if (student.getStudentId() == studentId) {
-                System.out.println("\nError: A student with ID " + studentId + " already exists.");
-                return;
+    /**
+     * @brief Applies a batch of patches to the repository.
+     *
+     * Every patch is applied as if by update(int, StudentPatch), in the map's
+     * iteration order, so a later patch sees the effect of an earlier one; pass a
+     * LinkedHashMap to control the order. The store runs the batch as a single
+     * write batch, so a durable store syncs once for all of it.
+     *
+     * @param patches The patches, keyed by the ID of the student each one updates.
+     * @return One result per patch, in iteration order.
+     */
+    public List<StudentResult> updateAll(Map<Integer, StudentPatch> patches) {
+        return studentStore.writeBatch(() -> {
+            List<StudentResult> results = new ArrayList<>(patches.size());
+            for (Map.Entry<Integer, StudentPatch> patch : patches.entrySet()) {
+                results.add(update(patch.getKey(), patch.getValue()));
             }
+            return results;
+        });
+    }
+
+    /**
+     * @brief Searches for a student by their ID.
+     *
+     * @param studentId The ID of the student to find.
+     * @return The student, or an empty Optional if no student has the ID.
+     */
+    public Optional<Student> find(int studentId) {
+        long start = metrics.start(StudentMetrics.Operation.FIND);
+        Student student = studentStore.get(studentId);
+        metrics.record(StudentMetrics.Operation.FIND, start, student != null);
+        CommandRecorder commands = recorder;
+        if (commands != null) {
+            commands.find(studentId);
         }
+        return Optional.ofNullable(student);
+    }
 
-        // Add the new student to the list
-        studentList.add(new Student(studentId, studentName, studentAge));
-        System.out.println("\nStudent added successfully!");
+    /**
+     * @brief Finds the students whose age lies in a closed range.
+     *
+     * @param minAge The smallest age to include.
+     * @param maxAge The largest age to include.
+     * @return The students by ascending age, and in insertion order within one age;
+     *         empty if minAge is greater than maxAge.
+     */
+    public List<Student> findByAgeRange(int minAge, int maxAge) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        List<Student> students = collect(ageIndex.inRange(minAge, maxAge));
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return students;
     }
 
+    /**
+     * @brief Counts the students whose age lies in a closed range.
+     *
+     * @param minAge The smallest age to include.
+     * @param maxAge The largest age to include.
+     * @return The number of students in the range.
+     */
+    public int countByAgeRange(int minAge, int maxAge) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        int count = ageIndex.countInRange(minAge, maxAge);
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return count;
+    }
 
     /**
-     * @brief Removes a student from the repository based on their ID.
-     * 
-     * Prompts the user to input the ID of the student to be removed and removes 
-     * the student if they exist in the list.
-     * 
-     * @param inputScanner The Scanner object for reading user input.
-     */
-    void removeStudentById(Scanner inputScanner) {
-        int studentId = 0;
-
-        // Input Student ID
-        while (true) {
-            System.out.print("\nEnter Student ID to remove: ");
-            String input = inputScanner.nextLine().trim();
-
-            if (input.isEmpty()) {
-                System.out.println("\nStudent ID cannot be empty. Please try again.");
-                continue;
-            }
+     * @brief Finds the students whose name starts with a prefix, ignoring case.
+     *
+     * @param prefix The name prefix; an empty prefix matches every student.
+     * @return The matching students, sorted by name, and in insertion order within one name.
+     */
+    public List<Student> findByNamePrefix(String prefix) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        List<Student> students = collect(nameIndex.withPrefix(prefix));
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return students;
+    }
 
-            try {
-                studentId = Integer.parseInt(input);
-                if (studentId <= 0) {
-                    System.out.println("\nStudent ID must be a positive number. Please try again.");
-                    continue;
-                }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("\nInvalid input. Please enter a valid numeric Student ID.");
-            }
+    /**
+     * @brief Finds the students whose ID lies in a closed range.
+     *
+     * @param fromId The smallest ID to include.
+     * @param toId The largest ID to include.
+     * @return The students by ascending ID; empty if fromId is greater than toId.
+     */
+    public List<Student> findByIdRange(int fromId, int toId) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        List<Student> students = collect(idIndex.inRange(fromId, toId));
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return students;
+    }
+
+    /**
+     * @brief Streams the students whose ID lies in a closed range, by ascending ID.
+     *
+     * The stream is lazy: it reads the ordered ID index a batch at a time as it is
+     * consumed, so taking the first few students of a large range costs little,
+     * and writers are never held up for the whole scan. Students added or removed
+     * further along the range while the stream runs may or may not be included.
+     * Stream the range from 1 to Integer.MAX_VALUE for the whole roster in ID order.
+     *
+     * @param fromId The smallest ID to include.
+     * @param toId The largest ID to include.
+     * @return A sequential stream of the students.
+     */
+    public Stream<Student> streamByIdRange(int fromId, int toId) {
+        Spliterator.OfInt studentIds = Spliterators.spliteratorUnknownSize(idIndex.iterator(fromId, toId),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.intStream(studentIds, false)
+                .mapToObj(studentStore::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * @brief Finds the student with the largest ID at or below an ID.
+     *
+     * @param studentId The ID to look down from.
+     * @return The student, or an empty Optional if every student has a larger ID.
+     */
+    public Optional<Student> findFloor(int studentId) {
+        long start = metrics.start(StudentMetrics.Operation.FIND);
+        Student student = null;
+        for (int id = idIndex.floor(studentId); id > 0 && student == null; id = idIndex.floor(id - 1)) {
+            student = studentStore.get(id); // Null only if a concurrent remove got between the reads
         }
+        metrics.record(StudentMetrics.Operation.FIND, start, student != null);
+        return Optional.ofNullable(student);
+    }
 
-        // Search for the student in the list
-        for (Student student : studentList) {
-            if (student.getStudentId() == studentId) {
-                studentList.remove(student); // Remove the student if found
-                System.out.println("\nStudent with ID " + studentId + " removed successfully!");
-                return;
-            }
+    /**
+     * @brief Finds the student with the smallest ID at or above an ID.
+     *
+     * @param studentId The ID to look up from.
+     * @return The student, or an empty Optional if every student has a smaller ID.
+     */
+    public Optional<Student> findCeiling(int studentId) {
+        long start = metrics.start(StudentMetrics.Operation.FIND);
+        Student student = null;
+        for (int id = idIndex.ceiling(studentId); id > 0 && student == null;
+                id = id == Integer.MAX_VALUE ? 0 : idIndex.ceiling(id + 1)) {
+            student = studentStore.get(id);
         }
+        metrics.record(StudentMetrics.Operation.FIND, start, student != null);
+        return Optional.ofNullable(student);
+    }
+
+    /**
+     * @brief Finds the students whose name is closest to a possibly misspelled one.
+     *
+     * Names are compared ignoring case by edit distance, allowing one typo in a
+     * query of three to five letters, two up to nine letters and three in longer
+     * ones; a one-word query also matches a single word of a name. Candidates come
+     * from a trigram index of the distinct names, so the roster is not scanned.
+     *
+     * @param name The name to look for.
+     * @param limit The largest number of students to return.
+     * @return The closest students first, then sorted by name, and in insertion order within one name.
+     */
+    public List<Student> findBySimilarName(String name, int limit) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        List<Student> students = collect(nameIndex.similar(name, limit));
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return students;
+    }
 
-        // If the student is not found, display an error message
-        System.out.println("\nError: Student with ID " + studentId + " not found.");
+    /**
+     * @brief Computes the age, name initial and ID gap statistics of the roster.
+     *
+     * The roster is read once, split between the threads of the common fork-join
+     * pool if it has more than one. A repository that is not thread-safe must not
+     * be changed until the call returns; a concurrent() repository computes the
+     * statistics of a snapshot of the roster.
+     *
+     * @return The statistics.
+     */
+    public RosterStatistics statistics() {
+        return statistics(ForkJoinPool.getCommonPoolParallelism() > 1);
     }
 
+    /**
+     * @brief Computes the statistics of the roster on the calling thread or in parallel.
+     *
+     * @param parallel Whether to split the work between the threads of the common fork-join pool.
+     * @return The statistics.
+     */
+    RosterStatistics statistics(boolean parallel) {
+        long start = metrics.start(StudentMetrics.Operation.QUERY);
+        RosterStatistics statistics = RosterAnalytics.compute(studentStore.spliterator(),
+                parallel ? ForkJoinPool.commonPool() : null);
+        metrics.record(StudentMetrics.Operation.QUERY, start, true);
+        return statistics;
+    }
 
     /**
-     * @brief Displays all students in the repository.
-     * 
-     * Prints the list of students along with their details. If no students exist, 
-     * a message indicating the absence of students is displayed.
+     * @brief Returns one page of the roster in insertion order.
+     *
+     * Start with a null token and pass each page's next-page token to get the page
+     * after it. A page costs time in proportion to its size, not to its position
+     * in the roster.
+     *
+     * @param pageToken The token from the previous page, or null for the first page.
+     * @param pageSize The maximum number of students on the page; at least 1.
+     * @return The page.
+     * @throws IllegalArgumentException If the page size is not positive or the token is malformed.
      */
-    void displayAllStudents() {
-        if (studentList.isEmpty()) { // Check if the list is empty
-            System.out.println("\nNo students found.");
-            return;
+    public StudentPage page(String pageToken, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        long afterSequence = -1;
+        if (pageToken != null) {
+            try {
+                afterSequence = Long.parseLong(pageToken, Character.MAX_RADIX);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed page token: " + pageToken, e);
+            }
         }
 
-        // Print header with aligned columns
-        System.out.println("\n--- List of Students ---");
-        System.out.printf("%-10s %-20s %-5s%n", "ID", "Name", "Age");
-        System.out.println("-----------------------------------------");
+        long start = metrics.start(StudentMetrics.Operation.PAGE);
+        // Ask for one extra student to learn whether another page follows
+        int capacity = pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+        Student[] students = new Student[Math.min(capacity, studentStore.size() + 1)];
+        long[] sequences = new long[students.length];
+        int count = studentStore.page(afterSequence, students, sequences);
+        metrics.record(StudentMetrics.Operation.PAGE, start, true);
 
-        // Print each student's details with aligned formatting
-        for (Student student : studentList) {
-            System.out.printf("%-10s %-20s %-5d%n",
-                    student.getStudentId(),
-                    student.getStudentName(),
-                    student.getStudentAge());
+        if (count <= pageSize) {
+            return new StudentPage(List.of(Arrays.copyOf(students, count)), null);
         }
+        return new StudentPage(List.of(Arrays.copyOf(students, pageSize)),
+                Long.toString(sequences[pageSize - 1], Character.MAX_RADIX));
     }
 
     /**
-     * @brief Searches for a student by their ID.
-     * 
-     * Prompts the user to input the ID of the student to be searched. If the student 
-     * exists, their details are displayed; otherwise, an appropriate message is shown.
-     * 
-     * @param inputScanner The Scanner object for reading user input.
-     */
-    void searchStudentById(Scanner inputScanner) {
-        int studentId = 0;
-
-        // Input Student ID
-        while (true) {
-            System.out.print("\nPlease enter the Student ID you want to search for: ");
-            String input = inputScanner.nextLine().trim();
-
-            if (input.isEmpty()) {
-                System.out.println("\nStudent ID cannot be empty. Please try again.");
-                continue;
-            }
+     * @brief Opens a point-in-time view of the roster.
+     *
+     * The snapshot sees every student as they were when it was opened, however
+     * long it is read and whatever is written meanwhile. Opening it takes
+     * constant time and copies nothing. Close it when done, since the writes
+     * made while it is open keep their before-images for it.
+     *
+     * @return The open snapshot.
+     */
+    public StudentSnapshot snapshot() {
+        return versions.open();
+    }
 
-            try {
-                studentId = Integer.parseInt(input);
-                if (studentId <= 0) {
-                    System.out.println("\nStudent ID must be a positive number. Please try again.");
-                    continue;
+    /**
+     * @brief Returns the log of the before-images kept for the open snapshots.
+     *
+     * @return The version log.
+     */
+    VersionLog versions() {
+        return versions;
+    }
+
+    /**
+     * @brief Returns the feed of the repository's adds, updates and removes.
+     *
+     * The feed is created by the first call and receives the writes made from
+     * then on; its first event has sequence number 0. Until then, writes publish
+     * nothing and pay nothing for the feed.
+     *
+     * @return The change feed.
+     */
+    public ChangeFeed changes() {
+        ChangeFeed feed = changeFeed;
+        if (feed == null) {
+            synchronized (this) {
+                feed = changeFeed;
+                if (feed == null) {
+                    feed = new ChangeFeed(ChangeFeed.DEFAULT_CAPACITY);
+                    changeFeed = feed;
                 }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("\nInvalid input. Please enter a valid numeric Student ID.");
             }
         }
+        return feed;
+    }
 
-        // Search for the student in the list
-        for (Student student : studentList) {
-            if (student.getStudentId() == studentId) {
-                // Print the student's details if found
-                System.out.println("\n--- Student Found ---");
-                System.out.printf("%-10s: %d%n", "ID", student.getStudentId());
-                System.out.printf("%-10s: %s%n", "Name", student.getStudentName());
-                System.out.printf("%-10s: %d%n", "Age", student.getStudentAge());
-                return;
-            }
+    /**
+     * @brief Publishes a write to the change feed, if there is one.
+     *
+     * Called under the write lock of the student, after the store has taken the write.
+     */
+    private void publish(StudentEvent.Type type, Student before, Student after) {
+        ChangeFeed feed = changeFeed;
+        if (feed != null) {
+            feed.publish(type, before, after);
         }
+    }
 
-        // If the student is not found, display a message
-        System.out.println("\nNo student found with the provided ID.");
+    /**
+     * @brief Starts or stops recording the adds, updates, removes and finds as a command script.
+     *
+     * Writes are recorded under the write lock of their student, so the writes to
+     * one ID are recorded in the order they take effect, and replaying the script
+     * gives the same students. Students added by different threads at the same
+     * time may be replayed in another insertion order.
+     *
+     * @param recorder The recorder to write to, or null to stop recording; the
+     *                 caller closes it when done.
+     */
+    void recordTo(CommandRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @brief Returns the counters and latency histograms of the repository's operations.
+     *
+     * @return The metrics.
+     */
+    StudentMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * @brief Checks whether many threads may use the repository at once.
+     *
+     * @return True if the repository was created by concurrent() or over another
+     *         thread-safe store.
+     */
+    boolean isThreadSafe() {
+        return studentStore.isThreadSafe();
+    }
+
+    /**
+     * @brief Streams all students in the repository in insertion order.
+     *
+     * @return A sequential stream of the students.
+     */
+    public Stream<Student> stream() {
+        return studentStore.stream();
+    }
+
+    /**
+     * @brief Returns the number of students in the repository.
+     *
+     * @return The number of students.
+     */
+    public int size() {
+        return studentStore.size();
+    }
+
+    /**
+     * @brief Checks whether the repository holds no students.
+     *
+     * @return True if the repository is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return studentStore.isEmpty();
+    }
+
+    /**
+     * @brief Returns the students in insertion order for rendering.
+     *
+     * @return The students of the backing store.
+     */
+    Iterable<Student> students() {
+        return studentStore;
+    }
+
+    /**
+     * @brief Looks up a student for display, without counting or recording the lookup.
+     *
+     * The menu shows the current values of a student before prompting for changes;
+     * that lookup is not an operation of the session, so it stays out of the
+     * statistics and out of a recorded script.
+     *
+     * @param studentId The ID of the student to look up.
+     * @return The student, or null if no student has the ID.
+     */
+    Student peek(int studentId) {
+        return studentStore.get(studentId);
+    }
+
+    /**
+     * @brief Looks up the stored students with the IDs a secondary index returned.
+     *
+     * The indexes hold IDs rather than students, so stores that create students on
+     * demand are not kept from freeing them. The IDs are copied out of the index
+     * before any student is looked up, so no index lock is held during the lookups.
+     * A student removed since the index was read is left out.
+     */
+    private List<Student> collect(IdList studentIds) {
+        List<Student> students = new ArrayList<>(studentIds.size());
+        for (int i = 0; i < studentIds.size(); i++) {
+            collect(studentIds.get(i), students);
+        }
+        return students;
+    }
+
+    /**
+     * @brief Adds the stored student with an ID found in a secondary index to a query result.
+     */
+    private void collect(int studentId, List<Student> students) {
+        Student student = studentStore.get(studentId);
+        if (student != null) {
+            students.add(student);
+        }
+    }
+
+    /**
+     * @brief Takes an ID that a failed write indexed out of the ordered index; called under the ID's write lock.
+     */
+    private void unindex(boolean indexed, int studentId) {
+        if (indexed) {
+            idIndex.remove(studentId);
+        }
+    }
+
+    /**
+     * @brief Returns the lock guarding writes of one student ID.
+     */
+    private Object writeLock(int studentId) {
+        return writeLocks[studentId & (WRITE_LOCK_STRIPES - 1)];
     }
 }
@@ -0,0 +1,90 @@
+/**
+ * @file StudentResult.java
+ * @brief Outcome of a StudentRepository operation.
+ *
+ * A result holds either the student the operation affected or the error that
+ * prevented it, so that callers can handle failures without exceptions.
+ */
+
+package com.example;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @class StudentResult
+ * @brief Success-or-error value returned by repository write operations.
+ *
+ * Failures carry no per-call state, so one shared instance exists per error.
+ */
+public final class StudentResult {
+
+    private static final Map<StudentError, StudentResult> FAILURES = new EnumMap<>(StudentError.class);
+
+    static {
+        for (StudentError error : StudentError.values()) {
+            FAILURES.put(error, new StudentResult(null, error));
+        }
+    }
+
+    private final Student student; /**< The affected student, or null on failure. */
+    private final StudentError error; /**< The failure reason, or null on success. */
+
+    /**
+     * @brief Private constructor; use success() or failure().
+     *
+     * @param student The affected student.
+     * @param error The failure reason.
+     */
+    private StudentResult(Student student, StudentError error) {
+        this.student = student;
+        this.error = error;
+    }
+
+    /**
+     * @brief Creates a successful result.
+     *
+     * @param student The student the operation added or removed.
+     * @return The result.
+     */
+    public static StudentResult success(Student student) {
+        return new StudentResult(student, null);
+    }
+
+    /**
+     * @brief Returns the failed result for an error.
+     *
+     * @param error The reason the operation failed.
+     * @return The shared result for the error.
+     */
+    public static StudentResult failure(StudentError error) {
+        return FAILURES.get(error);
+    }
+
+    /**
+     * @brief Checks whether the operation succeeded.
+     *
+     * @return True on success, false on failure.
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @brief Getter for the affected student.
+     *
+     * @return The student the operation added or removed, or null on failure.
+     */
+    public Student getStudent() {
+        return student;
+    }
+
+    /**
+     * @brief Getter for the failure reason.
+     *
+     * @return The error, or null on success.
+     */
+    public StudentError getError() {
+        return error;
+    }
+}
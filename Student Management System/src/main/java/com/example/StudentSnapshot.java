@@ -0,0 +1,150 @@
+/**
+ * @file StudentSnapshot.java
+ * @brief Point-in-time view of a repository's roster.
+ *
+ * Reports that take seconds to read the roster open a snapshot instead of
+ * stopping the writers, and see every student exactly as they were when the
+ * snapshot was opened.
+ */
+
+package com.example;
+
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @class StudentSnapshot
+ * @brief Reads the roster at the version it was opened at, while writes continue.
+ *
+ * A snapshot holds no copy of the roster. It reads the repository's store and
+ * the before-images that the writes made since it was opened left in the
+ * repository's VersionLog, so its reads cost about as much as the repository's
+ * own, and every write made while it is open keeps one before-image alive.
+ * Close the snapshot as soon as the report is done, preferably with
+ * try-with-resources; the before-images are reclaimed when no open snapshot
+ * needs them any more.
+ *
+ * A snapshot may be read from any thread that could read the repository.
+ */
+public final class StudentSnapshot implements AutoCloseable {
+
+    private final VersionLog log;    /**< Log of the repository the snapshot was opened on. */
+    private final long version;      /**< Writes at or above this version are not seen. */
+    private volatile boolean closed; /**< Whether close() has been called. */
+    StudentSnapshot older;           /**< Previous open snapshot in the log's list; guarded by the log. */
+    StudentSnapshot newer;           /**< Next open snapshot in the log's list; guarded by the log. */
+
+    /**
+     * @brief Constructor to initialize an open snapshot; called by the log.
+     *
+     * @param log The log of the repository.
+     * @param version The version of the next write.
+     */
+    StudentSnapshot(VersionLog log, long version) {
+        this.log = log;
+        this.version = version;
+    }
+
+    /**
+     * @brief Returns the version the snapshot reads.
+     *
+     * Snapshots opened with no write in between have the same version.
+     *
+     * @return The version number.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @brief Searches for a student by their ID, as they were when the snapshot was opened.
+     *
+     * @param studentId The ID of the student to find.
+     * @return The student, or an empty Optional if no student had the ID.
+     * @throws IllegalStateException If the snapshot is closed.
+     */
+    public Optional<Student> find(int studentId) {
+        checkOpen();
+        return Optional.ofNullable(log.read(studentId, version));
+    }
+
+    /**
+     * @brief Streams all students of the snapshot by ascending ID.
+     *
+     * @return A sequential, lazy stream of the students.
+     * @throws IllegalStateException If the snapshot is closed.
+     */
+    public Stream<Student> stream() {
+        return streamByIdRange(1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @brief Streams the students of the snapshot whose ID lies in a closed range, by ascending ID.
+     *
+     * The stream reads the students one at a time as it is consumed. Reading
+     * it after the snapshot is closed fails with IllegalStateException.
+     *
+     * @param fromId The smallest ID to include.
+     * @param toId The largest ID to include.
+     * @return A sequential, lazy stream of the students.
+     * @throws IllegalStateException If the snapshot is closed.
+     */
+    public Stream<Student> streamByIdRange(int fromId, int toId) {
+        checkOpen();
+        Spliterator<Student> students = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL) {
+            private int nextId = fromId;                /**< Smallest ID not read yet. */
+            private boolean exhausted = fromId > toId;  /**< Whether the range has been read to its end. */
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Student> action) {
+                while (!exhausted) {
+                    checkOpen();
+                    int studentId = log.nextCandidate(nextId);
+                    if (studentId == 0 || studentId > toId) {
+                        exhausted = true;
+                        return false;
+                    }
+                    exhausted = studentId == toId;
+                    nextId = studentId + 1;
+                    Student student = log.read(studentId, version);
+                    if (student != null) {
+                        action.accept(student);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(students, false);
+    }
+
+    /**
+     * @brief Closes the snapshot, releasing the before-images kept for it.
+     *
+     * Closing a closed snapshot does nothing.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        log.close(this);
+    }
+
+    /**
+     * @brief Throws unless the snapshot is open; the before-images it reads may be gone once it is closed.
+     */
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Snapshot is closed");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * @file StudentStore.java
+ * @brief Storage abstraction underneath the StudentRepository.
+ *
+ * This interface separates how students are stored from how they are validated
+ * and presented, so that the repository can run over different storage engines.
+ */
+
+package com.example;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * @class StudentStore
+ * @brief Keyed storage of students with insertion-ordered iteration.
+ *
+ * Implementations perform no validation; they only guarantee that student IDs
+ * are unique and that iteration follows insertion order.
+ */
+interface StudentStore extends Iterable<Student> {
+
+    /**
+     * @brief Looks up a student by ID.
+     *
+     * @param studentId The ID to look up.
+     * @return The student with the ID, or null if there is none.
+     */
+    Student get(int studentId);
+
+    /**
+     * @brief Adds a student unless one with the same ID already exists.
+     *
+     * @param student The student to add.
+     * @return True if the student was added, false if the ID was already taken.
+     */
+    boolean add(Student student);
+
+    /**
+     * @brief Removes the student with the given ID.
+     *
+     * @param studentId The ID of the student to remove.
+     * @return The removed student, or null if no student had the ID.
+     */
+    Student remove(int studentId);
+
+    /**
+     * @brief Replaces a student by another in its place in insertion order.
+     *
+     * The replacement may carry a different ID, which re-keys the student. It keeps
+     * the insertion sequence number of the student it replaces, so page tokens
+     * stay valid. The default implementation removes the student and adds the
+     * replacement, which moves it to the end of the insertion order; stores
+     * override it to overwrite the student where it is.
+     *
+     * @param studentId The ID of the student to replace.
+     * @param replacement The student taking its place.
+     * @return The replaced student, or null if no student had the ID; the store is then unchanged.
+     * @throws IllegalArgumentException If the replacement's ID belongs to another student.
+     */
+    default Student replace(int studentId, Student replacement) {
+        int newId = replacement.getStudentId();
+        if (newId != studentId && contains(newId)) {
+            throw new IllegalArgumentException("Student ID is already taken: " + newId);
+        }
+        Student replaced = remove(studentId);
+        if (replaced != null) {
+            add(replacement);
+        }
+        return replaced;
+    }
+
+    /**
+     * @brief Returns the number of stored students.
+     *
+     * @return The number of students.
+     */
+    int size();
+
+    /**
+     * @brief Prepares the store to hold the given number of students.
+     *
+     * Bulk loaders call this before adding a batch so that the store can grow once
+     * instead of repeatedly. Stores without a sizing concept may ignore it.
+     *
+     * @param expectedSize The total number of students the store is about to hold.
+     */
+    default void ensureCapacity(int expectedSize) {
+    }
+
+    /**
+     * @brief Runs a group of writes as one unit.
+     *
+     * Stores with a per-write durability cost can pay it once for the whole group;
+     * the group returns only after all of its writes are durable.
+     *
+     * @param writes The writes to run against this store.
+     * @return The value returned by the writes.
+     */
+    default <T> T writeBatch(Supplier<T> writes) {
+        return writes.get();
+    }
+
+    /**
+     * @brief Copies the students that follow a position in insertion order.
+     *
+     * Positions are insertion sequence numbers, which increase in insertion order.
+     * A position stays valid after the student at it is removed, so callers can
+     * page through the store with the sequence number of the last student they
+     * received. The default implementation numbers the students by their current
+     * place in iteration order and skips to the position, which costs O(n) per page
+     * and shifts when earlier students are removed; stores override it with a
+     * lookup of stable numbers.
+     *
+     * @param afterSequence The sequence number to continue after, or -1 to start at the beginning.
+     * @param students The array receiving the students; its length is the page size.
+     * @param sequences The array receiving each student's sequence number.
+     * @return The number of students copied; less than the page size at the end of the store.
+     */
+    default int page(long afterSequence, Student[] students, long[] sequences) {
+        int count = 0;
+        long sequence = 0;
+        for (Iterator<Student> iterator = iterator(); iterator.hasNext() && count < students.length; sequence++) {
+            Student student = iterator.next();
+            if (sequence > afterSequence) {
+                students[count] = student;
+                sequences[count] = sequence;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @brief Returns the share of the ID index's slots that are in use.
+     *
+     * @return The load factor, or NaN if the store has no hash index.
+     */
+    default double loadFactor() {
+        return Double.NaN;
+    }
+
+    /**
+     * @brief Returns the share of lookups answered from a cache in front of the store.
+     *
+     * @return The hit rate from 0 to 1, or NaN if the store has no cache or has not been read.
+     */
+    default double cacheHitRate() {
+        return Double.NaN;
+    }
+
+    /**
+     * @brief Checks whether many threads may use the store at once.
+     *
+     * @return True if every operation is thread-safe, false if callers must serialize them.
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
+
+    /**
+     * @brief Returns the longest name the store can hold.
+     *
+     * Stores with fixed-width records limit the name length; the repository checks
+     * it before adding a student, so the store never has to reject a valid name.
+     *
+     * @return The maximum name length in characters of a valid name.
+     */
+    default int maxNameLength() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @brief Checks whether a student with the given ID is present.
+     *
+     * @param studentId The ID to look up.
+     * @return True if a student with the ID exists, false otherwise.
+     */
+    default boolean contains(int studentId) {
+        return get(studentId) != null;
+    }
+
+    /**
+     * @brief Checks whether the store holds no students.
+     *
+     * @return True if the store is empty, false otherwise.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @brief Returns a sequential stream of the students in insertion order.
+     *
+     * @return A stream over the store.
+     */
+    default Stream<Student> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
@@ -0,0 +1,214 @@
+/**
+ * @file StudentValidator.java
+ * @brief Validation rules for student fields.
+ *
+ * The rules are shared by the repository API and by every input path, so that a
+ * student is accepted or rejected the same way regardless of where it came from.
+ * The checks and the number parser run on every row of a bulk load, so they
+ * neither allocate nor throw.
+ */
+
+package com.example;
+
+/**
+ * @class StudentValidator
+ * @brief Checks student IDs, names and ages against the roster rules.
+ *
+ * Each check returns null when the value is valid and the matching StudentError otherwise.
+ * Names and numbers can be checked on a CharSequence or directly on a range of
+ * ASCII or UTF-8 bytes, so that input is only decoded once it has been accepted.
+ */
+final class StudentValidator {
+
+    static final long NOT_A_NUMBER = Long.MIN_VALUE; /**< Returned by parseInt() for a field that is not an int. */
+
+    private static final int MAX_INT_DIGITS = 10;   /**< Digits of Integer.MAX_VALUE. */
+
+    /**
+     * @brief Private constructor; this class only has static methods.
+     */
+    private StudentValidator() {
+    }
+
+    /**
+     * @brief Validates all fields of a student.
+     *
+     * @param student The student to validate.
+     * @return The first error found, or null if the student is valid.
+     */
+    static StudentError validate(Student student) {
+        StudentError error = validateId(student.getStudentId());
+        if (error == null) {
+            error = validateName(student.getStudentName());
+        }
+        if (error == null) {
+            error = validateAge(student.getStudentAge());
+        }
+        return error;
+    }
+
+    /**
+     * @brief Validates a student ID.
+     *
+     * @param studentId The ID to check.
+     * @return INVALID_ID if the ID is not positive, null otherwise.
+     */
+    static StudentError validateId(int studentId) {
+        return studentId > 0 ? null : StudentError.INVALID_ID;
+    }
+
+    /**
+     * @brief Validates a student name.
+     *
+     * A name made only of spaces is treated as empty.
+     *
+     * @param studentName The name to check.
+     * @return EMPTY_NAME or INVALID_NAME if the name is rejected, null otherwise.
+     */
+    static StudentError validateName(CharSequence studentName) {
+        // Check if the name is empty
+        if (studentName == null || studentName.length() == 0) {
+            return StudentError.EMPTY_NAME;
+        }
+
+        // Check if the name contains only alphabetic characters and spaces
+        boolean blank = true;
+        for (int i = 0, length = studentName.length(); i < length; i++) {
+            char c = studentName.charAt(i);
+            if (!isNameCharacter(c)) {
+                return StudentError.INVALID_NAME;
+            }
+            blank &= c == ' ';
+        }
+        return blank ? StudentError.EMPTY_NAME : null;
+    }
+
+    /**
+     * @brief Validates a student name held as bytes.
+     *
+     * Valid names are ASCII, so every byte of a multi-byte UTF-8 character is
+     * rejected, and an accepted range can be decoded as ISO-8859-1.
+     *
+     * @param buffer The buffer holding the name.
+     * @param from The index of the first byte of the name.
+     * @param to The index just past the last byte of the name.
+     * @return EMPTY_NAME or INVALID_NAME if the name is rejected, null otherwise.
+     */
+    static StudentError validateName(byte[] buffer, int from, int to) {
+        if (from >= to) {
+            return StudentError.EMPTY_NAME;
+        }
+        boolean blank = true;
+        for (int i = from; i < to; i++) {
+            if (!isNameCharacter((char) buffer[i])) { // Negative bytes become non-ASCII chars
+                return StudentError.INVALID_NAME;
+            }
+            blank &= buffer[i] == ' ';
+        }
+        return blank ? StudentError.EMPTY_NAME : null;
+    }
+
+    /**
+     * @brief Validates a student age.
+     *
+     * @param studentAge The age to check.
+     * @return INVALID_AGE if the age is not positive, null otherwise.
+     */
+    static StudentError validateAge(int studentAge) {
+        return studentAge > 0 ? null : StudentError.INVALID_AGE;
+    }
+
+    /**
+     * @brief Parses a decimal int, ignoring surrounding spaces.
+     *
+     * Unlike Integer.parseInt(), a malformed value is reported through the return
+     * value rather than an exception. An optional sign is accepted; digits must be
+     * ASCII.
+     *
+     * @param text The text holding the number.
+     * @return The value, or NOT_A_NUMBER if the text is not an int.
+     */
+    static long parseInt(CharSequence text) {
+        int from = 0;
+        int to = text.length();
+        while (from < to && text.charAt(from) == ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) == ' ') {
+            to--;
+        }
+        boolean negative = from < to && text.charAt(from) == '-';
+        if (negative || (from < to && text.charAt(from) == '+')) {
+            from++;
+        }
+        if (from == to) {
+            return NOT_A_NUMBER;
+        }
+        // Leading zeros do not count towards the digit limit, as in Integer.parseInt()
+        while (to - from > 1 && text.charAt(from) == '0') {
+            from++;
+        }
+        if (to - from > MAX_INT_DIGITS) {
+            return NOT_A_NUMBER;
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+        }
+        return toInt(negative ? -value : value);
+    }
+
+    /**
+     * @brief Parses a decimal int held as ASCII bytes, ignoring surrounding spaces.
+     *
+     * @param buffer The buffer holding the number.
+     * @param from The index of the first byte of the number.
+     * @param to The index just past the last byte of the number.
+     * @return The value, or NOT_A_NUMBER if the range is not an int.
+     */
+    static long parseInt(byte[] buffer, int from, int to) {
+        while (from < to && buffer[from] == ' ') {
+            from++;
+        }
+        while (to > from && buffer[to - 1] == ' ') {
+            to--;
+        }
+        boolean negative = from < to && buffer[from] == '-';
+        if (negative || (from < to && buffer[from] == '+')) {
+            from++;
+        }
+        if (from == to) {
+            return NOT_A_NUMBER;
+        }
+        // Leading zeros do not count towards the digit limit, as in Integer.parseInt()
+        while (to - from > 1 && buffer[from] == '0') {
+            from++;
+        }
+        if (to - from > MAX_INT_DIGITS) {
+            return NOT_A_NUMBER;
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_A_NUMBER;
+            }
+            value = value * 10 + digit;
+        }
+        return toInt(negative ? -value : value);
+    }
+
+    private static boolean isNameCharacter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == ' ';
+    }
+
+    private static long toInt(long value) {
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? NOT_A_NUMBER : value;
+    }
+}
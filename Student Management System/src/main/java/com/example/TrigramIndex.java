@@ -0,0 +1,256 @@
+/**
+ * @file TrigramIndex.java
+ * @brief Trigram index over the distinct names of the roster, for typo-tolerant search.
+ *
+ * Comparing a misspelled name with every name of a large roster by edit distance
+ * takes far too long. Names within a few edits of each other share most of
+ * their three-letter substrings, so the index looks up the trigrams of the
+ * query and only computes the edit distance to the names that share enough of
+ * them.
+ */
+
+package com.example;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * @class TrigramIndex
+ * @brief Maps every trigram to the IDs of the names containing it, and finds names near a query.
+ *
+ * Each word of a name is padded with two start marks and one end mark, so
+ * "ali" has the trigrams "^^a", "^al", "ali" and "li$", and the start of a word
+ * weighs more than its middle. A name gets a small integer ID, reused after the
+ * name is removed, and every trigram maps to the IdSet of the names holding it.
+ *
+ * A query is answered in three steps. One edit changes at most three trigrams,
+ * so a name within d edits of a query with m distinct trigrams shares at least
+ * t = m - 3d of them. Such a name must appear in at least one of the m - t + 1
+ * shortest posting lists of the query, so only those are scanned, counting the
+ * hits of each name. The count of each name found is completed by membership
+ * tests on the longer lists, which hold the common trigrams and are never
+ * scanned. The names that reach t are compared with the query by Levenshtein
+ * distance, giving up on a name once the distance exceeds d.
+ *
+ * The index is not thread-safe, not even for queries, which reuse its scratch
+ * arrays; NameIndex calls it under the index's own monitor.
+ */
+final class TrigramIndex {
+
+    private static final char START = '^';          /**< Pads a word at its start; never part of a name. */
+    private static final char END = '$';            /**< Pads a word at its end; never part of a name. */
+    private static final IdSet EMPTY = new IdSet(); /**< Posting list of a trigram no name has. */
+
+    private final Map<Long, IdSet> postings = new HashMap<>();    /**< Name IDs by packed trigram. */
+    private final Map<String, Integer> nameIds = new HashMap<>(); /**< ID of each indexed name. */
+    private String[] names = new String[16];  /**< Indexed name by ID; null if the ID is free. */
+    private int[] freeIds = new int[16];      /**< Stack of the IDs of removed names. */
+    private int freeCount;                    /**< Number of IDs on the free stack. */
+    private int nextId = 1;                   /**< Lowest ID never handed out. */
+    private int[] hits = new int[16];         /**< Trigrams of the current query found per name ID. */
+    private int[] touched = new int[16];      /**< Name IDs with a nonzero hit count. */
+    private int touchedCount;                 /**< Number of entries in touched. */
+    private int[] previousRow = new int[16];  /**< Edit distance scratch row. */
+    private int[] currentRow = new int[16];   /**< Edit distance scratch row. */
+
+    /**
+     * @brief Indexes a name that is not in the index yet.
+     *
+     * @param name The folded name.
+     */
+    void add(String name) {
+        int nameId;
+        if (freeCount > 0) {
+            nameId = freeIds[--freeCount];
+        } else {
+            nameId = nextId++;
+            if (nameId == names.length) {
+                names = Arrays.copyOf(names, nameId * 2);
+                hits = Arrays.copyOf(hits, nameId * 2);
+            }
+        }
+        names[nameId] = name;
+        nameIds.put(name, nameId);
+        for (long trigram : trigrams(name)) {
+            postings.computeIfAbsent(trigram, key -> new IdSet()).add(nameId);
+        }
+    }
+
+    /**
+     * @brief Removes a name from the index.
+     *
+     * @param name The folded name, as it was added.
+     */
+    void remove(String name) {
+        Integer nameId = nameIds.remove(name);
+        if (nameId == null) {
+            return;
+        }
+        for (long trigram : trigrams(name)) {
+            IdSet ids = postings.get(trigram);
+            ids.remove(nameId);
+            if (ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+        names[nameId] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = nameId;
+    }
+
+    /**
+     * @brief Returns the number of indexed names.
+     *
+     * @return The number of distinct names.
+     */
+    int size() {
+        return nameIds.size();
+    }
+
+    /**
+     * @brief Finds the names within an edit distance of a query.
+     *
+     * A single-word query is also compared with each word of a name, so "mohamad"
+     * finds "muhammad khan" at distance 2.
+     *
+     * @param query The folded query.
+     * @param maxDistance The largest Levenshtein distance to accept.
+     * @param action The action receiving each matching name and its distance, in no particular order.
+     */
+    void forEachSimilar(String query, int maxDistance, ObjIntConsumer<String> action) {
+        long[] trigrams = trigrams(query);
+        int threshold = Math.max(1, trigrams.length - 3 * maxDistance);
+        if (trigrams.length < threshold) {
+            return;
+        }
+        IdSet[] lists = new IdSet[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.getOrDefault(trigrams[i], EMPTY);
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        int scanned = trigrams.length - threshold + 1;
+        for (int i = 0; i < scanned; i++) {
+            lists[i].forEach(this::hit);
+        }
+        boolean singleWord = query.indexOf(' ') < 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int nameId = touched[t];
+            int count = hits[nameId];
+            hits[nameId] = 0;
+            for (int i = scanned; i < lists.length && count < threshold; i++) {
+                if (lists[i].contains(nameId)) {
+                    count++;
+                }
+            }
+            if (count < threshold) {
+                continue;
+            }
+            String name = names[nameId];
+            int distance = distance(query, name, maxDistance);
+            if (singleWord && name.indexOf(' ') >= 0) {
+                for (String word : name.split(" ")) {
+                    distance = Math.min(distance, distance(query, word, maxDistance));
+                }
+            }
+            if (distance <= maxDistance) {
+                action.accept(name, distance);
+            }
+        }
+        touchedCount = 0;
+    }
+
+    /**
+     * @brief Counts one shared trigram for a name.
+     */
+    private void hit(int nameId) {
+        if (hits[nameId]++ == 0) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = nameId;
+        }
+    }
+
+    /**
+     * @brief Returns the Levenshtein distance of two strings, or maxDistance + 1 if it is larger.
+     *
+     * Two rows of the dynamic programming table are kept; once every entry of a
+     * row exceeds maxDistance, so does the result.
+     */
+    private int distance(String a, String b, int maxDistance) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (previousRow.length <= m) {
+            previousRow = new int[m + 1];
+            currentRow = new int[m + 1];
+        }
+        int[] previous = previousRow;
+        int[] current = currentRow;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= n; i++) {
+            char c = a.charAt(i - 1);
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= m; j++) {
+                int cost = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                cost = Math.min(cost, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = cost;
+                rowMin = Math.min(rowMin, cost);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], maxDistance + 1);
+    }
+
+    /**
+     * @brief Returns the distinct trigrams of the padded words of a name, packed three chars to a long.
+     */
+    private static long[] trigrams(String name) {
+        long[] trigrams = new long[name.length() * 2 + 4];
+        int count = 0;
+        int wordStart = 0;
+        while (wordStart <= name.length()) {
+            int wordEnd = name.indexOf(' ', wordStart);
+            if (wordEnd < 0) {
+                wordEnd = name.length();
+            }
+            if (wordEnd > wordStart) {
+                if (count + (wordEnd - wordStart) + 2 > trigrams.length) {
+                    trigrams = Arrays.copyOf(trigrams, trigrams.length * 2 + wordEnd - wordStart);
+                }
+                char a = START;
+                char b = START;
+                for (int i = wordStart; i <= wordEnd; i++) {
+                    char c = i < wordEnd ? name.charAt(i) : END;
+                    trigrams[count++] = (long) a << 32 | (long) b << 16 | c;
+                    a = b;
+                    b = c;
+                }
+            }
+            wordStart = wordEnd + 1;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[i] != trigrams[distinct - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+}
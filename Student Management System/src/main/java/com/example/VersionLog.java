@@ -0,0 +1,247 @@
+/**
+ * @file VersionLog.java
+ * @brief Before-images of the students written while snapshots are open.
+ *
+ * A report that reads the roster student by student while registrars keep
+ * writing would otherwise count a re-keyed student twice or miss a removed one.
+ * The log lets each StudentSnapshot see the roster as it was when the snapshot
+ * was opened, without copying the roster and without holding up the writers.
+ */
+
+package com.example;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * @class VersionLog
+ * @brief Version counter, open snapshots and per-ID undo chains of one repository.
+ *
+ * While no snapshot is open, a write only reads the open count. While one is,
+ * every write takes the next version number and pushes the before-image of
+ * each student it changes onto the undo chain of the ID, newest first. A
+ * snapshot is the version number the next write would take, so opening one is
+ * O(1): the store remains the newest version of every student, and a snapshot
+ * reads a student as the store holds it, unless the chain of the ID has
+ * entries at or above its version, in which case the oldest of those holds the
+ * student as the snapshot saw it.
+ *
+ * The repository records a write under the write lock of each ID it changes,
+ * and the log reads and prunes a chain under the same lock, so the store and
+ * the chain always agree. A write that read no open snapshot is in effect older
+ * than any snapshot: the lock orders it before the first read of its ID that a
+ * snapshot makes, and every later write of that ID sees the snapshot.
+ *
+ * The open snapshots are kept in a list in the order of their versions. When
+ * the oldest one closes, the entries below the floor, the version of the
+ * oldest snapshot still open, are cut from the chains, and the chains are
+ * dropped when the last one closes. A write that took its version before the
+ * close may record after the pruning passed its ID, so record() compares its
+ * version with the floor again and cuts its own chain if it is below.
+ */
+final class VersionLog {
+
+    /**
+     * @class Undo
+     * @brief One before-image on the undo chain of an ID.
+     */
+    private static final class Undo {
+        final long version;   /**< Version of the write that replaced the image. */
+        final Student before; /**< The student before the write, or null if the ID was free. */
+        Undo older;           /**< Next older entry of the chain; cut under the ID's write lock. */
+
+        Undo(long version, Student before, Undo older) {
+            this.version = version;
+            this.before = before;
+            this.older = older;
+        }
+    }
+
+    private final StudentStore studentStore;     /**< The newest version of every student. */
+    private final SortedIdIndex idIndex;         /**< IDs the store holds, in ascending order. */
+    private final IntFunction<Object> writeLock; /**< Write lock of an ID, shared with the repository. */
+    private final ConcurrentSkipListMap<Integer, Undo> chains = new ConcurrentSkipListMap<>(); /**< Undo chain by ID. */
+    private final AtomicLong nextVersion = new AtomicLong(); /**< Version of the next write made while a snapshot is open. */
+    private volatile int openCount;              /**< Number of open snapshots; changed under this. */
+    private volatile long floor = Long.MAX_VALUE; /**< Entries below it are not needed; MAX_VALUE while no snapshot is open. */
+    private StudentSnapshot oldest;              /**< First open snapshot; guarded by this. */
+    private StudentSnapshot newest;              /**< Last open snapshot; guarded by this. */
+
+    /**
+     * @brief Constructor to initialize an empty log.
+     *
+     * @param studentStore The store of the repository.
+     * @param idIndex The ordered ID index of the repository.
+     * @param writeLock The repository's write lock of an ID.
+     */
+    VersionLog(StudentStore studentStore, SortedIdIndex idIndex, IntFunction<Object> writeLock) {
+        this.studentStore = studentStore;
+        this.idIndex = idIndex;
+        this.writeLock = writeLock;
+    }
+
+    /**
+     * @brief Returns the version of a write about to change the store, if a snapshot needs one.
+     *
+     * Called under the write lock of every ID the write changes, before record().
+     *
+     * @return The version number, or -1 if no snapshot is open.
+     */
+    long beginWrite() {
+        // The volatile read of the count pairs with its write in open(), which is
+        // followed by the read of the version: either this write sees the
+        // snapshot or the snapshot's version is above this write's
+        return openCount > 0 ? nextVersion.getAndIncrement() : -1;
+    }
+
+    /**
+     * @brief Records the image of a student that a write replaced.
+     *
+     * @param version The version beginWrite() returned; nothing is recorded for -1.
+     * @param studentId The ID the write changed.
+     * @param before The student with the ID before the write, or null if there was none.
+     */
+    void record(long version, int studentId, Student before) {
+        if (version >= 0) {
+            chains.put(studentId, new Undo(version, before, chains.get(studentId)));
+            // The snapshots that needed the entry may have closed since beginWrite(),
+            // and the pruning of their close may have passed the ID before the put
+            if (version < floor) {
+                trim(studentId);
+            }
+        }
+    }
+
+    /**
+     * @brief Opens a snapshot at the current version.
+     *
+     * @return The snapshot, which must be closed.
+     */
+    synchronized StudentSnapshot open() {
+        if (newest == null) {
+            // Set before the count, so a write that sees the snapshot sees the floor;
+            // it is not above the snapshot's version, so no entry it needs is cut
+            floor = nextVersion.get();
+        }
+        openCount++;
+        StudentSnapshot snapshot = new StudentSnapshot(this, nextVersion.get());
+        snapshot.older = newest;
+        if (newest == null) {
+            oldest = snapshot;
+        } else {
+            newest.newer = snapshot;
+        }
+        newest = snapshot;
+        return snapshot;
+    }
+
+    /**
+     * @brief Closes a snapshot and reclaims the entries that were kept for it alone.
+     *
+     * @param snapshot The open snapshot.
+     */
+    void close(StudentSnapshot snapshot) {
+        synchronized (this) {
+            boolean wasOldest = snapshot == oldest;
+            if (snapshot.older == null) {
+                oldest = snapshot.newer;
+            } else {
+                snapshot.older.newer = snapshot.newer;
+            }
+            if (snapshot.newer == null) {
+                newest = snapshot.older;
+            } else {
+                snapshot.newer.older = snapshot.older;
+            }
+            openCount--;
+            if (!wasOldest) {
+                return;
+            }
+            // With no snapshot left, every entry goes, including those of writes still under way
+            floor = oldest == null ? Long.MAX_VALUE : oldest.getVersion();
+        }
+        prune();
+    }
+
+    /**
+     * @brief Reads a student as it was at a version.
+     *
+     * @param studentId The ID of the student.
+     * @param version The version of a snapshot that is still open.
+     * @return The student, or null if no student had the ID.
+     */
+    Student read(int studentId, long version) {
+        synchronized (writeLock.apply(studentId)) {
+            Student student = studentStore.get(studentId);
+            for (Undo undo = chains.get(studentId); undo != null && undo.version >= version; undo = undo.older) {
+                student = undo.before;
+            }
+            return student;
+        }
+    }
+
+    /**
+     * @brief Returns the smallest ID at or above an ID that a snapshot may hold.
+     *
+     * These are the IDs the store holds now and the IDs with an undo chain, which
+     * include every ID removed since an open snapshot was opened. The store is
+     * asked first: an ID it no longer holds got its chain entry before it left.
+     * An ID is indexed before its add reads the open count, so an add that no
+     * snapshot sees is in the index by the time a snapshot scans past it.
+     *
+     * @param studentId The ID to look up from.
+     * @return The candidate ID, or 0 if there is none.
+     */
+    int nextCandidate(int studentId) {
+        int stored = idIndex.ceiling(studentId);
+        Integer changed = chains.ceilingKey(studentId);
+        if (changed == null) {
+            return stored;
+        }
+        return stored == 0 ? changed : Math.min(stored, changed);
+    }
+
+    /**
+     * @brief Returns the number of IDs with an undo chain.
+     *
+     * @return The number of IDs written since the oldest open snapshot was opened.
+     */
+    int changedIds() {
+        return chains.size();
+    }
+
+    /**
+     * @brief Cuts the entries below the floor from every undo chain.
+     */
+    private void prune() {
+        for (Map.Entry<Integer, Undo> chain : chains.entrySet()) {
+            int studentId = chain.getKey();
+            synchronized (writeLock.apply(studentId)) {
+                trim(studentId);
+            }
+        }
+    }
+
+    /**
+     * @brief Cuts the entries below the floor from the undo chain of an ID; called under the ID's write lock.
+     *
+     * The floor is read under the lock, so a snapshot opened since the pruning
+     * started keeps the entries of the writes it needs.
+     */
+    private void trim(int studentId) {
+        long floor = this.floor;
+        Undo newer = null;
+        Undo undo = chains.get(studentId);
+        while (undo != null && undo.version >= floor) {
+            newer = undo;
+            undo = undo.older;
+        }
+        if (newer == null) {
+            chains.remove(studentId);
+        } else {
+            newer.older = null;
+        }
+    }
+}
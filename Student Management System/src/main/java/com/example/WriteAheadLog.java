@@ -0,0 +1,525 @@
+/**
+ * @file WriteAheadLog.java
+ * @brief Append-only log of roster changes.
+ *
+ * This class records every add, remove and update as a checksummed binary record in a log
+ * segment file. Records are encoded into an in-memory buffer and written to the
+ * FileChannel by a background flusher thread, which forces them to disk according
+ * to the configured FsyncPolicy.
+ */
+
+package com.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+
+/**
+ * @class WriteAheadLog
+ * @brief Group-committing writer and replayer of log segments.
+ *
+ * Each record is laid out as:
+ *
+ *     int   body length
+ *     long  log sequence number (LSN)
+ *     byte  record type (ADD, REMOVE or UPDATE)
+ *     int   student ID
+ *     int   new student ID       (UPDATE only)
+ *     int   student age          (ADD and UPDATE)
+ *     short name length          (ADD and UPDATE)
+ *     byte[] UTF-8 name          (ADD and UPDATE)
+ *     int   CRC32 of the body
+ *
+ * An UPDATE record holds every field of the updated student, not just the
+ * changed ones, so replaying it does not depend on the state it was applied to.
+ *
+ * LSNs increase by one per record across segments. A segment is named after the
+ * first LSN it may contain, so recovery can order segments and skip records that
+ * a snapshot already covers.
+ */
+class WriteAheadLog implements Closeable {
+
+    static final byte ADD = 1;    /**< Record type of an added student. */
+    static final byte REMOVE = 2; /**< Record type of a removed student. */
+    static final byte UPDATE = 3; /**< Record type of an updated student. */
+
+    static final int MAX_NAME_BYTES = 0xFFFF; /**< Longest name a record holds, in UTF-8 bytes. */
+
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16; /**< Initial size of the append buffers. */
+    private static final int HEADER_SIZE = 4;               /**< Size of the body length field. */
+    private static final int TRAILER_SIZE = 4;              /**< Size of the CRC field. */
+    private static final int MAX_BODY_SIZE = 1 << 20;       /**< Larger bodies indicate a torn record. */
+
+    /**
+     * @class Visitor
+     * @brief Receives the records of a segment during replay.
+     */
+    interface Visitor {
+        /**
+         * @brief Called for a replayed ADD record.
+         *
+         * @param lsn The sequence number of the record.
+         * @param student The added student.
+         */
+        void added(long lsn, Student student);
+
+        /**
+         * @brief Called for a replayed REMOVE record.
+         *
+         * @param lsn The sequence number of the record.
+         * @param studentId The ID of the removed student.
+         */
+        void removed(long lsn, int studentId);
+
+        /**
+         * @brief Called for a replayed UPDATE record.
+         *
+         * @param lsn The sequence number of the record.
+         * @param studentId The ID of the student before the update.
+         * @param student The updated student.
+         */
+        void updated(long lsn, int studentId, Student student);
+    }
+
+    private final FsyncPolicy policy;        /**< When writes are forced to disk. */
+    private final long syncIntervalMillis;   /**< Flush interval for the INTERVAL and NEVER policies. */
+    private final Thread flusher;            /**< Background thread that writes and forces records. */
+    private final CRC32 crc = new CRC32();   /**< Checksum calculator, guarded by this. */
+
+    private FileChannel channel;             /**< Current segment; replaced by rotate(). */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE); /**< Records not yet handed to the flusher. */
+    private ByteBuffer writing = ByteBuffer.allocate(INITIAL_BUFFER_SIZE); /**< Records being written by the flusher. */
+    private long appendedLsn;                /**< LSN of the last appended record. */
+    private long durableLsn;                 /**< LSN of the last record written (and forced, if required). */
+    private boolean flushing;                /**< Whether the flusher is writing a batch. */
+    private boolean syncRequested;           /**< Whether a writer is waiting for the next flush. */
+    private boolean closed;                  /**< Whether close() has been called. */
+    private IOException failure;             /**< First write failure; the log is unusable after it. */
+
+    /**
+     * @brief Constructor to open a new log segment for appending.
+     *
+     * @param segment The segment file to create or append to.
+     * @param lastLsn The LSN of the last record already in the log, or 0 for none.
+     * @param policy When writes are forced to disk.
+     * @param syncIntervalMillis How often the flusher runs under the INTERVAL and NEVER policies.
+     * @throws IOException If the segment cannot be opened.
+     */
+    WriteAheadLog(Path segment, long lastLsn, FsyncPolicy policy, long syncIntervalMillis) throws IOException {
+        this.policy = policy;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.channel = openSegment(segment);
+        this.appendedLsn = lastLsn;
+        this.durableLsn = lastLsn;
+        this.flusher = new Thread(this::runFlusher, "wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * @brief Appends an ADD record.
+     *
+     * @param student The added student.
+     * @return The LSN of the record.
+     * @throws IllegalArgumentException If the name is longer than MAX_NAME_BYTES in UTF-8.
+     */
+    synchronized long appendAdd(Student student) {
+        byte[] name = encodeName(student);
+        ByteBuffer buffer = reserve(8 + 1 + 4 + 4 + 2 + name.length);
+        int bodyStart = buffer.position() + HEADER_SIZE;
+        buffer.putInt(8 + 1 + 4 + 4 + 2 + name.length);
+        buffer.putLong(++appendedLsn);
+        buffer.put(ADD);
+        buffer.putInt(student.getStudentId());
+        buffer.putInt(student.getStudentAge());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        return finishRecord(buffer, bodyStart);
+    }
+
+    /**
+     * @brief Appends a REMOVE record.
+     *
+     * @param studentId The ID of the removed student.
+     * @return The LSN of the record.
+     */
+    synchronized long appendRemove(int studentId) {
+        ByteBuffer buffer = reserve(8 + 1 + 4);
+        int bodyStart = buffer.position() + HEADER_SIZE;
+        buffer.putInt(8 + 1 + 4);
+        buffer.putLong(++appendedLsn);
+        buffer.put(REMOVE);
+        buffer.putInt(studentId);
+        return finishRecord(buffer, bodyStart);
+    }
+
+    /**
+     * @brief Appends an UPDATE record.
+     *
+     * @param studentId The ID of the student before the update.
+     * @param student The updated student.
+     * @return The LSN of the record.
+     * @throws IllegalArgumentException If the name is longer than MAX_NAME_BYTES in UTF-8.
+     */
+    synchronized long appendUpdate(int studentId, Student student) {
+        byte[] name = encodeName(student);
+        ByteBuffer buffer = reserve(8 + 1 + 4 + 4 + 4 + 2 + name.length);
+        int bodyStart = buffer.position() + HEADER_SIZE;
+        buffer.putInt(8 + 1 + 4 + 4 + 4 + 2 + name.length);
+        buffer.putLong(++appendedLsn);
+        buffer.put(UPDATE);
+        buffer.putInt(studentId);
+        buffer.putInt(student.getStudentId());
+        buffer.putInt(student.getStudentAge());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+        return finishRecord(buffer, bodyStart);
+    }
+
+    /**
+     * @brief Encodes a name for the short length field of a record.
+     */
+    private static byte[] encodeName(Student student) {
+        byte[] name = student.getStudentName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name is longer than " + MAX_NAME_BYTES + " bytes");
+        }
+        return name;
+    }
+
+    /**
+     * @brief Returns the LSN of the last appended record.
+     *
+     * @return The last LSN handed out.
+     */
+    synchronized long lastLsn() {
+        return appendedLsn;
+    }
+
+    /**
+     * @brief Blocks until a record has been written according to the policy.
+     *
+     * Under ALWAYS this means forced to disk; under the other policies it means
+     * handed to the operating system.
+     *
+     * @param lsn The LSN to wait for.
+     */
+    synchronized void awaitDurable(long lsn) {
+        while (durableLsn < lsn) {
+            checkUsable();
+            requestSync();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted while awaiting the log"));
+            }
+        }
+    }
+
+    /**
+     * @brief Finishes the current segment and continues in a new one.
+     *
+     * All appended records are written and forced to the old segment first. The
+     * switch happens while holding the log lock, so every record up to the returned
+     * LSN is in the old segment and every later record in the new one.
+     *
+     * @param segmentForFirstLsn Maps the first LSN of the new segment to its file.
+     * @return The LSN of the last record in the old segment.
+     * @throws IOException If the old segment cannot be finished or the new one opened.
+     */
+    synchronized long rotate(LongFunction<Path> segmentForFirstLsn) throws IOException {
+        while (durableLsn < appendedLsn || flushing) {
+            checkUsable();
+            requestSync();
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while rotating the log");
+            }
+        }
+        channel.force(true);
+        channel.close();
+        channel = openSegment(segmentForFirstLsn.apply(appendedLsn + 1));
+        return appendedLsn;
+    }
+
+    /**
+     * @brief Writes all appended records, forces them to disk and stops the flusher.
+     *
+     * @throws IOException If the final write fails.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            try {
+                if (failure == null) {
+                    channel.force(true);
+                }
+            } finally {
+                channel.close();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @brief Replays the records of a segment.
+     *
+     * Replay stops at the first torn or corrupt record, which can only be the tail
+     * written during a crash; the segment is truncated there so that later appends
+     * are not hidden behind it.
+     *
+     * @param segment The segment file to read.
+     * @param afterLsn Records with an LSN up to and including this one are skipped.
+     * @param visitor The receiver of the replayed records.
+     * @return The LSN of the last valid record in the segment, or afterLsn if there is none.
+     * @throws IOException If the segment cannot be read.
+     */
+    static long replay(Path segment, long afterLsn, Visitor visitor) throws IOException {
+        long lastLsn = afterLsn;
+        try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE).flip();
+            CRC32 checksum = new CRC32();
+            long validEnd = 0;
+
+            while (true) {
+                if (!fill(in, buffer, HEADER_SIZE)) {
+                    break;
+                }
+                int bodySize = buffer.getInt(buffer.position());
+                if (bodySize < 8 + 1 + 4 || bodySize > MAX_BODY_SIZE) {
+                    break;
+                }
+                int recordSize = HEADER_SIZE + bodySize + TRAILER_SIZE;
+                if (recordSize > buffer.capacity()) {
+                    buffer = grow(buffer, recordSize);
+                }
+                if (!fill(in, buffer, recordSize)) {
+                    break;
+                }
+
+                int bodyStart = buffer.position() + HEADER_SIZE;
+                checksum.reset();
+                checksum.update(buffer.array(), bodyStart, bodySize);
+                if ((int) checksum.getValue() != buffer.getInt(bodyStart + bodySize)) {
+                    break;
+                }
+
+                buffer.position(bodyStart);
+                long lsn = buffer.getLong();
+                byte type = buffer.get();
+                int studentId = buffer.getInt();
+                if (lsn > afterLsn) {
+                    if (type == ADD) {
+                        int studentAge = buffer.getInt();
+                        int nameLength = buffer.getShort() & 0xFFFF;
+                        String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+                        visitor.added(lsn, new Student(studentId, name, studentAge));
+                    } else if (type == REMOVE) {
+                        visitor.removed(lsn, studentId);
+                    } else if (type == UPDATE) {
+                        int newId = buffer.getInt();
+                        int studentAge = buffer.getInt();
+                        int nameLength = buffer.getShort() & 0xFFFF;
+                        String name = new String(buffer.array(), buffer.position(), nameLength, StandardCharsets.UTF_8);
+                        visitor.updated(lsn, studentId, new Student(newId, name, studentAge));
+                    } else {
+                        break;
+                    }
+                    lastLsn = lsn;
+                }
+                buffer.position(bodyStart + bodySize + TRAILER_SIZE);
+                validEnd += recordSize;
+            }
+
+            if (validEnd < in.size()) {
+                in.truncate(validEnd);
+            }
+        }
+        return lastLsn;
+    }
+
+    /**
+     * @brief Makes room for a record in the pending buffer.
+     *
+     * @param bodySize The size of the record body.
+     * @return The pending buffer, positioned at the start of the record.
+     */
+    private ByteBuffer reserve(int bodySize) {
+        checkUsable();
+        int recordSize = HEADER_SIZE + bodySize + TRAILER_SIZE;
+        if (pending.remaining() < recordSize) {
+            pending.flip();
+            pending = grow(pending, pending.limit() + recordSize);
+            pending.position(pending.limit()).limit(pending.capacity());
+        }
+        return pending;
+    }
+
+    /**
+     * @brief Appends the checksum of a record body and wakes the flusher.
+     *
+     * @param buffer The pending buffer, positioned at the end of the body.
+     * @param bodyStart The index of the first body byte.
+     * @return The LSN of the record.
+     */
+    private long finishRecord(ByteBuffer buffer, int bodyStart) {
+        crc.reset();
+        crc.update(buffer.array(), bodyStart, buffer.position() - bodyStart);
+        buffer.putInt((int) crc.getValue());
+        if (policy == FsyncPolicy.ALWAYS) {
+            notifyAll();
+        }
+        return appendedLsn;
+    }
+
+    /**
+     * @brief Body of the flusher thread.
+     *
+     * Takes everything appended so far, writes it outside the lock and, unless the
+     * policy is NEVER, forces it to disk. Writers keep appending to the other buffer
+     * meanwhile, and all of them are acknowledged by the next round.
+     */
+    private void runFlusher() {
+        while (true) {
+            long batchLsn;
+            FileChannel target;
+            synchronized (this) {
+                try {
+                    // Let writes accumulate for one interval unless someone is waiting for them
+                    if (policy != FsyncPolicy.ALWAYS && !closed && !syncRequested) {
+                        wait(syncIntervalMillis);
+                    }
+                    while (pending.position() == 0 && !closed) {
+                        if (policy == FsyncPolicy.ALWAYS || syncRequested) {
+                            wait();
+                        } else {
+                            wait(syncIntervalMillis);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                syncRequested = false;
+                if (pending.position() == 0 || failure != null) {
+                    return; // Closed with nothing left to write
+                }
+                ByteBuffer swap = writing;
+                writing = pending;
+                pending = swap;
+                batchLsn = appendedLsn;
+                target = channel;
+                flushing = true;
+            }
+
+            IOException error = null;
+            try {
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    target.write(writing);
+                }
+                if (policy != FsyncPolicy.NEVER) {
+                    target.force(false);
+                }
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (this) {
+                writing.clear();
+                flushing = false;
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableLsn = batchLsn;
+                }
+                notifyAll();
+                if (error != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @brief Asks the flusher to write pending records without waiting for its interval.
+     */
+    private void requestSync() {
+        syncRequested = true;
+        notifyAll();
+    }
+
+    /**
+     * @brief Fails if the log is closed or a previous write failed.
+     */
+    private void checkUsable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log failed", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    /**
+     * @brief Opens a segment file for appending.
+     */
+    private static FileChannel openSegment(Path segment) throws IOException {
+        return FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @brief Reads from a channel until the buffer holds at least the given number of unread bytes.
+     *
+     * @return False if the channel ended first.
+     */
+    private static boolean fill(FileChannel in, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return true;
+        }
+        buffer.compact();
+        while (buffer.position() < needed) {
+            if (in.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    /**
+     * @brief Copies the unread bytes of a buffer into a larger one.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, int minimumCapacity) {
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, minimumCapacity));
+        larger.put(buffer);
+        larger.flip();
+        return larger;
+    }
+}
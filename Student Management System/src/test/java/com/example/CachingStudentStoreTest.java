@@ -0,0 +1,190 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the CachingStudentStore and FrequencySketch classes.
+ */
+class CachingStudentStoreTest {
+
+    /**
+     * Tests that lookups read the backing store once and are then answered from the cache.
+     */
+    @Test
+    void testGet_ReadThrough() {
+        ColumnarStudentStore columns = new ColumnarStudentStore();
+        columns.add(new Student(101, "Ali", 20));
+        CachingStudentStore store = new CachingStudentStore(columns, 10, CachePolicy.TINY_LFU);
+
+        Student first = store.get(101);
+        assertSame(first, store.get(101));
+        assertNotSame(first, columns.get(101));
+        assertNull(store.get(102));
+        assertNull(store.get(102));
+
+        assertEquals(1, store.hitCount());
+        assertEquals(3, store.missCount());
+        assertEquals(0.25, store.cacheHitRate());
+        assertEquals(1, store.cachedCount());
+    }
+
+    /**
+     * Tests that removing, re-adding or replacing a student drops its cached copy.
+     */
+    @Test
+    void testInvalidation_RemoveAndAdd() {
+        CachingStudentStore store = new CachingStudentStore(new ColumnarStudentStore(), 10, CachePolicy.LRU);
+        store.add(new Student(101, "Ali", 20));
+        assertEquals("Ali", store.get(101).getStudentName());
+
+        assertEquals("Ali", store.remove(101).getStudentName());
+        assertNull(store.get(101));
+
+        store.add(new Student(101, "Sara", 22));
+        assertEquals("Sara", store.get(101).getStudentName());
+        assertEquals(22, store.get(101).getStudentAge());
+        assertEquals(1, store.size());
+
+        store.add(new Student(102, "Omar", 21));
+        assertEquals("Omar", store.get(102).getStudentName());
+        store.replace(101, new Student(101, "Sara Khan", 23));
+        assertEquals("Sara Khan", store.get(101).getStudentName());
+        store.remove(102);
+        store.replace(101, new Student(102, "Sara", 23));
+        assertNull(store.get(101));
+        assertEquals("Sara", store.get(102).getStudentName());
+    }
+
+    /**
+     * Tests that the LRU policy evicts the least recently used student.
+     */
+    @Test
+    void testLru_EvictsLeastRecentlyUsed() {
+        CachingStudentStore store = new CachingStudentStore(roster(10), 3, CachePolicy.LRU);
+        store.get(1);
+        store.get(2);
+        store.get(3);
+        store.get(1);
+        store.get(4); // Evicts 2
+
+        long misses = store.missCount();
+        store.get(1);
+        store.get(3);
+        store.get(4);
+        assertEquals(misses, store.missCount());
+        store.get(2);
+        assertEquals(misses + 1, store.missCount());
+        assertEquals(2, store.evictionCount());
+    }
+
+    /**
+     * Tests that a cache of one student evicts it for the next one under both policies.
+     */
+    @Test
+    void testSizeOne_Evicts() {
+        for (CachePolicy policy : CachePolicy.values()) {
+            CachingStudentStore store = new CachingStudentStore(roster(10), 1, policy);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int id = 1; id <= 10; id++) {
+                    assertEquals(id, store.get(id).getStudentId());
+                    assertEquals(id, store.get(id).getStudentId());
+                }
+            });
+            assertEquals(1, store.cachedCount());
+            assertEquals(10, store.hitCount());
+            assertEquals(9, store.evictionCount());
+        }
+    }
+
+    /**
+     * Tests that W-TinyLFU keeps frequently used students through a scan of the
+     * roster, which flushes an LRU cache of the same size.
+     */
+    @Test
+    void testTinyLfu_ResistsScan() {
+        StudentStore roster = roster(10_000);
+        for (CachePolicy policy : CachePolicy.values()) {
+            CachingStudentStore store = new CachingStudentStore(roster, 100, policy);
+            for (int round = 0; round < 20; round++) {
+                for (int id = 1; id <= 50; id++) {
+                    store.get(id);
+                }
+            }
+            for (int id = 1_000; id < 10_000; id++) {
+                store.get(id);
+            }
+
+            long misses = store.missCount();
+            for (int id = 1; id <= 50; id++) {
+                store.get(id);
+            }
+            long hotMisses = store.missCount() - misses;
+            if (policy == CachePolicy.TINY_LFU) {
+                assertTrue(hotMisses <= 5, "TinyLFU missed " + hotMisses);
+            } else {
+                assertEquals(50, hotMisses);
+            }
+            assertTrue(store.cachedCount() <= 100);
+        }
+    }
+
+    /**
+     * Tests that the sketch tells frequent IDs from rare ones and ages its counts.
+     */
+    @Test
+    void testSketch_FrequenciesAndAging() {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 20; i++) {
+            sketch.increment(7);
+        }
+        sketch.increment(8);
+        assertEquals(15, sketch.frequency(7));
+        assertTrue(sketch.frequency(8) >= 1 && sketch.frequency(8) < 15);
+
+        // 640 increments halve every counter
+        for (int id = 1_000; sketch.frequency(7) == 15; id++) {
+            sketch.increment(id);
+            assertTrue(id < 2_000, "Counters were never halved");
+        }
+        assertEquals(7, sketch.frequency(7));
+    }
+
+    /**
+     * Tests that the repository reports the cache hit rate through its metrics.
+     */
+    @Test
+    void testRepository_ReportsHitRate() {
+        StudentRepository repository = new StudentRepository(
+                new CachingStudentStore(new StudentIndex(), 10, CachePolicy.TINY_LFU));
+        assertTrue(Double.isNaN(new StudentRepository().metrics().getCacheHitRate()));
+
+        repository.add(new Student(101, "Ali", 20));
+        repository.find(101);
+        repository.find(101);
+        assertEquals(0.5, repository.metrics().getCacheHitRate());
+        assertTrue(repository.metrics().summary().contains(" cacheHitRate=0.500 "));
+        assertThrows(IllegalArgumentException.class, () -> new CachingStudentStore(new StudentIndex(), 0,
+                CachePolicy.LRU));
+    }
+
+    /**
+     * Creates a store holding students with IDs 1 to size.
+     */
+    private static StudentStore roster(int size) {
+        StudentIndex index = new StudentIndex();
+        for (int id = 1; id <= size; id++) {
+            index.add(new Student(id, "Ali", 20));
+        }
+        return index;
+    }
+}
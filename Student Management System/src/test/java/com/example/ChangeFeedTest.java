@@ -0,0 +1,178 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ChangeFeed and StudentEvent classes.
+ */
+class ChangeFeedTest {
+
+    /**
+     * Tests that adds, updates and removes are published in order with their before and after images.
+     */
+    @Test
+    void testRepository_PublishesWrites() throws InterruptedException {
+        StudentRepository repository = new StudentRepository();
+        repository.add(new Student(100, "Before", 20));
+        ChangeFeed.Subscription subscription = repository.changes().subscribe(0);
+
+        Student ali = new Student(101, "Ali", 20);
+        repository.add(ali);
+        repository.add(new Student(101, "Duplicate", 20));
+        repository.update(101, StudentPatch.empty().withStudentId(102).withStudentAge(21));
+        repository.remove(102);
+        repository.remove(102);
+
+        List<StudentEvent> events = subscription.poll(10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(3, events.size());
+        assertEquals(StudentEvent.Type.ADDED, events.get(0).getType());
+        assertEquals(0, events.get(0).getSequence());
+        assertNull(events.get(0).getBefore());
+        assertSame(ali, events.get(0).getAfter());
+
+        StudentEvent updated = events.get(1);
+        assertEquals(StudentEvent.Type.UPDATED, updated.getType());
+        assertEquals(101, updated.getStudentId());
+        assertSame(ali, updated.getBefore());
+        assertEquals(102, updated.getAfter().getStudentId());
+        assertEquals(21, updated.getAfter().getStudentAge());
+
+        assertEquals(StudentEvent.Type.REMOVED, events.get(2).getType());
+        assertEquals(102, events.get(2).getStudentId());
+        assertNull(events.get(2).getAfter());
+        assertEquals(3, subscription.position());
+        assertEquals(3, repository.changes().nextSequence());
+        assertSame(repository.changes(), repository.changes());
+    }
+
+    /**
+     * Tests that batches are bounded and that a new subscription resumes from a position.
+     */
+    @Test
+    void testSubscription_BatchesAndResumes() throws InterruptedException {
+        StudentRepository repository = new StudentRepository();
+        ChangeFeed feed = repository.changes();
+        for (int id = 1; id <= 10; id++) {
+            repository.add(new Student(id, "Ali", 20));
+        }
+
+        ChangeFeed.Subscription subscription = feed.subscribe(0);
+        assertEquals(4, subscription.poll(4, 0, TimeUnit.MILLISECONDS).size());
+        assertEquals(4, subscription.poll(4, 0, TimeUnit.MILLISECONDS).size());
+        long resumeFrom = subscription.position();
+
+        List<StudentEvent> rest = feed.subscribe(resumeFrom).poll(100, 0, TimeUnit.MILLISECONDS);
+        assertEquals(List.of(9, 10), List.of(rest.get(0).getStudentId(), rest.get(1).getStudentId()));
+        assertTrue(feed.subscribe(feed.nextSequence()).poll(100, 10, TimeUnit.MILLISECONDS).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> feed.subscribe(11));
+        assertThrows(IllegalArgumentException.class, () -> feed.subscribe(0).poll(0, 0, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that a subscriber that falls more than the capacity behind is told, and can resubscribe.
+     */
+    @Test
+    void testSubscription_Overrun() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(4);
+        ChangeFeed.Subscription subscription = feed.subscribe(0);
+        for (int id = 1; id <= 10; id++) {
+            feed.publish(StudentEvent.Type.ADDED, null, new Student(id, "Ali", 20));
+        }
+
+        assertThrows(IllegalStateException.class, () -> subscription.poll(10, 0, TimeUnit.MILLISECONDS));
+        assertEquals(6, feed.oldestSequence());
+        List<StudentEvent> kept = feed.subscribe(feed.oldestSequence()).poll(10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(4, kept.size());
+        assertEquals(7, kept.get(0).getStudentId());
+        assertThrows(IllegalArgumentException.class, () -> new ChangeFeed(6));
+    }
+
+    /**
+     * Tests that an event stored after the ring has wrapped onto its slot does not replace the newer event.
+     */
+    @Test
+    void testStore_LateWriterAfterWrap() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(2);
+        for (int id = 1; id <= 3; id++) {
+            feed.publish(StudentEvent.Type.ADDED, null, new Student(id, "Ali", 20));
+        }
+        // The writer of sequence 0 stalled until sequence 2 took its slot
+        feed.store(new StudentEvent(0, StudentEvent.Type.ADDED, null, new Student(1, "Late", 20)));
+
+        List<StudentEvent> kept = feed.subscribe(1).poll(10, 0, TimeUnit.MILLISECONDS);
+        assertEquals(2, kept.size());
+        assertEquals(2, kept.get(1).getSequence());
+        assertEquals(3, kept.get(1).getStudentId());
+        ChangeFeed.Subscription overrun = feed.subscribe(0);
+        assertThrows(IllegalStateException.class, () -> overrun.poll(10, 0, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Tests that a waiting subscriber is woken by a write on another thread.
+     */
+    @Test
+    void testSubscription_WaitsForWrite() throws Exception {
+        StudentRepository repository = StudentRepository.concurrent();
+        ChangeFeed.Subscription subscription = repository.changes().subscribe(0);
+
+        Future<List<StudentEvent>> batch;
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            batch = executor.submit(() -> subscription.poll(10, 30, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            repository.add(new Student(101, "Ali", 20));
+        }
+        assertEquals(101, batch.get().get(0).getStudentId());
+    }
+
+    /**
+     * Tests that concurrent writers produce one gapless sequence holding every write once.
+     */
+    @Test
+    void testConcurrentWriters_GaplessSequence() throws Exception {
+        StudentRepository repository = StudentRepository.concurrent();
+        ChangeFeed.Subscription subscription = repository.changes().subscribe(0);
+        int writers = 4;
+        int perWriter = 5_000;
+
+        List<StudentEvent> events = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(writers + 1)) {
+            Future<?> reader = executor.submit(() -> {
+                while (events.size() < writers * perWriter) {
+                    events.addAll(subscription.poll(256, 10, TimeUnit.SECONDS));
+                }
+                return null;
+            });
+            for (int w = 0; w < writers; w++) {
+                int first = w * perWriter + 1;
+                executor.submit(() -> {
+                    for (int id = first; id < first + perWriter; id++) {
+                        repository.add(new Student(id, "Ali", 20));
+                    }
+                });
+            }
+            reader.get();
+        }
+
+        boolean[] seen = new boolean[writers * perWriter + 1];
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(i, events.get(i).getSequence());
+            seen[events.get(i).getStudentId()] = true;
+        }
+        for (int id = 1; id < seen.length; id++) {
+            assertTrue(seen[id]);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ColumnarStudentStore class.
+ */
+class ColumnarStudentStoreTest {
+
+    private ColumnarStudentStore store;
+
+    /**
+     * Sets up an empty store before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarStudentStore();
+    }
+
+    /**
+     * Tests that reads return new students holding the stored fields.
+     */
+    @Test
+    void testAddAndGet_ReturnsViews() {
+        Student ali = new Student(101, "Ali", 20);
+
+        assertTrue(store.add(ali));
+        assertFalse(store.add(new Student(101, "Sara", 22)));
+
+        Student found = store.get(101);
+        assertNotSame(ali, found);
+        assertEquals("101 Ali 20", describe(found));
+        found.setStudentName("Changed");
+        assertEquals("Ali", store.get(101).getStudentName());
+        assertNull(store.get(102));
+    }
+
+    /**
+     * Tests that names outside Latin-1 survive the UTF-8 arena.
+     */
+    @Test
+    void testNames_RoundTripUtf8() {
+        store.add(new Student(1, "Zoë Ångström", 20));
+        store.add(new Student(2, "李小龍", 21));
+        store.add(new Student(3, "", 22));
+
+        assertEquals("Zoë Ångström", store.get(1).getStudentName());
+        assertEquals("李小龍", store.get(2).getStudentName());
+        assertEquals("", store.get(3).getStudentName());
+    }
+
+    /**
+     * Tests that removing a student returns its fields and frees its ID.
+     */
+    @Test
+    void testRemove() {
+        store.add(new Student(101, "Ali", 20));
+
+        assertEquals("101 Ali 20", describe(store.remove(101)));
+        assertNull(store.remove(101));
+        assertTrue(store.isEmpty());
+        assertTrue(store.add(new Student(101, "Sara", 22)));
+        assertEquals("101 Sara 22", describe(store.get(101)));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Student(0, "Zero", 20)));
+    }
+
+    /**
+     * Tests the store against a reference map under a random mix of operations.
+     *
+     * Names of varying length check that compaction moves every name with its student.
+     */
+    @Test
+    void testRandomOperations_MatchReferenceMap() {
+        Random random = new Random(42);
+        Map<Integer, String> reference = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int id = 1 + random.nextInt(5_000) * 64;
+            if (random.nextInt(3) == 0) {
+                String removed = reference.remove(id);
+                Student student = store.remove(id);
+                assertEquals(removed, student == null ? null : describe(student));
+            } else {
+                Student student = new Student(id, "Name" + "x".repeat(random.nextInt(12)), random.nextInt(100));
+                assertEquals(reference.putIfAbsent(id, describe(student)) == null, store.add(student));
+            }
+        }
+
+        assertEquals(reference.size(), store.size());
+        List<String> actual = new ArrayList<>();
+        store.forEach(student -> actual.add(describe(student)));
+        assertEquals(new ArrayList<>(reference.values()), actual);
+    }
+
+    /**
+     * Tests that replacing students keeps their place in insertion order.
+     *
+     * Replacement names are shorter, equal or longer than the old ones and some
+     * replacements re-key the student, so names are overwritten in place, grown at
+     * the end of the arena, appended out of order and finally compacted.
+     */
+    @Test
+    void testReplace_KeepsPlaceAndCompactsNames() {
+        Random random = new Random(17);
+        Map<Integer, Integer> sequenceOf = new LinkedHashMap<>();
+        Map<Integer, String> reference = new LinkedHashMap<>(); // By insertion sequence
+        int nextSequence = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            int id = 1 + random.nextInt(3_000);
+            Student student = new Student(id, "N" + "x".repeat(random.nextInt(20)), 1 + random.nextInt(99));
+            int operation = random.nextInt(4);
+            if (operation == 0) {
+                Integer sequence = sequenceOf.remove(id);
+                Student removed = store.remove(id);
+                assertEquals(sequence == null ? null : reference.remove(sequence),
+                        removed == null ? null : describe(removed));
+            } else if (operation == 1 || !sequenceOf.containsKey(id)) {
+                if (store.add(student)) {
+                    sequenceOf.put(id, nextSequence);
+                    reference.put(nextSequence++, describe(student));
+                }
+            } else {
+                int newId = random.nextBoolean() ? id : 1 + random.nextInt(3_000);
+                Student replacement = new Student(newId, student.getStudentName(), student.getStudentAge());
+                if (newId != id && sequenceOf.containsKey(newId)) {
+                    assertThrows(IllegalArgumentException.class, () -> store.replace(id, replacement));
+                    continue;
+                }
+                int sequence = sequenceOf.remove(id);
+                assertEquals(reference.put(sequence, describe(replacement)), describe(store.replace(id, replacement)));
+                sequenceOf.put(newId, sequence);
+            }
+        }
+
+        assertEquals(reference.size(), store.size());
+        List<String> actual = new ArrayList<>();
+        store.forEach(student -> actual.add(describe(student)));
+        assertEquals(new ArrayList<>(reference.values()), actual);
+        for (int id : sequenceOf.keySet()) {
+            assertEquals(reference.get(sequenceOf.get(id)), describe(store.get(id)));
+        }
+        assertNull(store.replace(1_000_000, new Student(5, "Nobody", 20)));
+    }
+
+    /**
+     * Tests that paging walks the columns in insertion order across removals.
+     */
+    @Test
+    void testPage_FollowsInsertionOrder() {
+        for (int id = 1; id <= 100; id++) {
+            store.add(new Student(id, "Student", 20));
+        }
+        for (int id = 1; id <= 100; id += 2) {
+            store.remove(id);
+        }
+
+        List<Integer> paged = new ArrayList<>();
+        Student[] students = new Student[7];
+        long[] sequences = new long[students.length];
+        long after = -1;
+        int count;
+        while ((count = store.page(after, students, sequences)) > 0) {
+            for (int i = 0; i < count; i++) {
+                paged.add(students[i].getStudentId());
+            }
+            after = sequences[count - 1];
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 2; id <= 100; id += 2) {
+            expected.add(id);
+        }
+        assertEquals(expected, paged);
+    }
+
+    /**
+     * Tests that a columnar repository answers secondary index queries.
+     */
+    @Test
+    void testRepository_Columnar() {
+        StudentRepository repository = StudentRepository.columnar();
+        repository.add(new Student(101, "Maria", 19));
+        repository.add(new Student(102, "Marco", 25));
+        repository.add(new Student(103, "Omar", 20));
+
+        assertEquals(List.of("101 Maria 19", "103 Omar 20"),
+                repository.findByAgeRange(18, 21).stream().map(StudentFixtures::describe).toList());
+        assertEquals(List.of("102 Marco 25", "101 Maria 19"),
+                repository.findByNamePrefix("mar").stream().map(StudentFixtures::describe).toList());
+        assertTrue(repository.remove(102).isSuccess());
+        assertEquals(1, repository.findByNamePrefix("mar").size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.SplittableRandom;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the CommandRecorder class.
+ */
+class CommandRecorderTest {
+
+    /**
+     * Tests that a session is recorded as time-stamped commands in the command runner's syntax.
+     */
+    @Test
+    void testRecord_KeyedOperations() throws IOException {
+        StudentRepository repository = new StudentRepository();
+        StringWriter script = new StringWriter();
+        try (CommandRecorder recorder = new CommandRecorder(script)) {
+            repository.recordTo(recorder);
+            repository.add(new Student(101, "Ali Khan", 20));
+            repository.add(new Student(102, "Sara1", 21));
+            repository.find(101);
+            repository.update(101,
+                    StudentPatch.empty().withStudentId(103).withStudentName("Ali Raza").withStudentAge(21));
+            repository.update(103, StudentPatch.empty().withStudentAge(-1));
+            repository.remove(104);
+            repository.findByNamePrefix("Ali");
+            repository.recordTo(null);
+            repository.remove(103);
+        }
+
+        List<String> lines = Arrays.asList(script.toString().split("\n"));
+        assertTrue(lines.get(0).matches("#@\\d+"));
+        assertEquals(List.of("ADD 101 Ali Khan 20", "GET 101", "UPD 101 id=103 age=21 name=Ali Raza", "DEL 104"),
+                lines.stream().filter(line -> !line.startsWith("#")).toList());
+    }
+
+    /**
+     * Tests that an update through the menu records only the update, not the lookup
+     * that shows the current values.
+     */
+    @Test
+    void testRecord_MenuUpdateRecordsNoLookup() throws IOException {
+        StudentRepository repository = new StudentRepository();
+        StringWriter script = new StringWriter();
+        try (CommandRecorder recorder = new CommandRecorder(script)) {
+            repository.recordTo(recorder);
+            repository.add(new Student(101, "Ali", 20));
+            MenuHandler.updateStudentById(repository, new Scanner("101\n\nAli Raza\n\n"));
+        }
+
+        assertEquals(List.of("ADD 101 Ali 20", "UPD 101 name=Ali Raza"),
+                script.toString().lines().filter(line -> !line.startsWith("#")).toList());
+    }
+
+    /**
+     * Tests that running a recorded script through the command mode rebuilds the recorded roster.
+     */
+    @Test
+    void testRecord_ReplaysThroughCommandRunner() throws IOException {
+        StudentRepository recorded = new StudentRepository();
+        StringWriter script = new StringWriter();
+        try (CommandRecorder recorder = new CommandRecorder(script)) {
+            recorded.recordTo(recorder);
+            recorded.addAll(List.of(new Student(101, "Ali", 20), new Student(102, "Sara", 21),
+                    new Student(103, "Omar", 22)));
+            recorded.update(102, StudentPatch.empty().withStudentName("Sara Ahmed"));
+            recorded.remove(101);
+        }
+
+        StudentRepository replayed = new StudentRepository();
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        long commands = new StudentCommandRunner(replayed).run(
+                new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.ISO_8859_1)), results);
+
+        assertEquals(5, commands);
+        assertEquals(describe(recorded.streamByIdRange(1, Integer.MAX_VALUE)),
+                describe(replayed.streamByIdRange(1, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Tests that a recording of threads writing the same IDs at once replays to the same students.
+     */
+    @Test
+    void testRecord_ConcurrentWritersReplay() throws Exception {
+        StudentRepository recorded = StudentRepository.concurrent();
+        StringWriter script = new StringWriter();
+        List<String> names = List.of("Ali", "Sara", "Omar", "Maria");
+        try (CommandRecorder recorder = new CommandRecorder(script)) {
+            recorded.recordTo(recorder);
+            Thread[] writers = new Thread[names.size()];
+            for (int w = 0; w < writers.length; w++) {
+                String name = names.get(w);
+                SplittableRandom random = new SplittableRandom(w);
+                writers[w] = new Thread(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        int studentId = 1 + random.nextInt(5);
+                        switch (random.nextInt(3)) {
+                            case 0 -> recorded.add(new Student(studentId, name, 20));
+                            case 1 -> recorded.update(studentId, StudentPatch.empty().withStudentName(name));
+                            default -> recorded.remove(studentId);
+                        }
+                    }
+                });
+                writers[w].start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        StudentRepository replayed = new StudentRepository();
+        new StudentCommandRunner(replayed).run(
+                new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.ISO_8859_1)),
+                new ByteArrayOutputStream());
+        assertEquals(describe(recorded.streamByIdRange(1, Integer.MAX_VALUE)),
+                describe(replayed.streamByIdRange(1, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Tests that a write error stops the recording without failing the operations, and is thrown by close().
+     */
+    @Test
+    void testRecord_WriteErrorThrownOnClose() {
+        StudentRepository repository = new StudentRepository();
+        CommandRecorder recorder = new CommandRecorder(new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        repository.recordTo(recorder);
+
+        assertTrue(repository.add(new Student(101, "Ali", 20)).isSuccess());
+        IOException e = assertThrows(IOException.class, recorder::close);
+        assertEquals("Disk full", e.getMessage());
+    }
+}
@@ -0,0 +1,324 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit and stress tests for the ConcurrentStudentStore class.
+ */
+class ConcurrentStudentStoreTest {
+
+    private static final int THREADS = 8;
+
+    /**
+     * Tests add, get and remove, including re-adding a removed ID.
+     */
+    @Test
+    void testAddGetRemove() {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(4);
+        Student ali = new Student(101, "Ali", 20);
+
+        assertTrue(store.add(ali));
+        assertFalse(store.add(new Student(101, "Sara", 22)));
+        assertSame(ali, store.get(101));
+        assertNull(store.get(102));
+
+        assertSame(ali, store.remove(101));
+        assertNull(store.remove(101));
+        assertNull(store.get(101));
+        assertTrue(store.add(new Student(101, "Sara", 22)));
+        assertEquals("Sara", store.get(101).getStudentName());
+        assertEquals(1, store.size());
+    }
+
+    /**
+     * Tests that iteration follows insertion order across stripes, removals and growth.
+     */
+    @Test
+    void testIteration_FollowsInsertionOrder() {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(8);
+        List<Integer> expected = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 20_000; i++) {
+            int studentId = 1 + random.nextInt(5_000);
+            if (store.remove(studentId) != null) {
+                expected.remove(Integer.valueOf(studentId));
+            } else {
+                store.add(new Student(studentId, "Student", 20));
+                expected.add(studentId);
+            }
+        }
+
+        List<Integer> actual = new ArrayList<>();
+        for (Student student : store) {
+            actual.add(student.getStudentId());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), store.size());
+        assertEquals(expected.size(), store.stream().count());
+    }
+
+    /**
+     * Tests that replacements, including re-keys into other stripes and back,
+     * keep every student's place in insertion order.
+     */
+    @Test
+    void testReplace_ReKeyKeepsInsertionOrder() {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(8);
+        List<Integer> expected = new ArrayList<>();
+        for (int studentId = 1; studentId <= 2_000; studentId++) {
+            store.add(new Student(studentId, "Student", 20));
+            expected.add(studentId);
+        }
+
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 20_000; i++) {
+            int index = random.nextInt(expected.size());
+            int studentId = expected.get(index);
+            int newId = random.nextInt(4) == 0 ? studentId : 1 + random.nextInt(4_000);
+            Student replacement = new Student(newId, "Student", 21);
+            if (newId != studentId && store.get(newId) != null) {
+                assertThrows(IllegalArgumentException.class, () -> store.replace(studentId, replacement));
+            } else {
+                assertEquals(studentId, store.replace(studentId, replacement).getStudentId());
+                assertSame(replacement, store.get(newId));
+                expected.set(index, newId);
+            }
+            if (newId != studentId && random.nextInt(10) == 0) {
+                store.remove(expected.remove(random.nextInt(expected.size())));
+            }
+        }
+
+        List<Integer> actual = new ArrayList<>();
+        for (Student student : store) {
+            actual.add(student.getStudentId());
+        }
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), store.size());
+        assertNull(store.replace(5_000, new Student(5_001, "Nobody", 20)));
+    }
+
+    /**
+     * Tests that paging through the stripes returns the same order as a full scan.
+     */
+    @Test
+    void testPage_MatchesSnapshotOrder() {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(8);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 5_000; i++) {
+            int studentId = 1 + random.nextInt(3_000);
+            if (store.remove(studentId) == null) {
+                store.add(new Student(studentId, "Student", 20));
+            }
+        }
+
+        List<Student> paged = new ArrayList<>();
+        Student[] students = new Student[97];
+        long[] sequences = new long[students.length];
+        long after = -1;
+        int count;
+        while ((count = store.page(after, students, sequences)) > 0) {
+            for (int i = 0; i < count; i++) {
+                paged.add(students[i]);
+            }
+            after = sequences[count - 1];
+        }
+        assertEquals(List.of(store.snapshot()), paged);
+    }
+
+    /**
+     * Tests that threads working on their own IDs end with exactly their own changes.
+     */
+    @Test
+    void testStress_DisjointWriters() throws Exception {
+        ConcurrentStudentStore store = new ConcurrentStudentStore();
+        List<Map<Integer, Student>> models = new ArrayList<>();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            Map<Integer, Student> model = new HashMap<>();
+            models.add(model);
+            workers.add(() -> {
+                SplittableRandom random = new SplittableRandom(thread);
+                for (int i = 0; i < 100_000; i++) {
+                    int studentId = 1 + thread + THREADS * random.nextInt(2_000);
+                    switch (random.nextInt(3)) {
+                        case 0 -> {
+                            Student student = new Student(studentId, "Student", 20);
+                            assertEquals(model.putIfAbsent(studentId, student) == null, store.add(student));
+                        }
+                        case 1 -> assertSame(model.remove(studentId), store.remove(studentId));
+                        default -> assertSame(model.get(studentId), store.get(studentId));
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+
+        int expectedSize = 0;
+        for (Map<Integer, Student> model : models) {
+            expectedSize += model.size();
+            for (Map.Entry<Integer, Student> entry : model.entrySet()) {
+                assertSame(entry.getValue(), store.get(entry.getKey()));
+            }
+        }
+        assertEquals(expectedSize, store.size());
+        assertEquals(expectedSize, store.snapshot().length);
+    }
+
+    /**
+     * Tests that threads racing to add the same IDs succeed exactly once per ID.
+     */
+    @Test
+    void testStress_RacingAddsOfSameId() throws Exception {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(2);
+        AtomicInteger successes = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(() -> {
+                for (int studentId = 1; studentId <= 50_000; studentId++) {
+                    if (store.add(new Student(studentId, "Student", 20))) {
+                        successes.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+
+        assertEquals(50_000, successes.get());
+        assertEquals(50_000, store.size());
+    }
+
+    /**
+     * Tests that readers never miss a student that stays in the store while others churn.
+     */
+    @Test
+    void testStress_LookupsDuringChurn() throws Exception {
+        ConcurrentStudentStore store = new ConcurrentStudentStore(4);
+        Student[] stable = new Student[1_000];
+        for (int i = 0; i < stable.length; i++) {
+            stable[i] = new Student(i + 1, "Stable", 20);
+            store.add(stable[i]);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS / 2; t++) {
+            int thread = t;
+            workers.add(() -> {
+                // Churn IDs above the stable range, forcing table rebuilds and tombstones
+                SplittableRandom random = new SplittableRandom(thread);
+                for (int i = 0; i < 200_000; i++) {
+                    int studentId = 10_000 + random.nextInt(50_000);
+                    if (store.remove(studentId) == null) {
+                        store.add(new Student(studentId, "Churn", 21));
+                    }
+                }
+                done.set(true);
+                return null;
+            });
+            workers.add(() -> {
+                SplittableRandom random = new SplittableRandom(thread + 100);
+                while (!done.get()) {
+                    int index = random.nextInt(stable.length);
+                    assertSame(stable[index], store.get(index + 1));
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+    }
+
+    /**
+     * Tests that every scan sees the roster as it was at one instant.
+     *
+     * A writer adds IDs in ascending order and removes each ID once a newer window has
+     * been added, so any point-in-time view is one contiguous, ascending run of IDs.
+     */
+    @Test
+    void testSnapshot_IsConsistentUnderWrites() throws Exception {
+        int window = 64;
+        int total = 200_000;
+        ConcurrentStudentStore store = new ConcurrentStudentStore(16);
+        AtomicBoolean done = new AtomicBoolean();
+
+        List<Callable<Void>> workers = new ArrayList<>();
+        workers.add(() -> {
+            for (int studentId = 1; studentId <= total; studentId++) {
+                store.add(new Student(studentId, "Student", 20));
+                if (studentId > window) {
+                    store.remove(studentId - window);
+                }
+            }
+            done.set(true);
+            return null;
+        });
+        for (int t = 1; t < THREADS / 2; t++) {
+            workers.add(() -> {
+                while (!done.get()) {
+                    Student[] snapshot = store.snapshot();
+                    assertTrue(snapshot.length <= window + 1);
+                    for (int i = 1; i < snapshot.length; i++) {
+                        assertEquals(snapshot[0].getStudentId() + i, snapshot[i].getStudentId());
+                    }
+                }
+                return null;
+            });
+        }
+        runConcurrently(workers);
+    }
+
+    /**
+     * Tests that a repository created by concurrent() is backed by this store.
+     */
+    @Test
+    void testRepository_Concurrent() {
+        StudentRepository repository = StudentRepository.concurrent();
+
+        assertTrue(repository.add(new Student(101, "Ali", 20)).isSuccess());
+        assertEquals(StudentError.DUPLICATE_ID, repository.add(new Student(101, "Ali", 20)).getError());
+        assertTrue(repository.students() instanceof ConcurrentStudentStore);
+    }
+
+    private static void runConcurrently(List<Callable<Void>> workers) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> worker : workers) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return worker.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS); // Rethrows assertion failures of the workers
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the DurableStudentStore class.
+ */
+class DurableStudentStoreTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    /**
+     * Tests that adds and removes are recovered from the log after a restart.
+     */
+    @Test
+    void testRestart_ReplaysLog() throws IOException {
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            store.add(new Student(101, "Ali", 20));
+            store.add(new Student(102, "Sara", 22));
+            store.add(new Student(103, "Omar", 21));
+            store.remove(102);
+        }
+
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            assertEquals(List.of("101 Ali 20", "103 Omar 21"), describe(store));
+            assertNull(store.get(102));
+        }
+    }
+
+    /**
+     * Tests recovery from a snapshot plus the log written after it, and that the
+     * snapshot removes the segments it covers.
+     */
+    @Test
+    void testRestart_LoadsSnapshotAndLogTail() throws IOException {
+        List<String> expected = new ArrayList<>();
+        try (DurableStudentStore store = open(FsyncPolicy.INTERVAL, 100)) {
+            StudentRepository repository = new StudentRepository(store);
+            for (int id = 1; id <= 1_050; id++) {
+                repository.add(new Student(id, "Student", 18 + id % 5));
+            }
+            for (int id = 1; id <= 1_050; id += 7) {
+                repository.remove(id);
+            }
+            expected.addAll(describe(store));
+        }
+
+        assertTrue(countFiles("snapshot-") >= 1);
+        assertTrue(countFiles("wal-") <= 2, "covered segments should be deleted");
+
+        try (DurableStudentStore store = open(FsyncPolicy.INTERVAL, 100)) {
+            assertEquals(expected, describe(store));
+        }
+    }
+
+    /**
+     * Tests that a torn record at the end of the log is discarded and later appends survive.
+     */
+    @Test
+    void testRestart_DiscardsTornTail() throws IOException {
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            store.add(new Student(101, "Ali", 20));
+        }
+        Path segment = lastFile("wal-");
+        Files.write(segment, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            assertEquals(List.of("101 Ali 20"), describe(store));
+            store.add(new Student(102, "Sara", 22));
+        }
+
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            assertEquals(List.of("101 Ali 20", "102 Sara 22"), describe(store));
+        }
+    }
+
+    /**
+     * Tests that updates, re-keys included, are replayed from the log in place.
+     */
+    @Test
+    void testRestart_ReplaysUpdates() throws IOException {
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            StudentRepository repository = new StudentRepository(store);
+            repository.addAll(List.of(new Student(101, "Ali", 20), new Student(102, "Sara", 22),
+                    new Student(103, "Omar", 21)));
+            repository.update(101, StudentPatch.empty().withStudentAge(21));
+            repository.update(102, StudentPatch.empty().withStudentId(202).withStudentName("Sara Khan"));
+        }
+
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            assertEquals(List.of("101 Ali 21", "202 Sara Khan 22", "103 Omar 21"), describe(store));
+            assertNull(store.get(102));
+        }
+    }
+
+    /**
+     * Tests that an explicit snapshot alone restores the roster.
+     */
+    @Test
+    void testSnapshot_RestoresRosterWithoutLog() throws IOException {
+        try (DurableStudentStore store = open(FsyncPolicy.NEVER, 1_000)) {
+            StudentRepository repository = new StudentRepository(store);
+            repository.addAll(List.of(new Student(101, "Ali", 20), new Student(102, "Sara Khan", 22)));
+            store.snapshot();
+        }
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            for (Path file : files.collect(Collectors.toList())) {
+                if (file.getFileName().toString().startsWith("wal-")) {
+                    Files.delete(file);
+                }
+            }
+        }
+
+        try (DurableStudentStore store = open(FsyncPolicy.NEVER, 1_000)) {
+            assertEquals(List.of("101 Ali 20", "102 Sara Khan 22"), describe(store));
+        }
+    }
+
+    /**
+     * Tests that names longer than a log record holds are rejected before they are
+     * stored, and that the longest one survives a restart.
+     */
+    @Test
+    void testAdd_NameTooLong() throws IOException {
+        String name = "A".repeat(WriteAheadLog.MAX_NAME_BYTES);
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            StudentRepository repository = new StudentRepository(store);
+
+            assertTrue(repository.add(new Student(101, name, 20)).isSuccess());
+            assertEquals(StudentError.NAME_TOO_LONG,
+                    repository.add(new Student(102, "A".repeat(70_000), 20)).getError());
+            assertEquals(StudentError.NAME_TOO_LONG,
+                    repository.update(101, StudentPatch.empty().withStudentName(name + "B")).getError());
+            assertThrows(IllegalArgumentException.class, () -> store.add(new Student(103, name + "B", 20)));
+            assertThrows(IllegalArgumentException.class, () -> store.replace(101, new Student(101, name + "B", 20)));
+            assertEquals(1, store.size());
+            assertEquals(name, store.get(101).getStudentName());
+        }
+
+        try (DurableStudentStore store = open(FsyncPolicy.ALWAYS, 1_000)) {
+            assertEquals(1, store.size());
+            assertEquals(name, store.get(101).getStudentName());
+        }
+    }
+
+    private DurableStudentStore open(FsyncPolicy policy, long snapshotInterval) throws IOException {
+        return new DurableStudentStore(dataDirectory, policy, 5, snapshotInterval);
+    }
+
+    private long countFiles(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    private Path lastFile(String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(dataDirectory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(prefix))
+                    .filter(file -> file.toFile().length() > 0)
+                    .sorted()
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the MappedStudentStore class.
+ */
+class MappedStudentStoreTest {
+
+    // File layout of MappedStudentStore
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 64;
+    private static final int CLEAN_OFFSET = 4;
+    private static final int ID_OFFSET = 0;
+    private static final int SEQUENCE_OFFSET = 8;
+
+    @TempDir
+    Path dataDirectory;
+
+    /**
+     * Tests that a cleanly closed roster is reopened with its records and ID index.
+     */
+    @Test
+    void testReopen_KeepsRoster() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertTrue(store.add(new Student(101, "Ali", 20)));
+            assertTrue(store.add(new Student(102, "Sara", 22)));
+            assertTrue(store.add(new Student(103, "Zoë", 21)));
+            assertFalse(store.add(new Student(101, "Omar", 23)));
+            assertEquals("102 Sara 22", describe(store.remove(102)));
+        }
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertEquals(List.of("101 Ali 20", "103 Zoë 21"), describe(store));
+            assertEquals("103 Zoë 21", describe(store.get(103)));
+            assertNull(store.get(102));
+            assertTrue(store.add(new Student(102, "Sara", 24)));
+            assertEquals(List.of("101 Ali 20", "103 Zoë 21", "102 Sara 24"), describe(store));
+        }
+    }
+
+    /**
+     * Tests that an unclean shutdown rebuilds a lost ID index from the records.
+     */
+    @Test
+    void testReopen_AfterCrashRebuildsIndex() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.ALWAYS)) {
+            for (int id = 1; id <= 100; id++) {
+                store.add(new Student(id, "Student", 20));
+            }
+        }
+        writeInt(CLEAN_OFFSET, 0);
+        Files.write(dataDirectory.resolve("students.idx"), new byte[0]);
+
+        try (MappedStudentStore store = open(FsyncPolicy.ALWAYS)) {
+            assertEquals(100, store.size());
+            for (int id = 1; id <= 100; id++) {
+                assertTrue(store.contains(id));
+            }
+        }
+    }
+
+    /**
+     * Tests that recovery drops the stale copy an interrupted compaction leaves behind.
+     */
+    @Test
+    void testReopen_AfterInterruptedCompaction() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            store.add(new Student(101, "Ali", 20));
+            store.add(new Student(102, "Sara", 22));
+            store.add(new Student(103, "Omar", 21));
+            store.remove(102);
+        }
+
+        // Compaction copied the last record over the hole, then the process died
+        try (FileChannel channel = FileChannel.open(dataDirectory.resolve("students.dat"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            channel.read(record, HEADER_SIZE + 2 * RECORD_SIZE);
+            channel.write(record.flip(), HEADER_SIZE + RECORD_SIZE);
+        }
+        writeInt(CLEAN_OFFSET, 0);
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertEquals(List.of("101 Ali 20", "103 Omar 21"), describe(store));
+            assertEquals(2, store.size());
+            assertEquals("103 Omar 21", describe(store.remove(103)));
+            assertNull(store.get(103));
+        }
+    }
+
+    /**
+     * Tests that recovery keeps the original of a record whose move was interrupted part way.
+     */
+    @Test
+    void testReopen_AfterInterruptedRecordCopy() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            store.add(new Student(101, "Ali", 20));
+            store.add(new Student(102, "Sara", 22));
+            store.add(new Student(103, "Omar", 21));
+            store.add(new Student(104, "Lina", 23));
+            store.remove(102);
+        }
+
+        // Compaction moved 103 over the hole, then died while copying 104 over the stale 103
+        copyRecord(2, 1, 0, RECORD_SIZE);
+        writeInt(HEADER_SIZE + 2 * RECORD_SIZE + ID_OFFSET, 0);
+        copyRecord(3, 2, SEQUENCE_OFFSET, RECORD_SIZE - SEQUENCE_OFFSET);
+        writeInt(CLEAN_OFFSET, 0);
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertEquals(List.of("101 Ali 20", "103 Omar 21", "104 Lina 23"), describe(store));
+            assertEquals(3, store.size());
+            assertEquals("104 Lina 23", describe(store.get(104)));
+        }
+    }
+
+    /**
+     * Tests the store against a reference map under a random mix of operations,
+     * across compactions, index growth and a restart.
+     */
+    @Test
+    void testRandomOperations_MatchReferenceMap() throws IOException {
+        Random random = new Random(42);
+        Map<Integer, String> reference = new LinkedHashMap<>();
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            for (int i = 0; i < 100_000; i++) {
+                int id = 1 + random.nextInt(5_000) * 64;
+                if (random.nextInt(3) == 0) {
+                    String removed = reference.remove(id);
+                    Student student = store.remove(id);
+                    assertEquals(removed, student == null ? null : describe(student));
+                } else {
+                    Student student = new Student(id, "Name" + "x".repeat(random.nextInt(12)), random.nextInt(100));
+                    assertEquals(reference.putIfAbsent(id, describe(student)) == null, store.add(student));
+                }
+            }
+            assertEquals(new ArrayList<>(reference.values()), describe(store));
+        }
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertEquals(reference.size(), store.size());
+            assertEquals(new ArrayList<>(reference.values()), describe(store));
+        }
+    }
+
+    /**
+     * Tests that paging through a repository on the store returns the roster in order.
+     */
+    @Test
+    void testRepository_Paging() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.INTERVAL)) {
+            StudentRepository repository = new StudentRepository(store);
+            List<Student> batch = new ArrayList<>();
+            for (int id = 1; id <= 50; id++) {
+                batch.add(new Student(id, "Student", 20));
+            }
+            repository.addAll(batch);
+            repository.remove(10);
+
+            List<Integer> paged = new ArrayList<>();
+            StudentPage page = repository.page(null, 7);
+            while (true) {
+                page.getStudents().forEach(student -> paged.add(student.getStudentId()));
+                if (!page.hasNextPage()) {
+                    break;
+                }
+                page = repository.page(page.getNextPageToken(), 7);
+            }
+            assertEquals(49, paged.size());
+            assertFalse(paged.contains(10));
+            assertEquals(50, paged.get(48));
+        }
+    }
+
+    /**
+     * Tests that replacements overwrite records in place and survive a reopen.
+     */
+    @Test
+    void testReplace_OverwritesRecord() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.ALWAYS)) {
+            store.add(new Student(101, "Ali", 20));
+            store.add(new Student(102, "Sara", 22));
+            store.add(new Student(103, "Omar", 21));
+
+            assertEquals("102 Sara 22", describe(store.replace(102, new Student(102, "Sara Khan", 23))));
+            assertEquals("101 Ali 20", describe(store.replace(101, new Student(201, "Al", 20))));
+            assertNull(store.get(101));
+            assertNull(store.replace(101, new Student(101, "Nobody", 20)));
+            assertThrows(IllegalArgumentException.class, () -> store.replace(103, new Student(201, "Omar", 21)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> store.replace(103, new Student(103, "A".repeat(MappedStudentStore.MAX_NAME_BYTES + 1), 21)));
+        }
+
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            assertEquals(List.of("201 Al 20", "102 Sara Khan 23", "103 Omar 21"), describe(store));
+            assertEquals("201 Al 20", describe(store.get(201)));
+        }
+    }
+
+    /**
+     * Tests that names that do not fit a record are rejected before they are stored.
+     */
+    @Test
+    void testAdd_NameTooLong() throws IOException {
+        try (MappedStudentStore store = open(FsyncPolicy.NEVER)) {
+            StudentRepository repository = new StudentRepository(store);
+            String name = "A".repeat(MappedStudentStore.MAX_NAME_BYTES);
+
+            assertTrue(repository.add(new Student(1, name, 20)).isSuccess());
+            assertEquals(StudentError.NAME_TOO_LONG, repository.add(new Student(2, name + "B", 20)).getError());
+            assertThrows(IllegalArgumentException.class, () -> store.add(new Student(3, "é".repeat(24), 20)));
+            assertEquals(1, store.size());
+        }
+    }
+
+    private MappedStudentStore open(FsyncPolicy policy) throws IOException {
+        return new MappedStudentStore(dataDirectory, policy, 5);
+    }
+
+    private void writeInt(long offset, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataDirectory.resolve("students.dat"), StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+            channel.write(buffer.flip(), offset);
+        }
+    }
+
+    private void copyRecord(int from, int to, int offset, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(dataDirectory.resolve("students.dat"),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate(length);
+            channel.read(bytes, HEADER_SIZE + (long) from * RECORD_SIZE + offset);
+            channel.write(bytes.flip(), HEADER_SIZE + (long) to * RECORD_SIZE + offset);
+        }
+    }
+}
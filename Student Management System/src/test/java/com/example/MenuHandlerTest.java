@@ -0,0 +1,291 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the console operations of the MenuHandler class.
+ */
+class MenuHandlerTest {
+
+    private StudentIndex studentIndex;
+    private StudentRepository repository;
+
+    /**
+     * Sets up the test environment before each test.
+     * 
+     * Initializes an empty index of students and creates a new instance
+     * of the StudentRepository with the index.
+     */
+    @BeforeEach
+    void setUp() {
+        studentIndex = new StudentIndex();
+        repository = new StudentRepository(studentIndex);
+    }
+
+    /**
+     * Tests that a script written for the original menu still runs.
+     *
+     * Verifies that options 1 and 4 still add and find a student and that
+     * option 5 still exits, whatever options have been appended since.
+     */
+    @Test
+    void testStart_OriginalMenuScript() {
+        MenuHandler.start(repository, new Scanner("1\n101\nAli\n20\n4\n101\n5\n"));
+
+        assertEquals(1, studentIndex.size());
+        assertEquals("Ali", studentIndex.get(101).getStudentName());
+    }
+
+    /**
+     * Tests that listing a roster longer than one page reads no pager answer
+     * from piped input.
+     *
+     * Verifies that the option after the listing is still read as a menu choice.
+     */
+    @Test
+    void testStart_PipedDisplayReadsNoPagerAnswer() {
+        for (int id = 1; id <= MenuHandler.PAGE_SIZE * 3; id++) {
+            studentIndex.add(new Student(id, "Student", 20));
+        }
+
+        MenuHandler.start(repository, new Scanner("3\n2\n1\n5\n"));
+
+        assertEquals(MenuHandler.PAGE_SIZE * 3 - 1, studentIndex.size());
+        assertNull(studentIndex.get(1));
+    }
+
+    /**
+     * Tests the addition of a new student with valid inputs.
+     * 
+     * Verifies that the student is successfully added to the list 
+     * with the correct details.
+     */
+    @Test
+    void testAddNewStudent_Success() {
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101", "Ali", "20");
+
+        MenuHandler.addNewStudent(repository, mockScanner);
+
+        assertEquals(1, studentIndex.size());
+        assertEquals(101, studentIndex.get(101).getStudentId());
+        assertEquals("Ali", studentIndex.get(101).getStudentName());
+        assertEquals(20, studentIndex.get(101).getStudentAge());
+    }
+
+    /**
+     * Tests that invalid inputs are prompted for again.
+     * 
+     * Verifies that a non-numeric ID, a name with digits and a zero age are
+     * rejected before the student is added with the corrected values.
+     */
+    @Test
+    void testAddNewStudent_RetriesInvalidInput() {
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("abc", "101", "Ali1", "Ali", "0", "20");
+
+        MenuHandler.addNewStudent(repository, mockScanner);
+
+        assertEquals(1, studentIndex.size());
+        assertEquals("Ali", studentIndex.get(101).getStudentName());
+        assertEquals(20, studentIndex.get(101).getStudentAge());
+    }
+
+    /**
+     * Tests the addition of a new student with a duplicate ID.
+     * 
+     * Verifies that the student is not added to the list when the 
+     * provided ID already exists in the list.
+     */
+    @Test
+    void testAddNewStudent_DuplicateId() {
+        studentIndex.add(new Student(101, "Ali", 20));
+
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101", "Ali", "20");
+
+        MenuHandler.addNewStudent(repository, mockScanner);
+
+        assertEquals(1, studentIndex.size());
+    }
+
+    /**
+     * Tests the display of all students when the list is non-empty.
+     * 
+     * Verifies that the list is printed correctly and its size 
+     * remains unchanged.
+     */
+    @Test
+    void testDisplayAllStudents_NonEmpty() {
+        studentIndex.add(new Student(101, "Ali", 20));
+        MenuHandler.displayAllStudents(repository);
+
+        // You'd typically assert the printed output in integration/system tests
+        // Here, we focus on ensuring the list is printed without modifying its size
+        assertEquals(1, studentIndex.size());
+    }
+
+    /**
+     * Tests that the paged display stops when the user enters q.
+     *
+     * Verifies that only one prompt is read for a roster longer than one page.
+     */
+    @Test
+    void testDisplayAllStudents_PagedStops() {
+        for (int id = 1; id <= MenuHandler.PAGE_SIZE * 3; id++) {
+            studentIndex.add(new Student(id, "Student", 20));
+        }
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("q");
+
+        MenuHandler.displayAllStudents(repository, mockScanner);
+
+        verify(mockScanner, times(1)).nextLine();
+    }
+
+    /**
+     * Tests the search functionality for a student by ID when the student is found.
+     * 
+     * Verifies that the method executes properly and displays the correct details.
+     */
+    @Test
+    void testSearchStudentById_Found() {
+        studentIndex.add(new Student(101, "Ali", 20));
+
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101");
+
+        MenuHandler.searchStudentById(repository, mockScanner);
+    }
+
+    /**
+     * Tests the search functionality for a student by ID when the student is not found.
+     * 
+     * Verifies that the method executes properly without modifying the list.
+     */
+    @Test
+    void testSearchStudentById_NotFound() {
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("999");
+
+        MenuHandler.searchStudentById(repository, mockScanner);
+
+        // Test focuses on ensuring proper execution without modifying the list
+        assertTrue(studentIndex.isEmpty());
+    }
+
+    /**
+     * Tests the removal of a student by ID when the student exists in the list.
+     * 
+     * Verifies that the student is successfully removed and the list becomes empty.
+     */
+    @Test
+    void testRemoveStudentById_Success() {
+        studentIndex.add(new Student(101, "Ali", 20));
+
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101");
+
+        MenuHandler.removeStudentById(repository, mockScanner);
+
+        assertTrue(studentIndex.isEmpty());
+    }
+
+    /**
+     * Tests the removal of a student by ID when the student does not exist in the list.
+     * 
+     * Verifies that the list remains unchanged when no matching student is found.
+     */
+    @Test
+    void testRemoveStudentById_NotFound() {
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("999");
+
+        MenuHandler.removeStudentById(repository, mockScanner);
+
+        assertTrue(studentIndex.isEmpty());
+    }
+
+    /**
+     * Tests the update of a student by ID.
+     * 
+     * Verifies that a blank answer keeps the field and that the student keeps
+     * its place while its name and age change.
+     */
+    @Test
+    void testUpdateStudentById_Success() {
+        studentIndex.add(new Student(101, "Ali", 20));
+        studentIndex.add(new Student(102, "Sara", 22));
+
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101", "", "Ali Khan", "x", "21");
+
+        MenuHandler.updateStudentById(repository, mockScanner);
+
+        assertEquals(2, studentIndex.size());
+        assertEquals("Ali Khan", studentIndex.get(101).getStudentName());
+        assertEquals(21, studentIndex.get(101).getStudentAge());
+        assertEquals(101, studentIndex.iterator().next().getStudentId());
+    }
+
+    /**
+     * Tests that a re-keyed student is reported under its new ID.
+     */
+    @Test
+    void testUpdateStudentById_ReportsNewId() {
+        studentIndex.add(new Student(101, "Ali", 20));
+
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("101", "201", "", "");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(output, true));
+        try {
+            MenuHandler.updateStudentById(repository, mockScanner);
+        } finally {
+            System.setOut(console);
+        }
+
+        assertEquals(201, studentIndex.get(201).getStudentId());
+        assertTrue(output.toString().contains("Student with ID 201 updated successfully!"));
+    }
+
+    /**
+     * Tests the update of a student by ID when the student does not exist.
+     * 
+     * Verifies that no further input is read and the list is unchanged.
+     */
+    @Test
+    void testUpdateStudentById_NotFound() {
+        Scanner mockScanner = mock(Scanner.class);
+        when(mockScanner.nextLine()).thenReturn("999");
+
+        MenuHandler.updateStudentById(repository, mockScanner);
+
+        verify(mockScanner, times(1)).nextLine();
+        assertTrue(studentIndex.isEmpty());
+    }
+
+    /**
+     * Tests the display of all students when the list is empty.
+     * 
+     * Verifies that the method executes properly without modifying the list.
+     */
+    @Test
+    void testDisplayAllStudents_Empty() {
+        MenuHandler.displayAllStudents(repository);
+
+        // Ensures that the list remains empty during this operation
+        assertTrue(studentIndex.isEmpty());
+    }
+}
@@ -0,0 +1,145 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the RosterAnalytics, RosterStatistics and PositionSpliterator classes.
+ */
+class RosterAnalyticsTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests every aggregate of a small roster.
+     */
+    @Test
+    void testStatistics_SmallRoster() {
+        StudentRepository repository = new StudentRepository();
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "ahmed", 22));
+        repository.add(new Student(105, "Sara", 20));
+        repository.add(new Student(110, "Emile", 25));
+
+        RosterStatistics statistics = repository.statistics();
+
+        assertEquals(4, statistics.getStudentCount());
+        assertEquals(Map.of(20, 2L, 22, 1L, 25, 1L), statistics.getAgeHistogram());
+        assertEquals(21.75, statistics.getMeanAge());
+        assertEquals(21.0, statistics.getMedianAge());
+        assertEquals(Map.of("A", 2L, "E", 1L, "S", 1L), statistics.getInitialCounts());
+        assertEquals(101, statistics.getMinId());
+        assertEquals(110, statistics.getMaxId());
+        assertEquals(6, statistics.getMissingIdCount());
+        assertEquals(2, statistics.getIdGapCount());
+        assertEquals("[106-109, 103-104]", statistics.getLargestIdGaps().toString());
+
+        repository.remove(110);
+        assertEquals(20.0, repository.statistics(false).getMedianAge());
+    }
+
+    /**
+     * Tests the statistics of an empty roster.
+     */
+    @Test
+    void testStatistics_EmptyRoster() {
+        RosterStatistics statistics = new StudentRepository().statistics();
+
+        assertEquals(0, statistics.getStudentCount());
+        assertTrue(Double.isNaN(statistics.getMeanAge()));
+        assertTrue(Double.isNaN(statistics.getMedianAge()));
+        assertTrue(statistics.getAgeHistogram().isEmpty());
+        assertEquals(0, statistics.getMissingIdCount());
+        assertTrue(statistics.getLargestIdGaps().isEmpty());
+    }
+
+    /**
+     * Tests that the parallel reduction agrees with the sequential one over every store layout.
+     */
+    @Test
+    void testParallel_MatchesSequential() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (MappedStudentStore mapped = MappedStudentStore.open(directory, FsyncPolicy.NEVER)) {
+            for (StudentStore store : List.of(new StudentIndex(), new ColumnarStudentStore(),
+                    new ConcurrentStudentStore(), mapped)) {
+                fill(store);
+                RosterStatistics sequential = RosterAnalytics.compute(store.spliterator(), null);
+                RosterStatistics parallel = RosterAnalytics.compute(store.spliterator(), pool);
+
+                assertEquals(store.size(), parallel.getStudentCount());
+                assertEquals(sequential.getAgeHistogram(), parallel.getAgeHistogram());
+                assertEquals(sequential.getMeanAge(), parallel.getMeanAge());
+                assertEquals(sequential.getMedianAge(), parallel.getMedianAge());
+                assertEquals(sequential.getInitialCounts(), parallel.getInitialCounts());
+                assertEquals(sequential.getMaxId(), parallel.getMaxId());
+                assertEquals(sequential.getIdGapCount(), parallel.getIdGapCount());
+                assertEquals(sequential.getLargestIdGaps().toString(), parallel.getLargestIdGaps().toString());
+                assertEquals(RosterAnalytics.MAX_REPORTED_GAPS, parallel.getLargestIdGaps().size());
+                assertEquals(1002, parallel.getLargestIdGaps().get(0).getLength());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests that the splits of a store's spliterator cover every student once and skip holes.
+     */
+    @Test
+    void testSpliterator_SplitsCoverRoster() {
+        StudentIndex index = new StudentIndex();
+        for (int id = 1; id <= 1000; id++) {
+            index.add(new Student(id, "Ali", 20));
+        }
+        for (int id = 2; id <= 1000; id += 3) {
+            index.remove(id);
+        }
+
+        Spliterator<Student> suffix = index.spliterator();
+        assertEquals(index.size(), suffix.getExactSizeIfKnown());
+        Spliterator<Student> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        assertEquals(-1, suffix.getExactSizeIfKnown());
+
+        List<Integer> ids = new ArrayList<>();
+        prefix.forEachRemaining(student -> ids.add(student.getStudentId()));
+        while (suffix.tryAdvance(student -> ids.add(student.getStudentId()))) {
+            // Collects one student per call
+        }
+        assertEquals(index.stream().map(Student::getStudentId).toList(), ids);
+
+        Spliterator<Student> stale = index.spliterator();
+        index.add(new Student(2000, "Sara", 21));
+        assertThrows(ConcurrentModificationException.class, () -> stale.forEachRemaining(student -> { }));
+    }
+
+    /**
+     * Fills a store with 100000 students whose IDs leave gaps, then removes some of them.
+     */
+    private static void fill(StudentStore store) {
+        String[] names = {"Ali", "Sara", "Omar", "Maria", "Ödön"};
+        for (int i = 0; i < 100_000; i++) {
+            // Every hundredth ID is followed by a gap, every thousandth by a wider one
+            int id = 1 + i + (i / 100) * 5 + (i / 1000) * 996;
+            store.add(new Student(id, names[i % names.length], 17 + (i * 7) % 13));
+        }
+        for (int i = 0; i < 100_000; i += 7) {
+            store.remove(1 + i + (i / 100) * 5 + (i / 1000) * 996);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the ShardedStudentStore, HashRing, ShardServer and RemoteStudentStore classes.
+ */
+class ShardedStudentStoreTest {
+
+    /**
+     * Tests that students are spread over the shards and found on the shard owning their ID.
+     */
+    @Test
+    void testRouting_SpreadsAndFinds() {
+        ShardedStudentStore store = ShardedStudentStore.inProcess(4, StudentIndex::new);
+        for (int id = 1; id <= 20_000; id++) {
+            assertTrue(store.add(new Student(id, "Ali", 20)));
+        }
+
+        assertEquals(20_000, store.size());
+        for (int shard = 0; shard < 4; shard++) {
+            int size = store.shard(shard).size();
+            assertTrue(size > 3_500 && size < 6_500, "shard " + shard + " holds " + size);
+        }
+        for (int id = 1; id <= 20_000; id += 7) {
+            assertEquals(id, store.shard(store.shardOf(id)).get(id).getStudentId());
+            assertEquals(id, store.get(id).getStudentId());
+        }
+        assertFalse(store.add(new Student(5, "Sara", 22)));
+        assertEquals(5, store.remove(5).getStudentId());
+        assertFalse(store.contains(5));
+
+        Set<Integer> seen = new HashSet<>();
+        store.forEach(student -> seen.add(student.getStudentId()));
+        assertEquals(19_999, seen.size());
+        assertEquals(19_999, store.stream().count());
+    }
+
+    /**
+     * Tests that adding a shard moves only the students whose IDs it takes over, about a fifth of them.
+     */
+    @Test
+    void testAddShard_MovesOnlyTakenOverIds() {
+        ShardedStudentStore store = ShardedStudentStore.inProcess(4, StudentIndex::new);
+        int[] owners = new int[20_001];
+        for (int id = 1; id <= 20_000; id++) {
+            store.add(new Student(id, "Ali", 20));
+            owners[id] = store.shardOf(id);
+        }
+
+        long moved = store.addShard("shard-4", new StudentIndex());
+
+        assertEquals(5, store.shardCount());
+        assertEquals(20_000, store.size());
+        assertEquals(store.shard(4).size(), moved);
+        assertTrue(moved > 2_500 && moved < 5_500, "moved " + moved);
+        for (int id = 1; id <= 20_000; id++) {
+            int owner = store.shardOf(id);
+            assertTrue(owner == owners[id] || owner == 4);
+            assertEquals(id, store.shard(owner).get(id).getStudentId());
+            assertEquals(id, store.get(id).getStudentId());
+        }
+        assertThrows(IllegalArgumentException.class, () -> store.addShard("shard-4", new StudentIndex()));
+
+        // A ring built from the same names in another order maps every ID the same way
+        ShardedStudentStore reordered = new ShardedStudentStore(
+                List.of("shard-4", "shard-3", "shard-2", "shard-1", "shard-0"),
+                List.of(new StudentIndex(), new StudentIndex(), new StudentIndex(), new StudentIndex(), new StudentIndex()));
+        for (int id = 1; id <= 20_000; id++) {
+            assertEquals(4 - store.shardOf(id), reordered.shardOf(id));
+        }
+    }
+
+    /**
+     * Tests that repository pages walk every shard and re-keying moves a student between shards.
+     */
+    @Test
+    void testRepository_PagesAndUpdatesAcrossShards() {
+        ShardedStudentStore store = ShardedStudentStore.inProcess(3, StudentIndex::new);
+        StudentRepository repository = new StudentRepository(store);
+        for (int id = 1; id <= 1_000; id++) {
+            repository.add(new Student(id, "Ali", 20));
+        }
+
+        Set<Integer> paged = new HashSet<>();
+        StudentPage page = repository.page(null, 64);
+        paged.addAll(ids(page.getStudents()));
+        repository.remove(page.getStudents().get(63).getStudentId());
+        while (page.hasNextPage()) {
+            page = repository.page(page.getNextPageToken(), 64);
+            paged.addAll(ids(page.getStudents()));
+        }
+        assertEquals(1_000, paged.size());
+
+        int moving = 2;
+        int target = 3;
+        while (store.shardOf(target) == store.shardOf(moving)) {
+            target++;
+        }
+        repository.remove(target);
+        assertTrue(repository.update(moving, StudentPatch.empty().withStudentId(target)).isSuccess());
+        assertEquals(target, store.shard(store.shardOf(target)).get(target).getStudentId());
+        assertNull(store.get(moving));
+        assertEquals(StudentError.DUPLICATE_ID,
+                repository.update(target, StudentPatch.empty().withStudentId(1)).getError());
+        assertEquals(998, repository.statistics(true).getStudentCount());
+    }
+
+    /**
+     * Tests that a re-key whose new shard fails leaves the student on its old shard.
+     */
+    @Test
+    void testReplace_FailingTargetKeepsStudent() {
+        AtomicBoolean failing = new AtomicBoolean();
+        List<StudentStore> shards = new ArrayList<>();
+        for (int shard = 0; shard < 2; shard++) {
+            shards.add(new StudentIndex() {
+                @Override
+                public boolean add(Student student) {
+                    if (failing.get()) {
+                        throw new IllegalStateException("Shard failed");
+                    }
+                    return super.add(student);
+                }
+            });
+        }
+        ShardedStudentStore store = new ShardedStudentStore(List.of("shard-0", "shard-1"), shards);
+        int studentId = 1;
+        int newId = 2;
+        while (store.shardOf(newId) == store.shardOf(studentId)) {
+            newId++;
+        }
+        StudentRepository repository = new StudentRepository(store);
+        assertTrue(repository.add(new Student(studentId, "Ali", 20)).isSuccess());
+
+        failing.set(true);
+        int target = newId;
+        assertThrows(IllegalStateException.class,
+                () -> repository.update(studentId, StudentPatch.empty().withStudentId(target)));
+        failing.set(false);
+
+        assertEquals("Ali", store.get(studentId).getStudentName());
+        assertNull(store.get(newId));
+        assertEquals(1, store.size());
+        assertTrue(repository.update(studentId, StudentPatch.empty().withStudentId(newId)).isSuccess());
+        assertNull(store.get(studentId));
+        assertEquals(1, store.shard(store.shardOf(newId)).size());
+    }
+
+    /**
+     * Tests every request of the shard protocol against a server in this process.
+     */
+    @Test
+    void testRemoteStore_Protocol() throws IOException {
+        StudentIndex shard = new StudentIndex();
+        ShardServer server = ShardServer.start(shard, new InetSocketAddress("localhost", 0));
+        try (RemoteStudentStore remote = RemoteStudentStore.connect(new InetSocketAddress("localhost", server.port()))) {
+            assertTrue(remote.add(new Student(101, "Ali", 20)));
+            assertTrue(remote.add(new Student(102, "Sara Khan", 22)));
+            assertFalse(remote.add(new Student(101, "Omar", 21)));
+            assertEquals("Sara Khan", remote.get(102).getStudentName());
+            assertNull(remote.get(999));
+            assertTrue(remote.contains(101));
+            assertEquals(2, remote.size());
+
+            assertEquals("Ali", remote.replace(101, new Student(103, "Ali Khan", 21)).getStudentName());
+            assertNull(remote.replace(999, new Student(104, "Omar", 21)));
+            assertThrows(IllegalArgumentException.class, () -> remote.replace(102, new Student(103, "Omar", 21)));
+            assertEquals(103, shard.iterator().next().getStudentId());
+
+            Student[] students = new Student[1];
+            long[] sequences = new long[1];
+            assertEquals(1, remote.page(-1, students, sequences));
+            assertEquals(1, remote.page(sequences[0], students, sequences));
+            assertEquals(102, students[0].getStudentId());
+
+            assertEquals(List.of(103, 102), ids(remote.fetchAll()));
+            assertEquals(102, remote.remove(102).getStudentId());
+            assertNull(remote.remove(102));
+            assertEquals(ShardServer.MAX_NAME_BYTES, remote.maxNameLength());
+            remote.ensureCapacity(1000);
+            assertEquals(1, remote.size());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Tests that a repository page larger than a PAGE request may ask for walks
+     * every remote shard to its end.
+     */
+    @Test
+    void testRemoteShards_PageLargerThanRequestLimit() throws IOException {
+        List<StudentIndex> shards = List.of(new StudentIndex(), new StudentIndex());
+        List<ShardServer> servers = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<RemoteStudentStore> remotes = new ArrayList<>();
+        try {
+            for (StudentIndex shard : shards) {
+                ShardServer server = ShardServer.start(shard, new InetSocketAddress("localhost", 0));
+                servers.add(server);
+                names.add("localhost:" + server.port());
+            }
+            // Fill the shards in this process, routed by the same names, rather than a request per student
+            int studentCount = ShardServer.MAX_PAGE_SIZE * 3;
+            ShardedStudentStore local = new ShardedStudentStore(names, shards);
+            for (int id = 1; id <= studentCount; id++) {
+                local.add(new Student(id, "Ali", 20));
+            }
+            assertTrue(shards.get(0).size() > ShardServer.MAX_PAGE_SIZE);
+            for (ShardServer server : servers) {
+                remotes.add(RemoteStudentStore.connect(new InetSocketAddress("localhost", server.port())));
+            }
+
+            try (ShardedStudentStore store = new ShardedStudentStore(names, remotes)) {
+                StudentRepository repository = new StudentRepository(store);
+                StudentPage page = repository.page(null, studentCount);
+                assertEquals(studentCount, page.getStudents().size());
+                assertFalse(page.hasNextPage());
+
+                Set<Integer> paged = new HashSet<>();
+                page = repository.page(null, ShardServer.MAX_PAGE_SIZE + 1);
+                paged.addAll(ids(page.getStudents()));
+                while (page.hasNextPage()) {
+                    page = repository.page(page.getNextPageToken(), ShardServer.MAX_PAGE_SIZE + 1);
+                    paged.addAll(ids(page.getStudents()));
+                }
+                assertEquals(studentCount, paged.size());
+            }
+        } finally {
+            for (ShardServer server : servers) {
+                server.stop();
+            }
+        }
+    }
+
+    /**
+     * Tests that a name too long for the protocol is rejected without leaving
+     * the connection out of step.
+     */
+    @Test
+    void testRemoteStore_NameTooLong() throws IOException {
+        ShardServer server = ShardServer.start(new StudentIndex(), new InetSocketAddress("localhost", 0));
+        InetSocketAddress address = new InetSocketAddress("localhost", server.port());
+        try (RemoteStudentStore remote = RemoteStudentStore.connect(address)) {
+            assertTrue(remote.add(new Student(101, "Ali", 20)));
+            String name = "a".repeat(ShardServer.MAX_NAME_BYTES + 1);
+            assertThrows(IllegalArgumentException.class, () -> remote.add(new Student(102, name, 20)));
+            assertThrows(IllegalArgumentException.class, () -> remote.replace(101, new Student(101, name, 20)));
+            assertEquals("Ali", remote.get(101).getStudentName());
+            assertNull(remote.get(102));
+
+            StudentRepository repository = new StudentRepository(remote);
+            assertEquals(StudentError.NAME_TOO_LONG, repository.add(new Student(102, name, 20)).getError());
+            assertEquals(1, remote.size());
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Tests that a client that does not read its LIST answer holds up no other
+     * connection to a shard whose store is not thread-safe.
+     */
+    @Test
+    void testShardServer_SlowClientHoldsUpNoOne() throws Exception {
+        StudentIndex shard = new StudentIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        char[] name = new char[24];
+        for (int id = 1; id <= 500_000; id++) {
+            for (int i = 0; i < name.length; i++) {
+                name[i] = (char) ('a' + random.nextInt(26)); // Names that do not compress
+            }
+            shard.add(new Student(id, new String(name), 20));
+        }
+        ShardServer server = ShardServer.start(shard, new InetSocketAddress("localhost", 0));
+        InetSocketAddress address = new InetSocketAddress("localhost", server.port());
+        try (Socket stalled = new Socket(); RemoteStudentStore remote = RemoteStudentStore.connect(address)) {
+            stalled.setReceiveBufferSize(4096); // Keep the answer from fitting in the socket buffers
+            stalled.connect(address);
+            stalled.getOutputStream().write(ShardServer.LIST);
+            stalled.getOutputStream().flush();
+            Thread.sleep(500);
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertTrue(remote.add(new Student(500_001, "Ali", 20)));
+                assertEquals(500_001, remote.size());
+            });
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Tests a repository routing over two shard processes on this machine.
+     */
+    @Test
+    void testRemoteShards_SeparateProcesses() throws Exception {
+        List<Process> processes = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<RemoteStudentStore> remotes = new ArrayList<>();
+        try {
+            for (int shard = 0; shard < 2; shard++) {
+                Process process = new ProcessBuilder(
+                        System.getProperty("java.home") + File.separator + "bin" + File.separator + "java",
+                        "-cp", System.getProperty("java.class.path"),
+                        "com.example.StudentManagementSystem", "--shard-server", "0")
+                        .redirectError(ProcessBuilder.Redirect.INHERIT)
+                        .start();
+                processes.add(process);
+                String line = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                        StandardCharsets.UTF_8)).readLine();
+                int port = Integer.parseInt(line.substring(line.lastIndexOf(' ') + 1));
+                names.add("localhost:" + port);
+                remotes.add(RemoteStudentStore.connect(new InetSocketAddress("localhost", port)));
+            }
+
+            try (ShardedStudentStore store = new ShardedStudentStore(names, remotes)) {
+                StudentRepository repository = new StudentRepository(store);
+                for (int id = 1; id <= 2_000; id++) {
+                    assertTrue(repository.add(new Student(id, id % 2 == 0 ? "Ali" : "Sara", 17 + id % 10)).isSuccess());
+                }
+
+                assertTrue(remotes.get(0).size() > 500 && remotes.get(1).size() > 500);
+                assertEquals(2_000, repository.size());
+                assertEquals("Sara", repository.find(1_001).orElseThrow().getStudentName());
+                assertEquals(2_000, repository.statistics(false).getStudentCount());
+                assertEquals(200, repository.countByAgeRange(20, 20));
+                assertTrue(repository.remove(1_001).isSuccess());
+                assertEquals(1_999, store.stream().count());
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        List<Integer> ids = new ArrayList<>();
+        for (Student student : students) {
+            ids.add(student.getStudentId());
+        }
+        return ids;
+    }
+}
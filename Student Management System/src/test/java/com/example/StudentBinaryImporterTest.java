@@ -0,0 +1,234 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the StudentBinaryImporter, StudentBinaryExporter and LzBlockCodec classes.
+ */
+class StudentBinaryImporterTest {
+
+    @TempDir
+    Path directory;
+
+    private StudentRepository repository;
+
+    /**
+     * Sets up a repository of 50,000 students with repeated names before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        repository = new StudentRepository();
+        String[] names = {"Ali", "Sara Khan", "Omar", "Maria", "John Smith"};
+        for (int id = 1; id <= 50_000; id++) {
+            repository.add(new Student(id * 3, names[id % names.length], 17 + id % 10));
+        }
+    }
+
+    /**
+     * Tests that a roster survives a round trip with every combination of options,
+     * and that the dictionary and compression each make it smaller.
+     */
+    @Test
+    void testExportThenImport_RoundTrip() throws IOException {
+        int[] sizes = new int[4];
+        for (int options = 0; options < 4; options++) {
+            byte[] roster = export(new StudentBinaryExporter((options & 1) != 0, (options & 2) != 0));
+            sizes[options] = roster.length;
+
+            StudentRepository copy = new StudentRepository();
+            StudentImportReport report = new StudentBinaryImporter(copy).importFrom(ByteBuffer.wrap(roster));
+
+            assertEquals(50_000, report.getImportedCount());
+            assertEquals(0, report.getRejectedCount());
+            assertEquals(describe(repository.students()), describe(copy.students()));
+        }
+        assertTrue(sizes[1] < sizes[0]);
+        assertTrue(sizes[2] < sizes[0]);
+        assertTrue(sizes[3] < sizes[1]);
+    }
+
+    /**
+     * Tests that a file is imported through its mapping, and that a direct buffer decodes
+     * like a heap one.
+     */
+    @Test
+    void testImport_FileAndDirectBuffer() throws IOException {
+        Path file = directory.resolve("students" + StudentBinaryExporter.EXTENSION);
+        assertEquals(50_000, new StudentBinaryExporter().exportTo(file, repository.students()));
+
+        StudentRepository copy = new StudentRepository();
+        assertEquals(50_000, new StudentBinaryImporter(copy).importFrom(file).getImportedCount());
+        assertEquals(describe(repository.students()), describe(copy.students()));
+
+        byte[] roster = Files.readAllBytes(file);
+        ByteBuffer direct = ByteBuffer.allocateDirect(roster.length).put(roster).flip();
+        List<Student> decoded = new ArrayList<>();
+        assertEquals(50_000, new StudentBinaryImporter(new StudentRepository()).decode(direct, decoded::add));
+        assertEquals(describe(repository.students()), describe(decoded));
+    }
+
+    /**
+     * Tests that IDs in any order, extreme values and non-ASCII names decode unchanged.
+     */
+    @Test
+    void testDecode_RandomStudents() throws IOException {
+        Random random = new Random(42);
+        List<Student> students = new ArrayList<>();
+        String[] names = {"José", "Zoë Ölçer", "李", "Ali", ""};
+        for (int i = 0; i < 20_000; i++) {
+            int studentId = i % 1000 == 0 ? Integer.MIN_VALUE + i : random.nextInt();
+            StringBuilder name = new StringBuilder(names[random.nextInt(names.length)]);
+            for (int length = random.nextInt(i % 100 == 0 ? 300 : 8); length > 0; length--) {
+                name.append((char) ('a' + random.nextInt(26)));
+            }
+            students.add(new Student(studentId, name.toString(), random.nextInt(4) == 0 ? -1 : random.nextInt(120)));
+        }
+
+        for (boolean compress : new boolean[] {false, true}) {
+            byte[] roster = export(new StudentBinaryExporter(true, compress), students);
+            List<Student> decoded = new ArrayList<>();
+            new StudentBinaryImporter(new StudentRepository()).decode(ByteBuffer.wrap(roster), decoded::add);
+            assertEquals(describe(students), describe(decoded));
+        }
+    }
+
+    /**
+     * Tests that students the repository rejects are reported by their position in the roster.
+     */
+    @Test
+    void testImport_ReportsRejectedStudents() throws IOException {
+        List<Student> students = List.of(new Student(101, "Ali", 20), new Student(101, "Sara", 22),
+                new Student(102, "R2D2", 21), new Student(103, "Omar", 21));
+        StudentRepository copy = new StudentRepository();
+        StudentImportReport report = new StudentBinaryImporter(copy, 2, 10)
+                .importFrom(ByteBuffer.wrap(export(new StudentBinaryExporter(), students)));
+
+        assertEquals(2, report.getImportedCount());
+        assertEquals(2, report.getRejectedCount());
+        assertEquals("Line 2: A student with ID 101 already exists.", report.getRowErrors().get(0).toString());
+        assertEquals(3, report.getRowErrors().get(1).getLineNumber());
+    }
+
+    /**
+     * Tests that truncated, corrupted and foreign input is rejected.
+     */
+    @Test
+    void testImport_RejectsDamagedRosters() throws IOException {
+        byte[] roster = export(new StudentBinaryExporter());
+        StudentBinaryImporter importer = new StudentBinaryImporter(new StudentRepository());
+
+        byte[] truncated = new byte[roster.length - 20];
+        System.arraycopy(roster, 0, truncated, 0, truncated.length);
+        IOException error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap(truncated)));
+        assertEquals("Roster is truncated", error.getMessage());
+
+        byte[] corrupted = roster.clone();
+        corrupted[100] ^= 1;
+        error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap(corrupted)));
+        assertTrue(error.getMessage().endsWith("fails its checksum"));
+
+        byte[] newer = roster.clone();
+        newer[4] = StudentBinaryExporter.VERSION + 1;
+        error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap(newer)));
+        assertEquals("Roster has an unknown format version", error.getMessage());
+
+        error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap("id,name,age\n".getBytes())));
+        assertEquals("Not a binary roster", error.getMessage());
+    }
+
+    /**
+     * Tests that a corrupted block header is rejected before a buffer of its encoded length
+     * is allocated, and that version 1 rosters, whose checksums skip the headers, are still read.
+     */
+    @Test
+    void testImport_RejectsCorruptedBlockHeaders() throws IOException {
+        byte[] roster = export(new StudentBinaryExporter(true, true));
+        StudentBinaryImporter importer = new StudentBinaryImporter(new StudentRepository());
+        int encodedLength = ByteBuffer.wrap(roster).getInt(6 + 4);
+        assertTrue(ByteBuffer.wrap(roster).getInt(6 + 8) < encodedLength);
+
+        byte[] oversized = roster.clone();
+        ByteBuffer.wrap(oversized).putInt(6 + 4, Integer.MAX_VALUE);
+        IOException error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap(oversized)));
+        assertEquals("Roster is corrupt", error.getMessage());
+
+        byte[] shorter = roster.clone();
+        ByteBuffer.wrap(shorter).putInt(6 + 4, encodedLength - 1);
+        error = assertThrows(IOException.class, () -> importer.importFrom(ByteBuffer.wrap(shorter)));
+        assertTrue(error.getMessage().endsWith("fails its checksum"));
+
+        byte[] version1 = roster.clone();
+        version1[4] = 1;
+        ByteBuffer blocks = ByteBuffer.wrap(version1);
+        CRC32C crc = new CRC32C();
+        for (int offset = 6; blocks.getInt(offset) != 0;
+                offset += StudentBinaryExporter.BLOCK_HEADER_SIZE + blocks.getInt(offset + 8)) {
+            crc.reset();
+            crc.update(version1, offset + StudentBinaryExporter.BLOCK_HEADER_SIZE, blocks.getInt(offset + 8));
+            blocks.putInt(offset + 12, (int) crc.getValue());
+        }
+        StudentRepository copy = new StudentRepository();
+        assertEquals(50_000, new StudentBinaryImporter(copy).importFrom(blocks).getImportedCount());
+        assertEquals(describe(repository.students()), describe(copy.students()));
+    }
+
+    /**
+     * Tests that the codec round-trips runs, overlapping matches and random bytes,
+     * and gives up on input it cannot shrink.
+     */
+    @Test
+    void testLzBlockCodec_RoundTrip() throws IOException {
+        Random random = new Random(7);
+        LzBlockCodec codec = new LzBlockCodec();
+        for (int trial = 0; trial < 200; trial++) {
+            byte[] block = new byte[random.nextInt(70_000)];
+            for (int i = 0; i < block.length; ) {
+                int run = 1 + random.nextInt(trial % 2 == 0 ? 4 : 400);
+                byte value = (byte) random.nextInt(trial % 3 == 0 ? 256 : 4);
+                for (; run > 0 && i < block.length; run--) {
+                    block[i++] = value;
+                }
+            }
+
+            byte[] compressed = new byte[block.length + block.length / 255 + 16];
+            int end = codec.compress(block, 0, block.length, compressed, 0, compressed.length);
+            byte[] decompressed = new byte[block.length];
+            LzBlockCodec.decompress(ByteBuffer.wrap(compressed), 0, end, decompressed, block.length);
+            assertEquals(ByteBuffer.wrap(block), ByteBuffer.wrap(decompressed));
+        }
+
+        byte[] noise = new byte[4096];
+        random.nextBytes(noise);
+        assertEquals(-1, codec.compress(noise, 0, noise.length, new byte[4096], 0, 4095));
+    }
+
+    private byte[] export(StudentBinaryExporter exporter) throws IOException {
+        List<Student> students = new ArrayList<>();
+        repository.students().forEach(students::add);
+        return export(exporter, students);
+    }
+
+    private static byte[] export(StudentBinaryExporter exporter, List<Student> students) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(students.size(), exporter.exportTo(Channels.newChannel(out), students));
+        return out.toByteArray();
+    }
+}
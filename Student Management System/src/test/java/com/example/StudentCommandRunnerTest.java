@@ -0,0 +1,183 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the StudentCommandRunner class.
+ */
+class StudentCommandRunnerTest {
+
+    private StudentRepository repository;
+
+    /**
+     * Sets up an empty repository before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        repository = new StudentRepository();
+    }
+
+    /**
+     * Tests that commands run in order and each one is answered on its own line.
+     */
+    @Test
+    void testRun_Commands() throws IOException {
+        String output = run(4096, String.join("\n",
+                "ADD 101 Ali 20",
+                "# comment",
+                "",
+                "add  102   Sara Khan   22\r",
+                "GET 102",
+                "DEL 101",
+                "GET 101",
+                "del 102"));
+
+        assertEquals(String.join("\n",
+                "OK 101 Ali 20",
+                "OK 102 Sara Khan 22",
+                "OK 102 Sara Khan 22",
+                "OK 101 Ali 20",
+                "ERR Student with ID 101 not found.",
+                "OK 102 Sara Khan 22",
+                ""), output);
+        assertEquals(0, repository.size());
+    }
+
+    /**
+     * Tests that invalid commands are answered with an error without stopping the run.
+     */
+    @Test
+    void testRun_Errors() throws IOException {
+        String output = run(4096, String.join("\n",
+                "ADD 101 Ali 20",
+                "ADD 101 Sara 22",
+                "ADD x Sara 22",
+                "ADD 103 Sara x",
+                "ADD 104 R2D2 22",
+                "ADD 105 Omar -1",
+                "ADD 106 21",
+                "DEL",
+                "GET 1 2",
+                "LIST"));
+
+        assertEquals(String.join("\n",
+                "OK 101 Ali 20",
+                "ERR A student with ID 101 already exists.",
+                "ERR Student ID must be a valid number.",
+                "ERR Student Age must be a valid number.",
+                "ERR Name can only contain alphabetic characters and spaces.",
+                "ERR Student Age must be a positive number.",
+                "ERR Usage: ADD <id> <name> <age>",
+                "ERR Usage: DEL <id>",
+                "ERR Student ID must be a valid number.",
+                "ERR Unknown command: LIST",
+                ""), output);
+        assertEquals(1, repository.size());
+    }
+
+    /**
+     * Tests that UPD commands patch the named fields and report invalid ones.
+     */
+    @Test
+    void testRun_Updates() throws IOException {
+        String output = run(4096, String.join("\n",
+                "ADD 101 Ali 20",
+                "ADD 102 Sara 22",
+                "UPD 101 age=21",
+                "upd 101 id=201 name=Ali Khan",
+                "UPD 201 id=102",
+                "UPD 201 grade=3",
+                "UPD 201 age=x",
+                "UPD 999 age=30",
+                "UPD",
+                "GET 201"));
+
+        assertEquals(String.join("\n",
+                "OK 101 Ali 20",
+                "OK 102 Sara 22",
+                "OK 101 Ali 21",
+                "OK 201 Ali Khan 21",
+                "ERR A student with ID 102 already exists.",
+                "ERR Unknown field: grade=3",
+                "ERR Student Age must be a valid number.",
+                "ERR Student with ID 999 not found.",
+                "ERR Usage: UPD <id> [id=<new id>] [age=<age>] [name=<name>]",
+                "OK 201 Ali Khan 21",
+                ""), output);
+        assertEquals(2, repository.size());
+    }
+
+    /**
+     * Tests that batches of different sizes give the same results in the same order.
+     */
+    @Test
+    void testRun_BatchSizes() throws IOException {
+        StringBuilder commands = new StringBuilder();
+        for (int id = 1; id <= 1000; id++) {
+            commands.append("ADD ").append(id).append(" Student ").append(id % 50 + 1).append('\n');
+            if (id % 3 == 0) {
+                commands.append("DEL ").append(id - 1).append('\n');
+            }
+            commands.append("GET ").append(id - 1).append('\n');
+        }
+
+        String expected = run(4096, commands.toString());
+        setUp();
+        assertEquals(expected, run(7, commands.toString()));
+        setUp();
+        assertEquals(expected, run(1, commands.toString()));
+        assertEquals(667, repository.size());
+    }
+
+    /**
+     * Tests that pending commands are answered before the runner waits for more input.
+     */
+    @Test
+    void testRun_AnswersBeforeWaitingForInput() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String[] lines = {"ADD 101 Ali 20\n", "GET 101\n", "DEL 101\n"};
+        int[] answered = new int[lines.length];
+
+        // Hands out one line per read and records how many results were written before it
+        InputStream in = new InputStream() {
+            private int next;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (next == lines.length) {
+                    return -1;
+                }
+                answered[next] = out.toString(StandardCharsets.US_ASCII).split("\n", -1).length - 1;
+                byte[] line = lines[next++].getBytes(StandardCharsets.US_ASCII);
+                System.arraycopy(line, 0, buffer, offset, line.length);
+                return line.length;
+            }
+        };
+
+        assertEquals(3, new StudentCommandRunner(repository).run(in, out));
+        assertEquals(0, answered[0]);
+        assertEquals(1, answered[1]);
+        assertEquals(2, answered[2]);
+    }
+
+    private String run(int batchSize, String commands) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StudentCommandRunner(repository, batchSize)
+                .run(new ByteArrayInputStream(commands.getBytes(StandardCharsets.UTF_8)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,131 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the StudentCsvImporter and StudentCsvExporter classes.
+ */
+class StudentCsvImporterTest {
+
+    private StudentRepository repository;
+
+    /**
+     * Sets up an empty repository before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        repository = new StudentRepository();
+    }
+
+    /**
+     * Tests that valid rows are imported, skipping the header and blank lines.
+     */
+    @Test
+    void testImport_ValidRows() throws IOException {
+        StudentImportReport report = importCsv("id,name,age\r\n101,Ali,20\r\n\r\n102, \"Sara Khan\" ,22\r\n103,Omar,21");
+
+        assertEquals(3, report.getImportedCount());
+        assertEquals(0, report.getRejectedCount());
+        assertEquals("Sara Khan", repository.find(102).orElseThrow().getStudentName());
+        assertEquals(21, repository.find(103).orElseThrow().getStudentAge());
+    }
+
+    /**
+     * Tests that invalid rows are reported with their line numbers without aborting the load.
+     */
+    @Test
+    void testImport_ReportsRowErrors() throws IOException {
+        StudentImportReport report = importCsv(String.join("\n",
+                "101,Ali,20",
+                "abc,Sara,22",
+                "0,Omar,21",
+                "104,,21",
+                "105,Omar1,21",
+                "106,Maria,x",
+                "107,Maria,-3",
+                "108 Maria 19",
+                "109,Emma,19"));
+
+        assertEquals(2, report.getImportedCount());
+        assertEquals(7, report.getRejectedCount());
+        List<String> errors = report.getRowErrors().stream()
+                .map(rowError -> rowError.getLineNumber() + ":" + rowError.getError())
+                .collect(Collectors.toList());
+        assertEquals(List.of("2:NON_NUMERIC_ID", "3:INVALID_ID", "4:EMPTY_NAME", "5:INVALID_NAME",
+                "6:NON_NUMERIC_AGE", "7:INVALID_AGE", "8:MALFORMED_ROW"), errors);
+    }
+
+    /**
+     * Tests that duplicates are rejected both within a batch and against the existing roster.
+     */
+    @Test
+    void testImport_DetectsDuplicates() throws IOException {
+        repository.add(new Student(101, "Ali", 20));
+
+        StudentImportReport report = new StudentCsvImporter(repository, 2, 10).importFrom(stream(
+                "101,Ali,20\n102,Sara,22\n102,Sara,22\n103,Omar,21\n102,Sara,22\n"));
+
+        assertEquals(2, report.getImportedCount());
+        assertEquals(3, report.getRejectedCount());
+        for (StudentImportReport.RowError rowError : report.getRowErrors()) {
+            assertEquals(StudentError.DUPLICATE_ID, rowError.getError());
+        }
+        assertEquals(3, repository.size());
+    }
+
+    /**
+     * Tests that the number of kept row errors is capped while all rejections are counted.
+     */
+    @Test
+    void testImport_CapsReportedErrors() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            csv.append("bad row\n");
+        }
+
+        StudentImportReport report = new StudentCsvImporter(repository, 8, 5).importFrom(stream(csv.toString()));
+
+        assertEquals(50, report.getRejectedCount());
+        assertEquals(5, report.getRowErrors().size());
+    }
+
+    /**
+     * Tests that a large export can be imported back unchanged, across buffer boundaries.
+     */
+    @Test
+    void testExportThenImport_RoundTrip() throws IOException {
+        for (int id = 1; id <= 20_000; id++) {
+            repository.add(new Student(id, id % 2 == 0 ? "Ali Khan" : "Sara", 17 + id % 10));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long exported = new StudentCsvExporter().exportTo(out, repository.students());
+
+        StudentRepository copy = new StudentRepository();
+        StudentImportReport report = new StudentCsvImporter(copy)
+                .importFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(20_000, exported);
+        assertEquals(20_000, report.getImportedCount());
+        assertEquals(repository.stream().map(StudentFixtures::describe).collect(Collectors.toList()),
+                copy.stream().map(StudentFixtures::describe).collect(Collectors.toList()));
+    }
+
+    private StudentImportReport importCsv(String csv) throws IOException {
+        return new StudentCsvImporter(repository).importFrom(stream(csv));
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
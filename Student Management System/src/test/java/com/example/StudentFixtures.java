@@ -0,0 +1,40 @@
+package com.example;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Helpers shared by the unit tests for comparing students by value.
+ *
+ * Student does not override equals(), so tests compare students through the
+ * "id name age" descriptions built here.
+ */
+final class StudentFixtures {
+
+    private StudentFixtures() {
+    }
+
+    /**
+     * Describes a student as "id name age".
+     */
+    static String describe(Student student) {
+        return student.getStudentId() + " " + student.getStudentName() + " " + student.getStudentAge();
+    }
+
+    /**
+     * Describes each student in iteration order.
+     */
+    static List<String> describe(Iterable<Student> students) {
+        List<String> descriptions = new ArrayList<>();
+        students.forEach(student -> descriptions.add(describe(student)));
+        return descriptions;
+    }
+
+    /**
+     * Describes each student in encounter order.
+     */
+    static List<String> describe(Stream<Student> students) {
+        return students.map(StudentFixtures::describe).toList();
+    }
+}
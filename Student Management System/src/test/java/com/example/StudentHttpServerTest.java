@@ -0,0 +1,244 @@
+package com.example;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Unit tests for the StudentHttpServer and StudentJson classes.
+ */
+class StudentHttpServerTest {
+
+    private StudentRepository repository;
+    private StudentHttpServer server;
+    private HttpClient client;
+
+    /**
+     * Starts a server on a free port before each test.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = StudentRepository.concurrent();
+        server = StudentHttpServer.start(repository, new InetSocketAddress("localhost", 0));
+        client = HttpClient.newHttpClient();
+    }
+
+    /**
+     * Stops the server after each test.
+     */
+    @AfterEach
+    void tearDown() {
+        server.stop();
+    }
+
+    /**
+     * Tests adding, getting and removing a student.
+     */
+    @Test
+    void testAddGetRemove() throws Exception {
+        HttpResponse<String> added = send("POST", "/students", "{\"id\": 101, \"name\": \"Ali\", \"age\": 20}");
+        assertEquals(201, added.statusCode());
+        assertEquals("{\"id\":101,\"name\":\"Ali\",\"age\":20}", added.body());
+        assertTrue(added.headers().firstValue("Content-Type").orElse("").startsWith("application/json"));
+
+        assertEquals("{\"id\":101,\"name\":\"Ali\",\"age\":20}", send("GET", "/students/101", null).body());
+        assertEquals(200, send("DELETE", "/students/101", null).statusCode());
+
+        HttpResponse<String> missing = send("GET", "/students/101", null);
+        assertEquals(404, missing.statusCode());
+        assertEquals("{\"error\":\"Student with ID 101 not found.\"}", missing.body());
+    }
+
+    /**
+     * Tests that invalid requests are answered with the matching status and error.
+     */
+    @Test
+    void testErrors() throws Exception {
+        send("POST", "/students", "{\"id\":101,\"name\":\"Ali\",\"age\":20}");
+
+        assertEquals(409, send("POST", "/students", "{\"id\":101,\"name\":\"Sara\",\"age\":22}").statusCode());
+        assertEquals("{\"error\":\"Name can only contain alphabetic characters and spaces.\"}",
+                send("POST", "/students", "{\"id\":102,\"name\":\"R2D2\",\"age\":22}").body());
+        assertEquals(400, send("POST", "/students", "{\"id\":102,\"name\":\"Sara\"}").statusCode());
+        assertEquals(400, send("POST", "/students", "{\"id\":\"x\",\"name\":\"Sara\",\"age\":1}").statusCode());
+        assertEquals(400, send("POST", "/students", "not json").statusCode());
+        assertEquals(400, send("GET", "/students/abc", null).statusCode());
+        assertEquals(400, send("GET", "/students?pageSize=0", null).statusCode());
+        assertEquals(400, send("GET", "/students?pageToken=!", null).statusCode());
+        assertEquals(404, send("GET", "/students/1/2", null).statusCode());
+        assertEquals(405, send("PUT", "/students/101", "{}").statusCode());
+        assertEquals(1, repository.size());
+    }
+
+    /**
+     * Tests paging through the roster with page tokens.
+     */
+    @Test
+    void testList_Paged() throws Exception {
+        for (int id = 1; id <= 5; id++) {
+            repository.add(new Student(id, "Student", 20));
+        }
+
+        String first = send("GET", "/students?pageSize=3", null).body();
+        assertTrue(first.startsWith("{\"students\":[{\"id\":1,"), first);
+        String token = first.substring(first.indexOf("\"nextPageToken\":\"") + 17, first.lastIndexOf('"'));
+
+        String second = send("GET", "/students?pageSize=3&pageToken=" + token, null).body();
+        assertEquals("{\"students\":[{\"id\":4,\"name\":\"Student\",\"age\":20},"
+                + "{\"id\":5,\"name\":\"Student\",\"age\":20}],\"nextPageToken\":null}", second);
+    }
+
+    /**
+     * Tests that concurrent clients each add their own students.
+     */
+    @Test
+    void testConcurrentClients() throws Exception {
+        List<Future<Integer>> statuses = new ArrayList<>();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int id = 1; id <= 200; id++) {
+                String body = "{\"id\":" + id + ",\"name\":\"Student\",\"age\":20}";
+                statuses.add(clients.submit(() -> send("POST", "/students", body).statusCode()));
+            }
+        }
+        for (Future<Integer> status : statuses) {
+            assertEquals(201, status.get());
+        }
+        assertEquals(200, repository.size());
+    }
+
+    /**
+     * Tests that on a store that is not thread-safe, a client stalled in the middle
+     * of a request body holds up no one. The stalled read pins a carrier thread, so
+     * the test needs a second one.
+     */
+    @Test
+    void testNotThreadSafe_StalledBodyHoldsUpNoOne() throws Exception {
+        assumeTrue(Runtime.getRuntime().availableProcessors() > 1
+                || Integer.getInteger("jdk.virtualThreadScheduler.parallelism", 1) > 1);
+        server.stop();
+        repository = new StudentRepository(new StudentIndex());
+        server = StudentHttpServer.start(repository, new InetSocketAddress("localhost", 0));
+
+        try (Socket stalled = new Socket("localhost", server.port())) {
+            stalled.getOutputStream().write(("POST /students HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Length: 100\r\n\r\n{\"id\":").getBytes(StandardCharsets.US_ASCII));
+            stalled.getOutputStream().flush();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                assertEquals(201, send("POST", "/students", "{\"id\":101,\"name\":\"Ali\",\"age\":20}").statusCode());
+                assertEquals(200, send("GET", "/students/101", null).statusCode());
+            });
+        }
+    }
+
+    /**
+     * Tests that a store that fails to write its files is answered with 500.
+     */
+    @Test
+    void testStoreFailure() throws Exception {
+        server.stop();
+        repository = new StudentRepository(new StudentIndex() {
+            @Override
+            public boolean add(Student student) {
+                throw new UncheckedIOException(new IOException("Disk full"));
+            }
+        });
+        server = StudentHttpServer.start(repository, new InetSocketAddress("localhost", 0));
+
+        HttpResponse<String> added = send("POST", "/students", "{\"id\":101,\"name\":\"Ali\",\"age\":20}");
+        assertEquals(500, added.statusCode());
+        assertEquals("{\"error\":\"The roster could not be stored: Disk full\"}", added.body());
+    }
+
+    /**
+     * Tests that a body over MAX_BODY_BYTES is answered with 413, whether or not its length is announced.
+     */
+    @Test
+    void testOversizedBody() throws Exception {
+        String padding = " ".repeat(StudentHttpServer.MAX_BODY_BYTES);
+        HttpResponse<String> announced = send("POST", "/students", "{\"id\":101,\"name\":\"Ali\",\"age\":20}" + padding);
+        assertEquals(413, announced.statusCode());
+
+        byte[] chunkedBody = ("{\"id\":102,\"name\":\"Sara\",\"age\":22}" + padding).getBytes(StandardCharsets.UTF_8);
+        HttpRequest chunked = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/students"))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(chunkedBody)))
+                .build();
+        assertEquals(413, client.send(chunked, HttpResponse.BodyHandlers.ofString()).statusCode());
+        assertEquals(0, repository.size());
+
+        String fitting = "{\"id\":103,\"name\":\"Omar\",\"age\":21}";
+        fitting += " ".repeat(StudentHttpServer.MAX_BODY_BYTES - fitting.length());
+        assertEquals(201, send("POST", "/students", fitting).statusCode());
+    }
+
+    /**
+     * Tests that a /changes long poll is answered by the next write, and resumes from its nextSequence.
+     */
+    @Test
+    void testChanges_LongPoll() throws Exception {
+        send("POST", "/students", "{\"id\":101,\"name\":\"Ali\",\"age\":20}");
+        assertEquals("{\"events\":[],\"nextSequence\":0}", send("GET", "/changes", null).body());
+
+        Future<HttpResponse<String>> poll;
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            poll = clients.submit(() -> send("GET", "/changes?from=0&waitMs=30000", null));
+            Thread.sleep(100);
+            send("DELETE", "/students/101", null);
+        }
+        assertEquals("{\"events\":[{\"sequence\":0,\"type\":\"REMOVED\",\"before\":{\"id\":101,\"name\":\"Ali\",\"age\":20},"
+                + "\"after\":null}],\"nextSequence\":1}", poll.get().body());
+
+        send("POST", "/students", "{\"id\":102,\"name\":\"Sara\",\"age\":22}");
+        send("POST", "/students", "{\"id\":103,\"name\":\"Omar\",\"age\":21}");
+        assertEquals("{\"events\":[{\"sequence\":1,\"type\":\"ADDED\",\"before\":null,"
+                + "\"after\":{\"id\":102,\"name\":\"Sara\",\"age\":22}}],\"nextSequence\":2}",
+                send("GET", "/changes?from=1&max=1", null).body());
+        assertEquals(400, send("GET", "/changes?from=9", null).statusCode());
+        assertEquals(400, send("GET", "/changes?waitMs=-1", null).statusCode());
+        assertEquals(405, send("POST", "/changes", "{}").statusCode());
+    }
+
+    /**
+     * Tests JSON string escaping and decoding of escapes and unknown members.
+     */
+    @Test
+    void testJson_Escapes() {
+        assertEquals("{\"error\":\"a \\\"quoted\\\" \\\\ line\\n\"}", StudentJson.errorJson("a \"quoted\" \\ line\n"));
+
+        Student student = StudentJson.parseStudent(
+                "{ \"age\" : 20, \"note\": \"x\\u0041\", \"active\": true, \"id\": 7, \"name\": \"A\\u006ci\" }");
+        assertEquals("{\"id\":7,\"name\":\"Ali\",\"age\":20}", StudentJson.toJson(student));
+        assertThrows(IllegalArgumentException.class, () -> StudentJson.parseStudent("{\"id\":1,\"name\":\"A\",\"age\":1} x"));
+        assertThrows(IllegalArgumentException.class, () -> StudentJson.parseStudent("{\"id\":1.5,\"name\":\"A\",\"age\":1}"));
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,185 @@
+package com.example;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the StudentIndex class.
+ */
+class StudentIndexTest {
+
+    private StudentIndex studentIndex;
+
+    /**
+     * Sets up an empty index before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        studentIndex = new StudentIndex();
+    }
+
+    /**
+     * Tests that added students can be looked up by ID.
+     */
+    @Test
+    void testAddAndGet() {
+        Student ali = new Student(101, "Ali", 20);
+
+        assertTrue(studentIndex.add(ali));
+
+        assertSame(ali, studentIndex.get(101));
+        assertTrue(studentIndex.contains(101));
+        assertNull(studentIndex.get(102));
+        assertEquals(1, studentIndex.size());
+    }
+
+    /**
+     * Tests that a second student with an existing ID is rejected.
+     */
+    @Test
+    void testAdd_DuplicateId() {
+        Student ali = new Student(101, "Ali", 20);
+        studentIndex.add(ali);
+
+        assertFalse(studentIndex.add(new Student(101, "Sara", 22)));
+
+        assertSame(ali, studentIndex.get(101));
+        assertEquals(1, studentIndex.size());
+    }
+
+    /**
+     * Tests that removal returns the student and makes the ID available again.
+     */
+    @Test
+    void testRemove() {
+        Student ali = new Student(101, "Ali", 20);
+        studentIndex.add(ali);
+
+        assertSame(ali, studentIndex.remove(101));
+        assertNull(studentIndex.remove(101));
+        assertTrue(studentIndex.isEmpty());
+        assertTrue(studentIndex.add(new Student(101, "Sara", 22)));
+    }
+
+    /**
+     * Tests that a replacement takes the entry of the student it replaces, also under a new ID.
+     */
+    @Test
+    void testReplace_KeepsEntry() {
+        studentIndex.add(new Student(101, "Ali", 20));
+        Student sara = new Student(102, "Sara", 22);
+        studentIndex.add(sara);
+        studentIndex.add(new Student(103, "Omar", 21));
+
+        Student saraKhan = new Student(104, "Sara Khan", 23);
+        assertSame(sara, studentIndex.replace(102, saraKhan));
+        assertSame(saraKhan, studentIndex.get(104));
+        assertNull(studentIndex.get(102));
+        assertEquals(List.of(101, 104, 103), toList(studentIndex).stream().map(Student::getStudentId).toList());
+
+        assertNull(studentIndex.replace(102, new Student(102, "Nobody", 20)));
+        assertThrows(IllegalArgumentException.class, () -> studentIndex.replace(104, new Student(101, "Ali", 20)));
+        assertSame(saraKhan, studentIndex.get(104));
+        assertEquals(3, studentIndex.size());
+    }
+
+    /**
+     * Tests that iteration follows insertion order across removals and growth.
+     */
+    @Test
+    void testIteration_KeepsInsertionOrder() {
+        for (int id = 1000; id > 0; id--) {
+            studentIndex.add(new Student(id, "Student", 20));
+        }
+        for (int id = 1; id <= 1000; id += 3) {
+            studentIndex.remove(id);
+        }
+
+        List<Integer> expected = new ArrayList<>();
+        for (int id = 1000; id > 0; id--) {
+            if ((id - 1) % 3 != 0) {
+                expected.add(id);
+            }
+        }
+        List<Integer> actual = new ArrayList<>();
+        for (Student student : studentIndex) {
+            actual.add(student.getStudentId());
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Tests the index against a reference map under a random mix of operations.
+     *
+     * Keys are drawn from a small range so that probe chains collide and
+     * backward-shift deletion and compaction are exercised.
+     */
+    @Test
+    void testRandomOperations_MatchReferenceMap() {
+        Random random = new Random(42);
+        Map<Integer, Student> reference = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int id = random.nextInt(5_000) * 64; // Multiples of 64 stress the hash
+            if (random.nextInt(3) == 0) {
+                assertSame(reference.remove(id), studentIndex.remove(id));
+            } else {
+                Student student = new Student(id, "Student", 18);
+                assertEquals(reference.putIfAbsent(id, student) == null, studentIndex.add(student));
+            }
+            assertSame(reference.get(id), studentIndex.get(id));
+        }
+
+        assertEquals(reference.size(), studentIndex.size());
+        assertEquals(new ArrayList<>(reference.values()), toList(studentIndex));
+    }
+
+    /**
+     * Tests that modifying the index during iteration fails fast.
+     */
+    @Test
+    void testIterator_FailsFastOnModification() {
+        studentIndex.add(new Student(101, "Ali", 20));
+        studentIndex.add(new Student(102, "Sara", 22));
+
+        Iterator<Student> iterator = studentIndex.iterator();
+        iterator.next();
+        studentIndex.remove(102);
+
+        assertThrows(ConcurrentModificationException.class, iterator::next);
+    }
+
+    /**
+     * Tests that clearing the index removes every student.
+     */
+    @Test
+    void testClear() {
+        studentIndex.add(new Student(101, "Ali", 20));
+        studentIndex.clear();
+
+        assertTrue(studentIndex.isEmpty());
+        assertNull(studentIndex.get(101));
+        assertFalse(studentIndex.iterator().hasNext());
+    }
+
+    private static List<Student> toList(StudentIndex index) {
+        List<Student> students = new ArrayList<>();
+        index.forEach(students::add);
+        return students;
+    }
+}
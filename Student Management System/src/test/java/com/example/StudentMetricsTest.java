@@ -0,0 +1,188 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the StudentMetrics and LatencyHistogram classes.
+ */
+class StudentMetricsTest {
+
+    /**
+     * Tests that every value falls in a bucket whose bounds hold it within the promised error.
+     */
+    @Test
+    void testHistogram_BucketBounds() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = random.nextLong(1L << random.nextInt(41));
+            int bucket = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestValueIn(bucket);
+            assertTrue(value <= highest && highest - value <= value / 32, value + " reported as " + highest);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueIn(bucket - 1) < value, Long.toString(value));
+        }
+    }
+
+    /**
+     * Tests the percentiles of a histogram against the exact percentiles of the recorded values.
+     */
+    @Test
+    void testHistogram_Percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        SplittableRandom random = new SplittableRandom(2);
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextLong(100, 5_000_000);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(values.length, snapshot.count());
+        for (double percentile : new double[] {50, 99, 99.9, 100}) {
+            long exact = values[(int) Math.ceil(values.length * percentile / 100) - 1];
+            long reported = snapshot.valueAtPercentile(percentile);
+            assertTrue(reported >= exact && reported - exact <= exact / 32, percentile + ": " + reported + " vs " + exact);
+        }
+        assertEquals(snapshot.valueAtPercentile(100), snapshot.max());
+
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().count());
+        assertEquals(0, histogram.snapshot().valueAtPercentile(50));
+    }
+
+    /**
+     * Tests that adding one histogram to another counts the values of both.
+     */
+    @Test
+    void testHistogram_Add() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            first.record(value);
+            second.record(value * 1_000_000L);
+        }
+
+        first.add(second);
+        LatencyHistogram.Snapshot snapshot = first.snapshot();
+        assertEquals(200, snapshot.count());
+        long median = LatencyHistogram.highestValueIn(LatencyHistogram.bucketIndex(100));
+        assertEquals(median, snapshot.valueAtPercentile(50));
+        assertEquals(second.snapshot().max(), snapshot.max());
+        assertEquals(100, second.snapshot().count());
+    }
+
+    /**
+     * Tests that repository operations are counted by kind and outcome.
+     */
+    @Test
+    void testRepository_CountsOperations() {
+        StudentRepository repository = new StudentRepository();
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Sara", 22));
+        repository.add(new Student(101, "Omar", 21));
+        repository.find(101);
+        repository.find(103);
+        repository.remove(104);
+        repository.findByAgeRange(18, 25);
+        repository.findByNamePrefix("S");
+        repository.page(null, 10);
+
+        StudentMetrics metrics = repository.metrics();
+        assertEquals(3, metrics.getAdd().getCount());
+        assertEquals(1, metrics.getAdd().getFailures());
+        assertEquals(2, metrics.getFind().getCount());
+        assertEquals(1, metrics.getFind().getFailures());
+        assertEquals(1, metrics.getRemove().getFailures());
+        assertEquals(2, metrics.getQuery().getCount());
+        assertEquals(1, metrics.getPage().getCount());
+        assertEquals(2, metrics.getRosterSize());
+        assertTrue(metrics.getIndexLoadFactor() > 0 && metrics.getIndexLoadFactor() < 1);
+        assertTrue(metrics.getAdd().getMaxMicros() >= metrics.getAdd().getP50Micros());
+
+        metrics.reset();
+        assertEquals(0, metrics.getAdd().getCount());
+        assertEquals(0, metrics.getFind().getFailures());
+    }
+
+    /**
+     * Tests that threads sharing a concurrent repository lose no counts.
+     */
+    @Test
+    void testConcurrentRepository_ExactCounts() throws Exception {
+        StudentRepository repository = StudentRepository.concurrent();
+        repository.add(new Student(1, "Ali", 20));
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    repository.find(1 + (i & 1));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        OperationStats find = repository.metrics().getFind();
+        assertEquals(400_000, find.getCount());
+        assertEquals(200_000, find.getFailures());
+        assertTrue(find.getMaxMicros() > 0);
+    }
+
+    /**
+     * Tests that the metrics are readable through the platform MBean server.
+     */
+    @Test
+    void testMBean_Attributes() throws Exception {
+        StudentRepository repository = new StudentRepository();
+        repository.add(new Student(101, "Ali", 20));
+        repository.find(102);
+        repository.metrics().registerMBean();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(StudentMetrics.OBJECT_NAME);
+            assertEquals(1, server.getAttribute(name, "RosterSize"));
+            CompositeData find = (CompositeData) server.getAttribute(name, "Find");
+            assertEquals(1L, find.get("count"));
+            assertEquals(1L, find.get("failures"));
+            assertTrue((Double) find.get("p99Micros") >= 0);
+
+            server.invoke(name, "reset", null, null);
+            assertEquals(0L, ((CompositeData) server.getAttribute(name, "Add")).get("count"));
+        } finally {
+            repository.metrics().unregisterMBean();
+        }
+    }
+
+    /**
+     * Tests the STATS command of the command mode.
+     */
+    @Test
+    void testStatsCommand() throws IOException {
+        StudentRepository repository = new StudentRepository();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new StudentCommandRunner(repository).run(new ByteArrayInputStream(
+                "ADD 101 Ali 20\nGET 102\nSTATS\nSTATS now\n".getBytes(StandardCharsets.US_ASCII)), out);
+
+        String[] lines = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertTrue(lines[2].startsWith("OK size=1 loadFactor="), lines[2]);
+        assertTrue(lines[2].contains(" add[count=1 failures=0 "), lines[2]);
+        assertTrue(lines[2].contains(" find[count=1 failures=1 "), lines[2]);
+        assertEquals("ERR Usage: STATS", lines[3]);
+    }
+}
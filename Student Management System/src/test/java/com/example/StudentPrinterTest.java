@@ -0,0 +1,54 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit tests for the StudentPrinter class.
+ */
+class StudentPrinterTest {
+
+    /**
+     * Tests that the table matches the printf layout it replaced, across several chunks.
+     */
+    @Test
+    void testPrintStudentTable_MatchesPrintfLayout() {
+        List<Student> students = new ArrayList<>();
+        students.add(new Student(123456789, "A Name Longer Than Twenty", 123456));
+        for (int id = 1; id <= 5_000; id++) {
+            students.add(new Student(id, "Student", 17 + id % 10));
+        }
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        PrintStream printf = new PrintStream(expected);
+        printf.println("\n--- List of Students ---");
+        printf.printf("%-10s %-20s %-5s%n", "ID", "Name", "Age");
+        printf.println("-----------------------------------------");
+        for (Student student : students) {
+            printf.printf("%-10s %-20s %-5d%n",
+                    student.getStudentId(), student.getStudentName(), student.getStudentAge());
+        }
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        new StudentPrinter(new PrintStream(actual)).printStudentTable(students);
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    /**
+     * Tests that an empty table prints the no-students message.
+     */
+    @Test
+    void testPrintStudentTable_Empty() {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        new StudentPrinter(new PrintStream(actual)).printStudentTable(List.of());
+
+        assertEquals(System.lineSeparator() + "No students found." + System.lineSeparator(), actual.toString());
+    }
+}
@@ -4,160 +4,478 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.*;
 
 /**
- * Unit tests for the StudentRepository class.
+ * Unit tests for the StudentRepository API.
  */
 class StudentRepositoryTest {
 
-    private ArrayList<Student> studentList;
     private StudentRepository repository;
 
     /**
-     * Sets up the test environment before each test.
-     * 
-     * Initializes an empty list of students and creates a new instance
-     * of the StudentRepository with the list.
+     * Sets up an empty repository before each test.
      */
     @BeforeEach
     void setUp() {
-        studentList = new ArrayList<>();
-        repository = new StudentRepository(studentList);
+        repository = new StudentRepository();
     }
 
     /**
-     * Tests the addition of a new student with valid inputs.
-     * 
-     * Verifies that the student is successfully added to the list 
-     * with the correct details.
+     * Tests that a valid student is added and can be found.
      */
     @Test
-    void testAddNewStudent_Success() {
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(101, 20);
-        when(mockScanner.nextLine()).thenReturn("", "Ali");
+    void testAdd_Success() {
+        Student ali = new Student(101, "Ali", 20);
 
-        repository.addNewStudent(mockScanner);
+        StudentResult result = repository.add(ali);
 
-        assertEquals(1, studentList.size());
-        assertEquals(101, studentList.get(0).getStudentId());
-        assertEquals("Ali", studentList.get(0).getStudentName());
-        assertEquals(20, studentList.get(0).getStudentAge());
+        assertTrue(result.isSuccess());
+        assertSame(ali, result.getStudent());
+        assertSame(ali, repository.find(101).orElseThrow());
+        assertEquals(1, repository.size());
     }
 
     /**
-     * Tests the addition of a new student with a duplicate ID.
-     * 
-     * Verifies that the student is not added to the list when the 
-     * provided ID already exists in the list.
+     * Tests that a student with an existing ID is rejected with DUPLICATE_ID.
      */
     @Test
-    void testAddNewStudent_DuplicateId() {
-        studentList.add(new Student(101, "Ali", 20));
+    void testAdd_DuplicateId() {
+        repository.add(new Student(101, "Ali", 20));
 
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(101);
-        when(mockScanner.nextLine()).thenReturn("", "Ali");
+        StudentResult result = repository.add(new Student(101, "Sara", 22));
 
-        repository.addNewStudent(mockScanner);
+        assertFalse(result.isSuccess());
+        assertEquals(StudentError.DUPLICATE_ID, result.getError());
+        assertEquals("Ali", repository.find(101).orElseThrow().getStudentName());
+    }
+
+    /**
+     * Tests that each invalid field is reported with its own error.
+     */
+    @Test
+    void testAdd_InvalidFields() {
+        assertEquals(StudentError.INVALID_ID, repository.add(new Student(0, "Ali", 20)).getError());
+        assertEquals(StudentError.EMPTY_NAME, repository.add(new Student(101, "", 20)).getError());
+        assertEquals(StudentError.EMPTY_NAME, repository.add(new Student(101, "   ", 20)).getError());
+        assertEquals(StudentError.INVALID_NAME, repository.add(new Student(101, "Ali1", 20)).getError());
+        assertEquals(StudentError.INVALID_AGE, repository.add(new Student(101, "Ali", -1)).getError());
+        assertTrue(repository.isEmpty());
+    }
+
+    /**
+     * Tests that removal returns the removed student.
+     */
+    @Test
+    void testRemove_Success() {
+        Student ali = new Student(101, "Ali", 20);
+        repository.add(ali);
+
+        StudentResult result = repository.remove(101);
+
+        assertTrue(result.isSuccess());
+        assertSame(ali, result.getStudent());
+        assertTrue(repository.find(101).isEmpty());
+    }
+
+    /**
+     * Tests that removing an unknown ID reports NOT_FOUND.
+     */
+    @Test
+    void testRemove_NotFound() {
+        StudentResult result = repository.remove(999);
+
+        assertEquals(StudentError.NOT_FOUND, result.getError());
+        assertEquals("Student with ID 999 not found.", result.getError().message(999));
+    }
+
+    /**
+     * Tests that an update patches only the fields it sets, keeps the student's
+     * place in the roster and moves it in the secondary indexes.
+     */
+    @Test
+    void testUpdate_PatchesInPlace() {
+        repository.add(new Student(101, "Ali", 20));
+        Student sara = new Student(102, "Sara", 22);
+        repository.add(sara);
+        repository.add(new Student(103, "Omar", 21));
+
+        StudentResult result = repository.update(102, StudentPatch.empty().withStudentName("Maryam").withStudentAge(30));
+
+        assertTrue(result.isSuccess());
+        assertEquals("Maryam", result.getStudent().getStudentName());
+        assertEquals(30, result.getStudent().getStudentAge());
+        assertEquals("Sara", sara.getStudentName()); // The stored student is replaced, not changed
+        assertEquals(List.of(101, 102, 103), ids(repository.stream().collect(Collectors.toList())));
+        assertTrue(repository.findByNamePrefix("sa").isEmpty());
+        assertEquals(List.of(102), ids(repository.findByNamePrefix("mar")));
+        assertEquals(List.of(102), ids(repository.findByAgeRange(25, 35)));
+        assertTrue(repository.findByAgeRange(22, 22).isEmpty());
+
+        assertTrue(repository.update(102, StudentPatch.empty().withStudentId(202)).isSuccess());
+        assertTrue(repository.find(102).isEmpty());
+        assertEquals("Maryam", repository.find(202).orElseThrow().getStudentName());
+        assertEquals(List.of(101, 202, 103), ids(repository.stream().collect(Collectors.toList())));
+        assertEquals(List.of(202), ids(repository.findByNamePrefix("mar")));
+        assertEquals(List.of(202), ids(repository.findByAgeRange(30, 30)));
+        assertEquals(2, repository.metrics().getUpdate().getCount());
+    }
+
+    /**
+     * Tests that invalid, unknown and clashing updates are rejected without changes.
+     */
+    @Test
+    void testUpdate_Errors() {
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Sara", 22));
+
+        assertEquals(StudentError.INVALID_ID, repository.update(0, StudentPatch.empty()).getError());
+        assertEquals(StudentError.NOT_FOUND, repository.update(999, StudentPatch.empty().withStudentAge(21)).getError());
+        assertEquals(StudentError.INVALID_ID, repository.update(101, StudentPatch.empty().withStudentId(-5)).getError());
+        assertEquals(StudentError.INVALID_NAME,
+                repository.update(101, StudentPatch.empty().withStudentName("Ali1")).getError());
+        assertEquals(StudentError.INVALID_AGE, repository.update(101, StudentPatch.empty().withStudentAge(0)).getError());
+        assertEquals(StudentError.DUPLICATE_ID,
+                repository.update(101, StudentPatch.empty().withStudentId(102).withStudentAge(40)).getError());
+
+        assertEquals(20, repository.find(101).orElseThrow().getStudentAge());
+        assertEquals(22, repository.find(102).orElseThrow().getStudentAge());
+        assertEquals(6, repository.metrics().getUpdate().getFailures());
+    }
+
+    /**
+     * Tests that a batch of patches is applied in order, each one seeing the ones before it.
+     */
+    @Test
+    void testUpdateAll_AppliesInOrder() {
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Sara", 22));
+        Map<Integer, StudentPatch> patches = new LinkedHashMap<>();
+        patches.put(101, StudentPatch.empty().withStudentId(201));
+        patches.put(102, StudentPatch.empty().withStudentId(101));
+        patches.put(201, StudentPatch.empty().withStudentAge(21));
+        patches.put(999, StudentPatch.empty().withStudentAge(21));
+
+        List<StudentResult> results = repository.updateAll(patches);
+
+        assertEquals(List.of(true, true, true, false), results.stream().map(StudentResult::isSuccess).toList());
+        assertEquals("201 Ali 21, 101 Sara 22", repository.stream()
+                .map(student -> student.getStudentId() + " " + student.getStudentName() + " " + student.getStudentAge())
+                .collect(Collectors.joining(", ")));
+    }
 
-        assertEquals(1, studentList.size());
+    /**
+     * Tests that streaming returns the students in insertion order.
+     */
+    @Test
+    void testStream_InsertionOrder() {
+        repository.add(new Student(103, "Sara", 22));
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Omar", 21));
+
+        List<Integer> ids = repository.stream().map(Student::getStudentId).collect(Collectors.toList());
+
+        assertEquals(List.of(103, 101, 102), ids);
+    }
+
+    /**
+     * Tests that an age range query returns the students by age, then insertion order.
+     */
+    @Test
+    void testFindByAgeRange() {
+        repository.add(new Student(101, "Ali", 22));
+        repository.add(new Student(102, "Sara", 18));
+        repository.add(new Student(103, "Omar", 21));
+        repository.add(new Student(104, "Maria", 25));
+        repository.add(new Student(105, "John", 18));
+        repository.add(new Student(106, "Old", 400));
+        repository.remove(103);
+
+        assertEquals(List.of(102, 105, 101), ids(repository.findByAgeRange(18, 22)));
+        assertEquals(3, repository.countByAgeRange(18, 22));
+        assertEquals(List.of(104, 106), ids(repository.findByAgeRange(23, 1000)));
+        assertTrue(repository.findByAgeRange(30, 20).isEmpty());
     }
 
     /**
-     * Tests the display of all students when the list is non-empty.
-     * 
-     * Verifies that the list is printed correctly and its size 
-     * remains unchanged.
+     * Tests that a name prefix query ignores case and follows removals.
      */
     @Test
-    void testDisplayAllStudents_NonEmpty() {
-        studentList.add(new Student(101, "Ali", 20));
-        repository.displayAllStudents();
+    void testFindByNamePrefix() {
+        repository.add(new Student(101, "Maria", 20));
+        repository.add(new Student(102, "mark", 21));
+        repository.add(new Student(103, "Omar", 22));
+        repository.add(new Student(104, "Marwan", 23));
+        repository.add(new Student(105, "Mar", 24));
+        repository.remove(104);
 
-        // You'd typically assert the printed output in integration/system tests
-        // Here, we focus on ensuring the list is printed without modifying its size
-        assertEquals(1, studentList.size());
+        assertEquals(List.of(105, 101, 102), ids(repository.findByNamePrefix("MAR")));
+        assertEquals(List.of(102), ids(repository.findByNamePrefix("mark")));
+        assertTrue(repository.findByNamePrefix("Marx").isEmpty());
+        assertEquals(4, repository.findByNamePrefix("").size());
     }
 
     /**
-     * Tests the search functionality for a student by ID when the student is found.
-     * 
-     * Verifies that the method executes properly and displays the correct details.
+     * Tests that a misspelled name finds the closest names first, and that the index follows writes.
      */
     @Test
-    void testSearchStudentById_Found() {
-        studentList.add(new Student(101, "Ali", 20));
+    void testFindBySimilarName() {
+        repository.add(new Student(101, "Muhammad", 20));
+        repository.add(new Student(102, "Mohammed Khan", 21));
+        repository.add(new Student(103, "Mohamad", 22));
+        repository.add(new Student(104, "Sara", 23));
+        repository.add(new Student(105, "muhammad", 24));
 
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(101);
+        assertEquals(List.of(103, 102, 101, 105), ids(repository.findBySimilarName("Mohamad", 10)));
+        assertEquals(List.of(103, 101, 105), ids(repository.findBySimilarName("MUHAMAD", 3)));
+        assertEquals(List.of(102), ids(repository.findBySimilarName("mohamed kahn", 10)));
+        assertEquals(List.of(104), ids(repository.findBySimilarName("Sarah", 10)));
+        assertTrue(repository.findBySimilarName("Sa", 10).isEmpty());
+        assertTrue(repository.findBySimilarName("Omar", 10).isEmpty());
 
-        repository.searchStudentById(mockScanner);
+        repository.remove(103);
+        repository.update(104, StudentPatch.empty().withStudentName("Mohamad"));
+        assertEquals(List.of(104), ids(repository.findBySimilarName("Mohamad", 1)));
+        assertTrue(repository.findBySimilarName("Sarah", 10).isEmpty());
     }
 
     /**
-     * Tests the search functionality for a student by ID when the student is not found.
-     * 
-     * Verifies that the method executes properly without modifying the list.
+     * Tests that the trigram filter finds every name a full scan by edit distance finds.
      */
     @Test
-    void testSearchStudentById_NotFound() {
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(999);
+    void testFindBySimilarName_MatchesFullScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        String letters = "aeimnorst";
+        List<String> names = new ArrayList<>();
+        for (int id = 1; id <= 2_000; id++) {
+            StringBuilder name = new StringBuilder();
+            int length = 3 + random.nextInt(8);
+            for (int i = 0; i < length; i++) {
+                name.append(letters.charAt(random.nextInt(letters.length())));
+            }
+            names.add(name.toString());
+            repository.add(new Student(id, name.toString(), 20));
+        }
 
-        repository.searchStudentById(mockScanner);
+        for (int q = 0; q < 200; q++) {
+            StringBuilder query = new StringBuilder(names.get(random.nextInt(names.size())));
+            for (int edits = random.nextInt(3); edits > 0 && query.length() > 1; edits--) {
+                int at = random.nextInt(query.length());
+                switch (random.nextInt(3)) {
+                    case 0 -> query.deleteCharAt(at);
+                    case 1 -> query.insert(at, letters.charAt(random.nextInt(letters.length())));
+                    default -> query.setCharAt(at, letters.charAt(random.nextInt(letters.length())));
+                }
+            }
+            int maxDistance = NameIndex.maxDistance(query.toString());
+            long expected = names.stream().filter(name -> levenshtein(query.toString(), name) <= maxDistance).count();
+            assertEquals(expected, repository.findBySimilarName(query.toString(), Integer.MAX_VALUE).size(),
+                    "query " + query);
+        }
+    }
+
+    /**
+     * Tests that ID range, floor and ceiling queries follow adds, removes and re-keying.
+     */
+    @Test
+    void testFindByIdRange() {
+        repository.add(new Student(105, "Ali", 20));
+        repository.add(new Student(101, "Sara", 21));
+        repository.add(new Student(110, "Omar", 22));
+        repository.add(new Student(103, "Maria", 23));
+        repository.add(new Student(108, "John", 24));
+        repository.remove(110);
+        repository.update(103, StudentPatch.empty().withStudentId(120));
 
-        // Test focuses on ensuring proper execution without modifying the list
-        assertTrue(studentList.isEmpty());
+        assertEquals(List.of(101, 105, 108), ids(repository.findByIdRange(101, 110)));
+        assertEquals(List.of(105), ids(repository.findByIdRange(102, 107)));
+        assertEquals(List.of(101, 105, 108, 120), ids(repository.streamByIdRange(1, Integer.MAX_VALUE).toList()));
+        assertTrue(repository.findByIdRange(110, 101).isEmpty());
+        assertEquals(105, repository.findFloor(107).orElseThrow().getStudentId());
+        assertEquals(108, repository.findCeiling(106).orElseThrow().getStudentId());
+        assertEquals(120, repository.findCeiling(109).orElseThrow().getStudentId());
+        assertTrue(repository.findFloor(100).isEmpty());
+        assertTrue(repository.findCeiling(121).isEmpty());
     }
 
     /**
-     * Tests the removal of a student by ID when the student exists in the list.
-     * 
-     * Verifies that the student is successfully removed and the list becomes empty.
+     * Tests that the ordered ID index matches a sorted set through many block splits and merges.
      */
     @Test
-    void testRemoveStudentById_Success() {
-        studentList.add(new Student(101, "Ali", 20));
+    void testFindByIdRange_MatchesSortedSet() {
+        SplittableRandom random = new SplittableRandom(42);
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            int studentId = 1 + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(studentId), repository.remove(studentId).isSuccess());
+            } else {
+                assertEquals(expected.add(studentId), repository.add(new Student(studentId, "Student", 20)).isSuccess());
+            }
+        }
 
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(101);
+        for (int q = 0; q < 200; q++) {
+            int fromId = random.nextInt(5_200);
+            int toId = fromId + random.nextInt(2_000);
+            assertEquals(List.copyOf(expected.subSet(fromId, true, toId, true)),
+                    ids(repository.findByIdRange(fromId, toId)));
+            assertEquals(expected.floor(fromId),
+                    repository.findFloor(fromId).map(Student::getStudentId).orElse(null));
+            assertEquals(expected.ceiling(fromId),
+                    repository.findCeiling(fromId).map(Student::getStudentId).orElse(null));
+        }
+        assertEquals(List.copyOf(expected), ids(repository.streamByIdRange(1, Integer.MAX_VALUE).toList()));
+    }
+
+    /**
+     * Tests that an ID range stream reads the index lazily and sees writes made ahead of it.
+     */
+    @Test
+    void testStreamByIdRange_IsLazy() {
+        for (int id = 1; id <= 1_000; id++) {
+            repository.add(new Student(id, "Student", 20));
+        }
 
-        repository.removeStudentById(mockScanner);
+        Iterator<Student> students = repository.streamByIdRange(100, 2_000).iterator();
+        assertEquals(100, students.next().getStudentId());
+        repository.remove(101);
+        repository.add(new Student(1_500, "Late", 20));
+        repository.remove(900);
+        List<Integer> rest = new ArrayList<>();
+        students.forEachRemaining(student -> rest.add(student.getStudentId()));
 
-        assertTrue(studentList.isEmpty());
+        assertEquals(899, rest.size());
+        assertFalse(rest.contains(101));
+        assertFalse(rest.contains(900));
+        assertEquals(1_500, rest.get(rest.size() - 1));
+        assertEquals(List.of(1, 2), repository.streamByIdRange(1, 2_000).limit(2).map(Student::getStudentId).toList());
     }
 
     /**
-     * Tests the removal of a student by ID when the student does not exist in the list.
-     * 
-     * Verifies that the list remains unchanged when no matching student is found.
+     * Tests that students already held by the store are indexed when the repository is created.
      */
     @Test
-    void testRemoveStudentById_NotFound() {
-        Scanner mockScanner = mock(Scanner.class);
-        when(mockScanner.nextInt()).thenReturn(999);
+    void testIndexes_CoverExistingStudents() {
+        StudentIndex studentIndex = new StudentIndex();
+        studentIndex.add(new Student(101, "Ali", 20));
+        studentIndex.add(new Student(102, "Sara", 22));
 
-        repository.removeStudentById(mockScanner);
+        StudentRepository existing = new StudentRepository(studentIndex);
 
-        assertTrue(studentList.isEmpty());
+        assertEquals(List.of(102), ids(existing.findByAgeRange(21, 30)));
+        assertEquals(List.of(101), ids(existing.findByNamePrefix("a")));
+        assertEquals(List.of(101, 102), ids(existing.findByIdRange(100, 200)));
     }
 
     /**
-     * Tests the display of all students when the list is empty.
-     * 
-     * Verifies that the method executes properly without modifying the list.
+     * Tests that an add or re-key the store fails leaves no ID in the ordered index.
      */
     @Test
-    void testDisplayAllStudents_Empty() {
-        repository.displayAllStudents();
+    void testStoreFailure_LeavesNoIndexedId() {
+        AtomicBoolean failing = new AtomicBoolean();
+        StudentRepository failingRepository = new StudentRepository(new StudentIndex() {
+            @Override
+            public boolean add(Student student) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Store failed");
+                }
+                return super.add(student);
+            }
+
+            @Override
+            public Student replace(int studentId, Student replacement) {
+                if (failing.get()) {
+                    throw new IllegalStateException("Store failed");
+                }
+                return super.replace(studentId, replacement);
+            }
+        });
+        failingRepository.add(new Student(101, "Ali", 20));
+
+        failing.set(true);
+        assertThrows(IllegalStateException.class, () -> failingRepository.add(new Student(102, "Sara", 21)));
+        assertThrows(IllegalStateException.class, () -> failingRepository.add(new Student(101, "Omar", 22)));
+        assertThrows(IllegalStateException.class,
+                () -> failingRepository.update(101, StudentPatch.empty().withStudentId(103)));
+        failing.set(false);
+
+        VersionLog versions = failingRepository.versions();
+        assertEquals(101, versions.nextCandidate(1));
+        assertEquals(0, versions.nextCandidate(102));
+        assertEquals(List.of(101), ids(failingRepository.findByIdRange(1, 200)));
+    }
+
+    /**
+     * Tests that following the page tokens lists every student once, in insertion order.
+     */
+    @Test
+    void testPage_WalksRosterInInsertionOrder() {
+        for (int id = 1; id <= 25; id++) {
+            repository.add(new Student(id, "Student", 20));
+        }
+
+        List<Integer> listed = new ArrayList<>();
+        StudentPage page = repository.page(null, 10);
+        listed.addAll(ids(page.getStudents()));
+        while (page.hasNextPage()) {
+            page = repository.page(page.getNextPageToken(), 10);
+            assertTrue(page.getStudents().size() <= 10);
+            listed.addAll(ids(page.getStudents()));
+        }
+
+        assertEquals(IntStream.rangeClosed(1, 25).boxed().collect(Collectors.toList()), listed);
+        assertFalse(repository.page(null, 25).hasNextPage());
+    }
+
+    /**
+     * Tests that a token stays valid when students around it are removed or added.
+     */
+    @Test
+    void testPage_TokenSurvivesChanges() {
+        for (int id = 1; id <= 6; id++) {
+            repository.add(new Student(id, "Student", 20));
+        }
+        StudentPage first = repository.page(null, 3);
+
+        repository.remove(2);
+        repository.remove(3);
+        repository.remove(4);
+        repository.add(new Student(7, "Student", 20));
+
+        StudentPage second = repository.page(first.getNextPageToken(), 3);
+        assertEquals(List.of(5, 6, 7), ids(second.getStudents()));
+        assertFalse(second.hasNextPage());
+        assertThrows(IllegalArgumentException.class, () -> repository.page("not a token!", 3));
+        assertThrows(IllegalArgumentException.class, () -> repository.page(null, 0));
+    }
+
+    private static List<Integer> ids(List<Student> students) {
+        return students.stream().map(Student::getStudentId).collect(Collectors.toList());
+    }
 
-        // Ensures that the list remains empty during this operation
-        assertTrue(studentList.isEmpty());
+    private static int levenshtein(String a, String b) {
+        int[][] distances = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                distances[i][j] = i == 0 ? j : j == 0 ? i : Math.min(
+                        distances[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(distances[i - 1][j], distances[i][j - 1]) + 1);
+            }
+        }
+        return distances[a.length()][b.length()];
     }
 }
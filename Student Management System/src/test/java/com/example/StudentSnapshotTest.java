@@ -0,0 +1,215 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.example.StudentFixtures.describe;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the StudentSnapshot and VersionLog classes.
+ */
+class StudentSnapshotTest {
+
+    /**
+     * Tests that a snapshot keeps seeing the roster as it was opened through adds, updates, re-keys and removes.
+     */
+    @Test
+    void testSnapshot_SeesRosterAsOpened() {
+        StudentRepository repository = new StudentRepository();
+        List<String> names = List.of("Ali", "Sara", "Omar", "Maria", "John");
+        for (int i = 0; i < names.size(); i++) {
+            assertTrue(repository.add(new Student(101 + i, names.get(i), 20)).isSuccess());
+        }
+
+        try (StudentSnapshot snapshot = repository.snapshot()) {
+            repository.remove(102);
+            repository.add(new Student(106, "Late", 21));
+            repository.update(103, StudentPatch.empty().withStudentName("Renamed"));
+            repository.update(104, StudentPatch.empty().withStudentId(100));
+            repository.add(new Student(102, "Reused", 22));
+
+            assertEquals(List.of("101 Ali 20", "102 Sara 20", "103 Omar 20", "104 Maria 20", "105 John 20"),
+                    describe(snapshot.stream()));
+            assertEquals(List.of("103 Omar 20", "104 Maria 20"), describe(snapshot.streamByIdRange(103, 104)));
+            assertTrue(snapshot.find(100).isEmpty());
+            assertTrue(snapshot.find(106).isEmpty());
+            assertEquals("Sara", snapshot.find(102).orElseThrow().getStudentName());
+
+            try (StudentSnapshot later = repository.snapshot()) {
+                assertEquals(List.of("100 Maria 20", "101 Ali 20", "102 Reused 22", "103 Renamed 20", "105 John 20",
+                        "106 Late 21"),
+                        describe(later.stream()));
+            }
+        }
+    }
+
+    /**
+     * Tests that before-images are kept only while a snapshot needs them.
+     */
+    @Test
+    void testSnapshot_ReclaimsVersions() {
+        StudentRepository repository = new StudentRepository();
+        VersionLog versions = repository.versions();
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Sara", 21));
+        assertEquals(0, versions.changedIds());
+
+        StudentSnapshot first = repository.snapshot();
+        repository.remove(101);
+        StudentSnapshot second = repository.snapshot();
+        repository.update(102, StudentPatch.empty().withStudentAge(22));
+        assertEquals(2, versions.changedIds());
+
+        first.close();
+        assertEquals(1, versions.changedIds());
+        assertTrue(second.find(101).isEmpty());
+        assertEquals(21, second.find(102).orElseThrow().getStudentAge());
+
+        second.close();
+        second.close();
+        assertEquals(0, versions.changedIds());
+        repository.add(new Student(103, "Omar", 22));
+        assertEquals(0, versions.changedIds());
+    }
+
+    /**
+     * Tests that a write that took its version while a snapshot was open leaves nothing behind if it records after the close.
+     */
+    @Test
+    void testSnapshot_ReclaimsWriteUnderWayAtClose() {
+        StudentRepository repository = new StudentRepository();
+        VersionLog versions = repository.versions();
+        Student student = new Student(101, "Ali", 20);
+        repository.add(student);
+
+        StudentSnapshot snapshot = repository.snapshot();
+        long version = versions.beginWrite();
+        snapshot.close();
+        versions.record(version, 101, student);
+        assertEquals(0, versions.changedIds());
+
+        try (StudentSnapshot later = repository.snapshot()) {
+            long laterVersion = versions.beginWrite();
+            versions.record(laterVersion, 101, student);
+            assertEquals(1, versions.changedIds());
+        }
+        assertEquals(0, versions.changedIds());
+    }
+
+    /**
+     * Tests that a closed snapshot cannot be read, not even through a stream opened before.
+     */
+    @Test
+    void testSnapshot_Closed() {
+        StudentRepository repository = new StudentRepository();
+        repository.add(new Student(101, "Ali", 20));
+        repository.add(new Student(102, "Sara", 21));
+        StudentSnapshot snapshot = repository.snapshot();
+        Stream<Student> students = snapshot.stream();
+
+        snapshot.close();
+
+        assertThrows(IllegalStateException.class, () -> snapshot.find(101));
+        assertThrows(IllegalStateException.class, snapshot::stream);
+        assertThrows(IllegalStateException.class, students::toList);
+    }
+
+    /**
+     * Tests that a snapshot read while another thread keeps writing returns the same roster every time.
+     */
+    @Test
+    void testSnapshot_StableUnderConcurrentWrites() throws Exception {
+        StudentRepository repository = StudentRepository.concurrent();
+        for (int id = 1; id <= 5_000; id++) {
+            repository.add(new Student(id, "Student", 20));
+        }
+        List<String> expected = describe(repository.streamByIdRange(1, Integer.MAX_VALUE));
+        assertEquals(5_000, expected.size());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicBoolean stop = new AtomicBoolean();
+        try (StudentSnapshot snapshot = repository.snapshot()) {
+            Future<?> writer = executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(42);
+                while (!stop.get()) {
+                    int studentId = 1 + random.nextInt(6_000);
+                    switch (random.nextInt(4)) {
+                        case 0 -> repository.remove(studentId);
+                        case 1 -> repository.add(new Student(studentId, "New", 21));
+                        case 2 -> repository.update(studentId, StudentPatch.empty().withStudentName("Changed"));
+                        default -> repository.update(studentId,
+                                StudentPatch.empty().withStudentId(1 + random.nextInt(6_000)));
+                    }
+                }
+            });
+
+            while (repository.versions().changedIds() < 100) {
+                Thread.yield();
+            }
+            for (int read = 0; read < 3; read++) {
+                assertEquals(expected, describe(snapshot.stream()));
+            }
+            stop.set(true);
+            writer.get();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(0, repository.versions().changedIds());
+    }
+
+    /**
+     * Tests that a snapshot opened while other threads keep adding students streams exactly the students it finds.
+     */
+    @Test
+    void testSnapshot_StreamAgreesWithFindUnderConcurrentAdds() throws Exception {
+        StudentRepository repository = StudentRepository.concurrent();
+        int writers = 4;
+        int students = 200_000;
+        AtomicInteger nextId = new AtomicInteger(1);
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> adds = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                adds.add(executor.submit(() -> {
+                    for (int id = nextId.getAndIncrement(); id <= students; id = nextId.getAndIncrement()) {
+                        repository.add(new Student(id, "Student", 20));
+                    }
+                }));
+            }
+
+            // Read the IDs around the adds in flight, so that the scan meets them while they are written
+            do {
+                int frontier = nextId.get();
+                try (StudentSnapshot snapshot = repository.snapshot()) {
+                    Set<Integer> streamed = snapshot.streamByIdRange(frontier - 64, frontier + 64)
+                            .map(Student::getStudentId)
+                            .collect(Collectors.toSet());
+                    for (int id = frontier - 64; id <= frontier + 64; id++) {
+                        assertEquals(streamed.contains(id), snapshot.find(id).isPresent(), "Student " + id);
+                    }
+                }
+            } while (nextId.get() <= students);
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(students, repository.size());
+        assertEquals(0, repository.versions().changedIds());
+    }
+}
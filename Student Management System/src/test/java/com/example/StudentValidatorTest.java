@@ -0,0 +1,109 @@
+package com.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for the StudentValidator class.
+ */
+class StudentValidatorTest {
+
+    /**
+     * Tests name validation on strings and on UTF-8 bytes.
+     */
+    @Test
+    void testValidateName() {
+        assertNull(StudentValidator.validateName("Ali Khan"));
+        assertEquals(StudentError.EMPTY_NAME, StudentValidator.validateName(""));
+        assertEquals(StudentError.EMPTY_NAME, StudentValidator.validateName((CharSequence) null));
+        assertEquals(StudentError.EMPTY_NAME, StudentValidator.validateName("   "));
+        assertEquals(StudentError.INVALID_NAME, StudentValidator.validateName("  3 "));
+        assertEquals(StudentError.INVALID_NAME, StudentValidator.validateName("Ali3"));
+        assertEquals(StudentError.INVALID_NAME, StudentValidator.validateName("Zoë"));
+
+        byte[] row = "x,Ali Khan,Zoë,   ".getBytes(StandardCharsets.UTF_8);
+        assertNull(StudentValidator.validateName(row, 2, 10));
+        assertEquals(StudentError.EMPTY_NAME, StudentValidator.validateName(row, 2, 2));
+        assertEquals(StudentError.EMPTY_NAME, StudentValidator.validateName(row, row.length - 3, row.length));
+        assertEquals(StudentError.INVALID_NAME, StudentValidator.validateName(row, 11, row.length - 4));
+        assertEquals(StudentError.INVALID_NAME, StudentValidator.validateName(row, 0, 10));
+    }
+
+    /**
+     * Tests parsing of well-formed and malformed ints.
+     */
+    @Test
+    void testParseInt() {
+        assertEquals(42, StudentValidator.parseInt(" 42 "));
+        assertEquals(-7, StudentValidator.parseInt("-7"));
+        assertEquals(7, StudentValidator.parseInt("+7"));
+        assertEquals(Integer.MAX_VALUE, StudentValidator.parseInt("2147483647"));
+        assertEquals(Integer.MIN_VALUE, StudentValidator.parseInt("-2147483648"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("2147483648"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("99999999999"));
+        assertEquals(42, StudentValidator.parseInt("00000000042"));
+        assertEquals(0, StudentValidator.parseInt("+000000000000"));
+        assertEquals(Integer.MIN_VALUE, StudentValidator.parseInt("-0002147483648"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("0002147483648"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt(""));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("-"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("12a"));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt("1 2"));
+
+        byte[] row = "101, Ali ,20,000000000020".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(101, StudentValidator.parseInt(row, 0, 3));
+        assertEquals(20, StudentValidator.parseInt(row, 10, 12));
+        assertEquals(20, StudentValidator.parseInt(row, 13, row.length));
+        assertEquals(StudentValidator.NOT_A_NUMBER, StudentValidator.parseInt(row, 4, 9));
+    }
+
+    /**
+     * Tests that the fast paths agree with String.matches() and Integer.parseInt()
+     * on random input, a quarter of which are zero-padded numbers.
+     */
+    @Test
+    void testRandomInput_MatchesLibraryRules() {
+        Random random = new Random(42);
+        String alphabet = "aZ 09-+x.é";
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int length = random.nextInt(12); length > 0; length--) {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            String input = i % 4 == 0 ? paddedNumber(random) : text.toString();
+            byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+            StudentError expectedName = input.isBlank() ? StudentError.EMPTY_NAME
+                    : input.matches("[a-zA-Z ]+") ? null : StudentError.INVALID_NAME;
+            assertEquals(expectedName, StudentValidator.validateName(input), input);
+            assertEquals(expectedName, StudentValidator.validateName(bytes, 0, bytes.length), input);
+
+            long expectedNumber;
+            try {
+                expectedNumber = Integer.parseInt(input.strip());
+            } catch (NumberFormatException e) {
+                expectedNumber = StudentValidator.NOT_A_NUMBER;
+            }
+            assertEquals(expectedNumber, StudentValidator.parseInt(input), input);
+            assertEquals(expectedNumber, StudentValidator.parseInt(bytes, 0, bytes.length), input);
+        }
+    }
+
+    /**
+     * Returns a number of up to 11 digits with a random sign, up to 12 leading zeros and surrounding spaces.
+     */
+    private static String paddedNumber(Random random) {
+        String sign = switch (random.nextInt(3)) {
+            case 0 -> "-";
+            case 1 -> "+";
+            default -> "";
+        };
+        long digits = random.nextBoolean() ? random.nextInt(Integer.MAX_VALUE) : random.nextLong(100_000_000_000L);
+        return " ".repeat(random.nextInt(2)) + sign + "0".repeat(random.nextInt(13)) + digits + " ".repeat(random.nextInt(2));
+    }
+}